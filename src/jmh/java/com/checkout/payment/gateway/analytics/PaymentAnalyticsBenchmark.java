@@ -0,0 +1,131 @@
+package com.checkout.payment.gateway.analytics;
+
+import com.checkout.payment.gateway.enums.AnalyticsDimension;
+import com.checkout.payment.gateway.enums.PaymentStatus;
+import com.checkout.payment.gateway.model.AnalyticsQuery;
+import com.checkout.payment.gateway.model.AnalyticsReport;
+import com.checkout.payment.gateway.model.PostPaymentResponse;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Latency of typical ad-hoc reports over {@code rows} payments spread over 30 days. The scan uses
+ * every available core; compare with {@code -p parallelism=1} for the single core cost.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class PaymentAnalyticsBenchmark {
+
+  private static final long START_MILLIS = Instant.parse("2026-01-01T00:00:00Z").toEpochMilli();
+  private static final long SPAN_MILLIS = TimeUnit.DAYS.toMillis(30);
+
+  @Param("100000000")
+  private int rows;
+
+  @Param("0")
+  private int parallelism;
+
+  private PaymentAnalytics analytics;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    SteppingClock clock = new SteppingClock();
+    PaymentColumns columns = new PaymentColumns(rows, clock);
+    PostPaymentResponse payment = new PostPaymentResponse();
+    payment.setCardNumberLastFour("1234");
+    payment.setExpiryMonth(6);
+    PaymentStatus[] statuses = PaymentStatus.values();
+    String[] currencies = {"GBP", "USD", "EUR"};
+    SplittableRandom random = new SplittableRandom(42);
+    for (int row = 0; row < rows; row++) {
+      clock.millis = START_MILLIS + SPAN_MILLIS * row / rows;
+      payment.setStatus(statuses[random.nextInt(statuses.length)]);
+      payment.setCurrency(currencies[random.nextInt(currencies.length)]);
+      payment.setExpiryYear(2026 + random.nextInt(6));
+      payment.setAmount(random.nextInt(100_000));
+      columns.onStored(row, payment);
+    }
+    analytics = new PaymentAnalytics(columns,
+        new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors()));
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    analytics.shutdown();
+  }
+
+  @Benchmark
+  public AnalyticsReport totalVolume() {
+    return run(List.of(), null);
+  }
+
+  @Benchmark
+  public AnalyticsReport dailyVolumeByCurrency() {
+    return run(List.of(AnalyticsDimension.DAY, AnalyticsDimension.CURRENCY), null);
+  }
+
+  @Benchmark
+  public AnalyticsReport declineRateByExpiryYear() {
+    return run(List.of(AnalyticsDimension.EXPIRY_YEAR), null);
+  }
+
+  @Benchmark
+  public AnalyticsReport authorizedAmountHistogram() {
+    return run(List.of(AnalyticsDimension.AMOUNT_BUCKET), PaymentStatus.AUTHORIZED);
+  }
+
+  private AnalyticsReport run(List<AnalyticsDimension> groupBy, PaymentStatus status) {
+    return analytics.run(new AnalyticsQuery(status, null, null, null, null, null, groupBy, 5_000));
+  }
+
+  /**
+   * Clock whose time is set by the loader, so rows are spread over the whole span.
+   */
+  private static final class SteppingClock extends Clock {
+
+    private long millis;
+
+    @Override
+    public long millis() {
+      return millis;
+    }
+
+    @Override
+    public Instant instant() {
+      return Instant.ofEpochMilli(millis);
+    }
+
+    @Override
+    public ZoneId getZone() {
+      return ZoneOffset.UTC;
+    }
+
+    @Override
+    public Clock withZone(ZoneId zone) {
+      return this;
+    }
+  }
+}
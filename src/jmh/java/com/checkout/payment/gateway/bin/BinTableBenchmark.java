@@ -0,0 +1,72 @@
+package com.checkout.payment.gateway.bin;
+
+import com.checkout.payment.gateway.enums.CardScheme;
+import com.checkout.payment.gateway.enums.CardType;
+import com.checkout.payment.gateway.model.BinInfo;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Cost of looking up random card numbers in a table of a million issuer ranges nested in scheme
+ * ranges, and of building such a table as a reload would.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@Threads(4)
+@State(Scope.Benchmark)
+public class BinTableBenchmark {
+
+  private static final int RANGES = 1_000_000;
+  private static final int CARDS = 1 << 16;
+  private static final String[] COUNTRIES = {"GB", "US", "FR", "DE", "ES", "IT", "NL", "JP"};
+
+  private BinTable table;
+  private String[] cardNumbers;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    table = build();
+    ThreadLocalRandom random = ThreadLocalRandom.current();
+    cardNumbers = new String[CARDS];
+    for (int i = 0; i < CARDS; i++) {
+      cardNumbers[i] = String.format("%08d%08d", random.nextInt(100_000_000), random.nextInt(100_000_000));
+    }
+  }
+
+  @Benchmark
+  public BinInfo lookup() {
+    return table.lookup(cardNumbers[ThreadLocalRandom.current().nextInt(CARDS)]);
+  }
+
+  @Benchmark
+  @Threads(1)
+  @OutputTimeUnit(TimeUnit.MILLISECONDS)
+  public BinTable build() {
+    BinTable.Builder builder = new BinTable.Builder();
+    CardScheme[] schemes = CardScheme.values();
+    for (int i = 0; i < 10; i++) {
+      builder.add(i * 10_000_000, i * 10_000_000 + 9_999_999, new BinInfo(schemes[i % schemes.length], null, null));
+    }
+    // Issuer ranges of 50 eight digit BINs, one every 100
+    for (int i = 0; i < RANGES - 10; i++) {
+      builder.add(i * 100, i * 100 + 49, new BinInfo(schemes[(i / 10_000_000) % schemes.length],
+          COUNTRIES[i % COUNTRIES.length], CardType.values()[i % 3]));
+    }
+    return builder.build();
+  }
+}
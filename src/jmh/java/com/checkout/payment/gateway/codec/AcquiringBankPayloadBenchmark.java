@@ -0,0 +1,67 @@
+package com.checkout.payment.gateway.codec;
+
+import com.checkout.payment.gateway.model.PostPaymentRequest;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Serialization time and payload size of the acquiring bank request: the dedicated
+ * {@link AcquiringBankRequestEncoder} against serializing the merchant {@link PostPaymentRequest}
+ * with {@link ObjectMapper}, which is what used to be posted to the bank.
+ * Both payload sizes are printed at the end of each fork.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+@State(Scope.Benchmark)
+public class AcquiringBankPayloadBenchmark {
+
+  private AcquiringBankRequestEncoder encoder;
+  private ObjectMapper objectMapper;
+  private PostPaymentRequest request;
+
+  @Setup
+  public void setUp() {
+    encoder = new AcquiringBankRequestEncoder(new PaymentJsonCodec());
+    objectMapper = new ObjectMapper();
+    request = new PostPaymentRequest();
+    request.setCardNumber("4532015112830369");
+    request.setExpiryMonth(12);
+    request.setExpiryYear(2026);
+    request.setCurrency("GBP");
+    request.setAmount(100);
+    request.setCvv("123");
+  }
+
+  @TearDown
+  public void reportPayloadSize() throws IOException {
+    System.out.printf("%nPayload size: bank encoder %d bytes, merchant request %d bytes%n",
+        encoder.encode(request).length, objectMapper.writeValueAsBytes(request).length);
+  }
+
+  @Benchmark
+  public byte[] bankEncoder() {
+    return encoder.encode(request);
+  }
+
+  @Benchmark
+  public byte[] merchantRequestObjectMapper() throws IOException {
+    return objectMapper.writeValueAsBytes(request);
+  }
+}
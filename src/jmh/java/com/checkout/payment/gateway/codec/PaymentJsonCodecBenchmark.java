@@ -0,0 +1,94 @@
+package com.checkout.payment.gateway.codec;
+
+import com.checkout.payment.gateway.enums.PaymentStatus;
+import com.checkout.payment.gateway.model.GetPaymentResponse;
+import com.checkout.payment.gateway.model.PostPaymentRequest;
+import com.checkout.payment.gateway.model.PostPaymentResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares {@link PaymentJsonCodec} with the default {@link ObjectMapper} databinding path for
+ * the payloads handled by the payment API.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PaymentJsonCodecBenchmark {
+
+  private PaymentJsonCodec codec;
+  private ObjectMapper objectMapper;
+  private byte[] requestJson;
+  private PostPaymentResponse postResponse;
+  private GetPaymentResponse getResponse;
+
+  @Setup
+  public void setUp() {
+    codec = new PaymentJsonCodec();
+    objectMapper = new ObjectMapper();
+    requestJson = """
+        {
+          "card_number": "4532015112830369",
+          "expiry_month": 12,
+          "expiry_year": 2026,
+          "cvv": "123",
+          "amount": 100,
+          "currency": "GBP"
+        }
+        """.getBytes(StandardCharsets.UTF_8);
+    PostPaymentRequest request = new PostPaymentRequest();
+    request.setCardNumber("4532015112830369");
+    request.setExpiryMonth(12);
+    request.setExpiryYear(2026);
+    request.setCurrency("GBP");
+    request.setAmount(100);
+    postResponse = new PostPaymentResponse(UUID.randomUUID(), PaymentStatus.AUTHORIZED, request);
+    getResponse = GetPaymentResponse.from(postResponse);
+  }
+
+  @Benchmark
+  public PostPaymentRequest readRequestCodec() throws IOException {
+    return codec.readPostPaymentRequest(requestJson);
+  }
+
+  @Benchmark
+  public PostPaymentRequest readRequestObjectMapper() throws IOException {
+    return objectMapper.readValue(requestJson, PostPaymentRequest.class);
+  }
+
+  @Benchmark
+  public byte[] writePostResponseCodec() {
+    return codec.writeAsBytes(postResponse);
+  }
+
+  @Benchmark
+  public byte[] writePostResponseObjectMapper() throws IOException {
+    return objectMapper.writeValueAsBytes(postResponse);
+  }
+
+  @Benchmark
+  public byte[] writeGetResponseCodec() {
+    return codec.writeAsBytes(getResponse);
+  }
+
+  @Benchmark
+  public byte[] writeGetResponseObjectMapper() throws IOException {
+    return objectMapper.writeValueAsBytes(getResponse);
+  }
+}
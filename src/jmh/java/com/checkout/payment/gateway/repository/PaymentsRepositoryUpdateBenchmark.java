@@ -0,0 +1,74 @@
+package com.checkout.payment.gateway.repository;
+
+import com.checkout.payment.gateway.enums.PaymentStatus;
+import com.checkout.payment.gateway.model.PostPaymentResponse;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Throughput of payment updates with every thread changing a random payment out of 100k, and with
+ * every thread changing the same payment. Run with {@code -t} set to 1, 2, 4... to see how each
+ * scales with threads.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@Threads(4)
+@State(Scope.Benchmark)
+public class PaymentsRepositoryUpdateBenchmark {
+
+  private static final int PAYMENTS = 100_000;
+
+  private PaymentsRepository repository;
+  private UUID[] ids;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    repository = new PaymentsRepository(1 << 20);
+    ids = new UUID[PAYMENTS];
+    for (int i = 0; i < PAYMENTS; i++) {
+      PostPaymentResponse payment = new PostPaymentResponse();
+      payment.setId(UUID.randomUUID());
+      payment.setStatus(PaymentStatus.AUTHORIZED);
+      payment.setCardNumberLastFour(String.format("%04d", i % 10_000));
+      payment.setExpiryMonth(12);
+      payment.setExpiryYear(2030);
+      payment.setCurrency("GBP");
+      payment.setAmount(Integer.MAX_VALUE);
+      repository.add(payment);
+      ids[i] = payment.getId();
+    }
+  }
+
+  @Benchmark
+  public Object distinctPayments() {
+    UUID id = ids[ThreadLocalRandom.current().nextInt(PAYMENTS)];
+    return repository.update(id, PaymentsRepositoryUpdateBenchmark::capture);
+  }
+
+  @Benchmark
+  public Object samePayment() {
+    return repository.update(ids[0], PaymentsRepositoryUpdateBenchmark::capture);
+  }
+
+  private static PostPaymentResponse capture(PostPaymentResponse payment) {
+    payment.setStatus(PaymentStatus.CAPTURED);
+    payment.setCapturedAmount(payment.getCapturedAmount() + 1);
+    return payment;
+  }
+}
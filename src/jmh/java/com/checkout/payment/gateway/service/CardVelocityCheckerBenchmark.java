@@ -0,0 +1,55 @@
+package com.checkout.payment.gateway.service;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Cost of a velocity check on a random card out of 2M active ones, with every thread checking
+ * different cards, and of every thread checking the same card.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@Threads(4)
+@State(Scope.Benchmark)
+public class CardVelocityCheckerBenchmark {
+
+  private static final int CARDS = 2_000_000;
+
+  private CardVelocityChecker checker;
+  private String[] cardNumbers;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    checker = new CardVelocityChecker(1 << 22, 600, 0, Long.MAX_VALUE / 2);
+    cardNumbers = new String[CARDS];
+    for (int i = 0; i < CARDS; i++) {
+      cardNumbers[i] = String.format("4%015d", i);
+      checker.tryAcquire(cardNumbers[i], "GBP", 1);
+    }
+  }
+
+  @Benchmark
+  public boolean distinctCards() {
+    return checker.tryAcquire(cardNumbers[ThreadLocalRandom.current().nextInt(CARDS)], "GBP", 1);
+  }
+
+  @Benchmark
+  public boolean sameCard() {
+    return checker.tryAcquire(cardNumbers[0], "GBP", 1);
+  }
+}
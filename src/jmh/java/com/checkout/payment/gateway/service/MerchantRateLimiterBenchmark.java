@@ -0,0 +1,61 @@
+package com.checkout.payment.gateway.service;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Cost of a rate limit decision with 100k active merchants, for a random merchant per call and
+ * for a single merchant hammered by every thread, the worst case for CAS contention.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+@State(Scope.Benchmark)
+public class MerchantRateLimiterBenchmark {
+
+  private static final int MERCHANTS = 100_000;
+
+  private MerchantRateLimiter limiter;
+  private String[] apiKeys;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    limiter = new MerchantRateLimiter(1_000_000, 1_000, 300);
+    apiKeys = new String[MERCHANTS];
+    for (int i = 0; i < MERCHANTS; i++) {
+      apiKeys[i] = "merchant-" + i;
+      limiter.tryAcquire(apiKeys[i]);
+    }
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    limiter.shutdown();
+  }
+
+  @Benchmark
+  public long randomMerchant() {
+    return limiter.tryAcquire(apiKeys[ThreadLocalRandom.current().nextInt(MERCHANTS)]);
+  }
+
+  @Benchmark
+  public long singleMerchant() {
+    return limiter.tryAcquire(apiKeys[0]);
+  }
+}
@@ -0,0 +1,41 @@
+package com.checkout.payment.gateway.service;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Throughput of {@link TimeOrderedPaymentIdGenerator} against {@link UUID#randomUUID()} with
+ * many concurrent callers. Override the thread count with {@code -t} to compare scaling.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(64)
+@State(Scope.Benchmark)
+public class PaymentIdGeneratorBenchmark {
+
+  private final PaymentIdGenerator timeOrdered = new TimeOrderedPaymentIdGenerator();
+  private final PaymentIdGenerator random = new RandomPaymentIdGenerator();
+
+  @Benchmark
+  public UUID timeOrdered() {
+    return timeOrdered.nextId();
+  }
+
+  @Benchmark
+  public UUID randomUuid() {
+    return random.nextId();
+  }
+}
@@ -0,0 +1,51 @@
+package com.checkout.payment.gateway.service;
+
+import com.checkout.payment.gateway.enums.PaymentStatus;
+import com.checkout.payment.gateway.model.PaymentVolumeReport;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Throughput of {@link PaymentVolumeCounters#record} against a single shared
+ * {@link AtomicLongArray} when every caller hits the same currency and status, the worst case
+ * for contention. Override the thread count with {@code -t} to compare scaling.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(16)
+@State(Scope.Benchmark)
+public class PaymentVolumeCountersBenchmark {
+
+  private final PaymentVolumeCounters counters = new PaymentVolumeCounters();
+  private final AtomicLongArray shared = new AtomicLongArray(2);
+
+  @Benchmark
+  public void striped() {
+    counters.record(PaymentStatus.AUTHORIZED, "GBP", 100);
+  }
+
+  @Benchmark
+  public void sharedAtomic() {
+    shared.incrementAndGet(0);
+    shared.addAndGet(1, 100);
+  }
+
+  @Benchmark
+  @Threads(1)
+  public PaymentVolumeReport report() {
+    return counters.report();
+  }
+}
@@ -0,0 +1,135 @@
+package com.checkout.payment.gateway.analytics;
+
+import java.util.Arrays;
+
+/**
+ * Per-group aggregates keyed by a {@code long}, in an open addressing table of primitives so that
+ * scans do not allocate or box per row.
+ * <p>
+ * Each group holds a count and an amount sum per status followed by the minimum and maximum
+ * amount. Instances are confined to one scan task and combined with {@link #merge}.
+ * </p>
+ */
+final class GroupAccumulator {
+
+  static final int STATUSES = PaymentColumns.STATUSES.length;
+  private static final int STRIDE = 2 * STATUSES + 2;
+  private static final int MIN = 2 * STATUSES;
+  private static final int MAX = 2 * STATUSES + 1;
+
+  private long[] keys = new long[16];
+  private boolean[] used = new boolean[16];
+  private long[] values = new long[16 * STRIDE];
+  private int size;
+  private long lastKey;
+  private int lastSlot = -1;
+
+  /**
+   * Adds one payment to its group.
+   * @param status the status ordinal
+   */
+  void add(long key, int status, int amount) {
+    int base = (key == lastKey && lastSlot >= 0 ? lastSlot : slot(key)) * STRIDE;
+    values[base + status]++;
+    values[base + STATUSES + status] += amount;
+    if (amount < values[base + MIN]) {
+      values[base + MIN] = amount;
+    }
+    if (amount > values[base + MAX]) {
+      values[base + MAX] = amount;
+    }
+  }
+
+  void merge(GroupAccumulator other) {
+    for (int i = 0; i < other.used.length; i++) {
+      if (!other.used[i]) {
+        continue;
+      }
+      int base = slot(other.keys[i]) * STRIDE;
+      int otherBase = i * STRIDE;
+      for (int j = 0; j < 2 * STATUSES; j++) {
+        values[base + j] += other.values[otherBase + j];
+      }
+      values[base + MIN] = Math.min(values[base + MIN], other.values[otherBase + MIN]);
+      values[base + MAX] = Math.max(values[base + MAX], other.values[otherBase + MAX]);
+    }
+  }
+
+  /**
+   * @return the keys of all groups in ascending order
+   */
+  long[] sortedKeys() {
+    long[] sorted = new long[size];
+    int count = 0;
+    for (int i = 0; i < used.length; i++) {
+      if (used[i]) {
+        sorted[count++] = keys[i];
+      }
+    }
+    Arrays.sort(sorted);
+    return sorted;
+  }
+
+  long count(long key, int status) {
+    return values[slot(key) * STRIDE + status];
+  }
+
+  long amount(long key, int status) {
+    return values[slot(key) * STRIDE + STATUSES + status];
+  }
+
+  long min(long key) {
+    return values[slot(key) * STRIDE + MIN];
+  }
+
+  long max(long key) {
+    return values[slot(key) * STRIDE + MAX];
+  }
+
+  private int slot(long key) {
+    int mask = keys.length - 1;
+    int slot = (int) mix(key) & mask;
+    while (used[slot]) {
+      if (keys[slot] == key) {
+        lastKey = key;
+        lastSlot = slot;
+        return slot;
+      }
+      slot = (slot + 1) & mask;
+    }
+    if (size + 1 > keys.length * 3 / 4) {
+      grow();
+      return slot(key);
+    }
+    used[slot] = true;
+    keys[slot] = key;
+    values[slot * STRIDE + MIN] = Long.MAX_VALUE;
+    values[slot * STRIDE + MAX] = Long.MIN_VALUE;
+    size++;
+    lastKey = key;
+    lastSlot = slot;
+    return slot;
+  }
+
+  private void grow() {
+    long[] oldKeys = keys;
+    boolean[] oldUsed = used;
+    long[] oldValues = values;
+    keys = new long[oldKeys.length * 2];
+    used = new boolean[oldKeys.length * 2];
+    values = new long[oldKeys.length * 2 * STRIDE];
+    size = 0;
+    lastSlot = -1;
+    for (int i = 0; i < oldKeys.length; i++) {
+      if (oldUsed[i]) {
+        int slot = slot(oldKeys[i]);
+        System.arraycopy(oldValues, i * STRIDE, values, slot * STRIDE, STRIDE);
+      }
+    }
+  }
+
+  private static long mix(long key) {
+    long h = key * 0x9E3779B97F4A7C15L;
+    return h ^ (h >>> 32);
+  }
+}
@@ -0,0 +1,268 @@
+package com.checkout.payment.gateway.analytics;
+
+import com.checkout.payment.gateway.analytics.PaymentColumns.Segment;
+import com.checkout.payment.gateway.enums.AnalyticsDimension;
+import com.checkout.payment.gateway.enums.PaymentStatus;
+import com.checkout.payment.gateway.exception.ValidationException;
+import com.checkout.payment.gateway.model.AnalyticsQuery;
+import com.checkout.payment.gateway.model.AnalyticsReport;
+import com.checkout.payment.gateway.model.AnalyticsReport.Group;
+import com.checkout.payment.gateway.model.PaymentVolumeReport.StatusVolume;
+import com.checkout.payment.gateway.repository.PaymentsRepository;
+import jakarta.annotation.PreDestroy;
+import java.lang.invoke.VarHandle;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * Read-side engine for ad-hoc reports over the payment history.
+ * <p>
+ * Payments are copied into {@link PaymentColumns} as they are stored, which costs the write path
+ * a handful of array stores. Queries run as a fork-join scan on a dedicated pool: every segment
+ * is filtered and aggregated into its own {@link GroupAccumulator} and the partial results are
+ * merged pairwise on the way back up.
+ * </p>
+ */
+@Service
+public class PaymentAnalytics {
+
+  private static final Logger LOG = LoggerFactory.getLogger(PaymentAnalytics.class);
+  private static final int MAX_DIMENSIONS = 2;
+  private static final int SECONDS_PER_DAY = 86_400;
+  private static final int SECONDS_PER_HOUR = 3_600;
+
+  private final PaymentColumns columns;
+  private final ForkJoinPool pool;
+
+  @Autowired
+  public PaymentAnalytics(
+      PaymentsRepository paymentsRepository,
+      @Value("${payments.analytics.max-payments:16777216}") int maxPayments,
+      @Value("${payments.analytics.parallelism:0}") int parallelism
+  ) {
+    this(new PaymentColumns(maxPayments, Clock.systemUTC()),
+        new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors()));
+    paymentsRepository.addListener(columns);
+  }
+
+  PaymentAnalytics(PaymentColumns columns, ForkJoinPool pool) {
+    this.columns = columns;
+    this.pool = pool;
+  }
+
+  /**
+   * Runs an aggregation over every retained payment.
+   * @param query the filters and grouping
+   * @return one group per distinct key, in ascending key order
+   * @throws ValidationException if the query is invalid
+   */
+  public AnalyticsReport run(AnalyticsQuery query) {
+    Scan scan = compile(query);
+    long started = System.nanoTime();
+    List<Segment> segments = columns.segments();
+    Result result = segments.isEmpty()
+        ? new Result()
+        : pool.invoke(new ScanTask(scan, segments, 0, segments.size()));
+    long elapsedMicros = (System.nanoTime() - started) / 1_000;
+    LOG.debug("Analytics query {} scanned {} payments in {} us", query, result.scanned, elapsedMicros);
+    return new AnalyticsReport(query.getGroupBy(), groups(scan, result.groups), result.scanned,
+        result.matched, elapsedMicros);
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    pool.shutdownNow();
+  }
+
+  private static Scan compile(AnalyticsQuery query) {
+    List<AnalyticsDimension> groupBy = query.getGroupBy();
+    if (groupBy.size() > MAX_DIMENSIONS) {
+      throw new ValidationException("At most " + MAX_DIMENSIONS + " group by dimensions are supported");
+    }
+    if (groupBy.contains(AnalyticsDimension.AMOUNT_BUCKET) && query.getBucketWidth() < 1) {
+      throw new ValidationException("Bucket width must be positive");
+    }
+    int currency = -1;
+    if (query.getCurrency() != null) {
+      currency = PaymentColumns.currencyCode(query.getCurrency());
+      if (currency == PaymentColumns.OTHER_CURRENCY && !"OTHER".equalsIgnoreCase(query.getCurrency())) {
+        throw new ValidationException("Unknown currency " + query.getCurrency());
+      }
+    }
+    long from = query.getFrom() == null ? Integer.MIN_VALUE : relativeSeconds(query.getFrom());
+    long to = query.getTo() == null ? Integer.MAX_VALUE : relativeSeconds(query.getTo());
+    long minAmount = query.getMinAmount() == null ? Integer.MIN_VALUE : query.getMinAmount();
+    long maxAmount = query.getMaxAmount() == null ? Integer.MAX_VALUE : query.getMaxAmount();
+    if (from > to || minAmount > maxAmount) {
+      throw new ValidationException("Lower bounds must not exceed upper bounds");
+    }
+    return new Scan(
+        query.getStatus() == null ? 0 : query.getStatus().ordinal() + 1,
+        currency,
+        (int) Math.max(Integer.MIN_VALUE, Math.min(Integer.MAX_VALUE, from)),
+        (int) Math.max(Integer.MIN_VALUE, Math.min(Integer.MAX_VALUE, to)),
+        (int) minAmount,
+        (int) maxAmount,
+        groupBy.isEmpty() ? null : groupBy.get(0),
+        groupBy.size() < 2 ? null : groupBy.get(1),
+        query.getBucketWidth());
+  }
+
+  private static long relativeSeconds(Instant instant) {
+    return instant.getEpochSecond() - PaymentColumns.EPOCH_BASE_SECONDS;
+  }
+
+  private static List<Group> groups(Scan scan, GroupAccumulator accumulator) {
+    List<Group> groups = new ArrayList<>();
+    for (long key : accumulator.sortedKeys()) {
+      List<String> keyValues = new ArrayList<>(MAX_DIMENSIONS);
+      if (scan.first != null) {
+        keyValues.add(render(scan.first, (int) (key >> 32), scan.bucketWidth));
+      }
+      if (scan.second != null) {
+        keyValues.add(render(scan.second, (int) key ^ Integer.MIN_VALUE, scan.bucketWidth));
+      }
+      List<StatusVolume> statuses = new ArrayList<>(PaymentColumns.STATUSES.length);
+      long count = 0;
+      long amount = 0;
+      for (PaymentStatus status : PaymentColumns.STATUSES) {
+        long statusCount = accumulator.count(key, status.ordinal());
+        long statusAmount = accumulator.amount(key, status.ordinal());
+        statuses.add(new StatusVolume(status, statusCount, statusAmount));
+        count += statusCount;
+        amount += statusAmount;
+      }
+      long authorized = accumulator.count(key, PaymentStatus.AUTHORIZED.ordinal());
+      long declined = accumulator.count(key, PaymentStatus.DECLINED.ordinal());
+      Double declineRate = authorized + declined == 0 ? null : (double) declined / (authorized + declined);
+      groups.add(new Group(keyValues, count, amount, (int) accumulator.min(key),
+          (int) accumulator.max(key), statuses, declineRate));
+    }
+    return groups;
+  }
+
+  private static String render(AnalyticsDimension dimension, int value, int bucketWidth) {
+    return switch (dimension) {
+      case CURRENCY -> value == PaymentColumns.OTHER_CURRENCY ? "OTHER" : PaymentColumns.CURRENCIES[value].name();
+      case STATUS -> PaymentColumns.STATUSES[value].getName();
+      case EXPIRY_YEAR, EXPIRY_MONTH -> Integer.toString(value);
+      case DAY -> LocalDate.ofEpochDay(value).toString();
+      case HOUR -> Instant.ofEpochSecond(value * (long) SECONDS_PER_HOUR).toString();
+      case AMOUNT_BUCKET -> (long) value * bucketWidth + "-" + ((long) value * bucketWidth + bucketWidth - 1);
+    };
+  }
+
+  /**
+   * A validated query with its bounds in storage units.
+   */
+  private record Scan(int status, int currency, int from, int to, int minAmount, int maxAmount,
+      AnalyticsDimension first, AnalyticsDimension second, int bucketWidth) {
+
+    void scan(Segment segment, Result result) {
+      byte[] statuses = segment.statuses;
+      byte[] currencies = segment.currencies;
+      int[] amounts = segment.amounts;
+      int[] created = segment.createdSeconds;
+      GroupAccumulator groups = result.groups;
+      long scanned = 0;
+      long matched = 0;
+      for (int i = 0; i < PaymentColumns.SEGMENT_SIZE; i++) {
+        int rowStatus = statuses[i];
+        if (rowStatus == 0) {
+          continue;
+        }
+        // Pairs with the release store of the status in PaymentColumns.onStored
+        VarHandle.acquireFence();
+        scanned++;
+        int amount = amounts[i];
+        int createdSeconds = created[i];
+        if ((status != 0 && rowStatus != status)
+            || (currency >= 0 && currencies[i] != currency)
+            || createdSeconds < from || createdSeconds > to
+            || amount < minAmount || amount > maxAmount) {
+          continue;
+        }
+        matched++;
+        long key = first == null ? 0 : (long) value(first, segment, i) << 32;
+        if (second != null) {
+          // Flip the sign bit so that the low half sorts in signed order too
+          key |= (value(second, segment, i) ^ Integer.MIN_VALUE) & 0xFFFFFFFFL;
+        }
+        groups.add(key, rowStatus - 1, amount);
+      }
+      result.scanned += scanned;
+      result.matched += matched;
+    }
+
+    private int value(AnalyticsDimension dimension, Segment segment, int i) {
+      return switch (dimension) {
+        case CURRENCY -> segment.currencies[i];
+        case STATUS -> segment.statuses[i] - 1;
+        case EXPIRY_YEAR -> segment.expiryYears[i];
+        case EXPIRY_MONTH -> segment.expiryMonths[i];
+        case DAY -> (int) Math.floorDiv(segment.createdSeconds[i] + PaymentColumns.EPOCH_BASE_SECONDS, SECONDS_PER_DAY);
+        case HOUR -> (int) Math.floorDiv(segment.createdSeconds[i] + PaymentColumns.EPOCH_BASE_SECONDS, SECONDS_PER_HOUR);
+        case AMOUNT_BUCKET -> Math.floorDiv(segment.amounts[i], bucketWidth);
+      };
+    }
+  }
+
+  /**
+   * Partial result of a scan task.
+   */
+  private static final class Result {
+
+    private final GroupAccumulator groups = new GroupAccumulator();
+    private long scanned;
+    private long matched;
+
+    Result merge(Result other) {
+      groups.merge(other.groups);
+      scanned += other.scanned;
+      matched += other.matched;
+      return this;
+    }
+  }
+
+  /**
+   * Scans a single segment, or splits the range in half and scans both halves in parallel.
+   */
+  private static final class ScanTask extends RecursiveTask<Result> {
+
+    private final Scan scan;
+    private final List<Segment> segments;
+    private final int from;
+    private final int to;
+
+    ScanTask(Scan scan, List<Segment> segments, int from, int to) {
+      this.scan = scan;
+      this.segments = segments;
+      this.from = from;
+      this.to = to;
+    }
+
+    @Override
+    protected Result compute() {
+      if (to - from == 1) {
+        Result result = new Result();
+        scan.scan(segments.get(from), result);
+        return result;
+      }
+      int middle = (from + to) >>> 1;
+      ScanTask left = new ScanTask(scan, segments, from, middle);
+      left.fork();
+      Result right = new ScanTask(scan, segments, middle, to).compute();
+      return left.join().merge(right);
+    }
+  }
+}
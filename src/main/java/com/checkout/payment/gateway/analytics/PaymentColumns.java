@@ -0,0 +1,135 @@
+package com.checkout.payment.gateway.analytics;
+
+import com.checkout.payment.gateway.enums.PaymentStatus;
+import com.checkout.payment.gateway.enums.SupportedCurrency;
+import com.checkout.payment.gateway.model.PostPaymentResponse;
+import com.checkout.payment.gateway.repository.PaymentStoreListener;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Columnar copy of the payment history, fed from repository writes.
+ * <p>
+ * Each field is kept in its own primitive array so that scans read only the columns they need,
+ * sequentially. Rows are addressed by the repository row and grouped in segments of 65536; a ring
+ * of segments keeps the most recent {@code maxPayments} payments and a segment is replaced rather
+ * than cleared when the ring wraps.
+ * </p>
+ * <p>
+ * A write stores the other columns first and publishes the row by a release store of its status,
+ * so a scan that reads a non-zero status followed by an acquire fence sees the complete row. An
+ * update of an existing row is written in place and may be seen half applied by a concurrent scan.
+ * </p>
+ */
+final class PaymentColumns implements PaymentStoreListener {
+
+  static final int SEGMENT_BITS = 16;
+  static final int SEGMENT_SIZE = 1 << SEGMENT_BITS;
+  static final SupportedCurrency[] CURRENCIES = SupportedCurrency.values();
+  static final PaymentStatus[] STATUSES = PaymentStatus.values();
+  /** Currency code of payments in an unsupported currency. */
+  static final int OTHER_CURRENCY = CURRENCIES.length;
+  /** Creation times are stored as seconds since 2020-01-01T00:00:00Z, which fits an int until 2088. */
+  static final long EPOCH_BASE_SECONDS = 1_577_836_800L;
+
+  private static final VarHandle STATUS = MethodHandles.arrayElementVarHandle(byte[].class);
+
+  private final Clock clock;
+  private final AtomicReferenceArray<Segment> segments;
+
+  PaymentColumns(int maxPayments, Clock clock) {
+    this.clock = clock;
+    this.segments = new AtomicReferenceArray<>(Math.max(1, (maxPayments + SEGMENT_SIZE - 1) / SEGMENT_SIZE));
+  }
+
+  @Override
+  public void onStored(int row, PostPaymentResponse payment) {
+    if (payment.getStatus() == null) {
+      return;
+    }
+    Segment segment = segmentFor(row >>> SEGMENT_BITS);
+    if (segment == null) {
+      return;
+    }
+    int i = row & (SEGMENT_SIZE - 1);
+    segment.amounts[i] = payment.getAmount();
+    segment.currencies[i] = (byte) currencyCode(payment.getCurrency());
+    int month = payment.getExpiryMonth();
+    segment.expiryMonths[i] = (byte) (month >= 1 && month <= 12 ? month : 0);
+    int year = payment.getExpiryYear();
+    segment.expiryYears[i] = (char) (year > 0 && year <= Character.MAX_VALUE ? year : 0);
+    // Updates keep the original creation time
+    if ((byte) STATUS.getAcquire(segment.statuses, i) == 0) {
+      segment.createdSeconds[i] = (int) (clock.millis() / 1000 - EPOCH_BASE_SECONDS);
+    }
+    STATUS.setRelease(segment.statuses, i, (byte) (payment.getStatus().ordinal() + 1));
+  }
+
+  /**
+   * @return the segments currently retained, in no particular order
+   */
+  List<Segment> segments() {
+    List<Segment> retained = new ArrayList<>(segments.length());
+    for (int i = 0; i < segments.length(); i++) {
+      Segment segment = segments.get(i);
+      if (segment != null) {
+        retained.add(segment);
+      }
+    }
+    return retained;
+  }
+
+  /**
+   * @return the currency ordinal, or {@link #OTHER_CURRENCY} if it is not supported
+   */
+  static int currencyCode(String currency) {
+    if (currency != null) {
+      for (SupportedCurrency candidate : CURRENCIES) {
+        if (candidate.name().equalsIgnoreCase(currency)) {
+          return candidate.ordinal();
+        }
+      }
+    }
+    return OTHER_CURRENCY;
+  }
+
+  /**
+   * Returns the segment holding the given chunk of rows, replacing an older one in its slot.
+   * Returns {@code null} if the chunk has already been dropped from the ring.
+   */
+  private Segment segmentFor(int chunk) {
+    int index = chunk % segments.length();
+    while (true) {
+      Segment segment = segments.get(index);
+      if (segment != null && segment.chunk >= chunk) {
+        return segment.chunk == chunk ? segment : null;
+      }
+      Segment fresh = new Segment(chunk);
+      if (segments.compareAndSet(index, segment, fresh)) {
+        return fresh;
+      }
+    }
+  }
+
+  /**
+   * Columns of 65536 consecutive rows. A status of 0 marks a row that has not been written.
+   */
+  static final class Segment {
+
+    final int chunk;
+    final byte[] statuses = new byte[SEGMENT_SIZE];
+    final byte[] currencies = new byte[SEGMENT_SIZE];
+    final byte[] expiryMonths = new byte[SEGMENT_SIZE];
+    final char[] expiryYears = new char[SEGMENT_SIZE];
+    final int[] amounts = new int[SEGMENT_SIZE];
+    final int[] createdSeconds = new int[SEGMENT_SIZE];
+
+    Segment(int chunk) {
+      this.chunk = chunk;
+    }
+  }
+}
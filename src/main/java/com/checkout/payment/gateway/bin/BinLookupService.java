@@ -0,0 +1,153 @@
+package com.checkout.payment.gateway.bin;
+
+import com.checkout.payment.gateway.model.BinInfo;
+import com.checkout.payment.gateway.model.BinTableStats;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Identifies the scheme, issuer country and card type of card numbers from a {@link BinTable}.
+ * <p>
+ * The table is read from the CSV file at {@code payments.bin.file}, or from the scheme level
+ * ranges bundled as {@code bin-ranges.csv} when none is set. The file is checked for changes every
+ * {@code payments.bin.reload-interval-ms} and can be reloaded on demand. A new table is built
+ * beside the one in use and swapped in with a single volatile write, so lookups never wait for a
+ * reload and see either the old or the new table in full. A file that fails to load leaves the
+ * current table in place.
+ * </p>
+ */
+@Component
+public class BinLookupService {
+
+  static final String BUNDLED_RANGES = "bin-ranges.csv";
+  private static final Logger LOG = LoggerFactory.getLogger(BinLookupService.class);
+
+  private final Path file;
+  private final long reloadIntervalMillis;
+  private final LongAdder reloads = new LongAdder();
+  private final LongAdder failedReloads = new LongAdder();
+  private volatile Loaded current;
+  private ScheduledExecutorService watcher;
+  // Modification time of the file last loaded or attempted by the watcher
+  private FileTime checked;
+
+  public BinLookupService(
+      @Value("${payments.bin.file:}") String file,
+      @Value("${payments.bin.reload-interval-ms:30000}") long reloadIntervalMillis
+  ) {
+    this.file = file.isBlank() ? null : Path.of(file.trim());
+    this.reloadIntervalMillis = reloadIntervalMillis;
+    this.current = load();
+  }
+
+  @PostConstruct
+  public void start() {
+    if (file == null || reloadIntervalMillis <= 0) {
+      return;
+    }
+    checked = current.modified();
+    watcher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+      Thread thread = new Thread(runnable, "bin-table-watcher");
+      thread.setDaemon(true);
+      return thread;
+    });
+    watcher.scheduleWithFixedDelay(this::reloadIfModified, reloadIntervalMillis, reloadIntervalMillis,
+        TimeUnit.MILLISECONDS);
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    if (watcher != null) {
+      watcher.shutdownNow();
+    }
+  }
+
+  /**
+   * @param cardNumber a card number, or at least its first six digits
+   * @return what is known about the card's BIN, or {@code null} if it is in no known range
+   */
+  public BinInfo lookup(CharSequence cardNumber) {
+    return current.table().lookup(cardNumber);
+  }
+
+  /**
+   * Loads the BIN file again and swaps the new table in.
+   * @return the table now in use
+   * @throws IllegalStateException if the file cannot be loaded; the current table stays in use
+   */
+  public BinTableStats reload() {
+    try {
+      current = load();
+      reloads.increment();
+    } catch (RuntimeException e) {
+      failedReloads.increment();
+      throw new IllegalStateException("Failed to reload BIN table: " + e.getMessage(), e);
+    }
+    return stats();
+  }
+
+  public BinTableStats stats() {
+    Loaded loaded = current;
+    return new BinTableStats(file == null ? BUNDLED_RANGES : file.toString(), loaded.table().size(),
+        loaded.loadedAt(), reloads.sum(), failedReloads.sum());
+  }
+
+  private void reloadIfModified() {
+    try {
+      FileTime modified = Files.getLastModifiedTime(file);
+      if (!modified.equals(checked)) {
+        // A file that fails to load is only tried again once it changes
+        checked = modified;
+        reload();
+        LOG.info("Reloaded BIN table from {} with {} ranges", file, current.table().size());
+      }
+    } catch (IOException | RuntimeException e) {
+      LOG.warn("BIN table not reloaded: {}", e.getMessage());
+    }
+  }
+
+  private Loaded load() {
+    try {
+      if (file == null) {
+        try (InputStream in = BinLookupService.class.getClassLoader().getResourceAsStream(BUNDLED_RANGES)) {
+          if (in == null) {
+            throw new IllegalStateException(BUNDLED_RANGES + " is missing from the classpath");
+          }
+          return new Loaded(parse(in), Instant.now(), null);
+        }
+      }
+      // Read before parsing, so that a change made while parsing is picked up by the next check
+      FileTime modified = Files.getLastModifiedTime(file);
+      try (InputStream in = Files.newInputStream(file)) {
+        return new Loaded(parse(in), Instant.now(), modified);
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private static BinTable parse(InputStream in) throws IOException {
+    return BinTable.parse(new BufferedReader(new InputStreamReader(in, StandardCharsets.US_ASCII)));
+  }
+
+  private record Loaded(BinTable table, Instant loadedAt, FileTime modified) {
+  }
+}
@@ -0,0 +1,246 @@
+package com.checkout.payment.gateway.bin;
+
+import com.checkout.payment.gateway.enums.CardScheme;
+import com.checkout.payment.gateway.enums.CardType;
+import com.checkout.payment.gateway.model.BinInfo;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Immutable table of BIN ranges, keyed by the first {@value #DIGITS} digits of the card number.
+ * <p>
+ * Ranges are flattened into disjoint segments held in two sorted {@code int} arrays of bounds and
+ * an array of indexes into a palette of distinct {@link BinInfo}s, about 12 bytes per segment. A
+ * lookup parses the leading digits in place, finds the segments starting under its first
+ * {@value #PREFIX_DIGITS} digits from a small index, and binary searches only those, so it
+ * allocates nothing and touches a few cache lines rather than a whole table's worth. Ranges may
+ * nest, e.g. an issuer's BIN inside its scheme's range; the narrowest range wins. Ranges that
+ * partially overlap are rejected.
+ * </p>
+ */
+public final class BinTable {
+
+  static final int DIGITS = 8;
+  static final int PREFIX_DIGITS = 4;
+  private static final int PREFIX_SPAN = 10_000;
+  private static final int MIN_CARD_DIGITS = 6;
+
+  private final int[] lows;
+  private final int[] highs;
+  private final int[] infos;
+  private final BinInfo[] palette;
+  // prefixStarts[p] is the number of segments starting below prefix p
+  private final int[] prefixStarts;
+
+  private BinTable(int[] lows, int[] highs, int[] infos, BinInfo[] palette) {
+    this.lows = lows;
+    this.highs = highs;
+    this.infos = infos;
+    this.palette = palette;
+    this.prefixStarts = new int[PREFIX_SPAN + 1];
+    int segment = 0;
+    for (int prefix = 0; prefix <= PREFIX_SPAN; prefix++) {
+      long start = (long) prefix * PREFIX_SPAN;
+      while (segment < lows.length && lows[segment] < start) {
+        segment++;
+      }
+      prefixStarts[prefix] = segment;
+    }
+  }
+
+  /**
+   * Reads a table from CSV lines of {@code low,high,scheme,issuer_country,card_type}, where
+   * {@code low} and {@code high} are BIN prefixes of up to {@value #DIGITS} digits and the last two
+   * columns may be empty. Blank lines and lines starting with {@code #} are skipped.
+   * @throws IllegalArgumentException if a line is malformed or ranges partially overlap
+   */
+  public static BinTable parse(BufferedReader reader) throws IOException {
+    Builder builder = new Builder();
+    String line;
+    int number = 0;
+    while ((line = reader.readLine()) != null) {
+      number++;
+      line = line.strip();
+      if (line.isEmpty() || line.startsWith("#")) {
+        continue;
+      }
+      String[] columns = line.split(",", -1);
+      if (columns.length != 5) {
+        throw new IllegalArgumentException("Line " + number + ": expected 5 columns");
+      }
+      try {
+        String country = columns[3].strip();
+        String type = columns[4].strip();
+        builder.add(columns[0].strip(), columns[1].strip(), new BinInfo(
+            CardScheme.valueOf(columns[2].strip().toUpperCase(Locale.ROOT)),
+            country.isEmpty() ? null : country.toUpperCase(Locale.ROOT),
+            type.isEmpty() ? null : CardType.valueOf(type.toUpperCase(Locale.ROOT))));
+      } catch (IllegalArgumentException e) {
+        throw new IllegalArgumentException("Line " + number + ": " + e.getMessage(), e);
+      }
+    }
+    return builder.build();
+  }
+
+  /**
+   * @param cardNumber a card number, or at least its first six digits
+   * @return the attributes of the range containing the card, or {@code null} if there is none
+   */
+  public BinInfo lookup(CharSequence cardNumber) {
+    int length = cardNumber.length();
+    if (length < MIN_CARD_DIGITS) {
+      return null;
+    }
+    int key = 0;
+    for (int i = 0; i < DIGITS; i++) {
+      int digit = 0;
+      if (i < length) {
+        digit = cardNumber.charAt(i) - '0';
+        if (digit < 0 || digit > 9) {
+          return null;
+        }
+      }
+      key = key * 10 + digit;
+    }
+    int prefix = key / PREFIX_SPAN;
+    // The segment containing the key is the last one starting at or below it: either one starting
+    // under the same prefix or the last one starting below it
+    int from = Math.max(prefixStarts[prefix] - 1, 0);
+    int segment = Arrays.binarySearch(lows, from, prefixStarts[prefix + 1], key);
+    if (segment < 0) {
+      segment = -segment - 2;
+    }
+    if (segment < 0 || key > highs[segment]) {
+      return null;
+    }
+    return palette[infos[segment]];
+  }
+
+  /**
+   * @return the number of disjoint segments
+   */
+  public int size() {
+    return lows.length;
+  }
+
+  /**
+   * Collects ranges and flattens them into a table.
+   */
+  public static final class Builder {
+
+    private final List<Range> ranges = new ArrayList<>();
+    private final Map<BinInfo, Integer> paletteIndexes = new HashMap<>();
+    private final List<BinInfo> palette = new ArrayList<>();
+
+    /**
+     * @param low the first BIN of the range, extended with zeros to {@value #DIGITS} digits
+     * @param high the last BIN of the range, extended with nines to {@value #DIGITS} digits
+     */
+    public Builder add(String low, String high, BinInfo info) {
+      return add(bound(low, '0'), bound(high, '9'), info);
+    }
+
+    Builder add(int low, int high, BinInfo info) {
+      if (low > high) {
+        throw new IllegalArgumentException("Range starts after it ends: " + low + "-" + high);
+      }
+      int index = paletteIndexes.computeIfAbsent(info, key -> {
+        palette.add(key);
+        return palette.size() - 1;
+      });
+      ranges.add(new Range(low, high, index));
+      return this;
+    }
+
+    public BinTable build() {
+      List<Range> sorted = new ArrayList<>(ranges);
+      // Enclosing ranges before the ranges they contain
+      sorted.sort(Comparator.comparingInt(Range::low).thenComparing(Range::high, Comparator.reverseOrder()));
+      Segments segments = new Segments(sorted.size());
+      Deque<Range> enclosing = new ArrayDeque<>();
+      long next = 0;
+      for (Range range : sorted) {
+        while (!enclosing.isEmpty() && enclosing.peek().high() < range.low()) {
+          Range done = enclosing.pop();
+          segments.add(next, done.high(), done.info());
+          next = done.high() + 1L;
+        }
+        Range parent = enclosing.peek();
+        if (parent != null) {
+          if (range.high() > parent.high() || (range.low() == parent.low() && range.high() == parent.high())) {
+            throw new IllegalArgumentException("BIN ranges overlap: " + parent + " and " + range);
+          }
+          segments.add(next, range.low() - 1L, parent.info());
+        }
+        next = range.low();
+        enclosing.push(range);
+      }
+      while (!enclosing.isEmpty()) {
+        Range done = enclosing.pop();
+        segments.add(next, done.high(), done.info());
+        next = done.high() + 1L;
+      }
+      return new BinTable(Arrays.copyOf(segments.lows, segments.size),
+          Arrays.copyOf(segments.highs, segments.size), Arrays.copyOf(segments.infos, segments.size),
+          palette.toArray(BinInfo[]::new));
+    }
+
+    private static int bound(String bin, char fill) {
+      if (bin.isEmpty() || bin.length() > DIGITS || !bin.chars().allMatch(Character::isDigit)) {
+        throw new IllegalArgumentException("BIN must be 1 to " + DIGITS + " digits: " + bin);
+      }
+      StringBuilder padded = new StringBuilder(DIGITS).append(bin);
+      while (padded.length() < DIGITS) {
+        padded.append(fill);
+      }
+      return Integer.parseInt(padded.toString());
+    }
+  }
+
+  private record Range(int low, int high, int info) {
+  }
+
+  /**
+   * Growable parallel arrays of disjoint segments, merging adjacent segments with the same info.
+   */
+  private static final class Segments {
+    private int[] lows;
+    private int[] highs;
+    private int[] infos;
+    private int size;
+
+    Segments(int capacity) {
+      lows = new int[Math.max(capacity, 1)];
+      highs = new int[lows.length];
+      infos = new int[lows.length];
+    }
+
+    void add(long low, long high, int info) {
+      if (low > high) {
+        return;
+      }
+      if (size > 0 && infos[size - 1] == info && highs[size - 1] + 1L == low) {
+        highs[size - 1] = (int) high;
+        return;
+      }
+      if (size == lows.length) {
+        lows = Arrays.copyOf(lows, size * 2);
+        highs = Arrays.copyOf(highs, size * 2);
+        infos = Arrays.copyOf(infos, size * 2);
+      }
+      lows[size] = (int) low;
+      highs[size] = (int) high;
+      infos[size] = info;
+      size++;
+    }
+  }
+}
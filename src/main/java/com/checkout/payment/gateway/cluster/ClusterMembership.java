@@ -0,0 +1,113 @@
+package com.checkout.payment.gateway.cluster;
+
+import com.checkout.payment.gateway.exception.ValidationException;
+import com.checkout.payment.gateway.model.ClusterView;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Current set of gateway nodes sharing the payment id space, and which node owns which id.
+ * <p>
+ * Payments stay on the node that created them. After a membership change some ids map to a new
+ * owner, so the rings of the last {@value #RETAINED_RINGS} configurations are kept and lookups
+ * fall back to the owners under those when the current owner does not have the payment.
+ * </p>
+ * <p>
+ * With no nodes configured, or only this one, the gateway runs standalone and every id is local.
+ * </p>
+ */
+@Component
+public class ClusterMembership {
+
+  private static final Logger LOG = LoggerFactory.getLogger(ClusterMembership.class);
+  private static final int RETAINED_RINGS = 4;
+
+  private final String self;
+  private final int virtualNodes;
+  private volatile List<ConsistentHashRing> rings;
+
+  public ClusterMembership(
+      @Value("${payments.cluster.self-url:}") String self,
+      @Value("${payments.cluster.nodes:}") List<String> nodes,
+      @Value("${payments.cluster.virtual-nodes:128}") int virtualNodes
+  ) {
+    this.self = normalize(self);
+    this.virtualNodes = virtualNodes;
+    this.rings = List.of(ring(nodes));
+  }
+
+  /**
+   * Replaces the node list. Only the ids next to added or removed nodes change owner.
+   * @param nodes the node URLs, including this node
+   * @throws ValidationException if this node is not in the list
+   */
+  public synchronized void update(List<String> nodes) {
+    ConsistentHashRing ring = ring(nodes);
+    List<ConsistentHashRing> updated = new ArrayList<>(RETAINED_RINGS);
+    updated.add(ring);
+    for (ConsistentHashRing previous : rings) {
+      if (updated.size() < RETAINED_RINGS && !previous.nodes().equals(ring.nodes())) {
+        updated.add(previous);
+      }
+    }
+    rings = List.copyOf(updated);
+    LOG.info("Cluster membership updated to {}", ring.nodes());
+  }
+
+  public String self() {
+    return self;
+  }
+
+  /**
+   * @return {@code true} if the given id is owned by this node under the current membership
+   */
+  public boolean isLocal(UUID id) {
+    return rings.get(0).ownerOf(id).equals(self);
+  }
+
+  /**
+   * Other nodes that may hold the payment: its current owner, then its owners under previous
+   * memberships. Empty when running standalone.
+   */
+  public List<String> remoteCandidates(UUID id) {
+    Set<String> candidates = new LinkedHashSet<>();
+    for (ConsistentHashRing ring : rings) {
+      candidates.add(ring.ownerOf(id));
+    }
+    candidates.remove(self);
+    return List.copyOf(candidates);
+  }
+
+  public ClusterView view() {
+    List<ConsistentHashRing> current = rings;
+    return new ClusterView(self, current.get(0).nodes(), virtualNodes, current.size() - 1);
+  }
+
+  private ConsistentHashRing ring(List<String> nodes) {
+    Set<String> normalized = new LinkedHashSet<>();
+    for (String node : nodes) {
+      if (!node.isBlank()) {
+        normalized.add(normalize(node));
+      }
+    }
+    if (normalized.isEmpty()) {
+      normalized.add(self);
+    }
+    if (!normalized.contains(self)) {
+      throw new ValidationException("Node list must include this node " + self);
+    }
+    return new ConsistentHashRing(new ArrayList<>(normalized), virtualNodes);
+  }
+
+  private static String normalize(String url) {
+    String trimmed = url.trim();
+    return trimmed.endsWith("/") ? trimmed.substring(0, trimmed.length() - 1) : trimmed;
+  }
+}
@@ -0,0 +1,85 @@
+package com.checkout.payment.gateway.cluster;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Immutable consistent hash ring mapping payment ids to gateway nodes.
+ * <p>
+ * Every node is placed on a 64-bit ring at {@code virtualNodes} pseudo-random points and owns the
+ * ids hashing between the previous point and each of its own. Adding or removing a node therefore
+ * only moves the ids next to its points, about 1/N of them, and many virtual nodes keep the
+ * share of each node close to even.
+ * </p>
+ */
+public final class ConsistentHashRing {
+
+  private final List<String> nodes;
+  private final long[] points;
+  private final int[] owners;
+
+  /**
+   * @param nodes the node URLs, at least one
+   * @param virtualNodes the number of points per node
+   */
+  public ConsistentHashRing(List<String> nodes, int virtualNodes) {
+    if (nodes.isEmpty() || virtualNodes < 1) {
+      throw new IllegalArgumentException("A ring needs at least one node and one virtual node");
+    }
+    this.nodes = List.copyOf(nodes);
+    int size = nodes.size() * virtualNodes;
+    long[][] entries = new long[size][];
+    for (int node = 0; node < nodes.size(); node++) {
+      byte[] name = nodes.get(node).getBytes(StandardCharsets.UTF_8);
+      for (int replica = 0; replica < virtualNodes; replica++) {
+        entries[node * virtualNodes + replica] = new long[] {hash(name, replica), node};
+      }
+    }
+    Arrays.sort(entries, (a, b) -> Long.compare(a[0], b[0]));
+    this.points = new long[size];
+    this.owners = new int[size];
+    for (int i = 0; i < size; i++) {
+      points[i] = entries[i][0];
+      owners[i] = (int) entries[i][1];
+    }
+  }
+
+  public List<String> nodes() {
+    return nodes;
+  }
+
+  /**
+   * @return the node owning the given payment id
+   */
+  public String ownerOf(UUID id) {
+    long hash = mix(id.getMostSignificantBits() ^ mix(id.getLeastSignificantBits()));
+    int index = Arrays.binarySearch(points, hash);
+    if (index < 0) {
+      index = -index - 1;
+    }
+    return nodes.get(owners[index == points.length ? 0 : index]);
+  }
+
+  /**
+   * FNV-1a over the node name and replica number, finalized with {@link #mix}.
+   */
+  private static long hash(byte[] name, int replica) {
+    long hash = 0xcbf29ce484222325L;
+    for (byte b : name) {
+      hash = (hash ^ (b & 0xff)) * 0x100000001b3L;
+    }
+    hash = (hash ^ replica) * 0x100000001b3L;
+    return mix(hash);
+  }
+
+  /**
+   * SplitMix64 finalizer, spreads every input bit over the whole word.
+   */
+  private static long mix(long z) {
+    z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+    z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+    return z ^ (z >>> 31);
+  }
+}
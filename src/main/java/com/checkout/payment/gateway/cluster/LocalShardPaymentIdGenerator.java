@@ -0,0 +1,29 @@
+package com.checkout.payment.gateway.cluster;
+
+import com.checkout.payment.gateway.service.PaymentIdGenerator;
+import java.util.UUID;
+
+/**
+ * Draws ids from another generator until one is owned by this node, so a payment is stored where
+ * the ring will look for it without forwarding the POST. With N equally weighted nodes this takes
+ * N draws on average.
+ */
+public class LocalShardPaymentIdGenerator implements PaymentIdGenerator {
+
+  private final PaymentIdGenerator delegate;
+  private final ClusterMembership membership;
+
+  public LocalShardPaymentIdGenerator(PaymentIdGenerator delegate, ClusterMembership membership) {
+    this.delegate = delegate;
+    this.membership = membership;
+  }
+
+  @Override
+  public UUID nextId() {
+    UUID id = delegate.nextId();
+    while (!membership.isLocal(id)) {
+      id = delegate.nextId();
+    }
+    return id;
+  }
+}
@@ -0,0 +1,134 @@
+package com.checkout.payment.gateway.cluster;
+
+import com.checkout.payment.gateway.exception.NodeUnavailableException;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Consumer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+/**
+ * Forwards payment lookups, captures, voids and refunds to the gateway node that owns the payment.
+ * <p>
+ * Uses one shared JDK {@link HttpClient}, which keeps persistent HTTP/1.1 connections to every
+ * node in a pool, so a forwarded lookup normally costs one round trip on a warm connection.
+ * Forwarded requests carry {@value #FORWARDED_HEADER} and are always answered locally by the
+ * receiving node, so a request is forwarded at most once.
+ * </p>
+ */
+@Component
+public class PaymentForwarder {
+
+  public static final String FORWARDED_HEADER = "X-Gateway-Forwarded";
+  private static final Logger LOG = LoggerFactory.getLogger(PaymentForwarder.class);
+
+  private final ClusterMembership membership;
+  private final HttpClient httpClient;
+  private final Duration timeout;
+
+  public PaymentForwarder(
+      ClusterMembership membership,
+      @Value("${payments.cluster.forward-timeout-ms:2000}") long timeoutMillis
+  ) {
+    this.membership = membership;
+    this.timeout = Duration.ofMillis(timeoutMillis);
+    this.httpClient = HttpClient.newBuilder()
+        .version(HttpClient.Version.HTTP_1_1)
+        .connectTimeout(timeout)
+        .build();
+  }
+
+  /**
+   * Looks the payment up on the other nodes that may hold it, current owner first.
+   * @param id the payment id
+   * @param ifNoneMatch the client's {@code If-None-Match} header, may be {@code null}
+   * @return the first found response, relayed with its status, ETag and body, or empty if no node
+   *     has the payment
+   * @throws NodeUnavailableException if no node has the payment and at least one could not be
+   *     reached
+   */
+  public Optional<ResponseEntity<byte[]>> forwardGet(UUID id, String ifNoneMatch) {
+    return forward(id, "", request -> {
+      request.GET();
+      if (ifNoneMatch != null) {
+        request.header(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+      }
+    });
+  }
+
+  /**
+   * Sends a capture, void or refund to the other nodes that may hold the payment, current owner
+   * first. A node that could not be reached is not retried, as it may have applied the operation.
+   * @param id the payment id
+   * @param operation the operation path under the payment, e.g. {@code captures}
+   * @param amount the amount to capture or refund, {@code null} for all that is left
+   * @return the response of the node holding the payment, relayed with its status and body, or
+   *     empty if no node has the payment
+   * @throws NodeUnavailableException if no node has the payment and at least one could not be
+   *     reached
+   */
+  public Optional<ResponseEntity<byte[]>> forwardPost(UUID id, String operation, Integer amount) {
+    return forward(id, "/" + operation, request -> {
+      if (amount == null) {
+        request.POST(HttpRequest.BodyPublishers.noBody());
+      } else {
+        request.header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+            .POST(HttpRequest.BodyPublishers.ofString("{\"amount\":" + amount + "}"));
+      }
+    });
+  }
+
+  private Optional<ResponseEntity<byte[]>> forward(UUID id, String path, Consumer<HttpRequest.Builder> method) {
+    List<String> candidates = membership.remoteCandidates(id);
+    Exception failure = null;
+    for (String node : candidates) {
+      HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(node + "/payments/" + id + path))
+          .timeout(timeout)
+          .header(FORWARDED_HEADER, membership.self());
+      method.accept(request);
+      try {
+        HttpResponse<byte[]> response = httpClient.send(request.build(), HttpResponse.BodyHandlers.ofByteArray());
+        if (response.statusCode() == HttpStatus.NOT_FOUND.value()) {
+          continue;
+        }
+        LOG.debug("Payment {} served by node {}", id, node);
+        return Optional.of(relay(response));
+      } catch (IOException e) {
+        LOG.warn("Node {} unreachable while forwarding payment {}: {}", node, id, e.getMessage());
+        failure = e;
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new NodeUnavailableException("Interrupted while forwarding to " + node, e);
+      }
+    }
+    if (failure != null) {
+      throw new NodeUnavailableException("Owning node unavailable", failure);
+    }
+    return Optional.empty();
+  }
+
+  private static ResponseEntity<byte[]> relay(HttpResponse<byte[]> response) {
+    ResponseEntity.BodyBuilder builder = ResponseEntity.status(response.statusCode());
+    response.headers().firstValue(HttpHeaders.ETAG).ifPresent(builder::eTag);
+    if (response.statusCode() == HttpStatus.NOT_MODIFIED.value()) {
+      return builder.build();
+    }
+    response.headers().firstValue(HttpHeaders.CONTENT_TYPE)
+        .map(MediaType::parseMediaType)
+        .ifPresent(builder::contentType);
+    return builder.body(response.body());
+  }
+}
@@ -0,0 +1,453 @@
+package com.checkout.payment.gateway.codec;
+
+import com.checkout.payment.gateway.enums.PaymentStatus;
+import com.checkout.payment.gateway.model.GetPaymentResponse;
+import com.checkout.payment.gateway.model.OutboxEvent;
+import com.checkout.payment.gateway.model.PaymentWebhookEvent;
+import com.checkout.payment.gateway.model.PostAcquiringBankRequest;
+import com.checkout.payment.gateway.model.PostAcquiringBankResponse;
+import com.checkout.payment.gateway.model.PostPaymentRequest;
+import com.checkout.payment.gateway.model.PostPaymentResponse;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.core.util.ByteArrayBuilder;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.UUID;
+import org.springframework.stereotype.Component;
+
+/**
+ * Hand-written streaming JSON codec for the payment API and acquiring bank payloads.
+ * <p>
+ * Reads and writes go straight between the raw bytes and the model objects through
+ * {@link JsonParser}/{@link JsonGenerator}, avoiding reflective databinding. Property names and
+ * coercion rules mirror what Jackson databinding produces for the same models, so the wire format
+ * is unchanged: unknown properties are ignored, numbers are accepted for string fields and numeric
+ * strings for integer fields.
+ * </p>
+ */
+@Component
+public class PaymentJsonCodec {
+
+  // Pre-encoded property names, written without per-call character escaping
+  private static final SerializedString ID = new SerializedString("id");
+  private static final SerializedString STATUS = new SerializedString("status");
+  private static final SerializedString CARD_NUMBER = new SerializedString("card_number");
+  private static final SerializedString CARD_NUMBER_LAST_FOUR =
+      new SerializedString("card_number_last_four");
+  private static final SerializedString CARD_NUMBER_LAST_FOUR_CAMEL =
+      new SerializedString("cardNumberLastFour");
+  private static final SerializedString EXPIRY_MONTH = new SerializedString("expiry_month");
+  private static final SerializedString EXPIRY_MONTH_CAMEL = new SerializedString("expiryMonth");
+  private static final SerializedString EXPIRY_YEAR = new SerializedString("expiry_year");
+  private static final SerializedString EXPIRY_YEAR_CAMEL = new SerializedString("expiryYear");
+  private static final SerializedString EXPIRY_DATE = new SerializedString("expiry_date");
+  private static final SerializedString CURRENCY = new SerializedString("currency");
+  private static final SerializedString AMOUNT = new SerializedString("amount");
+  private static final SerializedString CAPTURED_AMOUNT = new SerializedString("captured_amount");
+  private static final SerializedString CAPTURED_AMOUNT_CAMEL = new SerializedString("capturedAmount");
+  private static final SerializedString REFUNDED_AMOUNT = new SerializedString("refunded_amount");
+  private static final SerializedString REFUNDED_AMOUNT_CAMEL = new SerializedString("refundedAmount");
+  private static final SerializedString CVV = new SerializedString("cvv");
+  private static final SerializedString CARD_TOKEN = new SerializedString("card_token");
+  private static final SerializedString TYPE = new SerializedString("type");
+  private static final SerializedString CREATED_AT = new SerializedString("created_at");
+  private static final SerializedString PAYMENT = new SerializedString("payment");
+  private static final SerializedString SEQUENCE = new SerializedString("sequence");
+  private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+  private final JsonFactory jsonFactory;
+
+  public PaymentJsonCodec() {
+    this(new JsonFactory());
+  }
+
+  public PaymentJsonCodec(JsonFactory jsonFactory) {
+    this.jsonFactory = jsonFactory;
+  }
+
+  /**
+   * Checks whether the codec can read the given type.
+   * @param type the target type
+   * @return {@code true} if supported; {@code false} otherwise
+   */
+  public boolean canRead(Class<?> type) {
+    return type == PostPaymentRequest.class || type == PostAcquiringBankResponse.class;
+  }
+
+  /**
+   * Checks whether the codec can write the given type.
+   * @param type the source type
+   * @return {@code true} if supported; {@code false} otherwise
+   */
+  public boolean canWrite(Class<?> type) {
+    return type == PostPaymentResponse.class
+        || type == GetPaymentResponse.class
+        || type == PostAcquiringBankRequest.class;
+  }
+
+  /**
+   * Reads one of the supported types from the given stream.
+   * @param type the target type
+   * @param in the JSON input
+   * @return the decoded object, or {@code null} for a JSON {@code null} body
+   * @throws IOException if the input is not valid JSON for the type
+   */
+  public Object read(Class<?> type, InputStream in) throws IOException {
+    try (JsonParser parser = jsonFactory.createParser(in)) {
+      if (type == PostPaymentRequest.class) {
+        return readPostPaymentRequest(parser);
+      }
+      if (type == PostAcquiringBankResponse.class) {
+        return readAcquiringBankResponse(parser);
+      }
+    }
+    throw new IllegalArgumentException("Unsupported type " + type.getName());
+  }
+
+  /**
+   * Writes one of the supported types to the given stream.
+   * @param value the object to encode
+   * @param out the JSON output
+   * @throws IOException if writing fails
+   */
+  public void write(Object value, OutputStream out) throws IOException {
+    try (JsonGenerator generator = jsonFactory.createGenerator(out, JsonEncoding.UTF8)) {
+      if (value instanceof PostPaymentResponse response) {
+        writePostPaymentResponse(response, generator);
+      } else if (value instanceof GetPaymentResponse response) {
+        writeGetPaymentResponse(response, generator);
+      } else if (value instanceof PostAcquiringBankRequest request) {
+        writeAcquiringBankRequest(request, generator);
+      } else {
+        throw new IllegalArgumentException("Unsupported type " + value.getClass().getName());
+      }
+    }
+  }
+
+  /**
+   * Encodes the value into a new byte array.
+   * @param value the object to encode
+   * @return the UTF-8 JSON bytes
+   */
+  public byte[] writeAsBytes(Object value) {
+    // Same recycled buffers ObjectMapper.writeValueAsBytes uses
+    ByteArrayBuilder out = new ByteArrayBuilder(jsonFactory._getBufferRecycler());
+    try {
+      write(value, out);
+      return out.toByteArray();
+    } catch (IOException e) {
+      // Cannot happen for an in-memory stream
+      throw new IllegalStateException("Failed to encode " + value.getClass().getSimpleName(), e);
+    } finally {
+      out.release();
+    }
+  }
+
+  /**
+   * Encodes a batch of webhook events as a JSON array.
+   * @param events the events to send in one request
+   * @return the UTF-8 JSON bytes
+   */
+  public byte[] writeWebhookEvents(List<PaymentWebhookEvent> events) {
+    ByteArrayBuilder out = new ByteArrayBuilder(jsonFactory._getBufferRecycler());
+    try {
+      try (JsonGenerator generator = jsonFactory.createGenerator(out, JsonEncoding.UTF8)) {
+        generator.writeStartArray();
+        for (PaymentWebhookEvent event : events) {
+          generator.writeStartObject();
+          writeUuid(generator, ID, event.getId());
+          writeString(generator, TYPE, event.getType());
+          writeString(generator, CREATED_AT, event.getCreatedAt().toString());
+          generator.writeFieldName(PAYMENT);
+          writePostPaymentResponse(event.getPayment(), generator);
+          generator.writeEndObject();
+        }
+        generator.writeEndArray();
+      }
+      return out.toByteArray();
+    } catch (IOException e) {
+      // Cannot happen for an in-memory stream
+      throw new IllegalStateException("Failed to encode webhook events", e);
+    } finally {
+      out.release();
+    }
+  }
+
+  /**
+   * Writes outbox events as a JSON array.
+   */
+  public byte[] writeOutboxEvents(List<OutboxEvent> events) {
+    return writeOutboxEvents(events, false);
+  }
+
+  /**
+   * Writes outbox events as newline delimited JSON, one event per line.
+   */
+  public byte[] writeOutboxEventLines(List<OutboxEvent> events) {
+    return writeOutboxEvents(events, true);
+  }
+
+  private byte[] writeOutboxEvents(List<OutboxEvent> events, boolean lines) {
+    ByteArrayBuilder out = new ByteArrayBuilder(jsonFactory._getBufferRecycler());
+    try {
+      try (JsonGenerator generator = jsonFactory.createGenerator(out, JsonEncoding.UTF8)) {
+        generator.setRootValueSeparator(null);
+        if (!lines) {
+          generator.writeStartArray();
+        }
+        for (OutboxEvent event : events) {
+          generator.writeStartObject();
+          writeUuid(generator, ID, event.getId());
+          generator.writeFieldName(SEQUENCE);
+          generator.writeNumber(event.getSequence());
+          writeString(generator, TYPE, event.getType());
+          writeString(generator, CREATED_AT, event.getCreatedAt().toString());
+          generator.writeFieldName(PAYMENT);
+          writePostPaymentResponse(event.getPayment(), generator);
+          generator.writeEndObject();
+          if (lines) {
+            generator.writeRaw('\n');
+          }
+        }
+        if (!lines) {
+          generator.writeEndArray();
+        }
+      }
+      return out.toByteArray();
+    } catch (IOException e) {
+      // Cannot happen for an in-memory stream
+      throw new IllegalStateException("Failed to encode outbox events", e);
+    } finally {
+      out.release();
+    }
+  }
+
+  public PostPaymentRequest readPostPaymentRequest(byte[] json) throws IOException {
+    try (JsonParser parser = jsonFactory.createParser(json)) {
+      return readPostPaymentRequest(parser);
+    }
+  }
+
+  PostPaymentRequest readPostPaymentRequest(JsonParser parser) throws IOException {
+    if (!startObject(parser)) {
+      return null;
+    }
+    PostPaymentRequest request = new PostPaymentRequest();
+    String field;
+    while ((field = parser.nextFieldName()) != null) {
+      parser.nextToken();
+      switch (field) {
+        case "card_number" -> request.setCardNumber(readString(parser));
+        case "card_token" -> request.setCardToken(readString(parser));
+        case "expiry_month" -> request.setExpiryMonth(readInt(parser));
+        case "expiry_year" -> request.setExpiryYear(readInt(parser));
+        case "currency" -> request.setCurrency(readString(parser));
+        case "amount" -> request.setAmount(readInt(parser));
+        case "cvv" -> request.setCvv(readString(parser));
+        default -> parser.skipChildren();
+      }
+    }
+    endObject(parser);
+    return request;
+  }
+
+  PostAcquiringBankResponse readAcquiringBankResponse(JsonParser parser) throws IOException {
+    if (!startObject(parser)) {
+      return null;
+    }
+    PostAcquiringBankResponse response = new PostAcquiringBankResponse();
+    String field;
+    while ((field = parser.nextFieldName()) != null) {
+      parser.nextToken();
+      switch (field) {
+        case "authorized" -> response.setAuthorized(readBoolean(parser));
+        case "authorization_code" -> response.setAuthorizationCode(readString(parser));
+        default -> parser.skipChildren();
+      }
+    }
+    endObject(parser);
+    return response;
+  }
+
+  void writePostPaymentResponse(PostPaymentResponse response, JsonGenerator generator)
+      throws IOException {
+    generator.writeStartObject();
+    writeUuid(generator, ID, response.getId());
+    writeStatus(generator, response.getStatus());
+    writeString(generator, CARD_NUMBER_LAST_FOUR, response.getCardNumberLastFour());
+    writeInt(generator, EXPIRY_MONTH, response.getExpiryMonth());
+    writeInt(generator, EXPIRY_YEAR, response.getExpiryYear());
+    writeString(generator, CURRENCY, response.getCurrency());
+    writeInt(generator, AMOUNT, response.getAmount());
+    writeNonZero(generator, CAPTURED_AMOUNT, response.getCapturedAmount());
+    writeNonZero(generator, REFUNDED_AMOUNT, response.getRefundedAmount());
+    if (response.getCardToken() != null) {
+      writeString(generator, CARD_TOKEN, response.getCardToken());
+    }
+    generator.writeEndObject();
+  }
+
+  void writeGetPaymentResponse(GetPaymentResponse response, JsonGenerator generator)
+      throws IOException {
+    generator.writeStartObject();
+    writeUuid(generator, ID, response.getId());
+    writeStatus(generator, response.getStatus());
+    writeString(generator, CARD_NUMBER_LAST_FOUR_CAMEL, response.getCardNumberLastFour());
+    writeInt(generator, EXPIRY_MONTH_CAMEL, response.getExpiryMonth());
+    writeInt(generator, EXPIRY_YEAR_CAMEL, response.getExpiryYear());
+    writeString(generator, CURRENCY, response.getCurrency());
+    writeInt(generator, AMOUNT, response.getAmount());
+    writeNonZero(generator, CAPTURED_AMOUNT_CAMEL, response.getCapturedAmount());
+    writeNonZero(generator, REFUNDED_AMOUNT_CAMEL, response.getRefundedAmount());
+    generator.writeEndObject();
+  }
+
+  void writeAcquiringBankRequest(PostAcquiringBankRequest request, JsonGenerator generator)
+      throws IOException {
+    generator.writeStartObject();
+    writeString(generator, CARD_NUMBER, request.getCardNumber());
+    writeString(generator, EXPIRY_DATE, request.getExpiryDate());
+    writeString(generator, CURRENCY, request.getCurrency());
+    writeInt(generator, AMOUNT, request.getAmount());
+    writeString(generator, CVV, request.getCvv());
+    generator.writeEndObject();
+  }
+
+  private static void writeString(JsonGenerator generator, SerializedString name, String value)
+      throws IOException {
+    generator.writeFieldName(name);
+    generator.writeString(value);
+  }
+
+  private static void writeInt(JsonGenerator generator, SerializedString name, int value)
+      throws IOException {
+    generator.writeFieldName(name);
+    generator.writeNumber(value);
+  }
+
+  /**
+   * Writes the value unless it is zero, as {@code JsonInclude.Include.NON_DEFAULT} does.
+   */
+  private static void writeNonZero(JsonGenerator generator, SerializedString name, int value)
+      throws IOException {
+    if (value != 0) {
+      writeInt(generator, name, value);
+    }
+  }
+
+  private static void writeUuid(JsonGenerator generator, SerializedString name, UUID id)
+      throws IOException {
+    generator.writeFieldName(name);
+    if (id == null) {
+      generator.writeNull();
+      return;
+    }
+    // Formats the canonical 8-4-4-4-12 form straight into a char buffer, skipping UUID.toString()
+    char[] chars = new char[36];
+    long msb = id.getMostSignificantBits();
+    long lsb = id.getLeastSignificantBits();
+    appendHex(chars, 0, msb >>> 32, 8);
+    chars[8] = '-';
+    appendHex(chars, 9, msb >>> 16, 4);
+    chars[13] = '-';
+    appendHex(chars, 14, msb, 4);
+    chars[18] = '-';
+    appendHex(chars, 19, lsb >>> 48, 4);
+    chars[23] = '-';
+    appendHex(chars, 24, lsb, 12);
+    generator.writeString(chars, 0, chars.length);
+  }
+
+  private static void appendHex(char[] chars, int offset, long value, int digits) {
+    for (int i = offset + digits - 1; i >= offset; i--) {
+      chars[i] = HEX[(int) (value & 0xF)];
+      value >>>= 4;
+    }
+  }
+
+  private static void writeStatus(JsonGenerator generator, PaymentStatus status) throws IOException {
+    generator.writeFieldName(STATUS);
+    if (status == null) {
+      generator.writeNull();
+    } else {
+      generator.writeString(status.getName());
+    }
+  }
+
+  /**
+   * Positions the parser on the root object.
+   * @return {@code false} if the body is a JSON {@code null}
+   */
+  private static boolean startObject(JsonParser parser) throws IOException {
+    JsonToken token = parser.nextToken();
+    if (token == JsonToken.VALUE_NULL) {
+      return false;
+    }
+    if (token != JsonToken.START_OBJECT) {
+      throw new JsonParseException(parser, "Expected a JSON object but found " + token);
+    }
+    return true;
+  }
+
+  private static void endObject(JsonParser parser) throws IOException {
+    if (parser.currentToken() != JsonToken.END_OBJECT) {
+      throw new JsonParseException(parser, "Expected end of object");
+    }
+  }
+
+  private static String readString(JsonParser parser) throws IOException {
+    JsonToken token = parser.currentToken();
+    if (token == JsonToken.VALUE_NULL) {
+      return null;
+    }
+    if (token.isScalarValue()) {
+      return parser.getText();
+    }
+    throw new JsonParseException(parser, "Expected a string for '" + parser.currentName() + "'");
+  }
+
+  private static int readInt(JsonParser parser) throws IOException {
+    switch (parser.currentToken()) {
+      case VALUE_NUMBER_INT:
+        return parser.getIntValue();
+      case VALUE_NUMBER_FLOAT:
+        return (int) parser.getDoubleValue();
+      case VALUE_NULL:
+        return 0;
+      case VALUE_STRING:
+        String text = parser.getText().trim();
+        if (text.isEmpty()) {
+          return 0;
+        }
+        try {
+          return Integer.parseInt(text);
+        } catch (NumberFormatException e) {
+          throw new JsonParseException(parser, "Expected a number for '" + parser.currentName() + "'", e);
+        }
+      default:
+        throw new JsonParseException(parser, "Expected a number for '" + parser.currentName() + "'");
+    }
+  }
+
+  private static boolean readBoolean(JsonParser parser) throws IOException {
+    switch (parser.currentToken()) {
+      case VALUE_TRUE:
+        return true;
+      case VALUE_FALSE:
+      case VALUE_NULL:
+        return false;
+      case VALUE_STRING:
+        return Boolean.parseBoolean(parser.getText().trim());
+      default:
+        throw new JsonParseException(parser, "Expected a boolean for '" + parser.currentName() + "'");
+    }
+  }
+}
@@ -0,0 +1,57 @@
+package com.checkout.payment.gateway.codec;
+
+import java.io.IOException;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.stereotype.Component;
+
+/**
+ * Message converter backed by {@link PaymentJsonCodec}.
+ * <p>
+ * Registered as a bean, Spring Boot places it ahead of the default Jackson converter for both
+ * Spring MVC and {@code RestTemplateBuilder} built clients. Types the codec does not handle fall
+ * through to the default converters.
+ * </p>
+ */
+@Component
+public class PaymentJsonHttpMessageConverter extends AbstractHttpMessageConverter<Object> {
+
+  private final PaymentJsonCodec codec;
+
+  public PaymentJsonHttpMessageConverter(PaymentJsonCodec codec) {
+    super(MediaType.APPLICATION_JSON, new MediaType("application", "*+json"));
+    this.codec = codec;
+  }
+
+  @Override
+  protected boolean supports(Class<?> clazz) {
+    return codec.canRead(clazz) || codec.canWrite(clazz);
+  }
+
+  @Override
+  public boolean canRead(Class<?> clazz, MediaType mediaType) {
+    return codec.canRead(clazz) && canRead(mediaType);
+  }
+
+  @Override
+  public boolean canWrite(Class<?> clazz, MediaType mediaType) {
+    return codec.canWrite(clazz) && canWrite(mediaType);
+  }
+
+  @Override
+  protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage) throws IOException {
+    try {
+      return codec.read(clazz, inputMessage.getBody());
+    } catch (IOException e) {
+      throw new HttpMessageNotReadableException("JSON parse error: " + e.getMessage(), e, inputMessage);
+    }
+  }
+
+  @Override
+  protected void writeInternal(Object value, HttpOutputMessage outputMessage) throws IOException {
+    codec.write(value, outputMessage.getBody());
+  }
+}
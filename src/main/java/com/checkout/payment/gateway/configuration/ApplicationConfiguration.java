@@ -1,6 +1,19 @@
 package com.checkout.payment.gateway.configuration;
 
+import com.checkout.payment.gateway.cluster.ClusterMembership;
+import com.checkout.payment.gateway.cluster.LocalShardPaymentIdGenerator;
+import com.checkout.payment.gateway.codec.PaymentJsonCodec;
+import com.checkout.payment.gateway.outbox.FileOutboxSink;
+import com.checkout.payment.gateway.outbox.HttpOutboxSink;
+import com.checkout.payment.gateway.service.PaymentIdGenerator;
+import com.checkout.payment.gateway.service.RandomPaymentIdGenerator;
+import com.checkout.payment.gateway.service.TimeOrderedPaymentIdGenerator;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Path;
 import java.time.Duration;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -16,4 +29,48 @@ public class ApplicationConfiguration {
         .setReadTimeout(Duration.ofMillis(10000))
         .build();
   }
+
+  /**
+   * Payment id strategy, selected with {@code payments.id-generator}: {@code time-ordered} (UUIDv7,
+   * the default) or {@code random} (UUIDv4). Ids are restricted to those owned by this node.
+   */
+  @Bean
+  public PaymentIdGenerator paymentIdGenerator(
+      @Value("${payments.id-generator:time-ordered}") String generator,
+      ClusterMembership clusterMembership
+  ) {
+    PaymentIdGenerator ids = switch (generator) {
+      case "time-ordered" -> new TimeOrderedPaymentIdGenerator();
+      case "random" -> new RandomPaymentIdGenerator();
+      default -> throw new IllegalArgumentException("Unknown payment id generator: " + generator);
+    };
+    return new LocalShardPaymentIdGenerator(ids, clusterMembership);
+  }
+
+  /**
+   * Outbox sink appending to {@code payments.outbox.file}, selected with
+   * {@code payments.outbox.sink=file}.
+   */
+  @Bean
+  @ConditionalOnProperty(name = "payments.outbox.sink", havingValue = "file")
+  public FileOutboxSink fileOutboxSink(
+      @Value("${payments.outbox.file:payment-outbox.ndjson}") Path file,
+      PaymentJsonCodec paymentJsonCodec
+  ) throws IOException {
+    return new FileOutboxSink(file, paymentJsonCodec);
+  }
+
+  /**
+   * Outbox sink posting to {@code payments.outbox.url}, selected with
+   * {@code payments.outbox.sink=http}.
+   */
+  @Bean
+  @ConditionalOnProperty(name = "payments.outbox.sink", havingValue = "http")
+  public HttpOutboxSink httpOutboxSink(
+      @Value("${payments.outbox.url}") URI url,
+      @Value("${payments.outbox.timeout-ms:5000}") long timeoutMillis,
+      PaymentJsonCodec paymentJsonCodec
+  ) {
+    return new HttpOutboxSink(url, paymentJsonCodec, Duration.ofMillis(timeoutMillis));
+  }
 }
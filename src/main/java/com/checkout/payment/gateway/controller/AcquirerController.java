@@ -0,0 +1,28 @@
+package com.checkout.payment.gateway.controller;
+
+import com.checkout.payment.gateway.model.AcquirerStats;
+import com.checkout.payment.gateway.routing.AcquirerRouter;
+import java.util.List;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Acquirer health used by payment routing. Not part of the merchant facing API.
+ */
+@RestController
+@RequestMapping("/internal/acquirers")
+public class AcquirerController {
+
+  private final AcquirerRouter acquirerRouter;
+
+  public AcquirerController(AcquirerRouter acquirerRouter) {
+    this.acquirerRouter = acquirerRouter;
+  }
+
+  @GetMapping
+  public ResponseEntity<List<AcquirerStats>> getStats() {
+    return ResponseEntity.ok(acquirerRouter.stats());
+  }
+}
@@ -0,0 +1,51 @@
+package com.checkout.payment.gateway.controller;
+
+import com.checkout.payment.gateway.bin.BinLookupService;
+import com.checkout.payment.gateway.exception.EventProcessingException;
+import com.checkout.payment.gateway.model.BinInfo;
+import com.checkout.payment.gateway.model.BinTableStats;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * BIN table lookups and reloads. Not part of the merchant facing API.
+ */
+@RestController
+@RequestMapping("/internal/bins")
+public class BinController {
+
+  private final BinLookupService binLookupService;
+
+  public BinController(BinLookupService binLookupService) {
+    this.binLookupService = binLookupService;
+  }
+
+  @GetMapping
+  public ResponseEntity<BinTableStats> getStats() {
+    return ResponseEntity.ok(binLookupService.stats());
+  }
+
+  /**
+   * @param bin the first 6 to 8 digits of a card number
+   */
+  @GetMapping("/{bin}")
+  public ResponseEntity<BinInfo> lookup(@PathVariable String bin) {
+    if (bin.length() > 8) {
+      throw new EventProcessingException("Invalid BIN");
+    }
+    BinInfo info = binLookupService.lookup(bin);
+    if (info == null) {
+      throw new EventProcessingException("Unknown BIN");
+    }
+    return ResponseEntity.ok(info);
+  }
+
+  @PostMapping("/reload")
+  public ResponseEntity<BinTableStats> reload() {
+    return ResponseEntity.ok(binLookupService.reload());
+  }
+}
@@ -0,0 +1,74 @@
+package com.checkout.payment.gateway.controller;
+
+import com.checkout.payment.gateway.cluster.ClusterMembership;
+import com.checkout.payment.gateway.model.ClusterView;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Cluster membership administration. Not part of the merchant facing API.
+ * <p>
+ * The node list decides where lookups and payment operations are forwarded, so changing it takes
+ * the shared secret {@code payments.cluster.admin-token} in the {@value #ADMIN_TOKEN_HEADER}
+ * header. Without a configured token the node list can only be set at startup.
+ * </p>
+ */
+@RestController
+@RequestMapping("/internal/cluster")
+public class ClusterController {
+
+  public static final String ADMIN_TOKEN_HEADER = "X-Cluster-Token";
+  private static final Logger LOG = LoggerFactory.getLogger(ClusterController.class);
+
+  private final ClusterMembership clusterMembership;
+  private final byte[] adminToken;
+
+  public ClusterController(
+      ClusterMembership clusterMembership,
+      @Value("${payments.cluster.admin-token:}") String adminToken
+  ) {
+    this.clusterMembership = clusterMembership;
+    this.adminToken = adminToken.getBytes(StandardCharsets.UTF_8);
+  }
+
+  @GetMapping
+  public ResponseEntity<ClusterView> getCluster() {
+    return ResponseEntity.ok(clusterMembership.view());
+  }
+
+  /**
+   * Replaces the node list of this node. Send the same list to every node.
+   * @return the new membership, or {@code 403} if the admin token is missing, wrong or not
+   *     configured
+   */
+  @PutMapping("/nodes")
+  public ResponseEntity<ClusterView> updateNodes(
+      @RequestBody List<String> nodes,
+      @RequestHeader(value = ADMIN_TOKEN_HEADER, required = false) String token
+  ) {
+    if (!authorized(token)) {
+      LOG.warn("Refused cluster membership change without a valid admin token");
+      return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+    }
+    clusterMembership.update(nodes);
+    return ResponseEntity.ok(clusterMembership.view());
+  }
+
+  private boolean authorized(String token) {
+    // Constant time, so the token cannot be guessed byte by byte from response times
+    return adminToken.length > 0 && token != null
+        && MessageDigest.isEqual(adminToken, token.getBytes(StandardCharsets.UTF_8));
+  }
+}
@@ -0,0 +1,27 @@
+package com.checkout.payment.gateway.controller;
+
+import com.checkout.payment.gateway.model.DuplicateStats;
+import com.checkout.payment.gateway.service.DuplicatePaymentDetector;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Duplicate payment detection activity. Not part of the merchant facing API.
+ */
+@RestController
+@RequestMapping("/internal/duplicates")
+public class DuplicateController {
+
+  private final DuplicatePaymentDetector duplicatePaymentDetector;
+
+  public DuplicateController(DuplicatePaymentDetector duplicatePaymentDetector) {
+    this.duplicatePaymentDetector = duplicatePaymentDetector;
+  }
+
+  @GetMapping
+  public ResponseEntity<DuplicateStats> getStats() {
+    return ResponseEntity.ok(duplicatePaymentDetector.stats());
+  }
+}
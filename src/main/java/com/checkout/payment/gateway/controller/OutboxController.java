@@ -0,0 +1,27 @@
+package com.checkout.payment.gateway.controller;
+
+import com.checkout.payment.gateway.model.OutboxStats;
+import com.checkout.payment.gateway.outbox.OutboxRelay;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Outbox relay lag and throughput. Not part of the merchant facing API.
+ */
+@RestController
+@RequestMapping("/internal/outbox")
+public class OutboxController {
+
+  private final OutboxRelay outboxRelay;
+
+  public OutboxController(OutboxRelay outboxRelay) {
+    this.outboxRelay = outboxRelay;
+  }
+
+  @GetMapping
+  public ResponseEntity<OutboxStats> getStats() {
+    return ResponseEntity.ok(outboxRelay.stats());
+  }
+}
@@ -0,0 +1,154 @@
+package com.checkout.payment.gateway.controller;
+
+import com.checkout.payment.gateway.event.PaymentEventBus;
+import com.checkout.payment.gateway.event.PaymentEventHandler;
+import com.checkout.payment.gateway.exception.ServiceOverloadedException;
+import com.checkout.payment.gateway.model.EventBusStats;
+import com.checkout.payment.gateway.model.PaymentEvent;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * Live stream of payment outcomes for internal subscribers such as fraud, analytics or ledger
+ * services. Not part of the merchant facing API.
+ */
+@RestController
+@RequestMapping("/internal/events")
+public class PaymentEventController {
+
+  private static final long KEEP_ALIVE_MILLIS = TimeUnit.SECONDS.toMillis(15);
+
+  private final PaymentEventBus paymentEventBus;
+  private final int maxSubscribers;
+  private final AtomicInteger streams = new AtomicInteger();
+  private final AtomicInteger streamIds = new AtomicInteger();
+  private final Map<SseEmitter, PaymentEventBus.Subscription> open = new ConcurrentHashMap<>();
+
+  public PaymentEventController(
+      PaymentEventBus paymentEventBus,
+      @Value("${payments.events.max-subscribers:16}") int maxSubscribers
+  ) {
+    this.paymentEventBus = paymentEventBus;
+    this.maxSubscribers = maxSubscribers;
+  }
+
+  @GetMapping
+  public ResponseEntity<EventBusStats> getStats() {
+    return ResponseEntity.ok(paymentEventBus.stats());
+  }
+
+  /**
+   * Streams payment events as Server-Sent Events named {@code payment}, with the bus sequence as
+   * event id. A client reconnecting with {@code Last-Event-ID} resumes after that event if it is
+   * still in the ring. A client reading too slowly to keep up receives a {@code gap} event with the
+   * number of events it missed, and the stream continues from the oldest retained event.
+   */
+  @GetMapping(value = "/payments", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+  public SseEmitter streamPayments(
+      @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId
+  ) {
+    if (streams.incrementAndGet() > maxSubscribers) {
+      streams.decrementAndGet();
+      throw new ServiceOverloadedException("Too many event stream subscribers");
+    }
+    // No timeout, the stream ends when either side closes it
+    SseEmitter emitter = new SseEmitter(0L);
+    try {
+      // Commits the response headers right away instead of with the first payment
+      emitter.send(SseEmitter.event().comment("subscribed"));
+    } catch (IOException e) {
+      streams.decrementAndGet();
+      throw new UncheckedIOException(e);
+    }
+    String name = "sse-" + streamIds.incrementAndGet();
+    SseHandler handler = new SseHandler(emitter);
+    PaymentEventBus.Subscription subscription = lastEventId == null
+        ? paymentEventBus.subscribe(name, handler)
+        : paymentEventBus.subscribe(name, handler, lastEventId);
+    Runnable end = () -> {
+      if (subscription.isRunning()) {
+        subscription.close();
+      }
+    };
+    open.put(emitter, subscription);
+    emitter.onCompletion(() -> {
+      end.run();
+      open.remove(emitter);
+      streams.decrementAndGet();
+    });
+    emitter.onTimeout(end);
+    emitter.onError(error -> end.run());
+    return emitter;
+  }
+
+  /**
+   * Ends the open streams before the web server stops, which would otherwise wait for them.
+   */
+  @EventListener(ContextClosedEvent.class)
+  public void closeStreams() {
+    open.forEach((emitter, subscription) -> {
+      subscription.close();
+      emitter.complete();
+    });
+  }
+
+  /**
+   * Writes the events of one subscription to its stream. Runs on the subscription's thread, so a
+   * client with a full socket buffer only holds up its own stream.
+   */
+  private static final class SseHandler implements PaymentEventHandler {
+
+    private final SseEmitter emitter;
+    private long lastSentMillis = System.currentTimeMillis();
+
+    SseHandler(SseEmitter emitter) {
+      this.emitter = emitter;
+    }
+
+    @Override
+    public void onEvent(PaymentEvent event, boolean endOfBatch) throws IOException {
+      send(SseEmitter.event()
+          .id(Long.toString(event.getSequence()))
+          .name("payment")
+          .data(event, MediaType.APPLICATION_JSON));
+    }
+
+    @Override
+    public void onGap(long missed) throws IOException {
+      send(SseEmitter.event().name("gap").data(Map.of("missed", missed), MediaType.APPLICATION_JSON));
+    }
+
+    @Override
+    public void onIdle() throws IOException {
+      if (System.currentTimeMillis() - lastSentMillis >= KEEP_ALIVE_MILLIS) {
+        // Comment lines keep proxies from closing the connection and detect closed clients
+        send(SseEmitter.event().comment("keep-alive"));
+      }
+    }
+
+    private void send(SseEmitter.SseEventBuilder event) throws IOException {
+      try {
+        emitter.send(event);
+        lastSentMillis = System.currentTimeMillis();
+      } catch (IOException | IllegalStateException e) {
+        // The client is gone, release the request; the thrown exception ends the subscription
+        emitter.completeWithError(e);
+        throw e;
+      }
+    }
+  }
+}
@@ -1,34 +1,272 @@
 package com.checkout.payment.gateway.controller;
 
+import com.checkout.payment.gateway.cluster.PaymentForwarder;
+import com.checkout.payment.gateway.enums.PaymentStatus;
+import com.checkout.payment.gateway.exception.EventProcessingException;
+import com.checkout.payment.gateway.exception.NodeUnavailableException;
+import com.checkout.payment.gateway.exception.RateLimitExceededException;
 import com.checkout.payment.gateway.model.GetPaymentResponse;
+import com.checkout.payment.gateway.model.PaymentOperationRequest;
 import com.checkout.payment.gateway.model.PostPaymentRequest;
 import com.checkout.payment.gateway.model.PostPaymentResponse;
+import com.checkout.payment.gateway.replication.ReplicationFollower;
+import com.checkout.payment.gateway.service.MerchantRateLimiter;
+import com.checkout.payment.gateway.service.PaymentAdmissionController;
+import com.checkout.payment.gateway.service.PaymentAuthorizationPipeline;
 import com.checkout.payment.gateway.service.PaymentGatewayService;
+import com.checkout.payment.gateway.service.PaymentReadBulkhead;
+import com.checkout.payment.gateway.service.PaymentResponseCache;
+import com.checkout.payment.gateway.service.PaymentResponseCache.CachedPaymentResponse;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import java.net.URI;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RestController;
 
 @RestController("api")
 public class PaymentGatewayController {
 
+  public static final String API_KEY_HEADER = "X-Api-Key";
+  public static final String PREFER_HEADER = "Prefer";
+  public static final String RESPOND_ASYNC = "respond-async";
+  private static final String PREFERENCE_APPLIED_HEADER = "Preference-Applied";
+
   private final PaymentGatewayService paymentGatewayService;
+  private final PaymentResponseCache paymentResponseCache;
+  private final PaymentForwarder paymentForwarder;
+  private final ReplicationFollower replicationFollower;
+  private final MerchantRateLimiter merchantRateLimiter;
+  private final PaymentAdmissionController paymentAdmissionController;
+  private final PaymentReadBulkhead paymentReadBulkhead;
+  private final PaymentAuthorizationPipeline paymentAuthorizationPipeline;
 
-  public PaymentGatewayController(PaymentGatewayService paymentGatewayService) {
+  public PaymentGatewayController(
+      PaymentGatewayService paymentGatewayService,
+      PaymentResponseCache paymentResponseCache,
+      PaymentForwarder paymentForwarder,
+      ReplicationFollower replicationFollower,
+      MerchantRateLimiter merchantRateLimiter,
+      PaymentAdmissionController paymentAdmissionController,
+      PaymentReadBulkhead paymentReadBulkhead,
+      PaymentAuthorizationPipeline paymentAuthorizationPipeline
+  ) {
     this.paymentGatewayService = paymentGatewayService;
+    this.paymentResponseCache = paymentResponseCache;
+    this.paymentForwarder = paymentForwarder;
+    this.replicationFollower = replicationFollower;
+    this.merchantRateLimiter = merchantRateLimiter;
+    this.paymentAdmissionController = paymentAdmissionController;
+    this.paymentReadBulkhead = paymentReadBulkhead;
+    this.paymentAuthorizationPipeline = paymentAuthorizationPipeline;
   }
 
+  /**
+   * Returns the pre-serialized payment with a strong ETag. Clients polling with
+   * {@code If-None-Match} receive {@code 304 Not Modified} without a body.
+   * <p>
+   * Payments not stored on this node are fetched from the node owning them, unless the request
+   * was already forwarded.
+   * </p>
+   * <p>
+   * Lookups run in the read bulkhead, so they are not held up by payments waiting on the bank.
+   * </p>
+   */
   @GetMapping("/payments/{id}")
-  public ResponseEntity<GetPaymentResponse> getPostPaymentEventById(@PathVariable UUID id) {
-    return new ResponseEntity<>(paymentGatewayService.getPaymentById(id), HttpStatus.OK);
+  @ApiResponse(responseCode = "200", content = @Content(
+      mediaType = MediaType.APPLICATION_JSON_VALUE,
+      schema = @Schema(implementation = GetPaymentResponse.class)))
+  public ResponseEntity<byte[]> getPostPaymentEventById(
+      @PathVariable UUID id,
+      @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+      @RequestHeader(value = PaymentForwarder.FORWARDED_HEADER, required = false) String forwardedBy
+  ) {
+    paymentReadBulkhead.acquire();
+    try {
+      return lookup(id, ifNoneMatch, forwardedBy);
+    } finally {
+      paymentReadBulkhead.release();
+    }
   }
 
+  /**
+   * Processes a payment. Replicas are read-only and answer {@code 503}, so that merchants retry
+   * against the leader.
+   * <p>
+   * Each merchant, identified by its {@value #API_KEY_HEADER} header, is rate limited separately
+   * and receives {@code 429} with {@code Retry-After} once over its limit. Requests without the
+   * header share a single limit.
+   * </p>
+   * <p>
+   * Admitted requests then wait for a processing slot, and are shed with {@code 503} when the
+   * gateway is saturated. Lookups never wait for a slot, so they stay fast under write overload.
+   * </p>
+   * <p>
+   * With {@code Prefer: respond-async} a valid payment is instead answered right away with
+   * {@code 202 Accepted}, status {@code Pending} and a {@code Location} to poll, and authorized in
+   * the background by {@link PaymentAuthorizationPipeline}. Invalid payments are still answered
+   * with {@code 200} and {@code Rejected}.
+   * </p>
+   */
   @PostMapping("/payments")
-  public ResponseEntity<PostPaymentResponse> processPayment(@RequestBody PostPaymentRequest paymentRequest) {
-    return new ResponseEntity<>(paymentGatewayService.processPayment(paymentRequest), HttpStatus.OK);
+  public ResponseEntity<PostPaymentResponse> processPayment(
+      @RequestBody PostPaymentRequest paymentRequest,
+      @RequestHeader(value = API_KEY_HEADER, required = false) String apiKey,
+      @RequestHeader(value = PREFER_HEADER, required = false) String prefer
+  ) {
+    if (replicationFollower.isEnabled()) {
+      throw new NodeUnavailableException("This node is a read-only replica");
+    }
+    long waitNanos = merchantRateLimiter.tryAcquire(apiKey == null ? "" : apiKey);
+    if (waitNanos > 0) {
+      // Rounded up, Retry-After is in whole seconds
+      throw new RateLimitExceededException(TimeUnit.NANOSECONDS.toSeconds(waitNanos - 1) + 1);
+    }
+    paymentRequest.setMerchant(apiKey);
+    if (prefersAsync(prefer)) {
+      return acceptAsync(paymentRequest);
+    }
+    paymentAdmissionController.acquire();
+    try {
+      return new ResponseEntity<>(paymentGatewayService.processPayment(paymentRequest), HttpStatus.OK);
+    } finally {
+      paymentAdmissionController.release();
+    }
+  }
+
+  /**
+   * Captures some or all of an authorized payment, everything left when the body has no amount.
+   * Payments being captured, voided or refunded concurrently are changed one operation at a time,
+   * and an operation not allowed in the resulting status is answered with {@code 409}.
+   * <p>
+   * Like lookups, operations on payments not stored on this node are sent to the node owning them.
+   * </p>
+   */
+  @PostMapping("/payments/{id}/captures")
+  @ApiResponse(responseCode = "200", content = @Content(
+      mediaType = MediaType.APPLICATION_JSON_VALUE,
+      schema = @Schema(implementation = PostPaymentResponse.class)))
+  public ResponseEntity<?> capturePayment(
+      @PathVariable UUID id,
+      @RequestBody(required = false) PaymentOperationRequest operationRequest,
+      @RequestHeader(value = PaymentForwarder.FORWARDED_HEADER, required = false) String forwardedBy
+  ) {
+    Integer amount = amount(operationRequest);
+    return changePayment(id, forwardedBy, () -> paymentGatewayService.capturePayment(id, amount),
+        () -> paymentForwarder.forwardPost(id, "captures", amount));
+  }
+
+  /**
+   * Releases an authorized payment of which nothing was captured.
+   */
+  @PostMapping("/payments/{id}/voids")
+  @ApiResponse(responseCode = "200", content = @Content(
+      mediaType = MediaType.APPLICATION_JSON_VALUE,
+      schema = @Schema(implementation = PostPaymentResponse.class)))
+  public ResponseEntity<?> voidPayment(
+      @PathVariable UUID id,
+      @RequestHeader(value = PaymentForwarder.FORWARDED_HEADER, required = false) String forwardedBy
+  ) {
+    return changePayment(id, forwardedBy, () -> paymentGatewayService.voidPayment(id),
+        () -> paymentForwarder.forwardPost(id, "voids", null));
+  }
+
+  /**
+   * Refunds some or all of the captured part of a payment, everything left when the body has no
+   * amount.
+   */
+  @PostMapping("/payments/{id}/refunds")
+  @ApiResponse(responseCode = "200", content = @Content(
+      mediaType = MediaType.APPLICATION_JSON_VALUE,
+      schema = @Schema(implementation = PostPaymentResponse.class)))
+  public ResponseEntity<?> refundPayment(
+      @PathVariable UUID id,
+      @RequestBody(required = false) PaymentOperationRequest operationRequest,
+      @RequestHeader(value = PaymentForwarder.FORWARDED_HEADER, required = false) String forwardedBy
+  ) {
+    Integer amount = amount(operationRequest);
+    return changePayment(id, forwardedBy, () -> paymentGatewayService.refundPayment(id, amount),
+        () -> paymentForwarder.forwardPost(id, "refunds", amount));
+  }
+
+  private ResponseEntity<?> changePayment(
+      UUID id,
+      String forwardedBy,
+      Supplier<PostPaymentResponse> operation,
+      Supplier<Optional<ResponseEntity<byte[]>>> forward
+  ) {
+    if (replicationFollower.isEnabled()) {
+      throw new NodeUnavailableException("This node is a read-only replica");
+    }
+    PostPaymentResponse payment;
+    try {
+      payment = operation.get();
+    } catch (EventProcessingException e) {
+      if (forwardedBy != null) {
+        throw e;
+      }
+      return forward.get().orElseThrow(() -> e);
+    }
+    // Frees the stale rendering; one put back by a racing lookup is caught by its version
+    paymentResponseCache.evict(id);
+    return new ResponseEntity<>(payment, HttpStatus.OK);
+  }
+
+  private static Integer amount(PaymentOperationRequest operationRequest) {
+    return operationRequest == null ? null : operationRequest.getAmount();
+  }
+
+  private ResponseEntity<PostPaymentResponse> acceptAsync(PostPaymentRequest paymentRequest) {
+    PostPaymentResponse payment = paymentAuthorizationPipeline.submit(paymentRequest);
+    if (payment.getStatus() != PaymentStatus.PENDING) {
+      return new ResponseEntity<>(payment, HttpStatus.OK);
+    }
+    return ResponseEntity.accepted()
+        .location(URI.create("/payments/" + payment.getId()))
+        .header(PREFERENCE_APPLIED_HEADER, RESPOND_ASYNC)
+        .body(payment);
+  }
+
+  private static boolean prefersAsync(String prefer) {
+    if (prefer == null) {
+      return false;
+    }
+    for (String preference : prefer.split(",")) {
+      if (preference.trim().equalsIgnoreCase(RESPOND_ASYNC)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private ResponseEntity<byte[]> lookup(UUID id, String ifNoneMatch, String forwardedBy) {
+    CachedPaymentResponse cached;
+    try {
+      cached = paymentResponseCache.get(id);
+    } catch (EventProcessingException e) {
+      if (forwardedBy != null) {
+        throw e;
+      }
+      return paymentForwarder.forwardGet(id, ifNoneMatch).orElseThrow(() -> e);
+    }
+    if (cached.matches(ifNoneMatch)) {
+      return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(cached.etag()).build();
+    }
+    return ResponseEntity.ok()
+        .eTag(cached.etag())
+        .contentType(MediaType.APPLICATION_JSON)
+        .body(cached.body());
   }
 }
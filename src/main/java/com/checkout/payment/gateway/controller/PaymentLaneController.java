@@ -0,0 +1,27 @@
+package com.checkout.payment.gateway.controller;
+
+import com.checkout.payment.gateway.model.PaymentLaneStats;
+import com.checkout.payment.gateway.service.PartitionedPaymentExecutor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Depth and balance of the payment write lanes. Not part of the merchant facing API.
+ */
+@RestController
+@RequestMapping("/internal/lanes")
+public class PaymentLaneController {
+
+  private final PartitionedPaymentExecutor partitionedPaymentExecutor;
+
+  public PaymentLaneController(PartitionedPaymentExecutor partitionedPaymentExecutor) {
+    this.partitionedPaymentExecutor = partitionedPaymentExecutor;
+  }
+
+  @GetMapping
+  public ResponseEntity<PaymentLaneStats> getStats() {
+    return ResponseEntity.ok(partitionedPaymentExecutor.stats());
+  }
+}
@@ -0,0 +1,115 @@
+package com.checkout.payment.gateway.controller;
+
+import com.checkout.payment.gateway.analytics.PaymentAnalytics;
+import com.checkout.payment.gateway.enums.AnalyticsDimension;
+import com.checkout.payment.gateway.enums.PaymentStatus;
+import com.checkout.payment.gateway.exception.ValidationException;
+import com.checkout.payment.gateway.model.AnalyticsQuery;
+import com.checkout.payment.gateway.model.AnalyticsReport;
+import com.checkout.payment.gateway.model.BulkheadStats;
+import com.checkout.payment.gateway.model.PaymentVolumeReport;
+import com.checkout.payment.gateway.service.PaymentAdmissionController;
+import com.checkout.payment.gateway.service.PaymentAuthorizationPipeline;
+import com.checkout.payment.gateway.service.PaymentReadBulkhead;
+import com.checkout.payment.gateway.service.PaymentVolumeCounters;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.format.annotation.DateTimeFormat.ISO;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Live payment volumes and ad-hoc analytics for finance and operations dashboards. Not part of the
+ * merchant facing API.
+ */
+@RestController
+@RequestMapping("/internal/reports")
+public class PaymentReportController {
+
+  private final PaymentVolumeCounters paymentVolumeCounters;
+  private final PaymentAnalytics paymentAnalytics;
+  private final PaymentAdmissionController paymentAdmissionController;
+  private final PaymentReadBulkhead paymentReadBulkhead;
+  private final PaymentAuthorizationPipeline paymentAuthorizationPipeline;
+
+  public PaymentReportController(
+      PaymentVolumeCounters paymentVolumeCounters,
+      PaymentAnalytics paymentAnalytics,
+      PaymentAdmissionController paymentAdmissionController,
+      PaymentReadBulkhead paymentReadBulkhead,
+      PaymentAuthorizationPipeline paymentAuthorizationPipeline
+  ) {
+    this.paymentVolumeCounters = paymentVolumeCounters;
+    this.paymentAnalytics = paymentAnalytics;
+    this.paymentAdmissionController = paymentAdmissionController;
+    this.paymentReadBulkhead = paymentReadBulkhead;
+    this.paymentAuthorizationPipeline = paymentAuthorizationPipeline;
+  }
+
+  /**
+   * Returns counts, summed amounts and authorization rates per currency and status over the last
+   * second, minute, hour and since startup. Served from counters, so the cost does not depend on
+   * the number of stored payments.
+   */
+  @GetMapping("/volumes")
+  public ResponseEntity<PaymentVolumeReport> getVolumes() {
+    return ResponseEntity.ok(paymentVolumeCounters.report());
+  }
+
+  /**
+   * Aggregates the payment history, e.g. {@code group_by=day,currency} for daily volume by
+   * currency, {@code group_by=expiry_year} for decline rates by expiry year or
+   * {@code group_by=amount_bucket&bucket_width=1000} for an amount histogram.
+   */
+  @GetMapping("/analytics")
+  public ResponseEntity<AnalyticsReport> runAnalytics(
+      @RequestParam(name = "group_by", required = false) List<String> groupBy,
+      @RequestParam(required = false) String status,
+      @RequestParam(required = false) String currency,
+      @RequestParam(required = false) @DateTimeFormat(iso = ISO.DATE_TIME) Instant from,
+      @RequestParam(required = false) @DateTimeFormat(iso = ISO.DATE_TIME) Instant to,
+      @RequestParam(name = "min_amount", required = false) Integer minAmount,
+      @RequestParam(name = "max_amount", required = false) Integer maxAmount,
+      @RequestParam(name = "bucket_width", defaultValue = "1000") int bucketWidth
+  ) {
+    List<AnalyticsDimension> dimensions = new ArrayList<>();
+    if (groupBy != null) {
+      for (String name : groupBy) {
+        AnalyticsDimension dimension = AnalyticsDimension.fromName(name.trim());
+        if (dimension == null) {
+          throw new ValidationException("Unknown dimension " + name);
+        }
+        dimensions.add(dimension);
+      }
+    }
+    AnalyticsQuery query = new AnalyticsQuery(parseStatus(status), currency, from, to, minAmount,
+        maxAmount, dimensions, bucketWidth);
+    return ResponseEntity.ok(paymentAnalytics.run(query));
+  }
+
+  /**
+   * Returns the saturation of the write and read bulkheads and of the background authorization
+   * workers, whose {@code waiting} is the authorization queue depth.
+   */
+  @GetMapping("/bulkheads")
+  public ResponseEntity<List<BulkheadStats>> getBulkheads() {
+    return ResponseEntity.ok(List.of(paymentAdmissionController.stats(), paymentReadBulkhead.stats(),
+        paymentAuthorizationPipeline.stats()));
+  }
+
+  private static PaymentStatus parseStatus(String status) {
+    if (status == null) {
+      return null;
+    }
+    PaymentStatus parsed = PaymentStatus.fromName(status);
+    if (parsed == null) {
+      throw new ValidationException("Unknown status " + status);
+    }
+    return parsed;
+  }
+}
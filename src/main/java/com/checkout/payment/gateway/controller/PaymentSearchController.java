@@ -0,0 +1,76 @@
+package com.checkout.payment.gateway.controller;
+
+import com.checkout.payment.gateway.enums.PaymentStatus;
+import com.checkout.payment.gateway.exception.ValidationException;
+import com.checkout.payment.gateway.model.GetPaymentResponse;
+import com.checkout.payment.gateway.model.PaymentIndexStats;
+import com.checkout.payment.gateway.model.PaymentQuery;
+import com.checkout.payment.gateway.service.PaymentGatewayService;
+import com.checkout.payment.gateway.service.PaymentReadBulkhead;
+import java.time.Instant;
+import java.util.List;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.format.annotation.DateTimeFormat.ISO;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Payment lookup for support engineers. Not part of the merchant facing API.
+ */
+@RestController
+@RequestMapping("/internal/payments")
+public class PaymentSearchController {
+
+  private final PaymentGatewayService paymentGatewayService;
+  private final PaymentReadBulkhead paymentReadBulkhead;
+
+  public PaymentSearchController(
+      PaymentGatewayService paymentGatewayService,
+      PaymentReadBulkhead paymentReadBulkhead
+  ) {
+    this.paymentGatewayService = paymentGatewayService;
+    this.paymentReadBulkhead = paymentReadBulkhead;
+  }
+
+  /**
+   * Finds payments matching every given criterion, most recent first. {@code from} and
+   * {@code to} are ISO-8601 instants and are matched to the minute.
+   */
+  @GetMapping("/search")
+  public ResponseEntity<List<GetPaymentResponse>> searchPayments(
+      @RequestParam(required = false) String status,
+      @RequestParam(required = false) String currency,
+      @RequestParam(name = "card_number_last_four", required = false) String cardNumberLastFour,
+      @RequestParam(required = false) @DateTimeFormat(iso = ISO.DATE_TIME) Instant from,
+      @RequestParam(required = false) @DateTimeFormat(iso = ISO.DATE_TIME) Instant to,
+      @RequestParam(defaultValue = "100") int limit
+  ) {
+    PaymentQuery query = new PaymentQuery(
+        parseStatus(status), currency, cardNumberLastFour, from, to, limit);
+    paymentReadBulkhead.acquire();
+    try {
+      return ResponseEntity.ok(paymentGatewayService.searchPayments(query));
+    } finally {
+      paymentReadBulkhead.release();
+    }
+  }
+
+  @GetMapping("/index")
+  public ResponseEntity<PaymentIndexStats> getIndexStats() {
+    return ResponseEntity.ok(paymentGatewayService.getIndexStats());
+  }
+
+  private static PaymentStatus parseStatus(String status) {
+    if (status == null) {
+      return null;
+    }
+    PaymentStatus parsed = PaymentStatus.fromName(status);
+    if (parsed == null) {
+      throw new ValidationException("Unknown status " + status);
+    }
+    return parsed;
+  }
+}
@@ -0,0 +1,29 @@
+package com.checkout.payment.gateway.controller;
+
+import com.checkout.payment.gateway.model.ReplicationStatus;
+import com.checkout.payment.gateway.replication.ReplicationFollower;
+import com.checkout.payment.gateway.replication.ReplicationLeader;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Replication state and lag. Not part of the merchant facing API.
+ */
+@RestController
+public class ReplicationController {
+
+  private final ReplicationLeader replicationLeader;
+  private final ReplicationFollower replicationFollower;
+
+  public ReplicationController(ReplicationLeader replicationLeader, ReplicationFollower replicationFollower) {
+    this.replicationLeader = replicationLeader;
+    this.replicationFollower = replicationFollower;
+  }
+
+  @GetMapping("/internal/replication")
+  public ResponseEntity<ReplicationStatus> getReplication() {
+    return ResponseEntity.ok(new ReplicationStatus(replicationLeader.sequence(),
+        replicationLeader.followers(), replicationFollower.status()));
+  }
+}
@@ -0,0 +1,27 @@
+package com.checkout.payment.gateway.controller;
+
+import com.checkout.payment.gateway.model.VelocityStats;
+import com.checkout.payment.gateway.service.CardVelocityChecker;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Card velocity limits and how often they are hit. Not part of the merchant facing API.
+ */
+@RestController
+@RequestMapping("/internal/velocity")
+public class VelocityController {
+
+  private final CardVelocityChecker cardVelocityChecker;
+
+  public VelocityController(CardVelocityChecker cardVelocityChecker) {
+    this.cardVelocityChecker = cardVelocityChecker;
+  }
+
+  @GetMapping
+  public ResponseEntity<VelocityStats> getStats() {
+    return ResponseEntity.ok(cardVelocityChecker.stats());
+  }
+}
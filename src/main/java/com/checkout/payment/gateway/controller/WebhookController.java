@@ -0,0 +1,44 @@
+package com.checkout.payment.gateway.controller;
+
+import com.checkout.payment.gateway.model.WebhookDeadLetter;
+import com.checkout.payment.gateway.model.WebhookEndpointStats;
+import com.checkout.payment.gateway.webhook.WebhookDispatcher;
+import java.util.List;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Webhook delivery state and dead letters. Not part of the merchant facing API.
+ */
+@RestController
+@RequestMapping("/internal/webhooks")
+public class WebhookController {
+
+  private final WebhookDispatcher webhookDispatcher;
+
+  public WebhookController(WebhookDispatcher webhookDispatcher) {
+    this.webhookDispatcher = webhookDispatcher;
+  }
+
+  @GetMapping
+  public ResponseEntity<List<WebhookEndpointStats>> getEndpoints() {
+    return ResponseEntity.ok(webhookDispatcher.endpoints());
+  }
+
+  @GetMapping("/dead-letters")
+  public ResponseEntity<List<WebhookDeadLetter>> getDeadLetters() {
+    return ResponseEntity.ok(webhookDispatcher.deadLetters());
+  }
+
+  /**
+   * Queues every dead-lettered event for delivery again, e.g. once a merchant's endpoint is fixed.
+   */
+  @PostMapping("/dead-letters/redeliver")
+  public ResponseEntity<List<WebhookEndpointStats>> redeliverDeadLetters() {
+    webhookDispatcher.redeliverDeadLetters();
+    return ResponseEntity.ok(webhookDispatcher.endpoints());
+  }
+}
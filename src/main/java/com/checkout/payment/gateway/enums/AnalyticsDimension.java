@@ -0,0 +1,46 @@
+package com.checkout.payment.gateway.enums;
+
+import com.fasterxml.jackson.annotation.JsonValue;
+
+/**
+ * Dimension that analytics results can be grouped by.
+ * <p>
+ * currency - supported currency, or OTHER
+ * status - payment status
+ * expiry_year / expiry_month - card expiry as received
+ * day / hour - UTC creation day or hour
+ * amount_bucket - amount in minor units divided into buckets of a requested width
+ * </p>
+ */
+public enum AnalyticsDimension {
+  CURRENCY("currency"),
+  STATUS("status"),
+  EXPIRY_YEAR("expiry_year"),
+  EXPIRY_MONTH("expiry_month"),
+  DAY("day"),
+  HOUR("hour"),
+  AMOUNT_BUCKET("amount_bucket");
+
+  private final String name;
+
+  AnalyticsDimension(String name) {
+    this.name = name;
+  }
+
+  @JsonValue
+  public String getName() {
+    return this.name;
+  }
+
+  /**
+   * @return the dimension with the given name ignoring case, or {@code null} if there is none
+   */
+  public static AnalyticsDimension fromName(String name) {
+    for (AnalyticsDimension dimension : values()) {
+      if (dimension.name.equalsIgnoreCase(name)) {
+        return dimension;
+      }
+    }
+    return null;
+  }
+}
@@ -0,0 +1,15 @@
+package com.checkout.payment.gateway.enums;
+
+/**
+ * Card scheme a card number belongs to, as identified by its BIN.
+ */
+public enum CardScheme {
+  VISA,
+  MASTERCARD,
+  AMEX,
+  DISCOVER,
+  DINERS,
+  JCB,
+  UNIONPAY,
+  MAESTRO
+}
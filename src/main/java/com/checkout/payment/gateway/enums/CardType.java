@@ -0,0 +1,10 @@
+package com.checkout.payment.gateway.enums;
+
+/**
+ * Funding type of a card, as identified by its BIN.
+ */
+public enum CardType {
+  CREDIT,
+  DEBIT,
+  PREPAID
+}
@@ -11,12 +11,28 @@ import com.fasterxml.jackson.annotation.JsonValue;
  * Declined - the payment was declined by the call to the acquiring bank
  * Rejected - No payment could be created as invalid information was supplied to the payment gateway,
  * and therefore it has rejected the request without calling the acquiring bank.
+ * Pending - the payment was accepted for asynchronous processing and the acquiring bank has not
+ * answered yet; it becomes one of the statuses above once it has.
+ * Captured - some or all of an authorized amount was captured; further captures may follow until
+ * the whole amount is.
+ * Voided - the authorization was released before anything was captured.
+ * Refunded - some or all of the captured amount was refunded; further refunds may follow until all
+ * of it is.
+ * </p>
+ * <p>
+ * Statuses set after the bank answered come after {@code PENDING}, so that the ones before it are
+ * exactly the outcomes of an authorization.
  * </p>
  */
 public enum PaymentStatus {
   AUTHORIZED("Authorized"),
   DECLINED("Declined"),
-  REJECTED("Rejected");
+  REJECTED("Rejected"),
+  // PaymentVolumeCounters counts the statuses declared before this one; add new ones after it
+  PENDING("Pending"),
+  CAPTURED("Captured"),
+  VOIDED("Voided"),
+  REFUNDED("Refunded");
 
   private final String name;
 
@@ -28,4 +44,16 @@ public enum PaymentStatus {
   public String getName() {
     return this.name;
   }
+
+  /**
+   * @return the status with the given name ignoring case, or {@code null} if there is none
+   */
+  public static PaymentStatus fromName(String name) {
+    for (PaymentStatus status : values()) {
+      if (status.name.equalsIgnoreCase(name)) {
+        return status;
+      }
+    }
+    return null;
+  }
 }
@@ -0,0 +1,299 @@
+package com.checkout.payment.gateway.event;
+
+import com.checkout.payment.gateway.enums.PaymentStatus;
+import com.checkout.payment.gateway.model.EventBusStats;
+import com.checkout.payment.gateway.model.PaymentEvent;
+import com.checkout.payment.gateway.model.PostPaymentResponse;
+import jakarta.annotation.PreDestroy;
+import java.lang.invoke.VarHandle;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * In-process bus of payment outcomes for internal consumers, built on a ring of preallocated slots.
+ * <p>
+ * Publishing copies the payment into the next slot and advances the cursor; it never allocates and
+ * never waits for a consumer. Writers take turns on the bus monitor, so the ring has a single
+ * writer at a time and slots are filled strictly in sequence order. The ring keeps the last
+ * {@code payments.events.ring-size} events, numbered from 1.
+ * </p>
+ * <p>
+ * Each subscription runs on its own thread, reads without locking and hands every event available
+ * at once to its handler as one batch. Slots are guarded like a seqlock: a reader checks the slot's
+ * sequence before and after copying it, so a consumer that falls a full ring behind notices that
+ * its events were overwritten, is told how many it missed, and continues from the oldest retained
+ * event. A slow consumer therefore loses events instead of slowing down payments.
+ * </p>
+ */
+@Component
+public class PaymentEventBus {
+
+  private static final Logger LOG = LoggerFactory.getLogger(PaymentEventBus.class);
+  private static final PaymentStatus[] STATUSES = PaymentStatus.values();
+  private static final long IDLE_MILLIS = 1_000;
+  // Marks a slot being overwritten
+  private static final long WRITING = -1;
+
+  private final Clock clock;
+  private final Slot[] slots;
+  private final int mask;
+  private final List<Subscription> subscriptions = new CopyOnWriteArrayList<>();
+  private volatile long cursor;
+  private int waiters;
+
+  @Autowired
+  public PaymentEventBus(@Value("${payments.events.ring-size:65536}") int ringSize) {
+    this(ringSize, Clock.systemUTC());
+  }
+
+  PaymentEventBus(int ringSize, Clock clock) {
+    if (ringSize < 1 || Integer.bitCount(ringSize) != 1) {
+      throw new IllegalArgumentException("Event ring size must be a power of two: " + ringSize);
+    }
+    this.clock = clock;
+    this.slots = new Slot[ringSize];
+    for (int i = 0; i < ringSize; i++) {
+      slots[i] = new Slot();
+    }
+    this.mask = ringSize - 1;
+  }
+
+  /**
+   * Publishes the outcome of a payment.
+   * @param payment the payment in its final status
+   */
+  public void publish(PostPaymentResponse payment) {
+    long now = clock.millis();
+    synchronized (this) {
+      long sequence = cursor + 1;
+      Slot slot = slots[(int) (sequence & mask)];
+      slot.sequence = WRITING;
+      // Keeps the field writes below from becoming visible before the slot is marked
+      VarHandle.storeStoreFence();
+      slot.idMsb = payment.getId().getMostSignificantBits();
+      slot.idLsb = payment.getId().getLeastSignificantBits();
+      slot.status = payment.getStatus() == null ? -1 : payment.getStatus().ordinal();
+      slot.cardNumberLastFour = payment.getCardNumberLastFour();
+      slot.expiryMonth = payment.getExpiryMonth();
+      slot.expiryYear = payment.getExpiryYear();
+      slot.currency = payment.getCurrency();
+      slot.amount = payment.getAmount();
+      slot.occurredAtMillis = now;
+      slot.sequence = sequence;
+      cursor = sequence;
+      if (waiters > 0) {
+        notifyAll();
+      }
+    }
+  }
+
+  /**
+   * @return the sequence of the last published event
+   */
+  public long cursor() {
+    return cursor;
+  }
+
+  public int ringSize() {
+    return slots.length;
+  }
+
+  /**
+   * Starts delivering every event published from now on to the handler.
+   */
+  public Subscription subscribe(String name, PaymentEventHandler handler) {
+    return subscribe(name, handler, cursor);
+  }
+
+  /**
+   * Starts delivering the events following {@code after} to the handler, beginning with the oldest
+   * retained one if some were already overwritten.
+   */
+  public Subscription subscribe(String name, PaymentEventHandler handler, long after) {
+    Subscription subscription = new Subscription(name, handler, Math.max(0, Math.min(after, cursor)));
+    subscriptions.add(subscription);
+    Thread thread = new Thread(subscription::run, "payment-events-" + name);
+    thread.setDaemon(true);
+    thread.start();
+    return subscription;
+  }
+
+  public int subscriberCount() {
+    return subscriptions.size();
+  }
+
+  public EventBusStats stats() {
+    long published = cursor;
+    List<EventBusStats.Subscriber> subscribers = subscriptions.stream()
+        .map(subscription -> new EventBusStats.Subscriber(subscription.name, subscription.sequence,
+            published - subscription.sequence, subscription.delivered, subscription.missed))
+        .toList();
+    return new EventBusStats(slots.length, published, subscribers);
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    for (Subscription subscription : subscriptions) {
+      subscription.close();
+    }
+  }
+
+  /**
+   * Copies the event out of its slot.
+   * @return the event, or {@code null} if it has been overwritten
+   */
+  PaymentEvent read(long sequence) {
+    Slot slot = slots[(int) (sequence & mask)];
+    if (slot.sequence != sequence) {
+      return null;
+    }
+    long idMsb = slot.idMsb;
+    long idLsb = slot.idLsb;
+    int status = slot.status;
+    String cardNumberLastFour = slot.cardNumberLastFour;
+    int expiryMonth = slot.expiryMonth;
+    int expiryYear = slot.expiryYear;
+    String currency = slot.currency;
+    int amount = slot.amount;
+    long occurredAtMillis = slot.occurredAtMillis;
+    // Keeps the field reads above from moving after the validating read
+    VarHandle.acquireFence();
+    if (slot.sequence != sequence) {
+      return null;
+    }
+    return new PaymentEvent(sequence, new UUID(idMsb, idLsb), status < 0 ? null : STATUSES[status],
+        cardNumberLastFour, expiryMonth, expiryYear, currency, amount,
+        Instant.ofEpochMilli(occurredAtMillis));
+  }
+
+  private synchronized boolean await(long after, long timeoutMillis) throws InterruptedException {
+    long deadline = System.nanoTime() + timeoutMillis * 1_000_000;
+    waiters++;
+    try {
+      long remaining = timeoutMillis;
+      while (cursor <= after && remaining > 0) {
+        wait(remaining);
+        remaining = (deadline - System.nanoTime()) / 1_000_000;
+      }
+      return cursor > after;
+    } finally {
+      waiters--;
+    }
+  }
+
+  private synchronized void wakeUp() {
+    notifyAll();
+  }
+
+  /**
+   * One consumer thread reading the ring.
+   */
+  public final class Subscription implements AutoCloseable {
+
+    private final String name;
+    private final PaymentEventHandler handler;
+    private volatile boolean running = true;
+    // Last sequence handed to the handler
+    private volatile long sequence;
+    private volatile long delivered;
+    private volatile long missed;
+
+    private Subscription(String name, PaymentEventHandler handler, long after) {
+      this.name = name;
+      this.handler = handler;
+      this.sequence = after;
+    }
+
+    public boolean isRunning() {
+      return running;
+    }
+
+    public long missed() {
+      return missed;
+    }
+
+    @Override
+    public void close() {
+      if (running) {
+        running = false;
+        subscriptions.remove(this);
+        wakeUp();
+      }
+    }
+
+    private void run() {
+      try {
+        while (running) {
+          if (!await(sequence, IDLE_MILLIS)) {
+            if (running) {
+              handler.onIdle();
+            }
+            continue;
+          }
+          consumeAvailable();
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      } catch (Exception e) {
+        LOG.info("Payment event subscriber {} stopped: {}", name, e.toString());
+      } finally {
+        close();
+      }
+    }
+
+    private void consumeAvailable() throws Exception {
+      long available = cursor;
+      long next = sequence + 1;
+      while (next <= available && running) {
+        long oldest = available - slots.length + 1;
+        if (next < oldest) {
+          skipTo(oldest);
+          next = oldest;
+        }
+        PaymentEvent event = read(next);
+        if (event == null) {
+          // Overwritten while this batch was being handled, resynchronize with the writer
+          available = cursor;
+          continue;
+        }
+        handler.onEvent(event, next == available);
+        sequence = next;
+        delivered++;
+        next++;
+      }
+    }
+
+    private void skipTo(long oldest) throws Exception {
+      long skipped = oldest - (sequence + 1);
+      missed += skipped;
+      sequence = oldest - 1;
+      LOG.debug("Payment event subscriber {} missed {} events", name, skipped);
+      handler.onGap(skipped);
+    }
+  }
+
+  /**
+   * A preallocated ring entry. Fields are written by one publisher at a time and validated by
+   * readers through {@link #sequence}.
+   */
+  private static final class Slot {
+    private volatile long sequence;
+    private long idMsb;
+    private long idLsb;
+    private int status;
+    private String cardNumberLastFour;
+    private int expiryMonth;
+    private int expiryYear;
+    private String currency;
+    private int amount;
+    private long occurredAtMillis;
+  }
+}
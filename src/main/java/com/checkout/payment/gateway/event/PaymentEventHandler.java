@@ -0,0 +1,30 @@
+package com.checkout.payment.gateway.event;
+
+import com.checkout.payment.gateway.model.PaymentEvent;
+
+/**
+ * Consumer of the {@link PaymentEventBus}. All callbacks of one subscription run on its own
+ * thread, so a slow handler only delays itself. Throwing from any callback ends the subscription.
+ */
+public interface PaymentEventHandler {
+
+  /**
+   * @param event the next event
+   * @param endOfBatch {@code true} for the last event currently available, a good time to flush
+   */
+  void onEvent(PaymentEvent event, boolean endOfBatch) throws Exception;
+
+  /**
+   * Called when the handler fell so far behind that events were overwritten before it read them.
+   * Delivery continues with the oldest event still in the ring.
+   * @param missed the number of events skipped
+   */
+  default void onGap(long missed) throws Exception {
+  }
+
+  /**
+   * Called when no event arrived for a while.
+   */
+  default void onIdle() throws Exception {
+  }
+}
@@ -3,6 +3,7 @@ package com.checkout.payment.gateway.exception;
 import com.checkout.payment.gateway.model.ErrorResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ControllerAdvice;
@@ -19,4 +20,41 @@ public class CommonExceptionHandler {
     return new ResponseEntity<>(new ErrorResponse("Page not found"),
         HttpStatus.NOT_FOUND);
   }
+
+  @ExceptionHandler(NodeUnavailableException.class)
+  public ResponseEntity<ErrorResponse> handleException(NodeUnavailableException ex) {
+    LOG.warn("Request not served by this node: {}", ex.getMessage());
+    return new ResponseEntity<>(new ErrorResponse(ex.getMessage()),
+        HttpStatus.SERVICE_UNAVAILABLE);
+  }
+
+  @ExceptionHandler(RateLimitExceededException.class)
+  public ResponseEntity<ErrorResponse> handleException(RateLimitExceededException ex) {
+    LOG.debug("Rate limited: {}", ex.getMessage());
+    return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+        .header(HttpHeaders.RETRY_AFTER, Long.toString(ex.getRetryAfterSeconds()))
+        .body(new ErrorResponse(ex.getMessage()));
+  }
+
+  @ExceptionHandler(ServiceOverloadedException.class)
+  public ResponseEntity<ErrorResponse> handleException(ServiceOverloadedException ex) {
+    LOG.debug("Request shed: {}", ex.getMessage());
+    return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+        .header(HttpHeaders.RETRY_AFTER, "1")
+        .body(new ErrorResponse(ex.getMessage()));
+  }
+
+  @ExceptionHandler(PaymentStateException.class)
+  public ResponseEntity<ErrorResponse> handleException(PaymentStateException ex) {
+    LOG.warn("Operation not allowed: {}", ex.getMessage());
+    return new ResponseEntity<>(new ErrorResponse(ex.getMessage()),
+        HttpStatus.CONFLICT);
+  }
+
+  @ExceptionHandler(ValidationException.class)
+  public ResponseEntity<ErrorResponse> handleException(ValidationException ex) {
+    LOG.warn("Invalid request: {}", ex.getMessage());
+    return new ResponseEntity<>(new ErrorResponse(ex.getMessage()),
+        HttpStatus.BAD_REQUEST);
+  }
 }
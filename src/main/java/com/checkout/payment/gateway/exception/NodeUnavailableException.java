@@ -0,0 +1,16 @@
+package com.checkout.payment.gateway.exception;
+
+/**
+ * Exception thrown when a request must be served by another gateway node that cannot be reached,
+ * or cannot be served by this node at all.
+ */
+public class NodeUnavailableException extends RuntimeException {
+
+  public NodeUnavailableException(String message) {
+    super(message);
+  }
+
+  public NodeUnavailableException(String message, Throwable cause) {
+    super(message, cause);
+  }
+}
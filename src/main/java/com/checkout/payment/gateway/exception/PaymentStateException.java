@@ -0,0 +1,11 @@
+package com.checkout.payment.gateway.exception;
+
+/**
+ * Exception thrown when an operation is not allowed in the current status of a payment.
+ */
+public class PaymentStateException extends RuntimeException {
+
+  public PaymentStateException(String message) {
+    super(message);
+  }
+}
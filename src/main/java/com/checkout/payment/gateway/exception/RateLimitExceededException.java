@@ -0,0 +1,18 @@
+package com.checkout.payment.gateway.exception;
+
+/**
+ * Exception thrown when a merchant submits payments faster than its rate limit allows.
+ */
+public class RateLimitExceededException extends RuntimeException {
+
+  private final long retryAfterSeconds;
+
+  public RateLimitExceededException(long retryAfterSeconds) {
+    super("Rate limit exceeded, retry after " + retryAfterSeconds + "s");
+    this.retryAfterSeconds = retryAfterSeconds;
+  }
+
+  public long getRetryAfterSeconds() {
+    return retryAfterSeconds;
+  }
+}
@@ -0,0 +1,11 @@
+package com.checkout.payment.gateway.exception;
+
+/**
+ * Exception thrown when a request is shed because the gateway cannot process it in time.
+ */
+public class ServiceOverloadedException extends RuntimeException {
+
+  public ServiceOverloadedException(String message) {
+    super(message);
+  }
+}
@@ -0,0 +1,87 @@
+package com.checkout.payment.gateway.model;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * Health of one acquirer as seen by payment routing.
+ */
+public class AcquirerStats {
+  private final String name;
+  private final String url;
+  @JsonProperty("latency_ms")
+  private final double latencyMillis;
+  @JsonProperty("error_rate")
+  private final double errorRate;
+  @JsonProperty("in_flight")
+  private final int inFlight;
+  private final long requests;
+  private final long failures;
+  private final boolean degraded;
+
+  public AcquirerStats(String name, String url, double latencyMillis, double errorRate, int inFlight,
+      long requests, long failures, boolean degraded) {
+    this.name = name;
+    this.url = url;
+    this.latencyMillis = latencyMillis;
+    this.errorRate = errorRate;
+    this.inFlight = inFlight;
+    this.requests = requests;
+    this.failures = failures;
+    this.degraded = degraded;
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public String getUrl() {
+    return url;
+  }
+
+  /**
+   * @return the peak EWMA of response times
+   */
+  public double getLatencyMillis() {
+    return latencyMillis;
+  }
+
+  /**
+   * @return the EWMA of failed requests, between 0 and 1
+   */
+  public double getErrorRate() {
+    return errorRate;
+  }
+
+  public int getInFlight() {
+    return inFlight;
+  }
+
+  public long getRequests() {
+    return requests;
+  }
+
+  public long getFailures() {
+    return failures;
+  }
+
+  /**
+   * @return whether the error rate is high enough for payments to avoid the acquirer
+   */
+  public boolean isDegraded() {
+    return degraded;
+  }
+
+  @Override
+  public String toString() {
+    return "AcquirerStats{" +
+        "name='" + name + '\'' +
+        ", url='" + url + '\'' +
+        ", latencyMillis=" + latencyMillis +
+        ", errorRate=" + errorRate +
+        ", inFlight=" + inFlight +
+        ", requests=" + requests +
+        ", failures=" + failures +
+        ", degraded=" + degraded +
+        '}';
+  }
+}
@@ -0,0 +1,80 @@
+package com.checkout.payment.gateway.model;
+
+import com.checkout.payment.gateway.enums.AnalyticsDimension;
+import com.checkout.payment.gateway.enums.PaymentStatus;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Ad-hoc aggregation over the payment history: optional filters combined with AND, and up to two
+ * dimensions to group by. {@code bucketWidth} is only used by
+ * {@link AnalyticsDimension#AMOUNT_BUCKET}.
+ */
+public class AnalyticsQuery {
+  private final PaymentStatus status;
+  private final String currency;
+  private final Instant from;
+  private final Instant to;
+  private final Integer minAmount;
+  private final Integer maxAmount;
+  private final List<AnalyticsDimension> groupBy;
+  private final int bucketWidth;
+
+  public AnalyticsQuery(PaymentStatus status, String currency, Instant from, Instant to,
+      Integer minAmount, Integer maxAmount, List<AnalyticsDimension> groupBy, int bucketWidth) {
+    this.status = status;
+    this.currency = currency;
+    this.from = from;
+    this.to = to;
+    this.minAmount = minAmount;
+    this.maxAmount = maxAmount;
+    this.groupBy = groupBy;
+    this.bucketWidth = bucketWidth;
+  }
+
+  public PaymentStatus getStatus() {
+    return status;
+  }
+
+  public String getCurrency() {
+    return currency;
+  }
+
+  public Instant getFrom() {
+    return from;
+  }
+
+  public Instant getTo() {
+    return to;
+  }
+
+  public Integer getMinAmount() {
+    return minAmount;
+  }
+
+  public Integer getMaxAmount() {
+    return maxAmount;
+  }
+
+  public List<AnalyticsDimension> getGroupBy() {
+    return groupBy;
+  }
+
+  public int getBucketWidth() {
+    return bucketWidth;
+  }
+
+  @Override
+  public String toString() {
+    return "AnalyticsQuery{" +
+        "status=" + status +
+        ", currency='" + currency + '\'' +
+        ", from=" + from +
+        ", to=" + to +
+        ", minAmount=" + minAmount +
+        ", maxAmount=" + maxAmount +
+        ", groupBy=" + groupBy +
+        ", bucketWidth=" + bucketWidth +
+        '}';
+  }
+}
@@ -0,0 +1,132 @@
+package com.checkout.payment.gateway.model;
+
+import com.checkout.payment.gateway.enums.AnalyticsDimension;
+import com.checkout.payment.gateway.model.PaymentVolumeReport.StatusVolume;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import java.util.List;
+
+/**
+ * Result of an {@link AnalyticsQuery}: one group per distinct combination of the grouping
+ * dimensions, in ascending key order.
+ */
+public class AnalyticsReport {
+  @JsonProperty("group_by")
+  private final List<AnalyticsDimension> groupBy;
+  private final List<Group> groups;
+  @JsonProperty("scanned_payments")
+  private final long scannedPayments;
+  @JsonProperty("matched_payments")
+  private final long matchedPayments;
+  @JsonProperty("elapsed_micros")
+  private final long elapsedMicros;
+
+  public AnalyticsReport(List<AnalyticsDimension> groupBy, List<Group> groups, long scannedPayments,
+      long matchedPayments, long elapsedMicros) {
+    this.groupBy = groupBy;
+    this.groups = groups;
+    this.scannedPayments = scannedPayments;
+    this.matchedPayments = matchedPayments;
+    this.elapsedMicros = elapsedMicros;
+  }
+
+  public List<AnalyticsDimension> getGroupBy() {
+    return groupBy;
+  }
+
+  public List<Group> getGroups() {
+    return groups;
+  }
+
+  public long getScannedPayments() {
+    return scannedPayments;
+  }
+
+  public long getMatchedPayments() {
+    return matchedPayments;
+  }
+
+  public long getElapsedMicros() {
+    return elapsedMicros;
+  }
+
+  @Override
+  public String toString() {
+    return "AnalyticsReport{" +
+        "groupBy=" + groupBy +
+        ", groups=" + groups +
+        ", scannedPayments=" + scannedPayments +
+        ", matchedPayments=" + matchedPayments +
+        ", elapsedMicros=" + elapsedMicros +
+        '}';
+  }
+
+  /**
+   * Aggregates of the payments sharing one key. {@code key} holds one value per grouping
+   * dimension. The decline rate is declined / (authorized + declined), or {@code null} when no
+   * payment reached the acquiring bank.
+   */
+  public static class Group {
+    private final List<String> key;
+    private final long count;
+    private final long amount;
+    @JsonProperty("min_amount")
+    private final int minAmount;
+    @JsonProperty("max_amount")
+    private final int maxAmount;
+    private final List<StatusVolume> statuses;
+    @JsonProperty("decline_rate")
+    private final Double declineRate;
+
+    public Group(List<String> key, long count, long amount, int minAmount, int maxAmount,
+        List<StatusVolume> statuses, Double declineRate) {
+      this.key = key;
+      this.count = count;
+      this.amount = amount;
+      this.minAmount = minAmount;
+      this.maxAmount = maxAmount;
+      this.statuses = statuses;
+      this.declineRate = declineRate;
+    }
+
+    public List<String> getKey() {
+      return key;
+    }
+
+    public long getCount() {
+      return count;
+    }
+
+    public long getAmount() {
+      return amount;
+    }
+
+    public int getMinAmount() {
+      return minAmount;
+    }
+
+    public int getMaxAmount() {
+      return maxAmount;
+    }
+
+    public List<StatusVolume> getStatuses() {
+      return statuses;
+    }
+
+    public Double getDeclineRate() {
+      return declineRate;
+    }
+
+    @Override
+    public String toString() {
+      return "Group{" +
+          "key=" + key +
+          ", count=" + count +
+          ", amount=" + amount +
+          ", minAmount=" + minAmount +
+          ", maxAmount=" + maxAmount +
+          ", statuses=" + statuses +
+          ", declineRate=" + declineRate +
+          '}';
+    }
+  }
+}
@@ -0,0 +1,68 @@
+package com.checkout.payment.gateway.model;
+
+import com.checkout.payment.gateway.enums.CardScheme;
+import com.checkout.payment.gateway.enums.CardType;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import java.util.Objects;
+
+/**
+ * What the BIN table knows about a range of card numbers. Instances are shared by every range with
+ * the same attributes and must not be modified.
+ */
+public class BinInfo {
+  private final CardScheme scheme;
+  @JsonProperty("issuer_country")
+  private final String issuerCountry;
+  @JsonProperty("card_type")
+  private final CardType cardType;
+
+  public BinInfo(CardScheme scheme, String issuerCountry, CardType cardType) {
+    this.scheme = scheme;
+    this.issuerCountry = issuerCountry;
+    this.cardType = cardType;
+  }
+
+  public CardScheme getScheme() {
+    return scheme;
+  }
+
+  /**
+   * @return the ISO 3166 alpha-2 country of the issuer, or {@code null} if unknown
+   */
+  public String getIssuerCountry() {
+    return issuerCountry;
+  }
+
+  /**
+   * @return the funding type, or {@code null} if unknown
+   */
+  public CardType getCardType() {
+    return cardType;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (!(o instanceof BinInfo other)) {
+      return false;
+    }
+    return scheme == other.scheme && Objects.equals(issuerCountry, other.issuerCountry)
+        && cardType == other.cardType;
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(scheme, issuerCountry, cardType);
+  }
+
+  @Override
+  public String toString() {
+    return "BinInfo{" +
+        "scheme=" + scheme +
+        ", issuerCountry='" + issuerCountry + '\'' +
+        ", cardType=" + cardType +
+        '}';
+  }
+}
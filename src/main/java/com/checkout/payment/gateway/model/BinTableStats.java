@@ -0,0 +1,60 @@
+package com.checkout.payment.gateway.model;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import java.time.Instant;
+
+/**
+ * The BIN table currently in use.
+ */
+public class BinTableStats {
+  private final String source;
+  private final int ranges;
+  @JsonProperty("loaded_at")
+  private final Instant loadedAt;
+  private final long reloads;
+  @JsonProperty("failed_reloads")
+  private final long failedReloads;
+
+  public BinTableStats(String source, int ranges, Instant loadedAt, long reloads, long failedReloads) {
+    this.source = source;
+    this.ranges = ranges;
+    this.loadedAt = loadedAt;
+    this.reloads = reloads;
+    this.failedReloads = failedReloads;
+  }
+
+  public String getSource() {
+    return source;
+  }
+
+  /**
+   * @return ranges in the table once nested ranges are split, which may exceed the lines of the
+   *     file
+   */
+  public int getRanges() {
+    return ranges;
+  }
+
+  public Instant getLoadedAt() {
+    return loadedAt;
+  }
+
+  public long getReloads() {
+    return reloads;
+  }
+
+  public long getFailedReloads() {
+    return failedReloads;
+  }
+
+  @Override
+  public String toString() {
+    return "BinTableStats{" +
+        "source='" + source + '\'' +
+        ", ranges=" + ranges +
+        ", loadedAt=" + loadedAt +
+        ", reloads=" + reloads +
+        ", failedReloads=" + failedReloads +
+        '}';
+  }
+}
@@ -0,0 +1,77 @@
+package com.checkout.payment.gateway.model;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * Saturation of one bulkhead: how many of its slots are taken, how many requests wait for one, and
+ * how many were turned away.
+ */
+public class BulkheadStats {
+  private final String name;
+  @JsonProperty("max_concurrent")
+  private final int maxConcurrent;
+  @JsonProperty("in_use")
+  private final int inUse;
+  @JsonProperty("peak_in_use")
+  private final int peakInUse;
+  private final int waiting;
+  private final long admitted;
+  private final long rejected;
+
+  public BulkheadStats(String name, int maxConcurrent, int inUse, int peakInUse, int waiting,
+      long admitted, long rejected) {
+    this.name = name;
+    this.maxConcurrent = maxConcurrent;
+    this.inUse = inUse;
+    this.peakInUse = peakInUse;
+    this.waiting = waiting;
+    this.admitted = admitted;
+    this.rejected = rejected;
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public int getMaxConcurrent() {
+    return maxConcurrent;
+  }
+
+  public int getInUse() {
+    return inUse;
+  }
+
+  public int getPeakInUse() {
+    return peakInUse;
+  }
+
+  public int getWaiting() {
+    return waiting;
+  }
+
+  public long getAdmitted() {
+    return admitted;
+  }
+
+  public long getRejected() {
+    return rejected;
+  }
+
+  @JsonProperty("utilization")
+  public double getUtilization() {
+    return maxConcurrent == 0 ? 0 : (double) inUse / maxConcurrent;
+  }
+
+  @Override
+  public String toString() {
+    return "BulkheadStats{" +
+        "name='" + name + '\'' +
+        ", maxConcurrent=" + maxConcurrent +
+        ", inUse=" + inUse +
+        ", peakInUse=" + peakInUse +
+        ", waiting=" + waiting +
+        ", admitted=" + admitted +
+        ", rejected=" + rejected +
+        '}';
+  }
+}
@@ -0,0 +1,49 @@
+package com.checkout.payment.gateway.model;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import java.util.List;
+
+/**
+ * Cluster membership as seen by one gateway node.
+ */
+public class ClusterView {
+  private final String self;
+  private final List<String> nodes;
+  @JsonProperty("virtual_nodes")
+  private final int virtualNodes;
+  @JsonProperty("previous_configurations")
+  private final int previousConfigurations;
+
+  public ClusterView(String self, List<String> nodes, int virtualNodes, int previousConfigurations) {
+    this.self = self;
+    this.nodes = nodes;
+    this.virtualNodes = virtualNodes;
+    this.previousConfigurations = previousConfigurations;
+  }
+
+  public String getSelf() {
+    return self;
+  }
+
+  public List<String> getNodes() {
+    return nodes;
+  }
+
+  public int getVirtualNodes() {
+    return virtualNodes;
+  }
+
+  public int getPreviousConfigurations() {
+    return previousConfigurations;
+  }
+
+  @Override
+  public String toString() {
+    return "ClusterView{" +
+        "self='" + self + '\'' +
+        ", nodes=" + nodes +
+        ", virtualNodes=" + virtualNodes +
+        ", previousConfigurations=" + previousConfigurations +
+        '}';
+  }
+}
@@ -0,0 +1,63 @@
+package com.checkout.payment.gateway.model;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * Activity of the duplicate payment detection.
+ */
+public class DuplicateStats {
+  private final String action;
+  @JsonProperty("window_seconds")
+  private final long windowSeconds;
+  private final long checks;
+  private final long duplicates;
+  private final long evicted;
+
+  public DuplicateStats(String action, long windowSeconds, long checks, long duplicates, long evicted) {
+    this.action = action;
+    this.windowSeconds = windowSeconds;
+    this.checks = checks;
+    this.duplicates = duplicates;
+    this.evicted = evicted;
+  }
+
+  /**
+   * @return what happens to suspected duplicates: off, flag or reject
+   */
+  public String getAction() {
+    return action;
+  }
+
+  public long getWindowSeconds() {
+    return windowSeconds;
+  }
+
+  public long getChecks() {
+    return checks;
+  }
+
+  /**
+   * @return payments found repeating an earlier one
+   */
+  public long getDuplicates() {
+    return duplicates;
+  }
+
+  /**
+   * @return payments forgotten before the end of the window to make room for others
+   */
+  public long getEvicted() {
+    return evicted;
+  }
+
+  @Override
+  public String toString() {
+    return "DuplicateStats{" +
+        "action='" + action + '\'' +
+        ", windowSeconds=" + windowSeconds +
+        ", checks=" + checks +
+        ", duplicates=" + duplicates +
+        ", evicted=" + evicted +
+        '}';
+  }
+}
@@ -0,0 +1,99 @@
+package com.checkout.payment.gateway.model;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import java.util.List;
+
+/**
+ * State of the payment event bus: how far it has published and how far behind each subscriber is.
+ */
+public class EventBusStats {
+  @JsonProperty("ring_size")
+  private final int ringSize;
+  private final long published;
+  private final List<Subscriber> subscribers;
+
+  public EventBusStats(int ringSize, long published, List<Subscriber> subscribers) {
+    this.ringSize = ringSize;
+    this.published = published;
+    this.subscribers = subscribers;
+  }
+
+  public int getRingSize() {
+    return ringSize;
+  }
+
+  /**
+   * @return the sequence of the last published event
+   */
+  public long getPublished() {
+    return published;
+  }
+
+  public List<Subscriber> getSubscribers() {
+    return subscribers;
+  }
+
+  @Override
+  public String toString() {
+    return "EventBusStats{" +
+        "ringSize=" + ringSize +
+        ", published=" + published +
+        ", subscribers=" + subscribers +
+        '}';
+  }
+
+  /**
+   * One consumer of the bus.
+   */
+  public static class Subscriber {
+    private final String name;
+    private final long sequence;
+    private final long lag;
+    private final long delivered;
+    private final long missed;
+
+    public Subscriber(String name, long sequence, long lag, long delivered, long missed) {
+      this.name = name;
+      this.sequence = sequence;
+      this.lag = lag;
+      this.delivered = delivered;
+      this.missed = missed;
+    }
+
+    public String getName() {
+      return name;
+    }
+
+    /**
+     * @return the sequence of the last event handed to the subscriber
+     */
+    public long getSequence() {
+      return sequence;
+    }
+
+    public long getLag() {
+      return lag;
+    }
+
+    public long getDelivered() {
+      return delivered;
+    }
+
+    /**
+     * @return events overwritten before the subscriber got to them
+     */
+    public long getMissed() {
+      return missed;
+    }
+
+    @Override
+    public String toString() {
+      return "Subscriber{" +
+          "name='" + name + '\'' +
+          ", sequence=" + sequence +
+          ", lag=" + lag +
+          ", missed=" + missed +
+          '}';
+    }
+  }
+}
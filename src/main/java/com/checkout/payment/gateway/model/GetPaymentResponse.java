@@ -1,6 +1,7 @@
 package com.checkout.payment.gateway.model;
 
 import com.checkout.payment.gateway.enums.PaymentStatus;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import java.util.UUID;
 
 /**
@@ -15,9 +16,18 @@ public class GetPaymentResponse {
   private int expiryYear;
   private String currency;
   private int amount;
+  @JsonInclude(JsonInclude.Include.NON_DEFAULT)
+  private int capturedAmount;
+  @JsonInclude(JsonInclude.Include.NON_DEFAULT)
+  private int refundedAmount;
 
   public GetPaymentResponse(UUID id, PaymentStatus status, String cardNumberLastFour, int expiryMonth,
       int expiryYear, String currency, int amount) {
+    this(id, status, cardNumberLastFour, expiryMonth, expiryYear, currency, amount, 0, 0);
+  }
+
+  public GetPaymentResponse(UUID id, PaymentStatus status, String cardNumberLastFour, int expiryMonth,
+      int expiryYear, String currency, int amount, int capturedAmount, int refundedAmount) {
     this.id = id;
     this.status = status;
     this.cardNumberLastFour = cardNumberLastFour;
@@ -25,6 +35,8 @@ public class GetPaymentResponse {
     this.expiryYear = expiryYear;
     this.currency = currency;
     this.amount = amount;
+    this.capturedAmount = capturedAmount;
+    this.refundedAmount = refundedAmount;
   }
 
   /**
@@ -40,7 +52,9 @@ public class GetPaymentResponse {
         stored.getExpiryMonth(),
         stored.getExpiryYear(),
         stored.getCurrency(),
-        stored.getAmount()
+        stored.getAmount(),
+        stored.getCapturedAmount(),
+        stored.getRefundedAmount()
     );
   }
 
@@ -100,6 +114,22 @@ public class GetPaymentResponse {
     this.amount = amount;
   }
 
+  public int getCapturedAmount() {
+    return capturedAmount;
+  }
+
+  public void setCapturedAmount(int capturedAmount) {
+    this.capturedAmount = capturedAmount;
+  }
+
+  public int getRefundedAmount() {
+    return refundedAmount;
+  }
+
+  public void setRefundedAmount(int refundedAmount) {
+    this.refundedAmount = refundedAmount;
+  }
+
   @Override
   public String toString() {
     return "GetPaymentResponse{" +
@@ -110,6 +140,8 @@ public class GetPaymentResponse {
         ", expiryYear=" + expiryYear +
         ", currency='" + currency + '\'' +
         ", amount=" + amount +
+        ", capturedAmount=" + capturedAmount +
+        ", refundedAmount=" + refundedAmount +
         '}';
   }
 }
@@ -0,0 +1,67 @@
+package com.checkout.payment.gateway.model;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * A stored payment, as relayed from the outbox to the downstream sink. There is one event per
+ * repository write; a payment accepted asynchronously therefore produces a {@code payment.pending}
+ * event followed by one for its final status.
+ */
+public class OutboxEvent {
+  private final UUID id;
+  private final long sequence;
+  private final String type;
+  @JsonProperty("created_at")
+  private final Instant createdAt;
+  private final PostPaymentResponse payment;
+
+  public OutboxEvent(UUID id, long sequence, String type, Instant createdAt, PostPaymentResponse payment) {
+    this.id = id;
+    this.sequence = sequence;
+    this.type = type;
+    this.createdAt = createdAt;
+    this.payment = payment;
+  }
+
+  /**
+   * @return an id that stays the same when the event is delivered again
+   */
+  public UUID getId() {
+    return id;
+  }
+
+  /**
+   * @return the position of the write in the outbox, numbered from 1 on every start of the gateway
+   */
+  public long getSequence() {
+    return sequence;
+  }
+
+  /**
+   * @return {@code payment.} followed by the lower case status, e.g. {@code payment.authorized}
+   */
+  public String getType() {
+    return type;
+  }
+
+  public Instant getCreatedAt() {
+    return createdAt;
+  }
+
+  public PostPaymentResponse getPayment() {
+    return payment;
+  }
+
+  @Override
+  public String toString() {
+    return "OutboxEvent{" +
+        "id=" + id +
+        ", sequence=" + sequence +
+        ", type='" + type + '\'' +
+        ", createdAt=" + createdAt +
+        ", payment=" + payment +
+        '}';
+  }
+}
@@ -0,0 +1,107 @@
+package com.checkout.payment.gateway.model;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * Progress of the outbox relay: how far delivery to the sink trails the repository writes.
+ */
+public class OutboxStats {
+  private final String sink;
+  private final long appended;
+  private final long delivered;
+  private final long pending;
+  @JsonProperty("lag_ms")
+  private final long lagMillis;
+  @JsonProperty("in_flight")
+  private final int inFlight;
+  private final long batches;
+  @JsonProperty("failed_attempts")
+  private final long failedAttempts;
+  @JsonProperty("delivered_last_second")
+  private final long deliveredLastSecond;
+
+  public OutboxStats(String sink, long appended, long delivered, long pending, long lagMillis,
+      int inFlight, long batches, long failedAttempts, long deliveredLastSecond) {
+    this.sink = sink;
+    this.appended = appended;
+    this.delivered = delivered;
+    this.pending = pending;
+    this.lagMillis = lagMillis;
+    this.inFlight = inFlight;
+    this.batches = batches;
+    this.failedAttempts = failedAttempts;
+    this.deliveredLastSecond = deliveredLastSecond;
+  }
+
+  /**
+   * @return a description of the sink, or {@code null} if the outbox is disabled
+   */
+  public String getSink() {
+    return sink;
+  }
+
+  /**
+   * @return events written to the outbox since the gateway started
+   */
+  public long getAppended() {
+    return appended;
+  }
+
+  /**
+   * @return events acknowledged by the sink
+   */
+  public long getDelivered() {
+    return delivered;
+  }
+
+  /**
+   * @return events not yet acknowledged by the sink, including those being sent
+   */
+  public long getPending() {
+    return pending;
+  }
+
+  /**
+   * @return age of the oldest pending event, 0 if there is none
+   */
+  public long getLagMillis() {
+    return lagMillis;
+  }
+
+  /**
+   * @return batches being sent or waiting to be retried
+   */
+  public int getInFlight() {
+    return inFlight;
+  }
+
+  public long getBatches() {
+    return batches;
+  }
+
+  public long getFailedAttempts() {
+    return failedAttempts;
+  }
+
+  /**
+   * @return events acknowledged during the last whole second
+   */
+  public long getDeliveredLastSecond() {
+    return deliveredLastSecond;
+  }
+
+  @Override
+  public String toString() {
+    return "OutboxStats{" +
+        "sink='" + sink + '\'' +
+        ", appended=" + appended +
+        ", delivered=" + delivered +
+        ", pending=" + pending +
+        ", lagMillis=" + lagMillis +
+        ", inFlight=" + inFlight +
+        ", batches=" + batches +
+        ", failedAttempts=" + failedAttempts +
+        ", deliveredLastSecond=" + deliveredLastSecond +
+        '}';
+  }
+}
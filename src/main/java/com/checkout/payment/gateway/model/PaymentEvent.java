@@ -0,0 +1,86 @@
+package com.checkout.payment.gateway.model;
+
+import com.checkout.payment.gateway.enums.PaymentStatus;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * A payment outcome as published on the in-process event bus, numbered in publication order.
+ */
+public class PaymentEvent {
+  private final long sequence;
+  @JsonProperty("payment_id")
+  private final UUID paymentId;
+  private final PaymentStatus status;
+  @JsonProperty("card_number_last_four")
+  private final String cardNumberLastFour;
+  @JsonProperty("expiry_month")
+  private final int expiryMonth;
+  @JsonProperty("expiry_year")
+  private final int expiryYear;
+  private final String currency;
+  private final int amount;
+  @JsonProperty("occurred_at")
+  private final Instant occurredAt;
+
+  public PaymentEvent(long sequence, UUID paymentId, PaymentStatus status, String cardNumberLastFour,
+      int expiryMonth, int expiryYear, String currency, int amount, Instant occurredAt) {
+    this.sequence = sequence;
+    this.paymentId = paymentId;
+    this.status = status;
+    this.cardNumberLastFour = cardNumberLastFour;
+    this.expiryMonth = expiryMonth;
+    this.expiryYear = expiryYear;
+    this.currency = currency;
+    this.amount = amount;
+    this.occurredAt = occurredAt;
+  }
+
+  public long getSequence() {
+    return sequence;
+  }
+
+  public UUID getPaymentId() {
+    return paymentId;
+  }
+
+  public PaymentStatus getStatus() {
+    return status;
+  }
+
+  public String getCardNumberLastFour() {
+    return cardNumberLastFour;
+  }
+
+  public int getExpiryMonth() {
+    return expiryMonth;
+  }
+
+  public int getExpiryYear() {
+    return expiryYear;
+  }
+
+  public String getCurrency() {
+    return currency;
+  }
+
+  public int getAmount() {
+    return amount;
+  }
+
+  public Instant getOccurredAt() {
+    return occurredAt;
+  }
+
+  @Override
+  public String toString() {
+    return "PaymentEvent{" +
+        "sequence=" + sequence +
+        ", paymentId=" + paymentId +
+        ", status=" + status +
+        ", currency='" + currency + '\'' +
+        ", amount=" + amount +
+        '}';
+  }
+}
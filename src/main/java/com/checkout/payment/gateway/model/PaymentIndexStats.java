@@ -0,0 +1,58 @@
+package com.checkout.payment.gateway.model;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * Size and memory overhead of the payment secondary indexes.
+ */
+public class PaymentIndexStats {
+  @JsonProperty("indexed_payments")
+  private final long indexedPayments;
+  @JsonProperty("max_indexed_payments")
+  private final long maxIndexedPayments;
+  @JsonProperty("posting_lists")
+  private final int postingLists;
+  private final int containers;
+  @JsonProperty("estimated_bytes")
+  private final long estimatedBytes;
+
+  public PaymentIndexStats(long indexedPayments, long maxIndexedPayments, int postingLists,
+      int containers, long estimatedBytes) {
+    this.indexedPayments = indexedPayments;
+    this.maxIndexedPayments = maxIndexedPayments;
+    this.postingLists = postingLists;
+    this.containers = containers;
+    this.estimatedBytes = estimatedBytes;
+  }
+
+  public long getIndexedPayments() {
+    return indexedPayments;
+  }
+
+  public long getMaxIndexedPayments() {
+    return maxIndexedPayments;
+  }
+
+  public int getPostingLists() {
+    return postingLists;
+  }
+
+  public int getContainers() {
+    return containers;
+  }
+
+  public long getEstimatedBytes() {
+    return estimatedBytes;
+  }
+
+  @Override
+  public String toString() {
+    return "PaymentIndexStats{" +
+        "indexedPayments=" + indexedPayments +
+        ", maxIndexedPayments=" + maxIndexedPayments +
+        ", postingLists=" + postingLists +
+        ", containers=" + containers +
+        ", estimatedBytes=" + estimatedBytes +
+        '}';
+  }
+}
@@ -0,0 +1,105 @@
+package com.checkout.payment.gateway.model;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import java.util.List;
+
+/**
+ * Load on the lanes payment writes are applied on.
+ */
+public class PaymentLaneStats {
+  @JsonProperty("mailbox_capacity")
+  private final int mailboxCapacity;
+  private final long executed;
+  private final long waits;
+  private final double imbalance;
+  private final List<Lane> lanes;
+
+  public PaymentLaneStats(int mailboxCapacity, long executed, long waits, double imbalance, List<Lane> lanes) {
+    this.mailboxCapacity = mailboxCapacity;
+    this.executed = executed;
+    this.waits = waits;
+    this.imbalance = imbalance;
+    this.lanes = lanes;
+  }
+
+  public int getMailboxCapacity() {
+    return mailboxCapacity;
+  }
+
+  public long getExecuted() {
+    return executed;
+  }
+
+  /**
+   * @return submissions that found their lane's mailbox full and waited for room
+   */
+  public long getWaits() {
+    return waits;
+  }
+
+  /**
+   * @return writes run by the busiest lane over the mean per lane, 1 when evenly spread
+   */
+  public double getImbalance() {
+    return imbalance;
+  }
+
+  /**
+   * @return the deepest mailbox right now
+   */
+  @JsonProperty("max_depth")
+  public int getMaxDepth() {
+    return lanes.stream().mapToInt(Lane::getDepth).max().orElse(0);
+  }
+
+  public List<Lane> getLanes() {
+    return lanes;
+  }
+
+  @Override
+  public String toString() {
+    return "PaymentLaneStats{" +
+        "mailboxCapacity=" + mailboxCapacity +
+        ", executed=" + executed +
+        ", waits=" + waits +
+        ", imbalance=" + imbalance +
+        ", lanes=" + lanes +
+        '}';
+  }
+
+  /**
+   * One lane: the writes waiting in its mailbox and those it has run.
+   */
+  public static class Lane {
+    private final int index;
+    private final int depth;
+    private final long executed;
+
+    public Lane(int index, int depth, long executed) {
+      this.index = index;
+      this.depth = depth;
+      this.executed = executed;
+    }
+
+    public int getIndex() {
+      return index;
+    }
+
+    public int getDepth() {
+      return depth;
+    }
+
+    public long getExecuted() {
+      return executed;
+    }
+
+    @Override
+    public String toString() {
+      return "Lane{" +
+          "index=" + index +
+          ", depth=" + depth +
+          ", executed=" + executed +
+          '}';
+    }
+  }
+}
@@ -0,0 +1,32 @@
+package com.checkout.payment.gateway.model;
+
+/**
+ * Body of a capture or refund request.
+ */
+public class PaymentOperationRequest {
+  private Integer amount;
+
+  public PaymentOperationRequest() { }
+
+  public PaymentOperationRequest(Integer amount) {
+    this.amount = amount;
+  }
+
+  /**
+   * @return the amount to capture or refund in minor units, or {@code null} for all that is left
+   */
+  public Integer getAmount() {
+    return amount;
+  }
+
+  public void setAmount(Integer amount) {
+    this.amount = amount;
+  }
+
+  @Override
+  public String toString() {
+    return "PaymentOperationRequest{" +
+        "amount=" + amount +
+        '}';
+  }
+}
@@ -0,0 +1,63 @@
+package com.checkout.payment.gateway.model;
+
+import com.checkout.payment.gateway.enums.PaymentStatus;
+import java.time.Instant;
+
+/**
+ * Criteria for searching stored payments. Every criterion is optional, set criteria are combined
+ * with AND. Results are returned most recent first, up to {@code limit} payments.
+ */
+public class PaymentQuery {
+  private final PaymentStatus status;
+  private final String currency;
+  private final String cardNumberLastFour;
+  private final Instant from;
+  private final Instant to;
+  private final int limit;
+
+  public PaymentQuery(PaymentStatus status, String currency, String cardNumberLastFour,
+      Instant from, Instant to, int limit) {
+    this.status = status;
+    this.currency = currency;
+    this.cardNumberLastFour = cardNumberLastFour;
+    this.from = from;
+    this.to = to;
+    this.limit = limit;
+  }
+
+  public PaymentStatus getStatus() {
+    return status;
+  }
+
+  public String getCurrency() {
+    return currency;
+  }
+
+  public String getCardNumberLastFour() {
+    return cardNumberLastFour;
+  }
+
+  public Instant getFrom() {
+    return from;
+  }
+
+  public Instant getTo() {
+    return to;
+  }
+
+  public int getLimit() {
+    return limit;
+  }
+
+  @Override
+  public String toString() {
+    return "PaymentQuery{" +
+        "status=" + status +
+        ", currency='" + currency + '\'' +
+        ", cardNumberLastFour=" + cardNumberLastFour +
+        ", from=" + from +
+        ", to=" + to +
+        ", limit=" + limit +
+        '}';
+  }
+}
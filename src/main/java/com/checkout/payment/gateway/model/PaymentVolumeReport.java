@@ -0,0 +1,149 @@
+package com.checkout.payment.gateway.model;
+
+import com.checkout.payment.gateway.enums.PaymentStatus;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Payment counts and summed amounts per currency and status over rolling time windows.
+ */
+public class PaymentVolumeReport {
+  @JsonProperty("generated_at")
+  private final Instant generatedAt;
+  private final List<VolumeWindow> windows;
+
+  public PaymentVolumeReport(Instant generatedAt, List<VolumeWindow> windows) {
+    this.generatedAt = generatedAt;
+    this.windows = windows;
+  }
+
+  public Instant getGeneratedAt() {
+    return generatedAt;
+  }
+
+  public List<VolumeWindow> getWindows() {
+    return windows;
+  }
+
+  @Override
+  public String toString() {
+    return "PaymentVolumeReport{" +
+        "generatedAt=" + generatedAt +
+        ", windows=" + windows +
+        '}';
+  }
+
+  /**
+   * Volumes over one window, e.g. the last minute. {@code durationSeconds} is {@code null} for
+   * the window covering everything since startup.
+   */
+  public static class VolumeWindow {
+    private final String name;
+    @JsonProperty("duration_seconds")
+    private final Long durationSeconds;
+    private final List<CurrencyVolume> currencies;
+
+    public VolumeWindow(String name, Long durationSeconds, List<CurrencyVolume> currencies) {
+      this.name = name;
+      this.durationSeconds = durationSeconds;
+      this.currencies = currencies;
+    }
+
+    public String getName() {
+      return name;
+    }
+
+    public Long getDurationSeconds() {
+      return durationSeconds;
+    }
+
+    public List<CurrencyVolume> getCurrencies() {
+      return currencies;
+    }
+
+    @Override
+    public String toString() {
+      return "VolumeWindow{" +
+          "name='" + name + '\'' +
+          ", durationSeconds=" + durationSeconds +
+          ", currencies=" + currencies +
+          '}';
+    }
+  }
+
+  /**
+   * Volumes of one currency. Payments in unsupported currencies are reported under
+   * {@code OTHER}. The authorization rate is authorized / (authorized + declined), or
+   * {@code null} when no payment reached the acquiring bank.
+   */
+  public static class CurrencyVolume {
+    private final String currency;
+    private final List<StatusVolume> statuses;
+    @JsonProperty("authorization_rate")
+    private final Double authorizationRate;
+
+    public CurrencyVolume(String currency, List<StatusVolume> statuses, Double authorizationRate) {
+      this.currency = currency;
+      this.statuses = statuses;
+      this.authorizationRate = authorizationRate;
+    }
+
+    public String getCurrency() {
+      return currency;
+    }
+
+    public List<StatusVolume> getStatuses() {
+      return statuses;
+    }
+
+    public Double getAuthorizationRate() {
+      return authorizationRate;
+    }
+
+    @Override
+    public String toString() {
+      return "CurrencyVolume{" +
+          "currency='" + currency + '\'' +
+          ", statuses=" + statuses +
+          ", authorizationRate=" + authorizationRate +
+          '}';
+    }
+  }
+
+  /**
+   * Number of payments with one status and the sum of their amounts in minor units.
+   */
+  public static class StatusVolume {
+    private final PaymentStatus status;
+    private final long count;
+    private final long amount;
+
+    public StatusVolume(PaymentStatus status, long count, long amount) {
+      this.status = status;
+      this.count = count;
+      this.amount = amount;
+    }
+
+    public PaymentStatus getStatus() {
+      return status;
+    }
+
+    public long getCount() {
+      return count;
+    }
+
+    public long getAmount() {
+      return amount;
+    }
+
+    @Override
+    public String toString() {
+      return "StatusVolume{" +
+          "status=" + status +
+          ", count=" + count +
+          ", amount=" + amount +
+          '}';
+    }
+  }
+}
@@ -0,0 +1,53 @@
+package com.checkout.payment.gateway.model;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Notification sent to webhook endpoints when a payment reaches its final status. Receivers may get
+ * the same event more than once and should use its id to discard duplicates.
+ */
+public class PaymentWebhookEvent {
+  private final UUID id;
+  private final String type;
+  @JsonProperty("created_at")
+  private final Instant createdAt;
+  private final PostPaymentResponse payment;
+
+  public PaymentWebhookEvent(UUID id, String type, Instant createdAt, PostPaymentResponse payment) {
+    this.id = id;
+    this.type = type;
+    this.createdAt = createdAt;
+    this.payment = payment;
+  }
+
+  public UUID getId() {
+    return id;
+  }
+
+  /**
+   * @return {@code payment.authorized}, {@code payment.declined} or {@code payment.rejected}
+   */
+  public String getType() {
+    return type;
+  }
+
+  public Instant getCreatedAt() {
+    return createdAt;
+  }
+
+  public PostPaymentResponse getPayment() {
+    return payment;
+  }
+
+  @Override
+  public String toString() {
+    return "PaymentWebhookEvent{" +
+        "id=" + id +
+        ", type='" + type + '\'' +
+        ", createdAt=" + createdAt +
+        ", paymentId=" + payment.getId() +
+        '}';
+  }
+}
@@ -17,6 +17,21 @@ public class PostAcquiringBankRequest {
   private int amount;
   private String cvv;
 
+  /**
+   * Maps a merchant payment request to the payload expected by the acquiring bank.
+   * @param request the validated payment request
+   * @return the corresponding PostAcquiringBankRequest
+   */
+  public static PostAcquiringBankRequest from(PostPaymentRequest request) {
+    PostAcquiringBankRequest bankRequest = new PostAcquiringBankRequest();
+    bankRequest.setCardNumber(request.getCardNumber());
+    bankRequest.setExpiryDate(request.getExpiryMonth() + "/" + request.getExpiryYear());
+    bankRequest.setCurrency(request.getCurrency());
+    bankRequest.setAmount(request.getAmount());
+    bankRequest.setCvv(request.getCvv());
+    return bankRequest;
+  }
+
   public String getCardNumber() {
     return cardNumber;
   }
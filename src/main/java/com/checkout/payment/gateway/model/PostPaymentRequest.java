@@ -1,11 +1,13 @@
 package com.checkout.payment.gateway.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import java.io.Serializable;
 
 /**
  * Request for payment processing containing card and payment details.
- * Card numbers are sent in full for bank validation.
+ * Card numbers are sent in full for bank validation, or replaced by the card token returned for an
+ * earlier payment with the same card.
  */
 public class PostPaymentRequest implements Serializable {
 
@@ -13,6 +15,8 @@ public class PostPaymentRequest implements Serializable {
   // but tokenized number should be stored securely in real applications.
   @JsonProperty("card_number")
   private String cardNumber;
+  @JsonProperty("card_token")
+  private String cardToken;
   @JsonProperty("expiry_month")
   private int expiryMonth;
   @JsonProperty("expiry_year")
@@ -21,6 +25,9 @@ public class PostPaymentRequest implements Serializable {
   private int amount;
   // Changed cvv int to String for easy validation and to preserve leading zeros
   private String cvv;
+  // Set from the API key header by the gateway, never read from the request body
+  @JsonIgnore
+  private String merchant;
 
   public String getCardNumber() {
     return cardNumber;
@@ -30,6 +37,14 @@ public class PostPaymentRequest implements Serializable {
     this.cardNumber = cardNumber;
   }
 
+  public String getCardToken() {
+    return cardToken;
+  }
+
+  public void setCardToken(String cardToken) {
+    this.cardToken = cardToken;
+  }
+
   public String getCardNumberLastFour() {
     if (cardNumber == null || cardNumber.length() < 4) {
       return cardNumber;
@@ -77,20 +92,27 @@ public class PostPaymentRequest implements Serializable {
     this.cvv = cvv;
   }
 
-  @JsonProperty("expiry_date")
-  public String getExpiryDate() {
-    return String.format("%d/%d", expiryMonth, expiryYear);
+  /**
+   * @return the API key of the merchant submitting the payment, or {@code null} if it sent none
+   */
+  public String getMerchant() {
+    return merchant;
+  }
+
+  public void setMerchant(String merchant) {
+    this.merchant = merchant;
   }
 
   @Override
   public String toString() {
     return "PostPaymentRequest{" +
-        "cardNumber=" + cardNumber +
+        "cardNumberLastFour=" + getCardNumberLastFour() +
+        ", cardToken=" + (cardToken == null ? null : "***") +
         ", expiryMonth=" + expiryMonth +
         ", expiryYear=" + expiryYear +
         ", currency='" + currency + '\'' +
         ", amount=" + amount +
-        ", cvv=" + cvv +
+        ", cvv=" + (cvv == null ? null : "***") +
         '}';
   }
 }
@@ -1,6 +1,7 @@
 package com.checkout.payment.gateway.model;
 
 import com.checkout.payment.gateway.enums.PaymentStatus;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import java.util.UUID;
 
@@ -21,6 +22,17 @@ public class PostPaymentResponse {
   private int expiryYear;
   private String currency;
   private int amount;
+  // Omitted until something is captured or refunded, as for payments that are only authorized
+  @JsonProperty("captured_amount")
+  @JsonInclude(JsonInclude.Include.NON_DEFAULT)
+  private int capturedAmount;
+  @JsonProperty("refunded_amount")
+  @JsonInclude(JsonInclude.Include.NON_DEFAULT)
+  private int refundedAmount;
+  // Only returned to the merchant that sent the payment, never stored with it
+  @JsonProperty("card_token")
+  @JsonInclude(JsonInclude.Include.NON_NULL)
+  private String cardToken;
 
   public PostPaymentResponse() { }
 
@@ -90,6 +102,58 @@ public class PostPaymentResponse {
     this.amount = amount;
   }
 
+  /**
+   * @return the part of the amount captured so far, in minor units
+   */
+  public int getCapturedAmount() {
+    return capturedAmount;
+  }
+
+  public void setCapturedAmount(int capturedAmount) {
+    this.capturedAmount = capturedAmount;
+  }
+
+  /**
+   * @return the part of the captured amount refunded so far, in minor units
+   */
+  public int getRefundedAmount() {
+    return refundedAmount;
+  }
+
+  public void setRefundedAmount(int refundedAmount) {
+    this.refundedAmount = refundedAmount;
+  }
+
+  /**
+   * @return the token to send instead of the card number on later payments, or {@code null}
+   */
+  public String getCardToken() {
+    return cardToken;
+  }
+
+  public void setCardToken(String cardToken) {
+    this.cardToken = cardToken;
+  }
+
+  /**
+   * @return a copy of this payment carrying the given card token, leaving this one untouched so
+   *     that the token never reaches what it was stored or published with
+   */
+  public PostPaymentResponse withCardToken(String cardToken) {
+    PostPaymentResponse copy = new PostPaymentResponse();
+    copy.id = id;
+    copy.status = status;
+    copy.cardNumberLastFour = cardNumberLastFour;
+    copy.expiryMonth = expiryMonth;
+    copy.expiryYear = expiryYear;
+    copy.currency = currency;
+    copy.amount = amount;
+    copy.capturedAmount = capturedAmount;
+    copy.refundedAmount = refundedAmount;
+    copy.cardToken = cardToken;
+    return copy;
+  }
+
   @Override
   public String toString() {
     return "GetPaymentResponse{" +
@@ -100,6 +164,9 @@ public class PostPaymentResponse {
         ", expiryYear=" + expiryYear +
         ", currency='" + currency + '\'' +
         ", amount=" + amount +
+        ", capturedAmount=" + capturedAmount +
+        ", refundedAmount=" + refundedAmount +
+        ", cardToken=" + (cardToken == null ? null : "***") +
         '}';
   }
 }
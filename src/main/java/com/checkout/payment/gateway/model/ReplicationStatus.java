@@ -0,0 +1,166 @@
+package com.checkout.payment.gateway.model;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import java.util.List;
+
+/**
+ * Replication state of one gateway node: the followers streaming from it, and the leader it
+ * streams from if it is a follower itself.
+ */
+public class ReplicationStatus {
+  @JsonProperty("log_sequence")
+  private final long logSequence;
+  private final List<Follower> followers;
+  private final Leader leader;
+
+  public ReplicationStatus(long logSequence, List<Follower> followers, Leader leader) {
+    this.logSequence = logSequence;
+    this.followers = followers;
+    this.leader = leader;
+  }
+
+  public long getLogSequence() {
+    return logSequence;
+  }
+
+  public List<Follower> getFollowers() {
+    return followers;
+  }
+
+  public Leader getLeader() {
+    return leader;
+  }
+
+  @Override
+  public String toString() {
+    return "ReplicationStatus{" +
+        "logSequence=" + logSequence +
+        ", followers=" + followers +
+        ", leader=" + leader +
+        '}';
+  }
+
+  /**
+   * A follower connected to this node, as acknowledged by it.
+   */
+  public static class Follower {
+    private final String address;
+    @JsonProperty("sent_sequence")
+    private final long sentSequence;
+    @JsonProperty("acked_sequence")
+    private final long ackedSequence;
+    @JsonProperty("lag_entries")
+    private final long lagEntries;
+    @JsonProperty("snapshots_sent")
+    private final int snapshotsSent;
+
+    public Follower(String address, long sentSequence, long ackedSequence, long lagEntries, int snapshotsSent) {
+      this.address = address;
+      this.sentSequence = sentSequence;
+      this.ackedSequence = ackedSequence;
+      this.lagEntries = lagEntries;
+      this.snapshotsSent = snapshotsSent;
+    }
+
+    public String getAddress() {
+      return address;
+    }
+
+    public long getSentSequence() {
+      return sentSequence;
+    }
+
+    public long getAckedSequence() {
+      return ackedSequence;
+    }
+
+    public long getLagEntries() {
+      return lagEntries;
+    }
+
+    public int getSnapshotsSent() {
+      return snapshotsSent;
+    }
+
+    @Override
+    public String toString() {
+      return "Follower{" +
+          "address='" + address + '\'' +
+          ", sentSequence=" + sentSequence +
+          ", ackedSequence=" + ackedSequence +
+          ", lagEntries=" + lagEntries +
+          ", snapshotsSent=" + snapshotsSent +
+          '}';
+    }
+  }
+
+  /**
+   * The leader this node replicates from.
+   */
+  public static class Leader {
+    private final String address;
+    private final boolean connected;
+    @JsonProperty("applied_sequence")
+    private final long appliedSequence;
+    @JsonProperty("leader_sequence")
+    private final long leaderSequence;
+    @JsonProperty("lag_entries")
+    private final long lagEntries;
+    @JsonProperty("delay_millis")
+    private final long delayMillis;
+    @JsonProperty("snapshots_received")
+    private final int snapshotsReceived;
+
+    public Leader(String address, boolean connected, long appliedSequence, long leaderSequence,
+        long delayMillis, int snapshotsReceived) {
+      this.address = address;
+      this.connected = connected;
+      this.appliedSequence = appliedSequence;
+      this.leaderSequence = leaderSequence;
+      this.lagEntries = Math.max(0, leaderSequence - appliedSequence);
+      this.delayMillis = delayMillis;
+      this.snapshotsReceived = snapshotsReceived;
+    }
+
+    public String getAddress() {
+      return address;
+    }
+
+    public boolean isConnected() {
+      return connected;
+    }
+
+    public long getAppliedSequence() {
+      return appliedSequence;
+    }
+
+    public long getLeaderSequence() {
+      return leaderSequence;
+    }
+
+    public long getLagEntries() {
+      return lagEntries;
+    }
+
+    public long getDelayMillis() {
+      return delayMillis;
+    }
+
+    public int getSnapshotsReceived() {
+      return snapshotsReceived;
+    }
+
+    @Override
+    public String toString() {
+      return "Leader{" +
+          "address='" + address + '\'' +
+          ", connected=" + connected +
+          ", appliedSequence=" + appliedSequence +
+          ", leaderSequence=" + leaderSequence +
+          ", lagEntries=" + lagEntries +
+          ", delayMillis=" + delayMillis +
+          ", snapshotsReceived=" + snapshotsReceived +
+          '}';
+    }
+  }
+}
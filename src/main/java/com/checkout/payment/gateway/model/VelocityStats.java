@@ -0,0 +1,77 @@
+package com.checkout.payment.gateway.model;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * Limits and activity of the per-card velocity checks.
+ */
+public class VelocityStats {
+  private final int capacity;
+  @JsonProperty("max_payments")
+  private final int maxPayments;
+  @JsonProperty("max_amount")
+  private final long maxAmount;
+  @JsonProperty("window_seconds")
+  private final long windowSeconds;
+  private final long checks;
+  private final long rejected;
+  private final long evicted;
+
+  public VelocityStats(int capacity, int maxPayments, long maxAmount, long windowSeconds, long checks,
+      long rejected, long evicted) {
+    this.capacity = capacity;
+    this.maxPayments = maxPayments;
+    this.maxAmount = maxAmount;
+    this.windowSeconds = windowSeconds;
+    this.checks = checks;
+    this.rejected = rejected;
+    this.evicted = evicted;
+  }
+
+  /**
+   * @return how many cards can be tracked at once
+   */
+  public int getCapacity() {
+    return capacity;
+  }
+
+  public int getMaxPayments() {
+    return maxPayments;
+  }
+
+  public long getMaxAmount() {
+    return maxAmount;
+  }
+
+  public long getWindowSeconds() {
+    return windowSeconds;
+  }
+
+  public long getChecks() {
+    return checks;
+  }
+
+  public long getRejected() {
+    return rejected;
+  }
+
+  /**
+   * @return cards whose counts were dropped while still in the window to make room for another
+   */
+  public long getEvicted() {
+    return evicted;
+  }
+
+  @Override
+  public String toString() {
+    return "VelocityStats{" +
+        "capacity=" + capacity +
+        ", maxPayments=" + maxPayments +
+        ", maxAmount=" + maxAmount +
+        ", windowSeconds=" + windowSeconds +
+        ", checks=" + checks +
+        ", rejected=" + rejected +
+        ", evicted=" + evicted +
+        '}';
+  }
+}
@@ -0,0 +1,73 @@
+package com.checkout.payment.gateway.model;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * A webhook event given up on, with the endpoint it was meant for and why it was not delivered.
+ */
+public class WebhookDeadLetter {
+  @JsonProperty("event_id")
+  private final UUID eventId;
+  private final String type;
+  @JsonProperty("payment_id")
+  private final UUID paymentId;
+  private final String endpoint;
+  private final int attempts;
+  private final String reason;
+  @JsonProperty("failed_at")
+  private final Instant failedAt;
+
+  public WebhookDeadLetter(UUID eventId, String type, UUID paymentId, String endpoint, int attempts,
+      String reason, Instant failedAt) {
+    this.eventId = eventId;
+    this.type = type;
+    this.paymentId = paymentId;
+    this.endpoint = endpoint;
+    this.attempts = attempts;
+    this.reason = reason;
+    this.failedAt = failedAt;
+  }
+
+  public UUID getEventId() {
+    return eventId;
+  }
+
+  public String getType() {
+    return type;
+  }
+
+  public UUID getPaymentId() {
+    return paymentId;
+  }
+
+  public String getEndpoint() {
+    return endpoint;
+  }
+
+  /**
+   * @return the delivery attempts made, zero if the event never left the queue
+   */
+  public int getAttempts() {
+    return attempts;
+  }
+
+  public String getReason() {
+    return reason;
+  }
+
+  public Instant getFailedAt() {
+    return failedAt;
+  }
+
+  @Override
+  public String toString() {
+    return "WebhookDeadLetter{" +
+        "eventId=" + eventId +
+        ", endpoint='" + endpoint + '\'' +
+        ", attempts=" + attempts +
+        ", reason='" + reason + '\'' +
+        '}';
+  }
+}
@@ -0,0 +1,79 @@
+package com.checkout.payment.gateway.model;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * Delivery state of one webhook endpoint.
+ */
+public class WebhookEndpointStats {
+  private final String url;
+  private final int queued;
+  @JsonProperty("in_flight")
+  private final int inFlight;
+  private final long delivered;
+  private final long batches;
+  @JsonProperty("failed_attempts")
+  private final long failedAttempts;
+  @JsonProperty("dead_lettered")
+  private final long deadLettered;
+
+  public WebhookEndpointStats(String url, int queued, int inFlight, long delivered, long batches,
+      long failedAttempts, long deadLettered) {
+    this.url = url;
+    this.queued = queued;
+    this.inFlight = inFlight;
+    this.delivered = delivered;
+    this.batches = batches;
+    this.failedAttempts = failedAttempts;
+    this.deadLettered = deadLettered;
+  }
+
+  public String getUrl() {
+    return url;
+  }
+
+  public int getQueued() {
+    return queued;
+  }
+
+  /**
+   * @return batches being sent or waiting to be retried
+   */
+  public int getInFlight() {
+    return inFlight;
+  }
+
+  /**
+   * @return events acknowledged by the endpoint
+   */
+  public long getDelivered() {
+    return delivered;
+  }
+
+  /**
+   * @return batches acknowledged by the endpoint
+   */
+  public long getBatches() {
+    return batches;
+  }
+
+  public long getFailedAttempts() {
+    return failedAttempts;
+  }
+
+  public long getDeadLettered() {
+    return deadLettered;
+  }
+
+  @Override
+  public String toString() {
+    return "WebhookEndpointStats{" +
+        "url='" + url + '\'' +
+        ", queued=" + queued +
+        ", inFlight=" + inFlight +
+        ", delivered=" + delivered +
+        ", failedAttempts=" + failedAttempts +
+        ", deadLettered=" + deadLettered +
+        '}';
+  }
+}
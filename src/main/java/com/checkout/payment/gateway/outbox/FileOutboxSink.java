@@ -0,0 +1,65 @@
+package com.checkout.payment.gateway.outbox;
+
+import com.checkout.payment.gateway.codec.PaymentJsonCodec;
+import com.checkout.payment.gateway.model.OutboxEvent;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Appends outbox events to a local file as newline delimited JSON, standing in for a message
+ * broker. Batches are written in the order they are delivered and each is flushed to disk before
+ * it is acknowledged.
+ */
+public class FileOutboxSink implements OutboxSink, AutoCloseable {
+
+  private final Path path;
+  private final PaymentJsonCodec paymentJsonCodec;
+  private final FileChannel channel;
+  private final ExecutorService writer;
+
+  public FileOutboxSink(Path path, PaymentJsonCodec paymentJsonCodec) throws IOException {
+    this.path = path;
+    this.paymentJsonCodec = paymentJsonCodec;
+    this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+        StandardOpenOption.APPEND);
+    this.writer = Executors.newSingleThreadExecutor(runnable -> {
+      Thread thread = new Thread(runnable, "outbox-file-sink");
+      thread.setDaemon(true);
+      return thread;
+    });
+  }
+
+  @Override
+  public CompletableFuture<Void> deliver(List<OutboxEvent> events) {
+    return CompletableFuture.runAsync(() -> {
+      ByteBuffer buffer = ByteBuffer.wrap(paymentJsonCodec.writeOutboxEventLines(events));
+      try {
+        while (buffer.hasRemaining()) {
+          channel.write(buffer);
+        }
+        channel.force(false);
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    }, writer);
+  }
+
+  @Override
+  public String describe() {
+    return path.toUri().toString();
+  }
+
+  @Override
+  public void close() throws IOException {
+    writer.shutdown();
+    channel.close();
+  }
+}
@@ -0,0 +1,57 @@
+package com.checkout.payment.gateway.outbox;
+
+import com.checkout.payment.gateway.codec.PaymentJsonCodec;
+import com.checkout.payment.gateway.model.OutboxEvent;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+
+/**
+ * POSTs each batch of outbox events as a JSON array to an HTTP collector; any {@code 2xx} answer
+ * acknowledges the batch. Batches share persistent connections.
+ */
+public class HttpOutboxSink implements OutboxSink {
+
+  private final URI uri;
+  private final PaymentJsonCodec paymentJsonCodec;
+  private final Duration timeout;
+  private final HttpClient httpClient;
+
+  public HttpOutboxSink(URI uri, PaymentJsonCodec paymentJsonCodec, Duration timeout) {
+    if (!"http".equals(uri.getScheme()) && !"https".equals(uri.getScheme())) {
+      throw new IllegalArgumentException("Outbox URL must be an http(s) URL: " + uri);
+    }
+    this.uri = uri;
+    this.paymentJsonCodec = paymentJsonCodec;
+    this.timeout = timeout;
+    this.httpClient = HttpClient.newBuilder()
+        .version(HttpClient.Version.HTTP_1_1)
+        .connectTimeout(timeout)
+        .build();
+  }
+
+  @Override
+  public CompletableFuture<Void> deliver(List<OutboxEvent> events) {
+    HttpRequest request = HttpRequest.newBuilder(uri)
+        .timeout(timeout)
+        .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+        .POST(HttpRequest.BodyPublishers.ofByteArray(paymentJsonCodec.writeOutboxEvents(events)))
+        .build();
+    return httpClient.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+        .thenCompose(response -> response.statusCode() / 100 == 2
+            ? CompletableFuture.<Void>completedFuture(null)
+            : CompletableFuture.failedFuture(new IOException("HTTP " + response.statusCode())));
+  }
+
+  @Override
+  public String describe() {
+    return uri.toString();
+  }
+}
@@ -0,0 +1,250 @@
+package com.checkout.payment.gateway.outbox;
+
+import com.checkout.payment.gateway.model.OutboxEvent;
+import com.checkout.payment.gateway.model.OutboxStats;
+import com.checkout.payment.gateway.repository.PaymentsRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.time.Clock;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Delivers an event for every repository write to the configured {@link OutboxSink}.
+ * <p>
+ * Events are appended to a {@link PaymentOutbox} inside the repository write itself, so payment
+ * processing never publishes anything or waits for the sink. A single relay thread takes the
+ * oldest events in batches of up to {@code payments.outbox.batch-size} and keeps up to
+ * {@code payments.outbox.max-in-flight} batches outstanding; when the sink is slower than the
+ * payment rate, events accumulate while every slot is busy and the next batch carries all of them.
+ * </p>
+ * <p>
+ * A failed batch is retried with exponential backoff between
+ * {@code payments.outbox.initial-backoff-ms} and {@code payments.outbox.max-backoff-ms} until the
+ * sink accepts it, keeping its slot meanwhile. Events are never dropped, so delivery is at least
+ * once: batches may overtake each other and a retried batch may have been partly accepted, and
+ * consumers should order by sequence and discard ids they have seen. The outbox lives in memory
+ * alongside the payments, so a crash loses both together and never leaves a stored payment without
+ * its event.
+ * </p>
+ * <p>
+ * Disabled when no sink is configured, and on replication followers, whose writes were already
+ * published by the leader.
+ * </p>
+ */
+@Component
+public class OutboxRelay {
+
+  private static final Logger LOG = LoggerFactory.getLogger(OutboxRelay.class);
+  private static final long IDLE_MILLIS = 1_000;
+  private static final long DRAIN_MILLIS = 5_000;
+
+  private final OutboxSink sink;
+  private final Clock clock;
+  private final PaymentOutbox outbox;
+  private final int batchSize;
+  private final int maxInFlight;
+  private final long initialBackoffMillis;
+  private final long maxBackoffMillis;
+  private final Semaphore slots;
+  // Outstanding batches by the sequence of their first event
+  private final Map<Long, List<OutboxEvent>> inFlight = new ConcurrentSkipListMap<>();
+  private final LongAdder delivered = new LongAdder();
+  private final LongAdder batches = new LongAdder();
+  private final LongAdder failedAttempts = new LongAdder();
+  private final ScheduledExecutorService scheduler;
+  private volatile boolean running = true;
+  private volatile long deliveredLastSecond;
+  private long deliveredAtLastTick;
+  private Thread relay;
+
+  @Autowired
+  public OutboxRelay(
+      PaymentsRepository paymentsRepository,
+      ObjectProvider<OutboxSink> sinks,
+      @Value("${payments.outbox.sink:}") String sinkName,
+      @Value("${payments.replication.leader:}") String replicationLeader,
+      @Value("${payments.outbox.batch-size:500}") int batchSize,
+      @Value("${payments.outbox.max-in-flight:4}") int maxInFlight,
+      @Value("${payments.outbox.initial-backoff-ms:100}") long initialBackoffMillis,
+      @Value("${payments.outbox.max-backoff-ms:30000}") long maxBackoffMillis
+  ) {
+    this(paymentsRepository, replicationLeader.isBlank() ? sink(sinks, sinkName) : null, batchSize,
+        maxInFlight, initialBackoffMillis, maxBackoffMillis, Clock.systemUTC());
+    if (!replicationLeader.isBlank() && sinks.getIfAvailable() != null) {
+      LOG.info("Outbox disabled on this replication follower");
+    }
+  }
+
+  OutboxRelay(PaymentsRepository paymentsRepository, OutboxSink sink, int batchSize, int maxInFlight,
+      long initialBackoffMillis, long maxBackoffMillis, Clock clock) {
+    if (batchSize < 1 || maxInFlight < 1) {
+      throw new IllegalArgumentException("Outbox batch size and max in flight must be positive");
+    }
+    this.sink = sink;
+    this.clock = clock;
+    this.outbox = new PaymentOutbox(clock);
+    this.batchSize = batchSize;
+    this.maxInFlight = maxInFlight;
+    this.initialBackoffMillis = Math.max(1, initialBackoffMillis);
+    this.maxBackoffMillis = Math.max(this.initialBackoffMillis, maxBackoffMillis);
+    this.slots = new Semaphore(maxInFlight);
+    this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+      Thread thread = new Thread(runnable, "outbox-scheduler");
+      thread.setDaemon(true);
+      return thread;
+    });
+    if (sink != null) {
+      paymentsRepository.addListener(outbox);
+    }
+  }
+
+  private static OutboxSink sink(ObjectProvider<OutboxSink> sinks, String sinkName) {
+    OutboxSink sink = sinks.getIfAvailable();
+    if (sink == null && !sinkName.isBlank()) {
+      throw new IllegalArgumentException("Unknown outbox sink: " + sinkName);
+    }
+    return sink;
+  }
+
+  @PostConstruct
+  public void start() {
+    if (sink == null) {
+      return;
+    }
+    relay = new Thread(this::relay, "outbox-relay");
+    relay.setDaemon(true);
+    relay.start();
+    scheduler.scheduleAtFixedRate(this::tick, 1, 1, TimeUnit.SECONDS);
+    LOG.info("Relaying payment outbox to {}", sink.describe());
+  }
+
+  /**
+   * Stops taking new batches once the outbox is drained, or after a few seconds if the sink does
+   * not keep up.
+   */
+  @PreDestroy
+  public void shutdown() throws InterruptedException {
+    running = false;
+    if (relay != null) {
+      outbox.wakeUp();
+      relay.join(DRAIN_MILLIS);
+      relay.interrupt();
+    }
+    scheduler.shutdownNow();
+  }
+
+  public boolean isEnabled() {
+    return sink != null;
+  }
+
+  public OutboxStats stats() {
+    if (sink == null) {
+      return new OutboxStats(null, 0, 0, 0, 0, 0, 0, 0, 0);
+    }
+    long sending = 0;
+    OutboxEvent oldest = null;
+    for (List<OutboxEvent> batch : inFlight.values()) {
+      sending += batch.size();
+      if (oldest == null) {
+        oldest = batch.get(0);
+      }
+    }
+    if (oldest == null) {
+      oldest = outbox.peek();
+    }
+    long lagMillis = oldest == null ? 0 : Math.max(0, clock.millis() - oldest.getCreatedAt().toEpochMilli());
+    return new OutboxStats(sink.describe(), outbox.sequence(), delivered.sum(), outbox.size() + sending,
+        lagMillis, maxInFlight - slots.availablePermits(), batches.sum(), failedAttempts.sum(),
+        deliveredLastSecond);
+  }
+
+  private void relay() {
+    try {
+      while (running || outbox.size() > 0) {
+        if (!slots.tryAcquire(IDLE_MILLIS, TimeUnit.MILLISECONDS)) {
+          continue;
+        }
+        List<OutboxEvent> batch = outbox.take(batchSize);
+        if (batch.isEmpty()) {
+          slots.release();
+          if (running) {
+            outbox.await(IDLE_MILLIS);
+          }
+          continue;
+        }
+        inFlight.put(batch.get(0).getSequence(), batch);
+        send(batch, 1);
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    int left = outbox.size();
+    if (left > 0) {
+      LOG.warn("Stopped relaying with {} outbox events undelivered", left);
+    }
+  }
+
+  private void send(List<OutboxEvent> batch, int attempt) {
+    CompletableFuture<Void> delivery;
+    try {
+      delivery = sink.deliver(batch);
+    } catch (RuntimeException e) {
+      delivery = CompletableFuture.failedFuture(e);
+    }
+    delivery.whenComplete((ignored, error) -> {
+      if (error == null) {
+        inFlight.remove(batch.get(0).getSequence());
+        delivered.add(batch.size());
+        batches.increment();
+        slots.release();
+        return;
+      }
+      failedAttempts.increment();
+      long delay = backoffMillis(attempt);
+      LOG.warn("Outbox delivery of {} events to {} failed on attempt {}, retrying in {} ms: {}",
+          batch.size(), sink.describe(), attempt, delay, describe(error));
+      try {
+        scheduler.schedule(() -> send(batch, attempt + 1), delay, TimeUnit.MILLISECONDS);
+      } catch (RejectedExecutionException e) {
+        // Shutting down
+      }
+    });
+  }
+
+  private void tick() {
+    long total = delivered.sum();
+    deliveredLastSecond = total - deliveredAtLastTick;
+    deliveredAtLastTick = total;
+  }
+
+  /**
+   * Doubles the delay with every attempt up to the maximum, then picks a random delay in the
+   * upper half.
+   */
+  private long backoffMillis(int attempt) {
+    long delay = attempt > 30 ? maxBackoffMillis
+        : Math.min(maxBackoffMillis, initialBackoffMillis << (attempt - 1));
+    return delay / 2 + ThreadLocalRandom.current().nextLong(delay / 2 + 1);
+  }
+
+  private static String describe(Throwable error) {
+    Throwable cause = error.getCause() != null ? error.getCause() : error;
+    return cause.getClass().getSimpleName() + (cause.getMessage() == null ? "" : ": " + cause.getMessage());
+  }
+}
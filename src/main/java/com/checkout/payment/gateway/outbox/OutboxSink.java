@@ -0,0 +1,28 @@
+package com.checkout.payment.gateway.outbox;
+
+import com.checkout.payment.gateway.model.OutboxEvent;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Downstream destination of the payment outbox.
+ * <p>
+ * The relay keeps several batches outstanding at once, so {@link #deliver(List)} may be called
+ * again before earlier batches complete, and a batch that failed is delivered again. Declaring a
+ * bean of this type replaces the sinks selected with {@code payments.outbox.sink}.
+ * </p>
+ */
+public interface OutboxSink {
+
+  /**
+   * Starts delivering a batch without waiting for it.
+   * @param events consecutive outbox events, oldest first
+   * @return completes once the batch is durably accepted, or exceptionally if it should be retried
+   */
+  CompletableFuture<Void> deliver(List<OutboxEvent> events);
+
+  /**
+   * @return where events are delivered, for logs and stats
+   */
+  String describe();
+}
@@ -0,0 +1,106 @@
+package com.checkout.payment.gateway.outbox;
+
+import com.checkout.payment.gateway.model.OutboxEvent;
+import com.checkout.payment.gateway.model.PostPaymentResponse;
+import com.checkout.payment.gateway.repository.PaymentStoreListener;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Events for repository writes that the relay has not picked up yet, numbered from 1 in write
+ * order.
+ * <p>
+ * An event is appended inside the repository's per-payment write, so a payment is never stored
+ * without its event and the events of one payment are numbered in the order of its writes. Nothing
+ * is ever dropped: if the sink falls behind, the outbox grows. Event ids combine a random epoch for
+ * this run with the sequence, so they are unique across restarts and stable across redeliveries.
+ * </p>
+ */
+final class PaymentOutbox implements PaymentStoreListener {
+
+  private final Clock clock;
+  private final long epoch = ThreadLocalRandom.current().nextLong();
+  private final ArrayDeque<OutboxEvent> events = new ArrayDeque<>();
+  private long sequence;
+  private int waiters;
+
+  PaymentOutbox(Clock clock) {
+    this.clock = clock;
+  }
+
+  @Override
+  public void onStored(int row, PostPaymentResponse payment) {
+    PostPaymentResponse copy = new PostPaymentResponse();
+    copy.setId(payment.getId());
+    copy.setStatus(payment.getStatus());
+    copy.setCardNumberLastFour(payment.getCardNumberLastFour());
+    copy.setExpiryMonth(payment.getExpiryMonth());
+    copy.setExpiryYear(payment.getExpiryYear());
+    copy.setCurrency(payment.getCurrency());
+    copy.setAmount(payment.getAmount());
+    copy.setCapturedAmount(payment.getCapturedAmount());
+    copy.setRefundedAmount(payment.getRefundedAmount());
+    String type = "payment." + payment.getStatus().name().toLowerCase(Locale.ROOT);
+    Instant now = clock.instant();
+    synchronized (this) {
+      sequence++;
+      events.add(new OutboxEvent(new UUID(epoch, sequence), sequence, type, now, copy));
+      if (waiters > 0) {
+        notifyAll();
+      }
+    }
+  }
+
+  synchronized long sequence() {
+    return sequence;
+  }
+
+  synchronized int size() {
+    return events.size();
+  }
+
+  /**
+   * @return the oldest event not yet taken, or {@code null}
+   */
+  synchronized OutboxEvent peek() {
+    return events.peek();
+  }
+
+  /**
+   * Removes up to {@code max} of the oldest events.
+   * @return the events, oldest first; empty if there are none
+   */
+  synchronized List<OutboxEvent> take(int max) {
+    List<OutboxEvent> batch = new ArrayList<>(Math.min(max, events.size()));
+    while (batch.size() < max && !events.isEmpty()) {
+      batch.add(events.poll());
+    }
+    return batch;
+  }
+
+  /**
+   * Waits until there is an event to take, {@link #wakeUp()} is called or the timeout elapses.
+   * @return {@code true} if there is an event to take
+   */
+  synchronized boolean await(long timeoutMillis) throws InterruptedException {
+    if (events.isEmpty()) {
+      waiters++;
+      try {
+        wait(timeoutMillis);
+      } finally {
+        waiters--;
+      }
+    }
+    return !events.isEmpty();
+  }
+
+  synchronized void wakeUp() {
+    notifyAll();
+  }
+}
@@ -0,0 +1,233 @@
+package com.checkout.payment.gateway.replication;
+
+import com.checkout.payment.gateway.model.PostPaymentResponse;
+import com.checkout.payment.gateway.model.ReplicationStatus;
+import com.checkout.payment.gateway.repository.PaymentsRepository;
+import com.checkout.payment.gateway.service.PartitionedPaymentExecutor;
+import com.checkout.payment.gateway.service.PaymentResponseCache;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Replicates the payments of a leader node into the local repository.
+ * <p>
+ * Enabled by setting {@code payments.replication.leader} to the {@code host:port} of the leader's
+ * replication listener. The follower keeps one connection open, applies every batch it receives
+ * and acknowledges it, and reconnects with exponential backoff when the connection drops, resuming
+ * from the last applied sequence. Replicated payments are served by the usual read endpoints, while
+ * new payments must be sent to the leader.
+ * </p>
+ * <p>
+ * The payments of a batch are written on their lanes of the {@link PartitionedPaymentExecutor}, in
+ * log order for each payment, and the batch is only acknowledged once all of them are stored.
+ * </p>
+ */
+@Component
+public class ReplicationFollower {
+
+  private static final Logger LOG = LoggerFactory.getLogger(ReplicationFollower.class);
+  private static final int CONNECT_TIMEOUT_MILLIS = 5_000;
+  private static final long MIN_BACKOFF_MILLIS = 100;
+  private static final long MAX_BACKOFF_MILLIS = 5_000;
+  private static final int STREAM_BUFFER_SIZE = 64 * 1024;
+
+  private final PaymentsRepository paymentsRepository;
+  private final PaymentResponseCache paymentResponseCache;
+  private final PartitionedPaymentExecutor partitionedPaymentExecutor;
+  private final String leader;
+  private final String leaderHost;
+  private final int leaderPort;
+  private volatile boolean running;
+  private volatile Socket socket;
+  private volatile boolean connected;
+  private volatile long epoch;
+  private volatile long appliedSequence;
+  private volatile long leaderSequence;
+  private volatile long delayMillis;
+  private volatile int snapshotsReceived;
+
+  public ReplicationFollower(
+      PaymentsRepository paymentsRepository,
+      PaymentResponseCache paymentResponseCache,
+      PartitionedPaymentExecutor partitionedPaymentExecutor,
+      @Value("${payments.replication.leader:}") String leader
+  ) {
+    this.paymentsRepository = paymentsRepository;
+    this.paymentResponseCache = paymentResponseCache;
+    this.partitionedPaymentExecutor = partitionedPaymentExecutor;
+    this.leader = leader.trim();
+    int separator = this.leader.lastIndexOf(':');
+    if (isEnabled() && separator < 1) {
+      throw new IllegalArgumentException("Replication leader must be host:port: " + leader);
+    }
+    this.leaderHost = isEnabled() ? this.leader.substring(0, separator) : null;
+    this.leaderPort = isEnabled() ? Integer.parseInt(this.leader.substring(separator + 1)) : 0;
+  }
+
+  /**
+   * @return {@code true} if this node is a read-only replica of another node
+   */
+  public boolean isEnabled() {
+    return !leader.isEmpty();
+  }
+
+  @PostConstruct
+  public void start() {
+    if (!isEnabled()) {
+      return;
+    }
+    running = true;
+    Thread thread = new Thread(this::run, "replication-follower");
+    thread.setDaemon(true);
+    thread.start();
+  }
+
+  @PreDestroy
+  public void stop() throws IOException {
+    running = false;
+    Socket current = socket;
+    if (current != null) {
+      current.close();
+    }
+  }
+
+  /**
+   * @return the replication state, or {@code null} if this node is not a follower
+   */
+  public ReplicationStatus.Leader status() {
+    if (!isEnabled()) {
+      return null;
+    }
+    return new ReplicationStatus.Leader(leader, connected, appliedSequence, leaderSequence,
+        delayMillis, snapshotsReceived);
+  }
+
+  private void run() {
+    long backoff = MIN_BACKOFF_MILLIS;
+    while (running) {
+      try {
+        replicate();
+      } catch (IOException e) {
+        if (!running) {
+          return;
+        }
+        if (connected) {
+          // Was streaming until now, so retry promptly
+          backoff = MIN_BACKOFF_MILLIS;
+          connected = false;
+        }
+        LOG.warn("Replication from {} interrupted: {}, retrying in {} ms", leader, e.getMessage(), backoff);
+      }
+      try {
+        Thread.sleep(backoff);
+      } catch (InterruptedException e) {
+        return;
+      }
+      backoff = Math.min(backoff * 2, MAX_BACKOFF_MILLIS);
+    }
+  }
+
+  private void replicate() throws IOException {
+    try (Socket current = new Socket()) {
+      socket = current;
+      current.connect(new InetSocketAddress(leaderHost, leaderPort), CONNECT_TIMEOUT_MILLIS);
+      current.setTcpNoDelay(true);
+      DataInputStream in = new DataInputStream(new BufferedInputStream(current.getInputStream(), STREAM_BUFFER_SIZE));
+      DataOutputStream out = new DataOutputStream(new BufferedOutputStream(current.getOutputStream()));
+      out.writeInt(ReplicationProtocol.MAGIC);
+      out.writeLong(epoch);
+      out.writeLong(appliedSequence);
+      out.flush();
+      connected = true;
+      LOG.info("Replicating from {} after sequence {}", leader, appliedSequence);
+      long snapshotEpoch = 0;
+      long snapshotSequence = 0;
+      while (running) {
+        byte type = in.readByte();
+        switch (type) {
+          case ReplicationProtocol.SNAPSHOT_BEGIN -> {
+            snapshotEpoch = in.readLong();
+            snapshotSequence = in.readLong();
+            leaderSequence = snapshotSequence;
+          }
+          case ReplicationProtocol.SNAPSHOT_BATCH -> {
+            int count = in.readInt();
+            List<CompletableFuture<Void>> writes = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+              writes.add(apply(ReplicationProtocol.decode(ReplicationProtocol.readPayload(in))));
+            }
+            awaitWrites(writes);
+          }
+          case ReplicationProtocol.SNAPSHOT_END -> {
+            long count = in.readLong();
+            // Only adopt the leader's epoch once the snapshot is complete, so that a follower
+            // disconnected half way through asks for a new one
+            epoch = snapshotEpoch;
+            appliedSequence = snapshotSequence;
+            snapshotsReceived++;
+            LOG.info("Applied snapshot of {} payments at sequence {}", count, snapshotSequence);
+            acknowledge(out);
+          }
+          case ReplicationProtocol.LOG_BATCH -> {
+            leaderSequence = in.readLong();
+            int count = in.readInt();
+            long applied = appliedSequence;
+            long appendedMillis = 0;
+            List<CompletableFuture<Void>> writes = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+              long sequence = in.readLong();
+              appendedMillis = in.readLong();
+              writes.add(apply(ReplicationProtocol.decode(ReplicationProtocol.readPayload(in))));
+              applied = Math.max(applied, sequence);
+            }
+            awaitWrites(writes);
+            appliedSequence = applied;
+            delayMillis = Math.max(0, System.currentTimeMillis() - appendedMillis);
+            acknowledge(out);
+          }
+          case ReplicationProtocol.HEARTBEAT -> {
+            leaderSequence = in.readLong();
+            in.readLong();
+            if (appliedSequence >= leaderSequence) {
+              delayMillis = 0;
+            }
+          }
+          default -> throw new IOException("Unexpected replication frame " + type);
+        }
+      }
+    }
+  }
+
+  private CompletableFuture<Void> apply(PostPaymentResponse payment) {
+    return partitionedPaymentExecutor.submit(payment.getId(), () -> {
+      paymentsRepository.add(payment);
+      // Frees the stale rendering; one put back by a racing lookup is caught by its version
+      paymentResponseCache.evict(payment.getId());
+      return null;
+    });
+  }
+
+  private static void awaitWrites(List<CompletableFuture<Void>> writes) {
+    CompletableFuture.allOf(writes.toArray(CompletableFuture[]::new)).join();
+  }
+
+  private void acknowledge(DataOutputStream out) throws IOException {
+    out.writeByte(ReplicationProtocol.ACK);
+    out.writeLong(appliedSequence);
+    out.flush();
+  }
+}
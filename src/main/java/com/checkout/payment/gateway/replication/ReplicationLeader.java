@@ -0,0 +1,272 @@
+package com.checkout.payment.gateway.replication;
+
+import com.checkout.payment.gateway.model.ReplicationStatus;
+import com.checkout.payment.gateway.replication.ReplicationLog.Entry;
+import com.checkout.payment.gateway.repository.PaymentsRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Streams repository writes to follower nodes.
+ * <p>
+ * Enabled by setting {@code payments.replication.port}. Writes are appended to a
+ * {@link ReplicationLog} and each connected follower gets a sender thread that writes them in
+ * batches of up to {@code payments.replication.batch-size} over its persistent connection. Batches
+ * are pipelined: the sender never waits for an acknowledgement and only flushes once it has caught
+ * up with the log, so a follower that is behind receives full batches back to back. Replication is
+ * asynchronous; a payment is acknowledged to the merchant before any follower has it.
+ * </p>
+ * <p>
+ * A follower that is new, was replicating from an earlier run of this node, or has fallen behind
+ * the retained log receives a snapshot of the repository and then continues from the log.
+ * </p>
+ */
+@Component
+public class ReplicationLeader {
+
+  private static final Logger LOG = LoggerFactory.getLogger(ReplicationLeader.class);
+  private static final long HEARTBEAT_MILLIS = 1_000;
+  private static final int STREAM_BUFFER_SIZE = 64 * 1024;
+  /**
+   * Log entries resent before the snapshot point. A write is logged inside the repository's
+   * per-key update, a moment before it is visible to the snapshot iteration.
+   */
+  private static final int SNAPSHOT_OVERLAP = 1024;
+
+  private final PaymentsRepository paymentsRepository;
+  private final ReplicationLog log;
+  private final int port;
+  private final int batchSize;
+  private final List<FollowerSession> sessions = new CopyOnWriteArrayList<>();
+  private volatile ServerSocket serverSocket;
+
+  public ReplicationLeader(
+      PaymentsRepository paymentsRepository,
+      @Value("${payments.replication.port:0}") int port,
+      @Value("${payments.replication.log-capacity:65536}") int logCapacity,
+      @Value("${payments.replication.batch-size:512}") int batchSize
+  ) {
+    this.paymentsRepository = paymentsRepository;
+    this.port = port;
+    this.batchSize = batchSize;
+    this.log = new ReplicationLog(logCapacity, Clock.systemUTC());
+    if (port > 0) {
+      paymentsRepository.addListener(log);
+    }
+  }
+
+  @PostConstruct
+  public void start() throws IOException {
+    if (port <= 0) {
+      return;
+    }
+    serverSocket = new ServerSocket(port);
+    Thread acceptor = new Thread(this::accept, "replication-acceptor");
+    acceptor.setDaemon(true);
+    acceptor.start();
+    LOG.info("Accepting replication followers on port {}", port);
+  }
+
+  @PreDestroy
+  public void stop() throws IOException {
+    if (serverSocket != null) {
+      serverSocket.close();
+    }
+    for (FollowerSession session : sessions) {
+      session.close();
+    }
+  }
+
+  public long sequence() {
+    return log.sequence();
+  }
+
+  public List<ReplicationStatus.Follower> followers() {
+    long sequence = log.sequence();
+    List<ReplicationStatus.Follower> followers = new ArrayList<>(sessions.size());
+    for (FollowerSession session : sessions) {
+      followers.add(new ReplicationStatus.Follower(session.address, session.sentSequence,
+          session.ackedSequence, Math.max(0, sequence - session.ackedSequence), session.snapshotsSent));
+    }
+    return followers;
+  }
+
+  private void accept() {
+    while (!serverSocket.isClosed()) {
+      try {
+        Socket socket = serverSocket.accept();
+        socket.setTcpNoDelay(true);
+        FollowerSession session = new FollowerSession(socket);
+        sessions.add(session);
+        Thread sender = new Thread(session, "replication-sender-" + session.address);
+        sender.setDaemon(true);
+        sender.start();
+      } catch (IOException e) {
+        if (!serverSocket.isClosed()) {
+          LOG.warn("Failed to accept replication follower: {}", e.getMessage());
+        }
+      }
+    }
+  }
+
+  /**
+   * One connected follower. The sender runs on its own thread and acknowledgements are read on a
+   * second one.
+   */
+  private final class FollowerSession implements Runnable {
+
+    private final Socket socket;
+    private final String address;
+    private volatile long sentSequence;
+    private volatile long ackedSequence;
+    private volatile int snapshotsSent;
+
+    FollowerSession(Socket socket) {
+      this.socket = socket;
+      this.address = socket.getRemoteSocketAddress().toString();
+    }
+
+    @Override
+    public void run() {
+      try (socket) {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+        DataOutputStream out = new DataOutputStream(
+            new BufferedOutputStream(socket.getOutputStream(), STREAM_BUFFER_SIZE));
+        if (in.readInt() != ReplicationProtocol.MAGIC) {
+          throw new IOException("Not a replication follower");
+        }
+        long followerEpoch = in.readLong();
+        long applied = in.readLong();
+        ackedSequence = applied;
+        LOG.info("Follower {} connected at sequence {}", address, applied);
+        Thread acks = new Thread(() -> readAcks(in), "replication-acks-" + address);
+        acks.setDaemon(true);
+        acks.start();
+        stream(out, followerEpoch == log.epoch() ? applied : -1);
+      } catch (IOException | UncheckedIOException e) {
+        LOG.info("Follower {} disconnected: {}", address, e.getMessage());
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      } finally {
+        sessions.remove(this);
+      }
+    }
+
+    void close() throws IOException {
+      socket.close();
+    }
+
+    private void stream(DataOutputStream out, long after) throws IOException, InterruptedException {
+      Entry[] batch = new Entry[batchSize];
+      while (!socket.isClosed()) {
+        int count = log.read(after, batch);
+        if (count < 0) {
+          after = sendSnapshot(out);
+        } else if (count == 0) {
+          if (!log.await(after, HEARTBEAT_MILLIS)) {
+            out.writeByte(ReplicationProtocol.HEARTBEAT);
+            out.writeLong(after);
+            out.writeLong(System.currentTimeMillis());
+            out.flush();
+          }
+        } else {
+          out.writeByte(ReplicationProtocol.LOG_BATCH);
+          out.writeLong(log.sequence());
+          out.writeInt(count);
+          after = batch[count - 1].sequence();
+          for (int i = 0; i < count; i++) {
+            Entry entry = batch[i];
+            out.writeLong(entry.sequence());
+            out.writeLong(entry.appendedMillis());
+            out.writeInt(entry.payload().length);
+            out.write(entry.payload());
+            batch[i] = null;
+          }
+          sentSequence = Math.max(sentSequence, after);
+          if (count < batch.length) {
+            out.flush();
+          }
+        }
+      }
+    }
+
+    private long sendSnapshot(DataOutputStream out) throws IOException {
+      long at = log.sequence();
+      out.writeByte(ReplicationProtocol.SNAPSHOT_BEGIN);
+      out.writeLong(log.epoch());
+      out.writeLong(at);
+      List<byte[]> pending = new ArrayList<>(batchSize);
+      long[] sent = new long[1];
+      try {
+        paymentsRepository.forEach(payment -> {
+          pending.add(ReplicationProtocol.encode(payment));
+          if (pending.size() == batchSize) {
+            sent[0] += writeSnapshotBatch(out, pending);
+          }
+        });
+      } catch (UncheckedIOException e) {
+        throw e.getCause();
+      }
+      sent[0] += writeSnapshotBatch(out, pending);
+      out.writeByte(ReplicationProtocol.SNAPSHOT_END);
+      out.writeLong(sent[0]);
+      out.flush();
+      snapshotsSent++;
+      LOG.info("Sent snapshot of {} payments at sequence {} to follower {}", sent[0], at, address);
+      sentSequence = at;
+      return Math.max(at - SNAPSHOT_OVERLAP, log.oldestRetained() - 1);
+    }
+
+    private int writeSnapshotBatch(DataOutputStream out, List<byte[]> payloads) {
+      int count = payloads.size();
+      if (count == 0) {
+        return 0;
+      }
+      try {
+        out.writeByte(ReplicationProtocol.SNAPSHOT_BATCH);
+        out.writeInt(count);
+        for (byte[] payload : payloads) {
+          out.writeInt(payload.length);
+          out.write(payload);
+        }
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+      payloads.clear();
+      return count;
+    }
+
+    private void readAcks(DataInputStream in) {
+      try {
+        while (true) {
+          if (in.readByte() != ReplicationProtocol.ACK) {
+            throw new IOException("Unexpected frame from follower");
+          }
+          ackedSequence = in.readLong();
+        }
+      } catch (IOException e) {
+        try {
+          socket.close();
+        } catch (IOException ignored) {
+          // Already closing
+        }
+      }
+    }
+  }
+}
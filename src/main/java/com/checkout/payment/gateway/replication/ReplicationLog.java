@@ -0,0 +1,107 @@
+package com.checkout.payment.gateway.replication;
+
+import com.checkout.payment.gateway.model.PostPaymentResponse;
+import com.checkout.payment.gateway.repository.PaymentStoreListener;
+import java.time.Clock;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Bounded in-memory log of repository writes, numbered from 1 in write order.
+ * <p>
+ * Every write is encoded once when it is stored and the same bytes are streamed to every follower.
+ * Only the most recent {@code capacity} entries are kept; a follower that falls further behind
+ * catches up from a snapshot instead. The epoch identifies this run of the log, so a follower can
+ * tell that sequences restarted after the leader was restarted.
+ * </p>
+ */
+final class ReplicationLog implements PaymentStoreListener {
+
+  private final Clock clock;
+  private final long epoch = ThreadLocalRandom.current().nextLong(1, Long.MAX_VALUE);
+  private final Entry[] entries;
+  private final int mask;
+  private long sequence;
+  private int waiters;
+
+  ReplicationLog(int capacity, Clock clock) {
+    if (capacity < 1 || Integer.bitCount(capacity) != 1) {
+      throw new IllegalArgumentException("Replication log capacity must be a power of two: " + capacity);
+    }
+    this.clock = clock;
+    this.entries = new Entry[capacity];
+    this.mask = capacity - 1;
+  }
+
+  @Override
+  public void onStored(int row, PostPaymentResponse payment) {
+    byte[] payload = ReplicationProtocol.encode(payment);
+    long now = clock.millis();
+    synchronized (this) {
+      sequence++;
+      entries[(int) (sequence & mask)] = new Entry(sequence, now, payload);
+      if (waiters > 0) {
+        notifyAll();
+      }
+    }
+  }
+
+  long epoch() {
+    return epoch;
+  }
+
+  synchronized long sequence() {
+    return sequence;
+  }
+
+  /**
+   * @return the sequence of the oldest entry still retained, or the next sequence if the log is
+   *     empty
+   */
+  synchronized long oldestRetained() {
+    return Math.max(1, sequence - entries.length + 1);
+  }
+
+  /**
+   * Copies the entries following {@code after} into {@code out}, oldest first.
+   * @return the number of entries copied, or -1 if the entry after {@code after} is no longer
+   *     retained or {@code after} is ahead of the log
+   */
+  synchronized int read(long after, Entry[] out) {
+    if (after < 0 || after < sequence - entries.length || after > sequence) {
+      return -1;
+    }
+    int count = (int) Math.min(sequence - after, out.length);
+    for (int i = 0; i < count; i++) {
+      out[i] = entries[(int) ((after + 1 + i) & mask)];
+    }
+    return count;
+  }
+
+  /**
+   * Waits until an entry after {@code after} is appended or the timeout elapses.
+   * @return {@code true} if there is an entry to read
+   */
+  synchronized boolean await(long after, long timeoutMillis) throws InterruptedException {
+    long deadline = System.nanoTime() + timeoutMillis * 1_000_000;
+    waiters++;
+    try {
+      long remaining = timeoutMillis;
+      while (sequence <= after && remaining > 0) {
+        wait(remaining);
+        remaining = (deadline - System.nanoTime()) / 1_000_000;
+      }
+      return sequence > after;
+    } finally {
+      waiters--;
+    }
+  }
+
+  /**
+   * One replicated write.
+   * @param sequence the position in the log
+   * @param appendedMillis leader wall clock time of the write
+   * @param payload the encoded payment
+   */
+  record Entry(long sequence, long appendedMillis, byte[] payload) {
+  }
+}
@@ -0,0 +1,113 @@
+package com.checkout.payment.gateway.replication;
+
+import com.checkout.payment.gateway.enums.PaymentStatus;
+import com.checkout.payment.gateway.model.PostPaymentResponse;
+import java.io.DataInput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+/**
+ * Wire format of the replication stream.
+ * <p>
+ * A follower opens a TCP connection and sends {@link #MAGIC}, the epoch of the leader it last
+ * replicated from and the last sequence it applied. The leader then writes frames, each starting
+ * with a type byte:
+ * </p>
+ * <ul>
+ *   <li>{@link #SNAPSHOT_BEGIN}: epoch, sequence the snapshot is taken at</li>
+ *   <li>{@link #SNAPSHOT_BATCH}: count, then count payments</li>
+ *   <li>{@link #SNAPSHOT_END}: number of payments sent</li>
+ *   <li>{@link #LOG_BATCH}: leader sequence, count, then count times sequence, append time and
+ *   payment</li>
+ *   <li>{@link #HEARTBEAT}: leader sequence, leader time</li>
+ * </ul>
+ * <p>
+ * The follower answers with {@link #ACK} frames carrying the last applied sequence. Acks are only
+ * used for lag reporting, the leader never waits for them. A payment is a length-prefixed
+ * {@link #encode(PostPaymentResponse) encoding}.
+ * </p>
+ */
+final class ReplicationProtocol {
+
+  // Changed with the payment encoding, so that nodes of different versions refuse each other
+  static final int MAGIC = 0x50475232;
+  static final byte SNAPSHOT_BEGIN = 'S';
+  static final byte SNAPSHOT_BATCH = 'P';
+  static final byte SNAPSHOT_END = 'E';
+  static final byte LOG_BATCH = 'B';
+  static final byte HEARTBEAT = 'H';
+  static final byte ACK = 'A';
+
+  private static final int FIXED_SIZE = 2 * Long.BYTES + 1 + 7 * Integer.BYTES;
+  private static final PaymentStatus[] STATUSES = PaymentStatus.values();
+
+  private ReplicationProtocol() {
+  }
+
+  static byte[] encode(PostPaymentResponse payment) {
+    byte[] lastFour = bytes(payment.getCardNumberLastFour());
+    byte[] currency = bytes(payment.getCurrency());
+    ByteBuffer buffer = ByteBuffer.allocate(FIXED_SIZE + length(lastFour) + length(currency));
+    UUID id = payment.getId();
+    buffer.putLong(id.getMostSignificantBits())
+        .putLong(id.getLeastSignificantBits())
+        .put((byte) (payment.getStatus() == null ? -1 : payment.getStatus().ordinal()))
+        .putInt(payment.getExpiryMonth())
+        .putInt(payment.getExpiryYear())
+        .putInt(payment.getAmount())
+        .putInt(payment.getCapturedAmount())
+        .putInt(payment.getRefundedAmount());
+    putString(buffer, lastFour);
+    putString(buffer, currency);
+    return buffer.array();
+  }
+
+  static PostPaymentResponse decode(byte[] encoded) {
+    ByteBuffer buffer = ByteBuffer.wrap(encoded);
+    PostPaymentResponse payment = new PostPaymentResponse();
+    payment.setId(new UUID(buffer.getLong(), buffer.getLong()));
+    byte status = buffer.get();
+    payment.setStatus(status < 0 ? null : STATUSES[status]);
+    payment.setExpiryMonth(buffer.getInt());
+    payment.setExpiryYear(buffer.getInt());
+    payment.setAmount(buffer.getInt());
+    payment.setCapturedAmount(buffer.getInt());
+    payment.setRefundedAmount(buffer.getInt());
+    payment.setCardNumberLastFour(getString(buffer));
+    payment.setCurrency(getString(buffer));
+    return payment;
+  }
+
+  static byte[] readPayload(DataInput in) throws IOException {
+    byte[] payload = new byte[in.readInt()];
+    in.readFully(payload);
+    return payload;
+  }
+
+  private static byte[] bytes(String value) {
+    return value == null ? null : value.getBytes(StandardCharsets.UTF_8);
+  }
+
+  private static int length(byte[] value) {
+    return value == null ? 0 : value.length;
+  }
+
+  private static void putString(ByteBuffer buffer, byte[] value) {
+    buffer.putInt(value == null ? -1 : value.length);
+    if (value != null) {
+      buffer.put(value);
+    }
+  }
+
+  private static String getString(ByteBuffer buffer) {
+    int length = buffer.getInt();
+    if (length < 0) {
+      return null;
+    }
+    String value = new String(buffer.array(), buffer.position(), length, StandardCharsets.UTF_8);
+    buffer.position(buffer.position() + length);
+    return value;
+  }
+}
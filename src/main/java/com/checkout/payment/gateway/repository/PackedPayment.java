@@ -0,0 +1,320 @@
+package com.checkout.payment.gateway.repository;
+
+import com.checkout.payment.gateway.enums.PaymentStatus;
+import com.checkout.payment.gateway.enums.SupportedCurrency;
+import com.checkout.payment.gateway.model.PostPaymentResponse;
+import java.util.UUID;
+
+/**
+ * Compact, immutable storage form of a payment.
+ * <p>
+ * Status, currency, expiry month/year and the last four card digits are packed into a single
+ * {@code long}, with the amount, the {@link PaymentIndex} row and the version kept alongside as
+ * {@code int}s. The id is not stored as it is the repository key. The version counts the writes of
+ * the payment, from 1, and wraps around after {@code 2^32} of them. Response objects are rebuilt
+ * on demand from these primitives.
+ * </p>
+ * <p>
+ * Layout of {@link #bits}, from the least significant bit:
+ * </p>
+ * <ul>
+ *   <li>0-3: status ordinal + 1 (0 when absent)</li>
+ *   <li>4-7: {@link SupportedCurrency} ordinal + 1</li>
+ *   <li>8-11: expiry month</li>
+ *   <li>12-27: expiry year</li>
+ *   <li>28-41: last four card digits as a number</li>
+ * </ul>
+ * <p>
+ * Payments with something captured or refunded carry those amounts in a {@link Captured} record,
+ * so that the many payments that are only authorized do not pay for them.
+ * </p>
+ * <p>
+ * Payments that do not fit this layout (typically rejected requests carrying an unsupported
+ * currency, a short card number or an out of range expiry) are kept as an {@link Overflow} copy
+ * instead.
+ * </p>
+ */
+class PackedPayment {
+
+  private static final PaymentStatus[] STATUSES = PaymentStatus.values();
+  private static final SupportedCurrency[] CURRENCIES = SupportedCurrency.values();
+
+  private static final int STATUS_SHIFT = 0;
+  private static final int CURRENCY_SHIFT = 4;
+  private static final int EXPIRY_MONTH_SHIFT = 8;
+  private static final int EXPIRY_YEAR_SHIFT = 12;
+  private static final int LAST_FOUR_SHIFT = 28;
+  private static final long NIBBLE_MASK = 0xFL;
+  private static final long EXPIRY_YEAR_MASK = 0xFFFFL;
+  private static final long LAST_FOUR_MASK = 0x3FFFL;
+
+  private final long bits;
+  private final int amount;
+  private final int row;
+  private final int version;
+
+  private PackedPayment(long bits, int amount, int row, int version) {
+    this.bits = bits;
+    this.amount = amount;
+    this.row = row;
+    this.version = version;
+  }
+
+  /**
+   * Packs a payment, falling back to an {@link Overflow} copy when a field does not fit.
+   * @param payment the payment to store
+   * @param row the index row assigned to the payment
+   * @param version the version of the payment
+   * @return the storage form of the payment
+   */
+  static PackedPayment pack(PostPaymentResponse payment, int row, int version) {
+    int currency = currencyCode(payment.getCurrency());
+    int lastFour = lastFourCode(payment.getCardNumberLastFour());
+    int expiryMonth = payment.getExpiryMonth();
+    int expiryYear = payment.getExpiryYear();
+    if (currency < 0
+        || lastFour < 0
+        || expiryMonth < 0 || expiryMonth > NIBBLE_MASK
+        || expiryYear < 0 || expiryYear > EXPIRY_YEAR_MASK) {
+      return new Overflow(payment, row, version);
+    }
+    int status = payment.getStatus() == null ? 0 : payment.getStatus().ordinal() + 1;
+    long bits = (long) status << STATUS_SHIFT
+        | (long) currency << CURRENCY_SHIFT
+        | (long) expiryMonth << EXPIRY_MONTH_SHIFT
+        | (long) expiryYear << EXPIRY_YEAR_SHIFT
+        | (long) lastFour << LAST_FOUR_SHIFT;
+    if (payment.getCapturedAmount() != 0 || payment.getRefundedAmount() != 0) {
+      return new Captured(bits, payment, row, version);
+    }
+    return new PackedPayment(bits, payment.getAmount(), row, version);
+  }
+
+  int row() {
+    return row;
+  }
+
+  int version() {
+    return version;
+  }
+
+  PaymentStatus status() {
+    int status = (int) (bits >>> STATUS_SHIFT & NIBBLE_MASK);
+    return status == 0 ? null : STATUSES[status - 1];
+  }
+
+  SupportedCurrency supportedCurrency() {
+    return CURRENCIES[(int) (bits >>> CURRENCY_SHIFT & NIBBLE_MASK) - 1];
+  }
+
+  String currency() {
+    return supportedCurrency().name();
+  }
+
+  int expiryMonth() {
+    return (int) (bits >>> EXPIRY_MONTH_SHIFT & NIBBLE_MASK);
+  }
+
+  int expiryYear() {
+    return (int) (bits >>> EXPIRY_YEAR_SHIFT & EXPIRY_YEAR_MASK);
+  }
+
+  /**
+   * @return the last four card digits as a number, or -1 if they are not four digits
+   */
+  int lastFourDigits() {
+    return (int) (bits >>> LAST_FOUR_SHIFT & LAST_FOUR_MASK);
+  }
+
+  String cardNumberLastFour() {
+    int lastFour = lastFourDigits();
+    char[] digits = new char[4];
+    for (int i = 3; i >= 0; i--) {
+      digits[i] = (char) ('0' + lastFour % 10);
+      lastFour /= 10;
+    }
+    return new String(digits);
+  }
+
+  int amount() {
+    return amount;
+  }
+
+  int capturedAmount() {
+    return 0;
+  }
+
+  int refundedAmount() {
+    return 0;
+  }
+
+  /**
+   * Rebuilds a detached response view of this payment.
+   * @param id the payment id, i.e. the repository key
+   * @return a new PostPaymentResponse
+   */
+  PostPaymentResponse toResponse(UUID id) {
+    PostPaymentResponse response = new PostPaymentResponse();
+    response.setId(id);
+    response.setStatus(status());
+    response.setCardNumberLastFour(cardNumberLastFour());
+    response.setExpiryMonth(expiryMonth());
+    response.setExpiryYear(expiryYear());
+    response.setCurrency(currency());
+    response.setAmount(amount);
+    response.setCapturedAmount(capturedAmount());
+    response.setRefundedAmount(refundedAmount());
+    return response;
+  }
+
+  /**
+   * @return the currency ordinal + 1, or -1 if it is not a supported currency code
+   */
+  private static int currencyCode(String currency) {
+    if (currency == null) {
+      return -1;
+    }
+    for (SupportedCurrency candidate : CURRENCIES) {
+      // Case sensitive so that the stored value is returned exactly as received
+      if (candidate.name().equals(currency)) {
+        return candidate.ordinal() + 1;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * @return the matching supported currency ignoring case, or {@code null} if there is none
+   */
+  static SupportedCurrency supportedCurrencyIgnoreCase(String currency) {
+    if (currency == null) {
+      return null;
+    }
+    for (SupportedCurrency candidate : CURRENCIES) {
+      if (candidate.name().equalsIgnoreCase(currency)) {
+        return candidate;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * @return the four digits as a number, or -1 if the value is not exactly four digits
+   */
+  static int lastFourCode(String lastFour) {
+    if (lastFour == null || lastFour.length() != 4) {
+      return -1;
+    }
+    int value = 0;
+    for (int i = 0; i < 4; i++) {
+      char c = lastFour.charAt(i);
+      if (c < '0' || c > '9') {
+        return -1;
+      }
+      value = value * 10 + (c - '0');
+    }
+    return value;
+  }
+
+  /**
+   * Packed payment of which something was captured or refunded.
+   */
+  static final class Captured extends PackedPayment {
+
+    private final int capturedAmount;
+    private final int refundedAmount;
+
+    private Captured(long bits, PostPaymentResponse payment, int row, int version) {
+      super(bits, payment.getAmount(), row, version);
+      this.capturedAmount = payment.getCapturedAmount();
+      this.refundedAmount = payment.getRefundedAmount();
+    }
+
+    @Override
+    int capturedAmount() {
+      return capturedAmount;
+    }
+
+    @Override
+    int refundedAmount() {
+      return refundedAmount;
+    }
+  }
+
+  /**
+   * Payment kept as a detached copy because it does not fit the packed layout.
+   */
+  static final class Overflow extends PackedPayment {
+
+    private final PostPaymentResponse payment;
+
+    private Overflow(PostPaymentResponse payment, int row, int version) {
+      super(0L, payment.getAmount(), row, version);
+      this.payment = copy(payment.getId(), payment);
+    }
+
+    @Override
+    PaymentStatus status() {
+      return payment.getStatus();
+    }
+
+    @Override
+    SupportedCurrency supportedCurrency() {
+      return supportedCurrencyIgnoreCase(payment.getCurrency());
+    }
+
+    @Override
+    String currency() {
+      return payment.getCurrency();
+    }
+
+    @Override
+    int expiryMonth() {
+      return payment.getExpiryMonth();
+    }
+
+    @Override
+    int expiryYear() {
+      return payment.getExpiryYear();
+    }
+
+    @Override
+    int lastFourDigits() {
+      return lastFourCode(payment.getCardNumberLastFour());
+    }
+
+    @Override
+    String cardNumberLastFour() {
+      return payment.getCardNumberLastFour();
+    }
+
+    @Override
+    int capturedAmount() {
+      return payment.getCapturedAmount();
+    }
+
+    @Override
+    int refundedAmount() {
+      return payment.getRefundedAmount();
+    }
+
+    @Override
+    PostPaymentResponse toResponse(UUID id) {
+      return copy(id, payment);
+    }
+
+    private static PostPaymentResponse copy(UUID id, PostPaymentResponse source) {
+      PostPaymentResponse copy = new PostPaymentResponse();
+      copy.setId(id);
+      copy.setStatus(source.getStatus());
+      copy.setCardNumberLastFour(source.getCardNumberLastFour());
+      copy.setExpiryMonth(source.getExpiryMonth());
+      copy.setExpiryYear(source.getExpiryYear());
+      copy.setCurrency(source.getCurrency());
+      copy.setAmount(source.getAmount());
+      copy.setCapturedAmount(source.getCapturedAmount());
+      copy.setRefundedAmount(source.getRefundedAmount());
+      return copy;
+    }
+  }
+}
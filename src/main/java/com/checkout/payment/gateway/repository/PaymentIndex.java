@@ -0,0 +1,273 @@
+package com.checkout.payment.gateway.repository;
+
+import com.checkout.payment.gateway.enums.PaymentStatus;
+import com.checkout.payment.gateway.enums.SupportedCurrency;
+import com.checkout.payment.gateway.model.PaymentIndexStats;
+import com.checkout.payment.gateway.model.PaymentQuery;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+/**
+ * Secondary indexes over stored payments by status, currency, last four card digits and
+ * creation time.
+ * <p>
+ * Every payment is assigned an increasing row number on first insert. Status, currency and last
+ * four are {@link PostingList}s of rows; creation time needs no posting list because rows are
+ * allocated in time order, so a minute bucket only records its first row and a time window maps
+ * to a row range.
+ * </p>
+ * <p>
+ * Memory is bounded by {@code maxPayments}: rows are grouped in chunks of 65536 (one posting list
+ * container) and, once the limit is exceeded, the oldest chunk is dropped from every index at
+ * once. Older payments stay in the repository but are no longer searchable.
+ * </p>
+ */
+final class PaymentIndex {
+
+  private static final int CHUNK_SIZE = 1 << PostingList.CONTAINER_BITS;
+  private static final long BUCKET_MILLIS = 60_000;
+  private static final int LAST_FOUR_VALUES = 10_000;
+
+  private final Clock clock;
+  private final int maxChunks;
+  private final AtomicInteger nextRow = new AtomicInteger();
+  private final Map<Integer, AtomicReferenceArray<UUID>> rowIds = new ConcurrentHashMap<>();
+  private final ConcurrentSkipListMap<Long, Integer> bucketFirstRows = new ConcurrentSkipListMap<>();
+  private final Map<PaymentStatus, PostingList> byStatus = new EnumMap<>(PaymentStatus.class);
+  private final Map<SupportedCurrency, PostingList> byCurrency = new EnumMap<>(SupportedCurrency.class);
+  private final AtomicReferenceArray<PostingList> byLastFour = new AtomicReferenceArray<>(LAST_FOUR_VALUES);
+  private final Object evictionLock = new Object();
+  private volatile int floorChunk;
+  private volatile long lastBucket = -1;
+
+  PaymentIndex(int maxPayments, Clock clock) {
+    this.clock = clock;
+    this.maxChunks = Math.max(1, (maxPayments + CHUNK_SIZE - 1) / CHUNK_SIZE);
+    for (PaymentStatus status : PaymentStatus.values()) {
+      byStatus.put(status, new PostingList());
+    }
+    for (SupportedCurrency currency : SupportedCurrency.values()) {
+      byCurrency.put(currency, new PostingList());
+    }
+  }
+
+  /**
+   * Assigns the next row to a newly stored payment and records its creation time.
+   * @param id the payment id
+   * @return the row number
+   */
+  int allocateRow(UUID id) {
+    long bucket = clock.millis() / BUCKET_MILLIS;
+    int row = nextRow.getAndIncrement();
+    int chunk = row >>> PostingList.CONTAINER_BITS;
+    AtomicReferenceArray<UUID> ids = rowIds.get(chunk);
+    if (ids == null) {
+      ids = rowIds.computeIfAbsent(chunk, c -> new AtomicReferenceArray<>(CHUNK_SIZE));
+      evictChunksBefore(chunk - maxChunks + 1);
+    }
+    ids.set(row & (CHUNK_SIZE - 1), id);
+    if (bucket != lastBucket) {
+      bucketFirstRows.merge(bucket, row, Math::min);
+      lastBucket = bucket;
+    }
+    return row;
+  }
+
+  /**
+   * @return {@code true} if the row has not been evicted yet
+   */
+  boolean isIndexed(int row) {
+    return row >>> PostingList.CONTAINER_BITS >= floorChunk;
+  }
+
+  /**
+   * Moves a row from the index entries of its previous version to those of the current one.
+   * Callers serialize updates of the same payment.
+   */
+  void update(int row, PackedPayment previous, PackedPayment current) {
+    if (!isIndexed(row)) {
+      return;
+    }
+    if (previous != null && previous.row() == row) {
+      forEachList(previous, list -> list.remove(row));
+    }
+    forEachList(current, list -> list.add(row));
+  }
+
+  /**
+   * Finds the ids of payments matching the query, most recent first.
+   * @param query the search criteria
+   * @return up to {@code query.getLimit()} payment ids
+   */
+  List<UUID> search(PaymentQuery query) {
+    int from = floorChunk << PostingList.CONTAINER_BITS;
+    int to = nextRow.get();
+    if (query.getFrom() != null) {
+      from = Math.max(from, firstRowAtOrAfter(query.getFrom()));
+    }
+    if (query.getTo() != null) {
+      to = Math.min(to, firstRowAfter(query.getTo()));
+    }
+    if (from >= to) {
+      return List.of();
+    }
+
+    List<PostingList> lists = new ArrayList<>(3);
+    if (query.getStatus() != null) {
+      lists.add(byStatus.get(query.getStatus()));
+    }
+    if (query.getCurrency() != null) {
+      SupportedCurrency currency = PackedPayment.supportedCurrencyIgnoreCase(query.getCurrency());
+      lists.add(currency == null ? null : byCurrency.get(currency));
+    }
+    if (query.getCardNumberLastFour() != null) {
+      int lastFour = PackedPayment.lastFourCode(query.getCardNumberLastFour());
+      lists.add(lastFour < 0 ? null : byLastFour.get(lastFour));
+    }
+    if (lists.contains(null)) {
+      return List.of();
+    }
+
+    int[] rows;
+    if (lists.isEmpty()) {
+      rows = new int[Math.min(query.getLimit(), to - from)];
+      for (int i = 0; i < rows.length; i++) {
+        rows[i] = to - 1 - i;
+      }
+    } else {
+      // Start from the most selective list to keep intersections small
+      lists.sort(Comparator.comparingInt(PostingList::cardinality));
+      PostingList result = lists.get(0).copy();
+      for (int i = 1; i < lists.size(); i++) {
+        result.retain(lists.get(i));
+      }
+      result.retainRange(from, to);
+      rows = result.toArrayDescending(query.getLimit());
+    }
+
+    List<UUID> ids = new ArrayList<>(rows.length);
+    for (int row : rows) {
+      AtomicReferenceArray<UUID> chunk = rowIds.get(row >>> PostingList.CONTAINER_BITS);
+      UUID id = chunk == null ? null : chunk.get(row & (CHUNK_SIZE - 1));
+      if (id != null) {
+        ids.add(id);
+      }
+    }
+    return ids;
+  }
+
+  /**
+   * Re-checks a stored payment against the query, as it may have changed after the index was read.
+   */
+  static boolean matches(PackedPayment payment, PaymentQuery query) {
+    return (query.getStatus() == null || query.getStatus() == payment.status())
+        && (query.getCurrency() == null
+            || payment.supportedCurrency() == PackedPayment.supportedCurrencyIgnoreCase(query.getCurrency()))
+        && (query.getCardNumberLastFour() == null
+            || payment.lastFourDigits() == PackedPayment.lastFourCode(query.getCardNumberLastFour()));
+  }
+
+  PaymentIndexStats stats() {
+    int lists = 0;
+    int containers = 0;
+    long bytes = 16 + 16 + 4L * LAST_FOUR_VALUES;
+    List<PostingList> all = new ArrayList<>(byStatus.values());
+    all.addAll(byCurrency.values());
+    for (int i = 0; i < LAST_FOUR_VALUES; i++) {
+      PostingList list = byLastFour.get(i);
+      if (list != null) {
+        all.add(list);
+      }
+    }
+    for (PostingList list : all) {
+      lists++;
+      containers += list.containerCount();
+      bytes += list.sizeInBytes();
+    }
+    // Row to id chunks (the UUIDs themselves are shared with the repository keys)
+    bytes += rowIds.size() * (16 + 16 + 4L * CHUNK_SIZE);
+    // Skip list node, index level and boxed key/value per minute bucket
+    bytes += bucketFirstRows.size() * 88L;
+    long indexed = Math.max(0, nextRow.get() - ((long) floorChunk << PostingList.CONTAINER_BITS));
+    return new PaymentIndexStats(indexed, (long) maxChunks * CHUNK_SIZE, lists, containers, bytes);
+  }
+
+  private void forEachList(PackedPayment payment, Consumer<PostingList> action) {
+    if (payment.status() != null) {
+      action.accept(byStatus.get(payment.status()));
+    }
+    SupportedCurrency currency = payment.supportedCurrency();
+    if (currency != null) {
+      action.accept(byCurrency.get(currency));
+    }
+    int lastFour = payment.lastFourDigits();
+    if (lastFour >= 0) {
+      PostingList list = byLastFour.get(lastFour);
+      if (list == null) {
+        byLastFour.compareAndSet(lastFour, null, new PostingList());
+        list = byLastFour.get(lastFour);
+      }
+      action.accept(list);
+    }
+  }
+
+  private int firstRowAtOrAfter(Instant instant) {
+    Map.Entry<Long, Integer> bucket = bucketFirstRows.ceilingEntry(instant.toEpochMilli() / BUCKET_MILLIS);
+    return bucket == null ? nextRow.get() : bucket.getValue();
+  }
+
+  private int firstRowAfter(Instant instant) {
+    Map.Entry<Long, Integer> bucket = bucketFirstRows.higherEntry(instant.toEpochMilli() / BUCKET_MILLIS);
+    return bucket == null ? nextRow.get() : bucket.getValue();
+  }
+
+  private void evictChunksBefore(int minChunk) {
+    if (minChunk <= floorChunk) {
+      return;
+    }
+    synchronized (evictionLock) {
+      for (int chunk = floorChunk; chunk < minChunk; chunk++) {
+        rowIds.remove(chunk);
+        for (PostingList list : byStatus.values()) {
+          list.removeContainer(chunk);
+        }
+        for (PostingList list : byCurrency.values()) {
+          list.removeContainer(chunk);
+        }
+        for (int i = 0; i < LAST_FOUR_VALUES; i++) {
+          PostingList list = byLastFour.get(i);
+          if (list != null) {
+            list.removeContainer(chunk);
+          }
+        }
+      }
+      floorChunk = Math.max(floorChunk, minChunk);
+      // Buckets that start before the new floor collapse into one starting at the floor
+      int floorRow = floorChunk << PostingList.CONTAINER_BITS;
+      Map.Entry<Long, Integer> spanning = null;
+      for (Map.Entry<Long, Integer> bucket : bucketFirstRows.entrySet()) {
+        if (bucket.getValue() >= floorRow) {
+          break;
+        }
+        if (spanning != null) {
+          bucketFirstRows.remove(spanning.getKey());
+        }
+        spanning = bucket;
+      }
+      if (spanning != null) {
+        bucketFirstRows.put(spanning.getKey(), floorRow);
+      }
+    }
+  }
+}
@@ -0,0 +1,20 @@
+package com.checkout.payment.gateway.repository;
+
+import com.checkout.payment.gateway.model.PostPaymentResponse;
+
+/**
+ * Callback for read-side models fed from {@link PaymentsRepository} writes.
+ * <p>
+ * Listeners are called synchronously inside the per-payment write, so calls for the same payment
+ * arrive in store order. They run on the request thread and must be fast and non-blocking.
+ * </p>
+ */
+@FunctionalInterface
+public interface PaymentStoreListener {
+
+  /**
+   * @param row the position of the payment in insertion order, stable across updates
+   * @param payment the payment as stored; must not be retained or modified
+   */
+  void onStored(int row, PostPaymentResponse payment);
+}
@@ -1,22 +1,200 @@
 package com.checkout.payment.gateway.repository;
 
+import com.checkout.payment.gateway.model.PaymentIndexStats;
+import com.checkout.payment.gateway.model.PaymentQuery;
 import com.checkout.payment.gateway.model.PostPaymentResponse;
-import java.util.HashMap;
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import java.util.function.UnaryOperator;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Repository;
 
+/**
+ * In-memory payment store.
+ * <p>
+ * Payments are held in the compact {@link PackedPayment} form rather than as
+ * {@link PostPaymentResponse} objects; {@link #get(UUID)} rebuilds a detached response on every
+ * call, so callers cannot modify stored state through the returned object.
+ * </p>
+ * <p>
+ * A {@link PaymentIndex} is maintained alongside the store so that payments can be searched by
+ * status, currency, last four card digits and creation time without a full scan. Index updates
+ * happen inside the map's per-key {@code compute}, so concurrent writes of the same payment reach
+ * the index in the same order as the store. Registered {@link PaymentStoreListener}s are notified
+ * the same way.
+ * </p>
+ * <p>
+ * Stored payments are immutable and versioned: every write stores a new record with the version
+ * after the one it replaces. {@link #compareAndSet(UUID, int, PostPaymentResponse)} writes only if
+ * the payment is still at the version the caller read, and {@link #update(UUID, UnaryOperator)}
+ * retries a change until it applies to the latest version, so concurrent changes of a payment
+ * never overwrite one another and nothing is locked while a change is prepared. The version check
+ * happens in the same per-key {@code compute} as the write, so the index and listeners still see
+ * the versions of a payment one after another and in order.
+ * </p>
+ */
 @Repository
 public class PaymentsRepository {
 
-  private final HashMap<UUID, PostPaymentResponse> payments = new HashMap<>();
+  private final Map<UUID, PackedPayment> payments = new ConcurrentHashMap<>();
+  private final PaymentIndex index;
+  private final List<PaymentStoreListener> listeners = new CopyOnWriteArrayList<>();
 
+  @Autowired
+  public PaymentsRepository(@Value("${payments.index.max-payments:1048576}") int maxIndexedPayments) {
+    this(maxIndexedPayments, Clock.systemUTC());
+  }
+
+  PaymentsRepository(int maxIndexedPayments, Clock clock) {
+    this.index = new PaymentIndex(maxIndexedPayments, clock);
+  }
+
+  /**
+   * Stores a new payment, or unconditionally replaces a stored one. Changes of stored payments
+   * that depend on their current state should use {@link #update(UUID, UnaryOperator)} instead.
+   */
   public void add(PostPaymentResponse payment) {
-    payments.put(payment.getId(), payment);
+    UUID id = payment.getId();
+    payments.compute(id, (key, previous) -> {
+      int row = previous == null ? index.allocateRow(id) : previous.row();
+      return write(previous, PackedPayment.pack(payment, row, previous == null ? 1 : previous.version() + 1),
+          payment);
+    });
+  }
+
+  /**
+   * Replaces a stored payment only if it was not written since the given version was read.
+   * @param id the payment id
+   * @param expectedVersion the version the replacement was derived from
+   * @param payment the payment to store, with the same id
+   * @return {@code false} if there is no such payment or it is no longer at the expected version,
+   *     in which case nothing was written
+   */
+  public boolean compareAndSet(UUID id, int expectedVersion, PostPaymentResponse payment) {
+    if (!id.equals(payment.getId())) {
+      throw new IllegalArgumentException("A payment cannot be replaced by one with another id");
+    }
+    PackedPayment current = payments.get(id);
+    if (current == null || current.version() != expectedVersion) {
+      return false;
+    }
+    // Rows never change, so the replacement can be packed before taking the key
+    PackedPayment packed = PackedPayment.pack(payment, current.row(), expectedVersion + 1);
+    return payments.computeIfPresent(id, (key, previous) ->
+        previous.version() == expectedVersion ? write(previous, packed, payment) : previous) == packed;
+  }
+
+  /**
+   * Replaces a stored payment by a change of it, applied to the latest version of the payment.
+   * <p>
+   * The change is given the payment as stored and its result is stored with
+   * {@link #compareAndSet(UUID, int, PostPaymentResponse)}; if another write got there first, the
+   * change is made again on the new version. It may therefore run more than once and must not have
+   * effects beyond the payment it returns. It can throw to leave the payment as it is.
+   * </p>
+   * @param id the payment id
+   * @param change given a detached view of the stored payment, returns the payment to store in its
+   *     place, with the same id
+   * @return the payment now stored, or empty if there is no payment with this id
+   */
+  public Optional<PostPaymentResponse> update(UUID id, UnaryOperator<PostPaymentResponse> change) {
+    while (true) {
+      PackedPayment current = payments.get(id);
+      if (current == null) {
+        return Optional.empty();
+      }
+      PostPaymentResponse changed = change.apply(current.toResponse(id));
+      if (compareAndSet(id, current.version(), changed)) {
+        return Optional.of(changed);
+      }
+    }
+  }
+
+  /**
+   * @return a detached view of the payment with its version, or empty if there is no such payment
+   */
+  public Optional<VersionedPayment> getVersioned(UUID id) {
+    PackedPayment packed = payments.get(id);
+    return packed == null ? Optional.empty()
+        : Optional.of(new VersionedPayment(packed.toResponse(id), packed.version()));
+  }
+
+  /**
+   * @return the version of the payment, which grows with every write of it, or 0 if there is none
+   */
+  public int version(UUID id) {
+    PackedPayment packed = payments.get(id);
+    return packed == null ? 0 : packed.version();
+  }
+
+  /**
+   * Registers a listener for every subsequent write.
+   */
+  public void addListener(PaymentStoreListener listener) {
+    listeners.add(listener);
   }
 
   public Optional<PostPaymentResponse> get(UUID id) {
-    return Optional.ofNullable(payments.get(id));
+    PackedPayment packed = payments.get(id);
+    return packed == null ? Optional.empty() : Optional.of(packed.toResponse(id));
+  }
+
+  /**
+   * Passes a detached view of every stored payment to the action, in no particular order. Writes
+   * made while iterating may or may not be seen.
+   */
+  public void forEach(Consumer<PostPaymentResponse> action) {
+    payments.forEach((id, packed) -> action.accept(packed.toResponse(id)));
+  }
+
+  /**
+   * Finds payments matching every criterion of the query, most recent first.
+   * <p>
+   * Only the most recent {@code payments.index.max-payments} payments are searchable; older ones
+   * are still returned by {@link #get(UUID)}.
+   * </p>
+   * @param query the search criteria
+   * @return detached views of the matching payments
+   */
+  public List<PostPaymentResponse> search(PaymentQuery query) {
+    List<UUID> ids = index.search(query);
+    List<PostPaymentResponse> results = new ArrayList<>(ids.size());
+    for (UUID id : ids) {
+      PackedPayment packed = payments.get(id);
+      // The payment may have been updated since the index was read
+      if (packed != null && PaymentIndex.matches(packed, query)) {
+        results.add(packed.toResponse(id));
+      }
+    }
+    return results;
   }
 
+  public PaymentIndexStats indexStats() {
+    return index.stats();
+  }
+
+  public int size() {
+    return payments.size();
+  }
+
+  /**
+   * Indexes a new version of a payment and notifies the listeners. Must be called inside the
+   * payment's {@code compute}.
+   * @return the new version
+   */
+  private PackedPayment write(PackedPayment previous, PackedPayment packed, PostPaymentResponse payment) {
+    index.update(packed.row(), previous, packed);
+    for (PaymentStoreListener listener : listeners) {
+      listener.onStored(packed.row(), payment);
+    }
+    return packed;
+  }
 }
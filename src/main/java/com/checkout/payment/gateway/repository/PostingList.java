@@ -0,0 +1,334 @@
+package com.checkout.payment.gateway.repository;
+
+import java.util.Arrays;
+
+/**
+ * Compressed set of repository row numbers, organised like a roaring bitmap.
+ * <p>
+ * Rows are split by their high 16 bits into containers. A container holds its low 16 bits either
+ * as a sorted {@code char[]} while sparse, or as a 65536-bit bitmap once it exceeds
+ * {@value #ARRAY_MAX} entries, so dense and sparse lists both stay small and intersections work
+ * container by container.
+ * </p>
+ * <p>
+ * Instances shared by the index are guarded by their own monitor. Queries never hold more than
+ * one list's monitor at a time: they {@link #copy()} one list and {@link #retain(PostingList)}
+ * the others into that private copy.
+ * </p>
+ */
+final class PostingList {
+
+  static final int CONTAINER_BITS = 16;
+  private static final int ARRAY_MAX = 4096;
+  private static final int BITMAP_WORDS = 1 << (CONTAINER_BITS - 6);
+
+  private char[] keys = new char[2];
+  private Container[] containers = new Container[2];
+  private int size;
+
+  synchronized void add(int row) {
+    char key = (char) (row >>> CONTAINER_BITS);
+    int index = indexOf(key);
+    if (index < 0) {
+      index = -index - 1;
+      insertContainer(index, key, new Container());
+    }
+    containers[index].add((char) row);
+  }
+
+  synchronized void remove(int row) {
+    int index = indexOf((char) (row >>> CONTAINER_BITS));
+    if (index >= 0) {
+      Container container = containers[index];
+      container.remove((char) row);
+      if (container.cardinality == 0) {
+        removeContainerAt(index);
+      }
+    }
+  }
+
+  synchronized boolean contains(int row) {
+    int index = indexOf((char) (row >>> CONTAINER_BITS));
+    return index >= 0 && containers[index].contains((char) row);
+  }
+
+  /**
+   * Drops every row whose high 16 bits equal the given container key.
+   */
+  synchronized void removeContainer(int key) {
+    int index = indexOf((char) key);
+    if (index >= 0) {
+      removeContainerAt(index);
+    }
+  }
+
+  synchronized PostingList copy() {
+    PostingList copy = new PostingList();
+    copy.keys = Arrays.copyOf(keys, Math.max(size, 1));
+    copy.containers = new Container[copy.keys.length];
+    for (int i = 0; i < size; i++) {
+      copy.containers[i] = containers[i].copy();
+    }
+    copy.size = size;
+    return copy;
+  }
+
+  /**
+   * Intersects this list with {@code other} in place. Only {@code other} is locked, so this
+   * must be a private copy.
+   */
+  void retain(PostingList other) {
+    synchronized (other) {
+      int kept = 0;
+      for (int i = 0; i < size; i++) {
+        int otherIndex = other.indexOf(keys[i]);
+        if (otherIndex < 0) {
+          continue;
+        }
+        Container intersection = containers[i].and(other.containers[otherIndex]);
+        if (intersection.cardinality > 0) {
+          keys[kept] = keys[i];
+          containers[kept++] = intersection;
+        }
+      }
+      Arrays.fill(containers, kept, size, null);
+      size = kept;
+    }
+  }
+
+  /**
+   * Keeps only rows in {@code [from, to)}. Only valid on a private copy.
+   */
+  void retainRange(int from, int to) {
+    int kept = 0;
+    for (int i = 0; i < size; i++) {
+      int base = keys[i] << CONTAINER_BITS;
+      Container container = containers[i];
+      if (base >= from && base + (1 << CONTAINER_BITS) <= to) {
+        keys[kept] = keys[i];
+        containers[kept++] = container;
+        continue;
+      }
+      Container clipped = new Container();
+      for (int low : container.toArray()) {
+        int row = base | low;
+        if (row >= from && row < to) {
+          clipped.add((char) low);
+        }
+      }
+      if (clipped.cardinality > 0) {
+        keys[kept] = keys[i];
+        containers[kept++] = clipped;
+      }
+    }
+    Arrays.fill(containers, kept, size, null);
+    size = kept;
+  }
+
+  /**
+   * Returns up to {@code limit} rows, highest (most recent) first. Only valid on a private copy.
+   */
+  int[] toArrayDescending(int limit) {
+    int[] rows = new int[Math.min(limit, cardinality())];
+    int count = 0;
+    for (int i = size - 1; i >= 0 && count < rows.length; i--) {
+      int base = keys[i] << CONTAINER_BITS;
+      int[] lows = containers[i].toArray();
+      for (int j = lows.length - 1; j >= 0 && count < rows.length; j--) {
+        rows[count++] = base | lows[j];
+      }
+    }
+    return rows;
+  }
+
+  synchronized int cardinality() {
+    int cardinality = 0;
+    for (int i = 0; i < size; i++) {
+      cardinality += containers[i].cardinality;
+    }
+    return cardinality;
+  }
+
+  synchronized int containerCount() {
+    return size;
+  }
+
+  /**
+   * Approximate heap footprint of this list, including headers and unused capacity.
+   */
+  synchronized long sizeInBytes() {
+    long bytes = 16 + 16 + 2L * keys.length + 16 + 4L * containers.length;
+    for (int i = 0; i < size; i++) {
+      bytes += containers[i].sizeInBytes();
+    }
+    return bytes;
+  }
+
+  private int indexOf(char key) {
+    // Rows are allocated in increasing order, so the last container is the usual hit
+    if (size > 0 && keys[size - 1] == key) {
+      return size - 1;
+    }
+    return Arrays.binarySearch(keys, 0, size, key);
+  }
+
+  private void insertContainer(int index, char key, Container container) {
+    if (size == keys.length) {
+      keys = Arrays.copyOf(keys, size * 2);
+      containers = Arrays.copyOf(containers, size * 2);
+    }
+    System.arraycopy(keys, index, keys, index + 1, size - index);
+    System.arraycopy(containers, index, containers, index + 1, size - index);
+    keys[index] = key;
+    containers[index] = container;
+    size++;
+  }
+
+  private void removeContainerAt(int index) {
+    System.arraycopy(keys, index + 1, keys, index, size - index - 1);
+    System.arraycopy(containers, index + 1, containers, index, size - index - 1);
+    containers[--size] = null;
+  }
+
+  /**
+   * Low 16 bits of the rows sharing one container key.
+   */
+  private static final class Container {
+
+    private char[] values = new char[4];
+    private long[] bitmap;
+    private int cardinality;
+
+    void add(char low) {
+      if (bitmap != null) {
+        long word = bitmap[low >>> 6];
+        long updated = word | (1L << low);
+        if (updated != word) {
+          bitmap[low >>> 6] = updated;
+          cardinality++;
+        }
+        return;
+      }
+      int index = cardinality > 0 && values[cardinality - 1] < low
+          ? -cardinality - 1
+          : Arrays.binarySearch(values, 0, cardinality, low);
+      if (index >= 0) {
+        return;
+      }
+      if (cardinality == ARRAY_MAX) {
+        toBitmap();
+        add(low);
+        return;
+      }
+      index = -index - 1;
+      if (cardinality == values.length) {
+        values = Arrays.copyOf(values, Math.min(cardinality * 2, ARRAY_MAX));
+      }
+      System.arraycopy(values, index, values, index + 1, cardinality - index);
+      values[index] = low;
+      cardinality++;
+    }
+
+    void remove(char low) {
+      if (bitmap != null) {
+        long word = bitmap[low >>> 6];
+        long updated = word & ~(1L << low);
+        if (updated != word) {
+          bitmap[low >>> 6] = updated;
+          cardinality--;
+        }
+        return;
+      }
+      int index = Arrays.binarySearch(values, 0, cardinality, low);
+      if (index >= 0) {
+        System.arraycopy(values, index + 1, values, index, cardinality - index - 1);
+        cardinality--;
+      }
+    }
+
+    boolean contains(char low) {
+      if (bitmap != null) {
+        return (bitmap[low >>> 6] & (1L << low)) != 0;
+      }
+      return Arrays.binarySearch(values, 0, cardinality, low) >= 0;
+    }
+
+    Container and(Container other) {
+      Container result = new Container();
+      if (bitmap != null && other.bitmap != null) {
+        long[] words = new long[BITMAP_WORDS];
+        int cardinality = 0;
+        for (int i = 0; i < BITMAP_WORDS; i++) {
+          words[i] = bitmap[i] & other.bitmap[i];
+          cardinality += Long.bitCount(words[i]);
+        }
+        if (cardinality > ARRAY_MAX) {
+          result.values = null;
+          result.bitmap = words;
+          result.cardinality = cardinality;
+          return result;
+        }
+        Container sparse = new Container();
+        sparse.bitmap = words;
+        sparse.cardinality = cardinality;
+        for (int low : sparse.toArray()) {
+          result.add((char) low);
+        }
+        return result;
+      }
+      // At least one side is an array: probe the smaller array against the other container
+      Container small = bitmap == null && (other.bitmap != null || cardinality <= other.cardinality)
+          ? this : other;
+      Container large = small == this ? other : this;
+      for (int i = 0; i < small.cardinality; i++) {
+        if (large.contains(small.values[i])) {
+          result.add(small.values[i]);
+        }
+      }
+      return result;
+    }
+
+    int[] toArray() {
+      int[] lows = new int[cardinality];
+      if (bitmap == null) {
+        for (int i = 0; i < cardinality; i++) {
+          lows[i] = values[i];
+        }
+        return lows;
+      }
+      int count = 0;
+      for (int i = 0; i < BITMAP_WORDS; i++) {
+        long word = bitmap[i];
+        while (word != 0) {
+          lows[count++] = (i << 6) + Long.numberOfTrailingZeros(word);
+          word &= word - 1;
+        }
+      }
+      return lows;
+    }
+
+    Container copy() {
+      Container copy = new Container();
+      copy.cardinality = cardinality;
+      if (bitmap != null) {
+        copy.values = null;
+        copy.bitmap = bitmap.clone();
+      } else {
+        copy.values = Arrays.copyOf(values, Math.max(cardinality, 1));
+      }
+      return copy;
+    }
+
+    long sizeInBytes() {
+      return 24 + (bitmap != null ? 16 + 8L * bitmap.length : 16 + 2L * values.length);
+    }
+
+    private void toBitmap() {
+      bitmap = new long[BITMAP_WORDS];
+      for (int i = 0; i < cardinality; i++) {
+        bitmap[values[i] >>> 6] |= 1L << values[i];
+      }
+      values = null;
+    }
+  }
+}
@@ -0,0 +1,12 @@
+package com.checkout.payment.gateway.repository;
+
+import com.checkout.payment.gateway.model.PostPaymentResponse;
+
+/**
+ * A stored payment with the version it was read at, to change it with
+ * {@link PaymentsRepository#compareAndSet(java.util.UUID, int, PostPaymentResponse)}.
+ * @param payment a detached view of the payment
+ * @param version the number of times the payment was written, from 1
+ */
+public record VersionedPayment(PostPaymentResponse payment, int version) {
+}
@@ -0,0 +1,98 @@
+package com.checkout.payment.gateway.routing;
+
+import com.checkout.payment.gateway.model.AcquirerStats;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * An acquiring bank payments can be sent to, and its recent health.
+ * <p>
+ * Latency is a peak EWMA: a slower response raises it at once, faster ones bring it down over
+ * the half-life. The error rate moves a fixed step towards each outcome and decays towards zero
+ * over the half-life, so an acquirer that is avoided for its errors is tried again after a while
+ * instead of staying out for good.
+ * </p>
+ */
+public final class Acquirer {
+
+  private static final double ERROR_WEIGHT = 0.2;
+  // Floor of the success rate dividing the cost, so that failing acquirers get a finite cost
+  private static final double MIN_SUCCESS_RATE = 0.05;
+
+  private final String name;
+  private final String url;
+  private final double halfLifeNanos;
+  private final AtomicInteger inFlight = new AtomicInteger();
+  private final LongAdder requests = new LongAdder();
+  private final LongAdder failures = new LongAdder();
+  // Guarded by this
+  private double latencyNanos;
+  private double errorRate;
+  private long updatedNanos;
+
+  Acquirer(String name, String url, long halfLifeNanos, long nowNanos) {
+    this.name = name;
+    this.url = url;
+    this.halfLifeNanos = halfLifeNanos;
+    this.updatedNanos = nowNanos;
+  }
+
+  public String name() {
+    return name;
+  }
+
+  /**
+   * @return the base URL of the acquirer's API
+   */
+  public String url() {
+    return url;
+  }
+
+  void started() {
+    inFlight.incrementAndGet();
+    requests.increment();
+  }
+
+  /**
+   * Records the outcome of a request, which must have been {@link #started()}.
+   * @param failed whether the acquirer failed to answer, not whether it declined the payment
+   */
+  synchronized void finished(long nowNanos, long latency, boolean failed) {
+    inFlight.decrementAndGet();
+    if (failed) {
+      failures.increment();
+    }
+    double weight = decay(nowNanos);
+    errorRate = errorRate * weight + ERROR_WEIGHT * ((failed ? 1 : 0) - errorRate * weight);
+    latencyNanos = latency >= latencyNanos ? latency : latencyNanos * weight + latency * (1 - weight);
+    updatedNanos = nowNanos;
+  }
+
+  synchronized double errorRate(long nowNanos) {
+    return errorRate * decay(nowNanos);
+  }
+
+  /**
+   * Expected cost of sending one more request: the latency, scaled up by the requests already
+   * waiting on the acquirer and by its error rate.
+   */
+  synchronized double cost(long nowNanos) {
+    double successRate = Math.max(1 - errorRate * decay(nowNanos), MIN_SUCCESS_RATE);
+    return latencyNanos * (inFlight.get() + 1) / successRate;
+  }
+
+  synchronized AcquirerStats stats(long nowNanos, boolean degraded) {
+    return new AcquirerStats(name, url, latencyNanos / TimeUnit.MILLISECONDS.toNanos(1),
+        errorRate * decay(nowNanos), inFlight.get(), requests.sum(), failures.sum(), degraded);
+  }
+
+  private double decay(long nowNanos) {
+    return Math.pow(0.5, Math.max(nowNanos - updatedNanos, 0) / halfLifeNanos);
+  }
+
+  @Override
+  public String toString() {
+    return name + "(" + url + ")";
+  }
+}
@@ -0,0 +1,208 @@
+package com.checkout.payment.gateway.routing;
+
+import com.checkout.payment.gateway.bin.BinLookupService;
+import com.checkout.payment.gateway.model.AcquirerStats;
+import com.checkout.payment.gateway.model.BinInfo;
+import com.checkout.payment.gateway.model.PostPaymentRequest;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Picks the acquirer each payment is sent to.
+ * <p>
+ * Acquirers are configured as {@code name=url} pairs in {@code payments.routing.acquirers}; with
+ * none, every payment goes to {@code acquiring.bank.url}. Rules in {@code payments.routing.rules}
+ * of the form {@code field:value=acquirer|acquirer} restrict the payments matching them to the
+ * listed acquirers, where the field is {@code currency}, {@code scheme}, {@code country} (of the
+ * card issuer) or {@code bin} (a card number prefix). The first matching rule applies; payments
+ * matching none may go to any acquirer.
+ * </p>
+ * <p>
+ * Among the allowed acquirers, those with an error rate above
+ * {@code payments.routing.max-error-rate} are skipped while any other is left. Two of the rest are
+ * drawn at random and the payment goes to the one with the lower {@link Acquirer#cost cost}.
+ * Comparing two random choices rather than always taking the cheapest keeps a burst of payments
+ * from piling onto whichever acquirer looked best a moment ago.
+ * </p>
+ */
+@Component
+public class AcquirerRouter {
+
+  private static final String DEFAULT_ACQUIRER = "default";
+
+  private final Map<String, Acquirer> acquirers;
+  private final List<Rule> rules;
+  private final double maxErrorRate;
+  private final LongSupplier nanoTime;
+  private final BinLookupService binLookupService;
+
+  @Autowired
+  public AcquirerRouter(
+      BinLookupService binLookupService,
+      @Value("${payments.routing.acquirers:}") List<String> acquirers,
+      @Value("${acquiring.bank.url}") String defaultUrl,
+      @Value("${payments.routing.rules:}") List<String> rules,
+      @Value("${payments.routing.half-life-ms:10000}") long halfLifeMillis,
+      @Value("${payments.routing.max-error-rate:0.5}") double maxErrorRate
+  ) {
+    this(binLookupService, acquirers, defaultUrl, rules, halfLifeMillis, maxErrorRate, System::nanoTime);
+  }
+
+  AcquirerRouter(BinLookupService binLookupService, List<String> acquirers, String defaultUrl,
+      List<String> rules, long halfLifeMillis, double maxErrorRate, LongSupplier nanoTime) {
+    if (halfLifeMillis <= 0) {
+      throw new IllegalArgumentException("payments.routing.half-life-ms must be positive");
+    }
+    this.binLookupService = binLookupService;
+    this.maxErrorRate = maxErrorRate;
+    this.nanoTime = nanoTime;
+    this.acquirers = parseAcquirers(acquirers, defaultUrl, TimeUnit.MILLISECONDS.toNanos(halfLifeMillis));
+    this.rules = rules.stream().filter(rule -> !rule.isBlank()).map(this::parseRule).toList();
+  }
+
+  /**
+   * @param paymentRequest a validated payment request
+   * @param excluded acquirers already tried for this payment
+   * @return the acquirer to send the payment to, or {@code null} if every allowed one is excluded
+   */
+  public Acquirer choose(PostPaymentRequest paymentRequest, Collection<Acquirer> excluded) {
+    List<Acquirer> allowed = allowed(paymentRequest);
+    long now = nanoTime.getAsLong();
+    List<Acquirer> healthy = new ArrayList<>(allowed.size());
+    List<Acquirer> degraded = new ArrayList<>(allowed.size());
+    for (Acquirer acquirer : allowed) {
+      if (!excluded.contains(acquirer)) {
+        (isDegraded(acquirer, now) ? degraded : healthy).add(acquirer);
+      }
+    }
+    List<Acquirer> candidates = healthy.isEmpty() ? degraded : healthy;
+    if (candidates.size() <= 1) {
+      return candidates.isEmpty() ? null : candidates.get(0);
+    }
+    ThreadLocalRandom random = ThreadLocalRandom.current();
+    int first = random.nextInt(candidates.size());
+    int second = random.nextInt(candidates.size() - 1);
+    if (second >= first) {
+      second++;
+    }
+    Acquirer a = candidates.get(first);
+    Acquirer b = candidates.get(second);
+    return a.cost(now) <= b.cost(now) ? a : b;
+  }
+
+  /**
+   * Marks a request as sent to the acquirer, for its in-flight count.
+   * @return the start time to pass to {@link #finished}
+   */
+  public long started(Acquirer acquirer) {
+    acquirer.started();
+    return nanoTime.getAsLong();
+  }
+
+  /**
+   * @param failed whether the acquirer failed to answer, not whether it declined the payment
+   */
+  public void finished(Acquirer acquirer, long startNanos, boolean failed) {
+    long now = nanoTime.getAsLong();
+    acquirer.finished(now, now - startNanos, failed);
+  }
+
+  public List<AcquirerStats> stats() {
+    long now = nanoTime.getAsLong();
+    return acquirers.values().stream()
+        .map(acquirer -> acquirer.stats(now, isDegraded(acquirer, now)))
+        .toList();
+  }
+
+  private boolean isDegraded(Acquirer acquirer, long now) {
+    return acquirer.errorRate(now) > maxErrorRate;
+  }
+
+  private List<Acquirer> allowed(PostPaymentRequest paymentRequest) {
+    if (rules.isEmpty()) {
+      return List.copyOf(acquirers.values());
+    }
+    BinInfo bin = binLookupService.lookup(paymentRequest.getCardNumber());
+    for (Rule rule : rules) {
+      if (rule.matches(paymentRequest, bin)) {
+        return rule.acquirers();
+      }
+    }
+    return List.copyOf(acquirers.values());
+  }
+
+  private Map<String, Acquirer> parseAcquirers(List<String> entries, String defaultUrl, long halfLifeNanos) {
+    Map<String, Acquirer> parsed = new LinkedHashMap<>();
+    for (String entry : entries) {
+      if (entry.isBlank()) {
+        continue;
+      }
+      int separator = entry.indexOf('=');
+      if (separator <= 0 || separator == entry.length() - 1) {
+        throw new IllegalArgumentException("Acquirer must be name=url: " + entry);
+      }
+      String name = entry.substring(0, separator).strip();
+      String url = entry.substring(separator + 1).strip();
+      if (parsed.put(name, new Acquirer(name, url, halfLifeNanos, nanoTime.getAsLong())) != null) {
+        throw new IllegalArgumentException("Duplicate acquirer: " + name);
+      }
+    }
+    if (parsed.isEmpty()) {
+      parsed.put(DEFAULT_ACQUIRER, new Acquirer(DEFAULT_ACQUIRER, defaultUrl, halfLifeNanos, nanoTime.getAsLong()));
+    }
+    return parsed;
+  }
+
+  private Rule parseRule(String entry) {
+    int colon = entry.indexOf(':');
+    int equals = entry.indexOf('=', colon + 1);
+    if (colon <= 0 || equals < 0 || equals == colon + 1) {
+      throw new IllegalArgumentException("Routing rule must be field:value=acquirer|acquirer: " + entry);
+    }
+    Field field;
+    try {
+      field = Field.valueOf(entry.substring(0, colon).strip().toUpperCase(Locale.ROOT));
+    } catch (IllegalArgumentException e) {
+      throw new IllegalArgumentException("Unknown routing rule field in " + entry, e);
+    }
+    String value = entry.substring(colon + 1, equals).strip();
+    List<Acquirer> targets = Arrays.stream(entry.substring(equals + 1).split("\\|"))
+        .map(String::strip)
+        .map(name -> {
+          Acquirer acquirer = acquirers.get(name);
+          if (acquirer == null) {
+            throw new IllegalArgumentException("Unknown acquirer " + name + " in " + entry);
+          }
+          return acquirer;
+        })
+        .toList();
+    return new Rule(field, field == Field.BIN ? value : value.toUpperCase(Locale.ROOT), targets);
+  }
+
+  private enum Field {
+    CURRENCY, SCHEME, COUNTRY, BIN
+  }
+
+  private record Rule(Field field, String value, List<Acquirer> acquirers) {
+
+    boolean matches(PostPaymentRequest paymentRequest, BinInfo bin) {
+      return switch (field) {
+        case CURRENCY -> value.equalsIgnoreCase(paymentRequest.getCurrency());
+        case SCHEME -> bin != null && value.equals(bin.getScheme().name());
+        case COUNTRY -> bin != null && value.equals(bin.getIssuerCountry());
+        case BIN -> paymentRequest.getCardNumber().startsWith(value);
+      };
+    }
+  }
+}
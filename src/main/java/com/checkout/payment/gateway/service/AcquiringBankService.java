@@ -1,14 +1,23 @@
 package com.checkout.payment.gateway.service;
 
+import com.checkout.payment.gateway.codec.AcquiringBankRequestEncoder;
 import com.checkout.payment.gateway.exception.PaymentProcessingException;
 import com.checkout.payment.gateway.model.PostAcquiringBankResponse;
 import com.checkout.payment.gateway.model.PostPaymentRequest;
+import com.checkout.payment.gateway.routing.Acquirer;
+import com.checkout.payment.gateway.routing.AcquirerRouter;
+import java.net.ConnectException;
+import java.util.ArrayList;
+import java.util.List;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
 import org.springframework.web.client.RestClientException;
 import org.springframework.web.client.RestTemplate;
 
@@ -18,37 +27,77 @@ public class AcquiringBankService {
   private static final Logger LOG = LoggerFactory.getLogger(AcquiringBankService.class);
   private static final String PAYMENTS_API_PATH = "/payments";
 
-  private final String bankUrl;
-
   private final RestTemplate restTemplate;
+  private final AcquiringBankRequestEncoder requestEncoder;
+  private final AcquirerRouter acquirerRouter;
 
-  public AcquiringBankService(RestTemplate restTemplate, @Value("${acquiring.bank.url}") String bankUrl) {
+  public AcquiringBankService(
+      RestTemplate restTemplate,
+      AcquiringBankRequestEncoder requestEncoder,
+      AcquirerRouter acquirerRouter
+  ) {
     this.restTemplate = restTemplate;
-    this.bankUrl = bankUrl;
+    this.requestEncoder = requestEncoder;
+    this.acquirerRouter = acquirerRouter;
   }
 
   /**
-   * Processes a payment request through the Acquiring Bank.
+   * Processes a payment request through the acquiring bank picked by the {@link AcquirerRouter}.
+   * <p>
+   * When the acquirer answers {@code 503} or cannot be connected to, it has not processed the
+   * payment, so the payment fails over to the next allowed acquirer. Other failures, such as a
+   * timeout, leave it unknown whether the payment went through and are not retried elsewhere, as
+   * that could charge the card twice.
+   * </p>
    * <p>
-   * In production code, we should be implementing exponential backoff with jitter
-   * and a circuit breaker (e.g., using Resilience4j) for transient failures (5xx HTTP responses
-   * and network issues).
+   * The request is mapped to the bank's own payload and encoded up front, so only the fields the
+   * bank expects are sent.
    * </p>
-   * @param bankRequest the payment request
+   * @param paymentRequest the payment request
    * @return the bank response
    * @throws PaymentProcessingException if the bank request fails
    */
-  public PostAcquiringBankResponse processPayment(PostPaymentRequest bankRequest) throws PaymentProcessingException {
-    LOG.debug("Processing payment through Acquiring Bank.");
+  public PostAcquiringBankResponse processPayment(PostPaymentRequest paymentRequest) throws PaymentProcessingException {
+    HttpHeaders headers = new HttpHeaders();
+    headers.setContentType(MediaType.APPLICATION_JSON);
+    HttpEntity<byte[]> entity = new HttpEntity<>(requestEncoder.encode(paymentRequest), headers);
+    List<Acquirer> tried = new ArrayList<>(2);
+    Acquirer acquirer;
+    PaymentProcessingException failure = null;
+    while ((acquirer = acquirerRouter.choose(paymentRequest, tried)) != null) {
+      tried.add(acquirer);
+      try {
+        return processPayment(acquirer, entity);
+      } catch (PaymentProcessingException e) {
+        failure = e;
+        if (!isSafeToRetry(e)) {
+          throw e;
+        }
+        LOG.warn("Acquirer {} did not process the payment, failing over", acquirer.name());
+      }
+    }
+    if (failure == null) {
+      throw new PaymentProcessingException("No acquirer available", null);
+    }
+    throw failure;
+  }
+
+  private PostAcquiringBankResponse processPayment(Acquirer acquirer, HttpEntity<byte[]> entity) {
+    LOG.debug("Processing payment through acquirer {}", acquirer.name());
+    long started = acquirerRouter.started(acquirer);
+    boolean failed = true;
     try {
       PostAcquiringBankResponse response = restTemplate.postForObject(
-          bankUrl + PAYMENTS_API_PATH,
-          bankRequest,
+          acquirer.url() + PAYMENTS_API_PATH,
+          entity,
           PostAcquiringBankResponse.class
       );
+      failed = false;
       LOG.debug("Payment processed successfully");
       return response;
     } catch (HttpClientErrorException.BadRequest e) {
+      // The request was at fault, not the acquirer
+      failed = false;
       LOG.error("Bad request sent to Acquiring Bank: {}", e.getResponseBodyAsString());
       throw new PaymentProcessingException("Invalid payment request", e);
     } catch (HttpServerErrorException.ServiceUnavailable e) {
@@ -57,6 +106,13 @@ public class AcquiringBankService {
     } catch (RestClientException e) {
       LOG.error("Error processing payment with Acquiring Bank: {}", e.getMessage());
       throw new PaymentProcessingException("Bank request failed", e);
+    } finally {
+      acquirerRouter.finished(acquirer, started, failed);
     }
   }
+
+  private static boolean isSafeToRetry(PaymentProcessingException e) {
+    return e.getCause() instanceof HttpServerErrorException.ServiceUnavailable
+        || (e.getCause() instanceof ResourceAccessException && e.getCause().getCause() instanceof ConnectException);
+  }
 }
@@ -0,0 +1,242 @@
+package com.checkout.payment.gateway.service;
+
+import com.checkout.payment.gateway.model.VelocityStats;
+import java.security.SecureRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Per-card sliding window limits on how many payments, and how much, reach the acquiring bank.
+ * <p>
+ * Payments are counted over the last {@code payments.velocity.window-seconds} with a sliding window
+ * counter: the counts of the current fixed window plus those of the previous one weighted by how
+ * much of it still overlaps the sliding window. The number of payments is counted per card whatever
+ * their currency, so rotating currencies does not get a card more bank calls, while amounts are
+ * summed per card and currency, as amounts in different currencies cannot be added. Only payments
+ * let through are counted, so a card stops being refused as soon as its earlier payments age out.
+ * </p>
+ * <p>
+ * Cards are keyed by a 64-bit hash of the card number, and of the card number and currency for
+ * amounts, seeded randomly at start, so no card number is kept. Counters live in a fixed table of
+ * {@code payments.velocity.capacity} slots packed in a {@code long[]}, grouped in sets of
+ * {@value #WAYS} adjacent slots a key can occupy, each set guarded by one of a fixed number of
+ * striped locks. A check hashes the card, locks the sets of its keys in a fixed order and reads a
+ * couple of cache lines, so it allocates nothing and its cost does not grow with the number of
+ * cards. Slots whose windows have passed are free for reuse, so no sweep is needed; when every slot
+ * of a set is still counting, the one used longest ago is evicted and that key's counts start over.
+ * </p>
+ */
+@Component
+public class CardVelocityChecker {
+
+  static final int WAYS = 4;
+  private static final int STRIDE = 4;
+  private static final int KEY = 0;
+  // Window index in the high 32 bits, then the current and previous window's counts in 16 bits
+  // each, which only card slots use
+  private static final int COUNTS = 1;
+  // The current and previous window's amounts, which only card and currency slots use
+  private static final int AMOUNT = 2;
+  private static final int PREVIOUS_AMOUNT = 3;
+  private static final long MAX_COUNT = 0xFFFF;
+  private static final int MAX_LOCKS = 4096;
+
+  private final long[] slots;
+  private final int setMask;
+  private final Object[] locks;
+  private final int maxPayments;
+  private final long maxAmount;
+  private final long windowNanos;
+  private final long seed;
+  private final LongSupplier nanoTime;
+  private final LongAdder checks = new LongAdder();
+  private final LongAdder rejected = new LongAdder();
+  private final LongAdder evicted = new LongAdder();
+
+  @Autowired
+  public CardVelocityChecker(
+      @Value("${payments.velocity.capacity:1048576}") int capacity,
+      @Value("${payments.velocity.window-seconds:600}") long windowSeconds,
+      @Value("${payments.velocity.max-payments:10}") int maxPayments,
+      @Value("${payments.velocity.max-amount:0}") long maxAmount
+  ) {
+    this(capacity, windowSeconds, maxPayments, maxAmount, System::nanoTime);
+  }
+
+  CardVelocityChecker(int capacity, long windowSeconds, int maxPayments, long maxAmount, LongSupplier nanoTime) {
+    if (capacity < WAYS || Integer.bitCount(capacity) != 1 || capacity > 1 << 26) {
+      throw new IllegalArgumentException("Velocity capacity must be a power of two between " + WAYS + " and 2^26");
+    }
+    if (windowSeconds <= 0) {
+      throw new IllegalArgumentException("Velocity window must be positive");
+    }
+    if (maxPayments > MAX_COUNT) {
+      throw new IllegalArgumentException("Velocity max-payments must be at most " + MAX_COUNT);
+    }
+    this.slots = new long[capacity * STRIDE];
+    this.setMask = capacity / WAYS - 1;
+    this.locks = new Object[Math.min(capacity / WAYS, MAX_LOCKS)];
+    for (int i = 0; i < locks.length; i++) {
+      locks[i] = new Object();
+    }
+    this.maxPayments = maxPayments;
+    this.maxAmount = maxAmount;
+    this.windowNanos = TimeUnit.SECONDS.toNanos(windowSeconds);
+    this.seed = new SecureRandom().nextLong();
+    this.nanoTime = nanoTime;
+  }
+
+  /**
+   * @return {@code false} if neither {@code payments.velocity.max-payments} nor
+   *     {@code payments.velocity.max-amount} is set
+   */
+  public boolean isEnabled() {
+    return maxPayments > 0 || maxAmount > 0;
+  }
+
+  /**
+   * Counts a payment against its card unless that would exceed a limit.
+   * @param cardNumber the card number
+   * @param currency the payment currency
+   * @param amount the amount in minor units
+   * @return {@code false} if the payment exceeds a limit and was not counted
+   */
+  public boolean tryAcquire(CharSequence cardNumber, String currency, long amount) {
+    if (!isEnabled()) {
+      return true;
+    }
+    checks.increment();
+    long cardKey = maxPayments > 0 ? hash(cardNumber, null) : 0;
+    long amountKey = maxAmount > 0 ? hash(cardNumber, currency) : 0;
+    long now = nanoTime.getAsLong();
+    // Window indexes are kept modulo 2^32, which only matters for telling consecutive ones apart
+    int window = (int) Math.floorDiv(now, windowNanos);
+    // Share of the previous window still inside the sliding window
+    double previousWeight = 1 - (double) Math.floorMod(now, windowNanos) / windowNanos;
+    // Locks taken in index order, so that checks locking the same two sets cannot deadlock
+    int cardLock = maxPayments > 0 ? lockIndex(cardKey) : lockIndex(amountKey);
+    int amountLock = maxAmount > 0 ? lockIndex(amountKey) : cardLock;
+    synchronized (locks[Math.min(cardLock, amountLock)]) {
+      synchronized (locks[Math.max(cardLock, amountLock)]) {
+        return acquire(cardKey, amountKey, amount, window, previousWeight);
+      }
+    }
+  }
+
+  public VelocityStats stats() {
+    return new VelocityStats(slots.length / STRIDE, maxPayments, maxAmount,
+        TimeUnit.NANOSECONDS.toSeconds(windowNanos), checks.sum(), rejected.sum(), evicted.sum());
+  }
+
+  /**
+   * Checks the payment against both limits and counts it if it passes. Must be called holding the
+   * locks of both keys' sets.
+   */
+  private boolean acquire(long cardKey, long amountKey, long amount, int window, double previousWeight) {
+    int cardSlot = -1;
+    long counts = 0;
+    if (maxPayments > 0) {
+      cardSlot = find(cardKey, window, -1);
+      counts = slots[cardSlot + COUNTS];
+      if ((counts >>> 16 & MAX_COUNT) + (counts & MAX_COUNT) * previousWeight + 1 > maxPayments) {
+        rejected.increment();
+        return false;
+      }
+    }
+    if (maxAmount > 0) {
+      // Never evicts the card's slot, which may share its set
+      int amountSlot = find(amountKey, window, cardSlot);
+      if (slots[amountSlot + AMOUNT] + slots[amountSlot + PREVIOUS_AMOUNT] * previousWeight + amount > maxAmount) {
+        rejected.increment();
+        return false;
+      }
+      slots[amountSlot + AMOUNT] += amount;
+    }
+    if (cardSlot >= 0) {
+      long count = counts >>> 16 & MAX_COUNT;
+      slots[cardSlot + COUNTS] = (long) window << 32 | Math.min(count + 1, MAX_COUNT) << 16 | (counts & MAX_COUNT);
+    }
+    return true;
+  }
+
+  private int lockIndex(long key) {
+    return (int) key & setMask & (locks.length - 1);
+  }
+
+  /**
+   * Finds the key's slot in its set, rolled over to the current window, or claims one for it.
+   * Must be called holding the set's lock.
+   * @param keep a slot that must not be evicted, or -1
+   * @return the index of the slot's first element
+   */
+  private int find(long key, int window, int keep) {
+    int base = ((int) key & setMask) * WAYS * STRIDE;
+    int victim = -1;
+    long victimAge = -1;
+    for (int way = 0; way < WAYS; way++) {
+      int slot = base + way * STRIDE;
+      // How many windows ago the slot last counted a payment; empty slots are the oldest
+      long age = slots[slot + KEY] == 0 ? Long.MAX_VALUE
+          : Integer.toUnsignedLong(window - (int) (slots[slot + COUNTS] >>> 32));
+      if (slots[slot + KEY] == key) {
+        roll(slot, age, window);
+        return slot;
+      }
+      if (age > victimAge && slot != keep) {
+        victim = slot;
+        victimAge = age;
+      }
+    }
+    if (victimAge <= 1) {
+      evicted.increment();
+    }
+    slots[victim + KEY] = key;
+    slots[victim + COUNTS] = (long) window << 32;
+    slots[victim + AMOUNT] = 0;
+    slots[victim + PREVIOUS_AMOUNT] = 0;
+    return victim;
+  }
+
+  private void roll(int slot, long age, int window) {
+    if (age == 0) {
+      return;
+    }
+    long counts = slots[slot + COUNTS];
+    if (age == 1) {
+      slots[slot + COUNTS] = (long) window << 32 | (counts >>> 16 & MAX_COUNT);
+      slots[slot + PREVIOUS_AMOUNT] = slots[slot + AMOUNT];
+    } else {
+      slots[slot + COUNTS] = (long) window << 32;
+      slots[slot + PREVIOUS_AMOUNT] = 0;
+    }
+    slots[slot + AMOUNT] = 0;
+  }
+
+  /**
+   * Seeded FNV-1a over the card number and, for amounts, the currency, finished with the
+   * MurmurHash3 mixer. Never zero, which marks an empty slot.
+   * @param currency the currency, or {@code null} for the card's own key
+   */
+  private long hash(CharSequence cardNumber, String currency) {
+    long hash = seed;
+    for (int i = 0; i < cardNumber.length(); i++) {
+      hash = (hash ^ cardNumber.charAt(i)) * 0x100000001b3L;
+    }
+    if (currency != null) {
+      hash = (hash ^ '/') * 0x100000001b3L;
+      for (int i = 0; i < currency.length(); i++) {
+        hash = (hash ^ Character.toUpperCase(currency.charAt(i))) * 0x100000001b3L;
+      }
+    }
+    hash ^= hash >>> 33;
+    hash *= 0xff51afd7ed558ccdL;
+    hash ^= hash >>> 33;
+    hash *= 0xc4ceb93fe1a85ec3L;
+    hash ^= hash >>> 33;
+    return hash == 0 ? 1 : hash;
+  }
+}
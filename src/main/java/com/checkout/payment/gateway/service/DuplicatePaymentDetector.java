@@ -0,0 +1,238 @@
+package com.checkout.payment.gateway.service;
+
+import com.checkout.payment.gateway.model.DuplicateStats;
+import com.checkout.payment.gateway.model.PostPaymentRequest;
+import java.security.SecureRandom;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Spots payments repeating one made by the same merchant, with the same card, amount and currency
+ * within the last {@code payments.duplicates.window-seconds}, for merchants that double-submit
+ * without an idempotency key.
+ * <p>
+ * Each payment is reduced to a 128-bit fingerprint under a key drawn at start, so no card number
+ * is kept, and two different payments share a fingerprint with negligible probability. The
+ * fingerprints, times and ids of recent payments are kept in a fixed table of
+ * {@code payments.duplicates.capacity} entries, laid out like a cuckoo filter: a payment can only
+ * sit in the {@value #WAYS} entries of the bucket its fingerprint hashes to, so a check reads one
+ * bucket under one of a fixed number of striped locks. Looking up and recording a payment happen
+ * under the same lock, so of concurrent submissions of the same payment exactly one goes through.
+ * </p>
+ * <p>
+ * Entries expire with the window and are reused as they are found, so nothing needs sweeping and
+ * memory stays fixed whatever the traffic. When a bucket is full of live entries the oldest is
+ * evicted, and a repeat of that payment goes unnoticed. A payment that ends up rejected is
+ * forgotten, so that retrying it is not refused as a duplicate of a payment that never went
+ * through.
+ * </p>
+ */
+@Component
+public class DuplicatePaymentDetector {
+
+  /**
+   * What happens to a suspected duplicate.
+   */
+  public enum Action {
+    /**
+     * Duplicates are not looked for.
+     */
+    OFF,
+    /**
+     * Duplicates are logged and counted, and processed as usual.
+     */
+    FLAG,
+    /**
+     * Duplicates are rejected before the bank is called.
+     */
+    REJECT
+  }
+
+  static final int WAYS = 4;
+  private static final int STRIDE = 5;
+  private static final int HIGH = 0;
+  private static final int LOW = 1;
+  private static final int SEEN_AT = 2;
+  private static final int ID_HIGH = 3;
+  private static final int ID_LOW = 4;
+  private static final int MAX_LOCKS = 4096;
+
+  private final Action action;
+  private final long windowNanos;
+  private final long[] entries;
+  private final int setMask;
+  private final Object[] locks;
+  private final long highSeed;
+  private final long lowSeed;
+  private final LongSupplier nanoTime;
+  private final LongAdder checks = new LongAdder();
+  private final LongAdder duplicates = new LongAdder();
+  private final LongAdder evicted = new LongAdder();
+
+  @Autowired
+  public DuplicatePaymentDetector(
+      @Value("${payments.duplicates.action:flag}") String action,
+      @Value("${payments.duplicates.window-seconds:10}") long windowSeconds,
+      @Value("${payments.duplicates.capacity:131072}") int capacity
+  ) {
+    this(Action.valueOf(action.strip().toUpperCase(Locale.ROOT)), windowSeconds, capacity, System::nanoTime);
+  }
+
+  DuplicatePaymentDetector(Action action, long windowSeconds, int capacity, LongSupplier nanoTime) {
+    if (windowSeconds <= 0) {
+      throw new IllegalArgumentException("Duplicate window must be positive");
+    }
+    if (capacity < WAYS || Integer.bitCount(capacity) != 1 || capacity > 1 << 24) {
+      throw new IllegalArgumentException("Duplicate capacity must be a power of two between " + WAYS + " and 2^24");
+    }
+    this.action = action;
+    this.windowNanos = TimeUnit.SECONDS.toNanos(windowSeconds);
+    this.entries = new long[action == Action.OFF ? 0 : capacity * STRIDE];
+    this.setMask = capacity / WAYS - 1;
+    this.locks = new Object[Math.min(capacity / WAYS, MAX_LOCKS)];
+    for (int i = 0; i < locks.length; i++) {
+      locks[i] = new Object();
+    }
+    SecureRandom random = new SecureRandom();
+    this.highSeed = random.nextLong();
+    this.lowSeed = random.nextLong();
+    this.nanoTime = nanoTime;
+  }
+
+  public Action action() {
+    return action;
+  }
+
+  /**
+   * Records a payment, unless it repeats one recorded within the window.
+   * @param paymentRequest a validated payment request
+   * @param paymentId the id of the payment
+   * @return the id of the earlier payment this one repeats, if any
+   */
+  public Optional<UUID> check(PostPaymentRequest paymentRequest, UUID paymentId) {
+    if (action == Action.OFF) {
+      return Optional.empty();
+    }
+    checks.increment();
+    UUID original = findOrRecord(hash(highSeed, paymentRequest), hash(lowSeed, paymentRequest), paymentId,
+        nanoTime.getAsLong());
+    if (original != null) {
+      duplicates.increment();
+    }
+    return Optional.ofNullable(original);
+  }
+
+  /**
+   * Forgets a payment recorded by {@link #check}, so that a retry of it within the window is not
+   * taken for a duplicate. Used for payments that end up {@code REJECTED}, which merchants are
+   * expected to retry. Does nothing if another payment is recorded under the same fingerprint.
+   * @param paymentRequest the request the payment was checked with
+   * @param paymentId the id of the payment
+   */
+  public void forget(PostPaymentRequest paymentRequest, UUID paymentId) {
+    if (action == Action.OFF) {
+      return;
+    }
+    long high = hash(highSeed, paymentRequest);
+    long low = hash(lowSeed, paymentRequest);
+    int set = (int) high & setMask;
+    synchronized (locks[set & (locks.length - 1)]) {
+      int base = set * WAYS * STRIDE;
+      for (int way = 0; way < WAYS; way++) {
+        int entry = base + way * STRIDE;
+        if (entries[entry + HIGH] == high && entries[entry + LOW] == low
+            && entries[entry + ID_HIGH] == paymentId.getMostSignificantBits()
+            && entries[entry + ID_LOW] == paymentId.getLeastSignificantBits()) {
+          entries[entry + HIGH] = 0;
+          entries[entry + LOW] = 0;
+          return;
+        }
+      }
+    }
+  }
+
+  public DuplicateStats stats() {
+    return new DuplicateStats(action.name().toLowerCase(Locale.ROOT), TimeUnit.NANOSECONDS.toSeconds(windowNanos),
+        checks.sum(), duplicates.sum(), evicted.sum());
+  }
+
+  /**
+   * @return the id of the payment recorded with the same fingerprint within the window, or
+   *     {@code null} after recording this payment if there is none
+   */
+  private UUID findOrRecord(long high, long low, UUID paymentId, long now) {
+    int set = (int) high & setMask;
+    synchronized (locks[set & (locks.length - 1)]) {
+      int base = set * WAYS * STRIDE;
+      for (int way = 0; way < WAYS; way++) {
+        int entry = base + way * STRIDE;
+        if (entries[entry + HIGH] == high && entries[entry + LOW] == low
+            && now - entries[entry + SEEN_AT] < windowNanos) {
+          return new UUID(entries[entry + ID_HIGH], entries[entry + ID_LOW]);
+        }
+      }
+      claim(set, high, low, paymentId, now);
+      return null;
+    }
+  }
+
+  /**
+   * Stores a fingerprint in the first empty or expired entry of its set, or else in place of the
+   * oldest one. Must be called holding the set's lock.
+   */
+  private void claim(int set, long high, long low, UUID paymentId, long now) {
+    int base = set * WAYS * STRIDE;
+    int victim = base;
+    long victimAge = -1;
+    for (int way = 0; way < WAYS; way++) {
+      int entry = base + way * STRIDE;
+      boolean empty = entries[entry + HIGH] == 0 && entries[entry + LOW] == 0;
+      long age = empty ? Long.MAX_VALUE : now - entries[entry + SEEN_AT];
+      if (age > victimAge) {
+        victim = entry;
+        victimAge = age;
+      }
+    }
+    if (victimAge < windowNanos) {
+      evicted.increment();
+    }
+    entries[victim + HIGH] = high;
+    entries[victim + LOW] = low == 0 && high == 0 ? 1 : low;
+    entries[victim + SEEN_AT] = now;
+    entries[victim + ID_HIGH] = paymentId.getMostSignificantBits();
+    entries[victim + ID_LOW] = paymentId.getLeastSignificantBits();
+  }
+
+  /**
+   * Seeded FNV-1a over the merchant, card number, currency and amount, finished with the
+   * MurmurHash3 mixer.
+   */
+  private static long hash(long seed, PostPaymentRequest paymentRequest) {
+    long hash = mix(seed, paymentRequest.getMerchant() == null ? "" : paymentRequest.getMerchant());
+    hash = mix(hash, paymentRequest.getCardNumber());
+    hash = mix(hash, paymentRequest.getCurrency().toUpperCase(Locale.ROOT));
+    hash = (hash ^ paymentRequest.getAmount()) * 0x100000001b3L;
+    hash ^= hash >>> 33;
+    hash *= 0xff51afd7ed558ccdL;
+    hash ^= hash >>> 33;
+    hash *= 0xc4ceb93fe1a85ec3L;
+    hash ^= hash >>> 33;
+    return hash;
+  }
+
+  private static long mix(long hash, String value) {
+    for (int i = 0; i < value.length(); i++) {
+      hash = (hash ^ value.charAt(i)) * 0x100000001b3L;
+    }
+    // A separator, so that moving characters between fields changes the hash
+    return (hash ^ 0xFF) * 0x100000001b3L;
+  }
+
+}
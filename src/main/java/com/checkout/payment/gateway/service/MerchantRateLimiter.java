@@ -0,0 +1,149 @@
+package com.checkout.payment.gateway.service;
+
+import jakarta.annotation.PreDestroy;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Per-merchant token buckets limiting how fast each merchant can submit payments.
+ * <p>
+ * Each bucket refills at {@code payments.rate-limit.requests-per-second} up to
+ * {@code payments.rate-limit.burst} tokens. A bucket is a single {@code long}: the time at which it
+ * will be full again. Taking a token advances that time by one refill interval with a single CAS,
+ * and a request is refused when the bucket would have to be more than {@code burst} intervals in
+ * debt. This is the same decision as counting tokens, without a lock or a second field to update.
+ * </p>
+ * <p>
+ * A full bucket is indistinguishable from a new one, so buckets that have been full for
+ * {@code payments.rate-limit.idle-timeout-seconds} are dropped by a background sweep to bound the
+ * map to the recently active merchants. A request racing the sweep may take its token from the
+ * dropped bucket, which can only let an idle merchant through once more.
+ * </p>
+ */
+@Component
+public class MerchantRateLimiter {
+
+  private static final Logger LOG = LoggerFactory.getLogger(MerchantRateLimiter.class);
+  private static final long NANOS_PER_SECOND = 1_000_000_000L;
+
+  private final ConcurrentHashMap<String, Bucket> buckets = new ConcurrentHashMap<>();
+  private final LongSupplier nanoTime;
+  private final long intervalNanos;
+  private final long toleranceNanos;
+  private final long idleNanos;
+  private final ScheduledExecutorService sweeper;
+
+  @Autowired
+  public MerchantRateLimiter(
+      @Value("${payments.rate-limit.requests-per-second:100}") double requestsPerSecond,
+      @Value("${payments.rate-limit.burst:200}") int burst,
+      @Value("${payments.rate-limit.idle-timeout-seconds:300}") long idleTimeoutSeconds
+  ) {
+    this(requestsPerSecond, burst, idleTimeoutSeconds, System::nanoTime);
+    if (isEnabled()) {
+      long period = Math.max(1, idleTimeoutSeconds / 2);
+      sweeper.scheduleWithFixedDelay(this::evictIdle, period, period, TimeUnit.SECONDS);
+    }
+  }
+
+  MerchantRateLimiter(double requestsPerSecond, int burst, long idleTimeoutSeconds, LongSupplier nanoTime) {
+    if (requestsPerSecond > 0 && burst < 1) {
+      throw new IllegalArgumentException("Rate limit burst must be positive");
+    }
+    this.nanoTime = nanoTime;
+    this.intervalNanos = requestsPerSecond > 0 ? Math.max(1, (long) (NANOS_PER_SECOND / requestsPerSecond)) : 0;
+    this.toleranceNanos = intervalNanos * (burst - 1L);
+    this.idleNanos = TimeUnit.SECONDS.toNanos(idleTimeoutSeconds);
+    this.sweeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+      Thread thread = new Thread(runnable, "rate-limit-sweeper");
+      thread.setDaemon(true);
+      return thread;
+    });
+  }
+
+  /**
+   * @return {@code false} if {@code payments.rate-limit.requests-per-second} is zero
+   */
+  public boolean isEnabled() {
+    return intervalNanos > 0;
+  }
+
+  /**
+   * Takes a token from the merchant's bucket.
+   * @param merchant the merchant's API key
+   * @return zero if the request may proceed, otherwise how many nanoseconds until a token is
+   *     available
+   */
+  public long tryAcquire(String merchant) {
+    if (!isEnabled()) {
+      return 0;
+    }
+    long now = nanoTime.getAsLong();
+    Bucket bucket = buckets.get(merchant);
+    if (bucket == null) {
+      bucket = buckets.computeIfAbsent(merchant, key -> new Bucket(now));
+    }
+    while (true) {
+      long fullAt = bucket.fullAt;
+      long start = fullAt - now < 0 ? now : fullAt;
+      long debt = start - now;
+      if (debt > toleranceNanos) {
+        return debt - toleranceNanos;
+      }
+      if (Bucket.FULL_AT.compareAndSet(bucket, fullAt, start + intervalNanos)) {
+        return 0;
+      }
+    }
+  }
+
+  public int size() {
+    return buckets.size();
+  }
+
+  /**
+   * Drops the buckets that have been full for at least the idle timeout.
+   */
+  void evictIdle() {
+    long now = nanoTime.getAsLong();
+    int before = buckets.size();
+    buckets.values().removeIf(bucket -> now - bucket.fullAt >= idleNanos);
+    LOG.debug("Evicted {} idle rate limit buckets", before - buckets.size());
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    sweeper.shutdownNow();
+  }
+
+  /**
+   * The time at which the bucket is full again, in {@link System#nanoTime()} units.
+   */
+  private static final class Bucket {
+
+    private static final VarHandle FULL_AT;
+
+    static {
+      try {
+        FULL_AT = MethodHandles.lookup().findVarHandle(Bucket.class, "fullAt", long.class);
+      } catch (ReflectiveOperationException e) {
+        throw new ExceptionInInitializerError(e);
+      }
+    }
+
+    private volatile long fullAt;
+
+    Bucket(long fullAt) {
+      this.fullAt = fullAt;
+    }
+  }
+}
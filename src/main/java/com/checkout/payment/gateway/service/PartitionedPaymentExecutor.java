@@ -0,0 +1,208 @@
+package com.checkout.payment.gateway.service;
+
+import com.checkout.payment.gateway.model.PaymentLaneStats;
+import jakarta.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Runs the writes of each payment in order, and those of different payments in parallel.
+ * <p>
+ * A payment id is hashed to one of {@code payments.lanes.count} lanes, each a single thread taking
+ * tasks from a mailbox of {@code payments.lanes.mailbox-capacity}. Tasks for the same payment
+ * therefore run one at a time in the order they were submitted, and never contend with each other
+ * on the repository. A full mailbox makes submitters wait rather than fail, as a write may record a
+ * payment the bank has already answered for.
+ * </p>
+ * <p>
+ * Tasks submitted from a lane thread to its own lane are run in place, so a task can make further
+ * writes of its payment without waiting on itself.
+ * </p>
+ */
+@Component
+public class PartitionedPaymentExecutor {
+
+  private static final Logger LOG = LoggerFactory.getLogger(PartitionedPaymentExecutor.class);
+  private static final long SHUTDOWN_TIMEOUT_MILLIS = 5_000;
+
+  private final Lane[] lanes;
+  private final int mailboxCapacity;
+  private final LongAdder waits = new LongAdder();
+  private volatile boolean running = true;
+
+  public PartitionedPaymentExecutor(
+      @Value("${payments.lanes.count:0}") int count,
+      @Value("${payments.lanes.mailbox-capacity:1024}") int mailboxCapacity
+  ) {
+    int laneCount = count > 0 ? count : Runtime.getRuntime().availableProcessors();
+    if (mailboxCapacity < 1) {
+      throw new IllegalArgumentException("Lane mailbox capacity must be positive");
+    }
+    this.mailboxCapacity = mailboxCapacity;
+    this.lanes = new Lane[laneCount];
+    for (int i = 0; i < laneCount; i++) {
+      lanes[i] = new Lane(i, mailboxCapacity);
+    }
+  }
+
+  /**
+   * Queues a task on the lane of a payment, waiting for room in its mailbox if needed.
+   * @param id the id of the payment the task writes
+   * @param task the task
+   * @return the result of the task, completed exceptionally if it throws
+   * @throws IllegalStateException if the executor is shut down
+   */
+  public <T> CompletableFuture<T> submit(UUID id, Supplier<T> task) {
+    Lane lane = lane(id);
+    CompletableFuture<T> result = new CompletableFuture<>();
+    if (Thread.currentThread() == lane.thread) {
+      complete(result, task);
+      return result;
+    }
+    if (!running) {
+      throw new IllegalStateException("Payment lanes are shut down");
+    }
+    Runnable runnable = () -> complete(result, task);
+    if (!lane.mailbox.offer(runnable)) {
+      waits.increment();
+      try {
+        lane.mailbox.put(runnable);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new IllegalStateException("Interrupted waiting for payment lane " + lane.index, e);
+      }
+    }
+    // The lane may have drained its mailbox and ended since the check above; take the task back
+    // unless it got to it first, or the future would never complete
+    if (!running && lane.mailbox.remove(runnable)) {
+      throw new IllegalStateException("Payment lanes are shut down");
+    }
+    return result;
+  }
+
+  /**
+   * Runs a task on the lane of a payment and waits for it.
+   * @param id the id of the payment the task writes
+   * @param task the task
+   * @return the result of the task
+   * @throws RuntimeException whatever the task throws
+   */
+  public <T> T call(UUID id, Supplier<T> task) {
+    try {
+      return submit(id, task).join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof RuntimeException cause) {
+        throw cause;
+      }
+      if (e.getCause() instanceof Error cause) {
+        throw cause;
+      }
+      throw e;
+    }
+  }
+
+  /**
+   * Runs a task on the lane of a payment and waits for it.
+   * @see #call(UUID, Supplier)
+   */
+  public void run(UUID id, Runnable task) {
+    call(id, () -> {
+      task.run();
+      return null;
+    });
+  }
+
+  public PaymentLaneStats stats() {
+    List<PaymentLaneStats.Lane> laneStats = new ArrayList<>(lanes.length);
+    long executed = 0;
+    long busiest = 0;
+    for (Lane lane : lanes) {
+      long laneExecuted = lane.executed.sum();
+      laneStats.add(new PaymentLaneStats.Lane(lane.index, lane.mailbox.size(), laneExecuted));
+      executed += laneExecuted;
+      busiest = Math.max(busiest, laneExecuted);
+    }
+    // How much more the busiest lane ran than an even share, 1 when perfectly balanced
+    double imbalance = executed == 0 ? 1 : (double) busiest * lanes.length / executed;
+    return new PaymentLaneStats(mailboxCapacity, executed, waits.sum(), imbalance, laneStats);
+  }
+
+  /**
+   * Stops taking tasks, and runs those already queued before the lane threads end.
+   */
+  @PreDestroy
+  public void shutdown() throws InterruptedException {
+    running = false;
+    for (Lane lane : lanes) {
+      lane.thread.interrupt();
+    }
+    for (Lane lane : lanes) {
+      lane.thread.join(SHUTDOWN_TIMEOUT_MILLIS);
+    }
+  }
+
+  private Lane lane(UUID id) {
+    int hash = id.hashCode();
+    return lanes[Math.floorMod(hash ^ hash >>> 16, lanes.length)];
+  }
+
+  private static <T> void complete(CompletableFuture<T> result, Supplier<T> task) {
+    try {
+      result.complete(task.get());
+    } catch (Throwable e) {
+      result.completeExceptionally(e);
+    }
+  }
+
+  private static final class Lane {
+
+    private final int index;
+    private final BlockingQueue<Runnable> mailbox;
+    private final LongAdder executed = new LongAdder();
+    private final Thread thread;
+
+    Lane(int index, int mailboxCapacity) {
+      this.index = index;
+      this.mailbox = new ArrayBlockingQueue<>(mailboxCapacity);
+      this.thread = new Thread(this::loop, "payment-lane-" + index);
+      thread.setDaemon(true);
+      thread.start();
+    }
+
+    private void loop() {
+      try {
+        while (true) {
+          execute(mailbox.take());
+        }
+      } catch (InterruptedException e) {
+        // Shutting down, drain what was submitted before
+        Runnable task;
+        while ((task = mailbox.poll()) != null) {
+          execute(task);
+        }
+      }
+    }
+
+    private void execute(Runnable task) {
+      // Counted as it leaves the mailbox, so that a submitter seeing its result sees it counted
+      executed.increment();
+      try {
+        task.run();
+      } catch (RuntimeException e) {
+        // Tasks complete their own futures, so this is a bug in the executor
+        LOG.error("Payment lane {} task failed", index, e);
+      }
+    }
+  }
+}
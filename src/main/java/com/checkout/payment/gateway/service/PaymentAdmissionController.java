@@ -0,0 +1,146 @@
+package com.checkout.payment.gateway.service;
+
+import com.checkout.payment.gateway.exception.ServiceOverloadedException;
+import com.checkout.payment.gateway.model.BulkheadStats;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Admission control in front of payment processing, and the bulkhead of bank-bound work.
+ * <p>
+ * At most {@code payments.load-shedding.max-in-flight} payments are processed at once; further
+ * requests wait in a FIFO queue of at most {@code payments.load-shedding.max-queued}, and are
+ * refused with {@code 503} when the queue is full.
+ * </p>
+ * <p>
+ * How long a request may wait follows CoDel: a short queue that drains is normal, a standing queue
+ * is not. As long as some request got through within {@code payments.load-shedding.target-delay-ms}
+ * during the last {@code payments.load-shedding.interval-ms}, requests may wait up to that
+ * interval. Once every admission in an interval waited longer than the target, the queue is
+ * standing and requests may only wait the target delay, so they are shed within a few
+ * milliseconds instead of ageing in the queue until the merchant times out and retries.
+ * </p>
+ */
+@Component
+public class PaymentAdmissionController {
+
+  private static final Logger LOG = LoggerFactory.getLogger(PaymentAdmissionController.class);
+
+  private final Semaphore permits;
+  private final int maxInFlight;
+  private final int maxQueued;
+  private final long targetNanos;
+  private final long intervalNanos;
+  private final AtomicInteger peakInFlight = new AtomicInteger();
+  private final LongAdder admitted = new LongAdder();
+  private final LongAdder shed = new LongAdder();
+  private volatile long lastBelowTargetNanos = System.nanoTime();
+  private volatile boolean overloaded;
+
+  public PaymentAdmissionController(
+      @Value("${payments.load-shedding.max-in-flight:64}") int maxInFlight,
+      @Value("${payments.load-shedding.max-queued:64}") int maxQueued,
+      @Value("${payments.load-shedding.target-delay-ms:5}") long targetDelayMillis,
+      @Value("${payments.load-shedding.interval-ms:100}") long intervalMillis
+  ) {
+    this.permits = new Semaphore(maxInFlight, true);
+    this.maxInFlight = maxInFlight;
+    this.maxQueued = maxQueued;
+    this.targetNanos = TimeUnit.MILLISECONDS.toNanos(targetDelayMillis);
+    this.intervalNanos = TimeUnit.MILLISECONDS.toNanos(intervalMillis);
+  }
+
+  /**
+   * Waits for a processing slot. Every successful call must be paired with {@link #release()}.
+   * @throws ServiceOverloadedException if the request is shed
+   */
+  public void acquire() {
+    long arrived = System.nanoTime();
+    if (!tryAcquire(0)) {
+      if (permits.getQueueLength() >= maxQueued) {
+        reject("Payment queue is full");
+      }
+      long timeout = arrived - lastBelowTargetNanos > intervalNanos ? targetNanos : intervalNanos;
+      if (!tryAcquire(timeout)) {
+        updateState(System.nanoTime());
+        reject("Payment processing is overloaded");
+      }
+    }
+    long now = System.nanoTime();
+    if (now - arrived <= targetNanos) {
+      lastBelowTargetNanos = now;
+    }
+    updateState(now);
+    admitted.increment();
+    int inFlight = maxInFlight - permits.availablePermits();
+    if (inFlight > peakInFlight.get()) {
+      peakInFlight.accumulateAndGet(inFlight, Math::max);
+    }
+  }
+
+  public void release() {
+    permits.release();
+  }
+
+  /**
+   * @return {@code true} while requests are only allowed to wait the target delay
+   */
+  public boolean isOverloaded() {
+    return overloaded;
+  }
+
+  public int maxInFlight() {
+    return maxInFlight;
+  }
+
+  public int maxQueued() {
+    return maxQueued;
+  }
+
+  public BulkheadStats stats() {
+    return new BulkheadStats("writes", maxInFlight, maxInFlight - permits.availablePermits(),
+        peakInFlight.get(), permits.getQueueLength(), admitted.sum(), shed.sum());
+  }
+
+  public long admittedCount() {
+    return admitted.sum();
+  }
+
+  public long shedCount() {
+    return shed.sum();
+  }
+
+  private boolean tryAcquire(long timeoutNanos) {
+    try {
+      // The timed form honours the queue, the untimed one would let new arrivals barge in
+      return permits.tryAcquire(timeoutNanos, TimeUnit.NANOSECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return false;
+    }
+  }
+
+  private void updateState(long now) {
+    boolean standing = now - lastBelowTargetNanos > intervalNanos;
+    if (standing != overloaded) {
+      overloaded = standing;
+      if (standing) {
+        LOG.warn("Payment queue delay above {} ms for {} ms, shedding load",
+            TimeUnit.NANOSECONDS.toMillis(targetNanos), TimeUnit.NANOSECONDS.toMillis(intervalNanos));
+      } else {
+        LOG.info("Payment queue delay back below target");
+      }
+    }
+  }
+
+  private void reject(String message) {
+    shed.increment();
+    throw new ServiceOverloadedException(message);
+  }
+}
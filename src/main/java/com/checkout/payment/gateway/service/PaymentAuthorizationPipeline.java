@@ -0,0 +1,151 @@
+package com.checkout.payment.gateway.service;
+
+import com.checkout.payment.gateway.enums.PaymentStatus;
+import com.checkout.payment.gateway.exception.ServiceOverloadedException;
+import com.checkout.payment.gateway.model.BulkheadStats;
+import com.checkout.payment.gateway.model.PostPaymentRequest;
+import com.checkout.payment.gateway.model.PostPaymentResponse;
+import jakarta.annotation.PreDestroy;
+import java.util.UUID;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Background authorization of payments accepted with {@code 202 Accepted}.
+ * <p>
+ * A payment is validated and stored as {@code PENDING} on the request thread, then a pool of
+ * {@code payments.async.workers} threads sends it to the acquiring bank and stores the final
+ * status under the same id. At most {@code payments.async.queue-capacity} payments wait for a
+ * worker. Capacity is reserved before anything is stored, so a payment refused with {@code 503}
+ * leaves no pending record behind, and a pending payment always has a worker coming for it.
+ * Payments are refused the same way once the pipeline is shut down, and a payment whose
+ * authorization fails unexpectedly is stored as {@code REJECTED}, so that none stays pending.
+ * </p>
+ * <p>
+ * The bank calls of this pipeline do not hold Tomcat worker threads, so they are not counted by
+ * {@link PaymentAdmissionController}.
+ * </p>
+ */
+@Component
+public class PaymentAuthorizationPipeline {
+
+  private static final Logger LOG = LoggerFactory.getLogger(PaymentAuthorizationPipeline.class);
+  private static final long SHUTDOWN_TIMEOUT_SECONDS = 5;
+
+  private final PaymentGatewayService paymentGatewayService;
+  private final PaymentResponseCache paymentResponseCache;
+  private final int workers;
+  private final Semaphore capacity;
+  private final ThreadPoolExecutor executor;
+  private final AtomicInteger running = new AtomicInteger();
+  private final AtomicInteger peakRunning = new AtomicInteger();
+  private final LongAdder accepted = new LongAdder();
+  private final LongAdder rejected = new LongAdder();
+
+  public PaymentAuthorizationPipeline(
+      PaymentGatewayService paymentGatewayService,
+      PaymentResponseCache paymentResponseCache,
+      @Value("${payments.async.workers:16}") int workers,
+      @Value("${payments.async.queue-capacity:1024}") int queueCapacity
+  ) {
+    if (workers < 1 || queueCapacity < 0) {
+      throw new IllegalArgumentException("Async workers must be positive and queue capacity not negative");
+    }
+    this.paymentGatewayService = paymentGatewayService;
+    this.paymentResponseCache = paymentResponseCache;
+    this.workers = workers;
+    this.capacity = new Semaphore(workers + queueCapacity);
+    AtomicInteger threadCount = new AtomicInteger();
+    // The queue itself is unbounded, admission is bounded by the capacity permits
+    this.executor = new ThreadPoolExecutor(workers, workers, 0, TimeUnit.MILLISECONDS,
+        new LinkedBlockingQueue<>(), runnable -> {
+          Thread thread = new Thread(runnable, "payment-authorization-" + threadCount.incrementAndGet());
+          thread.setDaemon(true);
+          return thread;
+        });
+  }
+
+  /**
+   * Accepts a payment for background authorization.
+   * @param paymentRequest the payment request
+   * @return the {@code PENDING} payment, or the {@code REJECTED} one if the request is invalid
+   * @throws ServiceOverloadedException if the queue is full
+   */
+  public PostPaymentResponse submit(PostPaymentRequest paymentRequest) {
+    if (executor.isShutdown() || !capacity.tryAcquire()) {
+      rejected.increment();
+      throw new ServiceOverloadedException(
+          executor.isShutdown() ? "Authorization pipeline is shut down" : "Authorization queue is full");
+    }
+    boolean queued = false;
+    try {
+      PostPaymentResponse payment = paymentGatewayService.acceptPayment(paymentRequest);
+      if (payment.getStatus() == PaymentStatus.PENDING) {
+        try {
+          executor.execute(() -> authorize(payment, paymentRequest));
+        } catch (RejectedExecutionException e) {
+          // Shut down since the check above, no worker will come for the stored pending payment
+          rejected.increment();
+          return reject(payment.getId(), paymentRequest);
+        }
+        queued = true;
+        accepted.increment();
+      }
+      return payment;
+    } finally {
+      if (!queued) {
+        capacity.release();
+      }
+    }
+  }
+
+  public BulkheadStats stats() {
+    return new BulkheadStats("async-authorizations", workers, running.get(), peakRunning.get(),
+        executor.getQueue().size(), accepted.sum(), rejected.sum());
+  }
+
+  @PreDestroy
+  public void shutdown() throws InterruptedException {
+    executor.shutdown();
+    if (!executor.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+      LOG.warn("{} payments left pending at shutdown", executor.getQueue().size() + running.get());
+      executor.shutdownNow();
+    }
+  }
+
+  private PostPaymentResponse reject(UUID paymentId, PostPaymentRequest paymentRequest) {
+    PostPaymentResponse payment = paymentGatewayService.rejectPayment(paymentId, paymentRequest);
+    paymentResponseCache.evict(paymentId);
+    return payment;
+  }
+
+  private void authorize(PostPaymentResponse payment, PostPaymentRequest paymentRequest) {
+    int now = running.incrementAndGet();
+    if (now > peakRunning.get()) {
+      peakRunning.accumulateAndGet(now, Math::max);
+    }
+    try {
+      paymentGatewayService.completePayment(payment.getId(), paymentRequest);
+      paymentResponseCache.evict(payment.getId());
+    } catch (RuntimeException e) {
+      LOG.error("Authorization of payment {} failed, rejecting it", payment.getId(), e);
+      try {
+        reject(payment.getId(), paymentRequest);
+      } catch (RuntimeException rejectFailure) {
+        LOG.error("Could not reject payment {}, leaving it pending", payment.getId(), rejectFailure);
+      }
+    } finally {
+      running.decrementAndGet();
+      capacity.release();
+    }
+  }
+}
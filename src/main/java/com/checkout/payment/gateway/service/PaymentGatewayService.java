@@ -1,14 +1,22 @@
 package com.checkout.payment.gateway.service;
 
 import com.checkout.payment.gateway.enums.PaymentStatus;
+import com.checkout.payment.gateway.event.PaymentEventBus;
 import com.checkout.payment.gateway.exception.EventProcessingException;
 import com.checkout.payment.gateway.exception.PaymentProcessingException;
+import com.checkout.payment.gateway.exception.PaymentStateException;
 import com.checkout.payment.gateway.exception.ValidationException;
 import com.checkout.payment.gateway.model.GetPaymentResponse;
+import com.checkout.payment.gateway.model.PaymentIndexStats;
+import com.checkout.payment.gateway.model.PaymentQuery;
 import com.checkout.payment.gateway.model.PostPaymentRequest;
 import com.checkout.payment.gateway.model.PostPaymentResponse;
 import com.checkout.payment.gateway.repository.PaymentsRepository;
+import com.checkout.payment.gateway.vault.CardVault;
+import com.checkout.payment.gateway.webhook.WebhookDispatcher;
+import java.util.List;
 import java.util.UUID;
+import java.util.function.UnaryOperator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
@@ -17,19 +25,44 @@ import org.springframework.stereotype.Service;
 public class PaymentGatewayService {
 
   private static final Logger LOG = LoggerFactory.getLogger(PaymentGatewayService.class);
+  private static final int MAX_SEARCH_LIMIT = 1000;
 
   private final PaymentsRepository paymentsRepository;
   private final PaymentValidator paymentValidator;
   private final AcquiringBankService acquiringBankService;
+  private final PaymentIdGenerator paymentIdGenerator;
+  private final PaymentVolumeCounters paymentVolumeCounters;
+  private final WebhookDispatcher webhookDispatcher;
+  private final PaymentEventBus paymentEventBus;
+  private final CardVault cardVault;
+  private final CardVelocityChecker cardVelocityChecker;
+  private final DuplicatePaymentDetector duplicatePaymentDetector;
+  private final PartitionedPaymentExecutor partitionedPaymentExecutor;
 
   public PaymentGatewayService(
       PaymentsRepository paymentsRepository,
       PaymentValidator paymentValidator,
-      AcquiringBankService acquiringBankService
+      AcquiringBankService acquiringBankService,
+      PaymentIdGenerator paymentIdGenerator,
+      PaymentVolumeCounters paymentVolumeCounters,
+      WebhookDispatcher webhookDispatcher,
+      PaymentEventBus paymentEventBus,
+      CardVault cardVault,
+      CardVelocityChecker cardVelocityChecker,
+      DuplicatePaymentDetector duplicatePaymentDetector,
+      PartitionedPaymentExecutor partitionedPaymentExecutor
   ) {
     this.paymentsRepository = paymentsRepository;
     this.paymentValidator = paymentValidator;
     this.acquiringBankService = acquiringBankService;
+    this.paymentIdGenerator = paymentIdGenerator;
+    this.paymentVolumeCounters = paymentVolumeCounters;
+    this.webhookDispatcher = webhookDispatcher;
+    this.paymentEventBus = paymentEventBus;
+    this.cardVault = cardVault;
+    this.cardVelocityChecker = cardVelocityChecker;
+    this.duplicatePaymentDetector = duplicatePaymentDetector;
+    this.partitionedPaymentExecutor = partitionedPaymentExecutor;
   }
 
   /**
@@ -47,35 +80,132 @@ public class PaymentGatewayService {
     return GetPaymentResponse.from(stored);
   }
 
+  /**
+   * @return the version of the stored payment, which grows with every write of it, or 0 if there is
+   *     none
+   */
+  public int getPaymentVersion(UUID id) {
+    return paymentsRepository.version(id);
+  }
+
+  /**
+   * Searches stored payments using the repository indexes.
+   * @param query the search criteria, at least one of which must be set
+   * @return the matching payments, most recent first
+   * @throws ValidationException if the query has no criteria or an invalid limit or time window
+   */
+  public List<GetPaymentResponse> searchPayments(PaymentQuery query) {
+    if (query.getLimit() < 1 || query.getLimit() > MAX_SEARCH_LIMIT) {
+      throw new ValidationException("Limit must be between 1 and " + MAX_SEARCH_LIMIT);
+    }
+    if (query.getStatus() == null && query.getCurrency() == null
+        && query.getCardNumberLastFour() == null && query.getFrom() == null && query.getTo() == null) {
+      throw new ValidationException("At least one search criterion is required");
+    }
+    if (query.getFrom() != null && query.getTo() != null && query.getFrom().isAfter(query.getTo())) {
+      throw new ValidationException("From must not be after to");
+    }
+    LOG.debug("Searching payments with {}", query);
+    return paymentsRepository.search(query).stream()
+        .map(GetPaymentResponse::from)
+        .toList();
+  }
+
+  public PaymentIndexStats getIndexStats() {
+    return paymentsRepository.indexStats();
+  }
+
   /**
    * Processes a payment request by validating it and forwarding it to the acquiring bank.
    * <p>
-   * To keep the implementation simple and avoid unnecessary complexity, this operation is
-   * performed synchronously.
+   * This operation is performed synchronously; {@link PaymentAuthorizationPipeline} runs the same
+   * steps in the background for merchants that do not wait for the bank.
    * <p>
    * No retry logic is implemented. If the bank service is unavailable or returns an error
    * (e.g. HTTP 503), the payment is marked as {@code REJECTED} and persisted. In such cases,
    * the merchant is responsible for retrying the entire payment request.
    * <p>
-   * Idempotency is not supported by this implementation.
+   * Idempotency keys are not supported; repeated submissions are caught on a best effort basis by
+   * the {@link DuplicatePaymentDetector}, which forgets payments rejected by the velocity limits or
+   * the bank so that they can be retried.
+   * <p>
+   * The final status is notified to the configured webhook endpoints and published on the
+   * {@link PaymentEventBus}, without waiting for either.
+   * <p>
+   * A request may carry the card token returned for an earlier payment instead of the card number;
+   * an unknown token rejects the payment. Every valid card is tokenized in the {@link CardVault}
+   * and its token returned to the merchant with the response, but not stored or published.
+   * <p>
+   * A valid payment that would take its card over the {@link CardVelocityChecker} limits is
+   * rejected without calling the bank, and so is one the {@link DuplicatePaymentDetector} finds
+   * repeating a recent payment when set to reject duplicates.
    * </p>
    *
    * @param paymentRequest the payment request to process
    * @return the payment response
    */
   public PostPaymentResponse processPayment(PostPaymentRequest paymentRequest) {
-    UUID paymentId = UUID.randomUUID();
+    UUID paymentId = paymentIdGenerator.nextId();
     LOG.debug("Processing payment with ID {}", paymentId);
 
     // Validating the request
     try {
+      resolveCardToken(paymentRequest);
       paymentValidator.validate(paymentRequest);
+      checkDuplicate(paymentId, paymentRequest);
+      checkVelocity(paymentId, paymentRequest);
     } catch (ValidationException e) {
       LOG.warn("Payment validation failed: {}", e.getMessage());
       // Storing the rejected payment due to validation failure
       return createAndPersistResponse(paymentId, PaymentStatus.REJECTED, paymentRequest);
     }
+    tokenizeCard(paymentRequest);
+    // The stored and published payment stays without the token, which only the merchant gets
+    return completePayment(paymentId, paymentRequest).withCardToken(paymentRequest.getCardToken());
+  }
+
+  /**
+   * Validates a payment request and stores it as {@code PENDING} without calling the acquiring
+   * bank, which is left to {@link #completePayment(UUID, PostPaymentRequest)}.
+   * <p>
+   * Card tokens are resolved, and invalid requests, rejected duplicates and those over the card
+   * velocity limits are stored and returned as {@code REJECTED}, as in
+   * {@link #processPayment(PostPaymentRequest)}. Pending payments are not counted in the volume
+   * counters until they complete.
+   * </p>
+   *
+   * @param paymentRequest the payment request to accept
+   * @return the pending or rejected payment
+   */
+  public PostPaymentResponse acceptPayment(PostPaymentRequest paymentRequest) {
+    UUID paymentId = paymentIdGenerator.nextId();
+    LOG.debug("Accepting payment with ID {}", paymentId);
+
+    try {
+      resolveCardToken(paymentRequest);
+      paymentValidator.validate(paymentRequest);
+      checkDuplicate(paymentId, paymentRequest);
+      checkVelocity(paymentId, paymentRequest);
+    } catch (ValidationException e) {
+      LOG.warn("Payment validation failed: {}", e.getMessage());
+      return createAndPersistResponse(paymentId, PaymentStatus.REJECTED, paymentRequest);
+    }
+    tokenizeCard(paymentRequest);
+    var response = new PostPaymentResponse(paymentId, PaymentStatus.PENDING, paymentRequest);
+    partitionedPaymentExecutor.run(paymentId, () -> paymentsRepository.add(response));
+    LOG.debug("Payment {} persisted with status {}", paymentId, PaymentStatus.PENDING);
+    return response.withCardToken(paymentRequest.getCardToken());
+  }
 
+  /**
+   * Sends a validated payment to the acquiring bank and stores its final status under the given id,
+   * replacing a pending payment if there is one.
+   *
+   * @param paymentId the id of the payment
+   * @param paymentRequest the validated payment request
+   * @return the payment response
+   */
+  public PostPaymentResponse completePayment(UUID paymentId, PostPaymentRequest paymentRequest) {
     try {
       // Sending payment to acquiring bank
       var bankResponse = acquiringBankService.processPayment(paymentRequest);
@@ -89,8 +219,171 @@ public class PaymentGatewayService {
     } catch (PaymentProcessingException e) {
       LOG.warn("Acquiring bank processing failed: {}", e.getMessage());
       // Storing the rejected payment due to bank failure
-      return createAndPersistResponse(paymentId, PaymentStatus.REJECTED, paymentRequest);
+      return rejectPayment(paymentId, paymentRequest);
+    }
+  }
+
+  /**
+   * Stores a validated payment that could not be authorized as {@code REJECTED} under the given id,
+   * replacing a pending payment if there is one, and forgets it as a duplicate so that the
+   * merchant can retry it.
+   *
+   * @param paymentId the id of the payment
+   * @param paymentRequest the validated payment request
+   * @return the rejected payment
+   */
+  public PostPaymentResponse rejectPayment(UUID paymentId, PostPaymentRequest paymentRequest) {
+    duplicatePaymentDetector.forget(paymentRequest, paymentId);
+    return createAndPersistResponse(paymentId, PaymentStatus.REJECTED, paymentRequest);
+  }
+
+  /**
+   * Captures some or all of what is left of an authorized amount. A payment can be captured in
+   * several parts until the whole amount is, and no longer once anything was refunded.
+   * @param id the payment id
+   * @param amount the amount to capture in minor units, or {@code null} for all that is left
+   * @return the captured payment
+   * @throws EventProcessingException if payment not found
+   * @throws PaymentStateException if the payment is not authorized or already fully captured
+   * @throws ValidationException if the amount is not positive or more than is left to capture
+   */
+  public PostPaymentResponse capturePayment(UUID id, Integer amount) {
+    return changePayment(id, "capture", payment -> {
+      boolean capturable = payment.getStatus() == PaymentStatus.AUTHORIZED
+          || (payment.getStatus() == PaymentStatus.CAPTURED
+              && payment.getCapturedAmount() < payment.getAmount());
+      if (payment.getStatus() == PaymentStatus.CAPTURED && !capturable) {
+        throw new PaymentStateException("Payment is already captured in full");
+      }
+      if (!capturable) {
+        throw new PaymentStateException("Payment cannot be captured in status " + payment.getStatus().getName());
+      }
+      payment.setCapturedAmount(payment.getCapturedAmount()
+          + operationAmount(amount, payment.getAmount() - payment.getCapturedAmount(), "capture"));
+      payment.setStatus(PaymentStatus.CAPTURED);
+      return payment;
+    });
+  }
+
+  /**
+   * Releases an authorization of which nothing was captured.
+   * @param id the payment id
+   * @return the voided payment
+   * @throws EventProcessingException if payment not found
+   * @throws PaymentStateException if the payment is not authorized
+   */
+  public PostPaymentResponse voidPayment(UUID id) {
+    return changePayment(id, "void", payment -> {
+      if (payment.getStatus() != PaymentStatus.AUTHORIZED) {
+        throw new PaymentStateException("Payment cannot be voided in status " + payment.getStatus().getName());
+      }
+      payment.setStatus(PaymentStatus.VOIDED);
+      return payment;
+    });
+  }
+
+  /**
+   * Refunds some or all of what is left of a captured amount, in one or several parts.
+   * @param id the payment id
+   * @param amount the amount to refund in minor units, or {@code null} for all that is left
+   * @return the refunded payment
+   * @throws EventProcessingException if payment not found
+   * @throws PaymentStateException if nothing was captured or all of it is already refunded
+   * @throws ValidationException if the amount is not positive or more than is left to refund
+   */
+  public PostPaymentResponse refundPayment(UUID id, Integer amount) {
+    return changePayment(id, "refund", payment -> {
+      boolean refundable = payment.getStatus() == PaymentStatus.CAPTURED
+          || (payment.getStatus() == PaymentStatus.REFUNDED
+              && payment.getRefundedAmount() < payment.getCapturedAmount());
+      if (payment.getStatus() == PaymentStatus.REFUNDED && !refundable) {
+        throw new PaymentStateException("Payment is already refunded in full");
+      }
+      if (!refundable) {
+        throw new PaymentStateException("Payment cannot be refunded in status " + payment.getStatus().getName());
+      }
+      payment.setRefundedAmount(payment.getRefundedAmount()
+          + operationAmount(amount, payment.getCapturedAmount() - payment.getRefundedAmount(), "refund"));
+      payment.setStatus(PaymentStatus.REFUNDED);
+      return payment;
+    });
+  }
+
+  /**
+   * Applies a change to the latest version of a stored payment on the payment's lane, so that
+   * concurrent operations on the same payment run one after another, then notifies it like a new
+   * status.
+   */
+  private PostPaymentResponse changePayment(UUID id, String operation, UnaryOperator<PostPaymentResponse> change) {
+    LOG.debug("Requesting {} of payment with ID {}", operation, id);
+    PostPaymentResponse payment = partitionedPaymentExecutor.call(id, () -> paymentsRepository.update(id, change))
+        .orElseThrow(() -> new EventProcessingException("Invalid ID"));
+    webhookDispatcher.publish(payment);
+    paymentEventBus.publish(payment);
+    LOG.debug("Payment {} persisted with status {}", id, payment.getStatus());
+    return payment;
+  }
+
+  /**
+   * @return the requested amount, or all that is left when none is
+   * @throws ValidationException if the amount is not positive or more than is left
+   */
+  private static int operationAmount(Integer requested, int left, String operation) {
+    if (requested == null) {
+      return left;
     }
+    if (requested <= 0) {
+      throw new ValidationException("Amount must be greater than zero");
+    }
+    if (requested > left) {
+      throw new ValidationException("Amount exceeds the " + left + " left to " + operation);
+    }
+    return requested;
+  }
+
+  /**
+   * Replaces the card token of a request without a card number by the card it stands for.
+   * @throws ValidationException if the token is unknown
+   */
+  private void resolveCardToken(PostPaymentRequest paymentRequest) {
+    if (paymentRequest == null || paymentRequest.getCardNumber() != null
+        || paymentRequest.getCardToken() == null) {
+      return;
+    }
+    String cardNumber = cardVault.detokenize(paymentRequest.getCardToken())
+        .orElseThrow(() -> new ValidationException("Unknown card token"));
+    paymentRequest.setCardNumber(cardNumber);
+  }
+
+  /**
+   * Looks for a recent payment this one repeats, and logs it or rejects the payment depending on
+   * the detector's action.
+   * @throws ValidationException if the payment is a duplicate to reject
+   */
+  private void checkDuplicate(UUID paymentId, PostPaymentRequest paymentRequest) {
+    duplicatePaymentDetector.check(paymentRequest, paymentId).ifPresent(original -> {
+      if (duplicatePaymentDetector.action() == DuplicatePaymentDetector.Action.REJECT) {
+        throw new ValidationException("Suspected duplicate of payment " + original);
+      }
+      LOG.warn("Payment {} looks like a duplicate of payment {}", paymentId, original);
+    });
+  }
+
+  /**
+   * Counts the payment against its card's velocity limits. A payment over them is forgotten by the
+   * {@link DuplicatePaymentDetector}, as it is rejected and may be retried.
+   * @throws ValidationException if the payment exceeds them
+   */
+  private void checkVelocity(UUID paymentId, PostPaymentRequest paymentRequest) {
+    if (!cardVelocityChecker.tryAcquire(paymentRequest.getCardNumber(), paymentRequest.getCurrency(),
+        paymentRequest.getAmount())) {
+      duplicatePaymentDetector.forget(paymentRequest, paymentId);
+      throw new ValidationException("Card velocity limit exceeded");
+    }
+  }
+
+  private void tokenizeCard(PostPaymentRequest paymentRequest) {
+    paymentRequest.setCardToken(cardVault.tokenize(paymentRequest.getCardNumber()).orElse(null));
   }
 
   private PostPaymentResponse createAndPersistResponse(
@@ -99,7 +392,10 @@ public class PaymentGatewayService {
       PostPaymentRequest paymentRequest
   ) {
     var response = new PostPaymentResponse(paymentId, status, paymentRequest);
-    paymentsRepository.add(response);
+    partitionedPaymentExecutor.run(paymentId, () -> paymentsRepository.add(response));
+    paymentVolumeCounters.record(status, paymentRequest.getCurrency(), paymentRequest.getAmount());
+    webhookDispatcher.publish(response);
+    paymentEventBus.publish(response);
     LOG.debug("Payment {} persisted with status {}", paymentId, status);
     return response;
   }
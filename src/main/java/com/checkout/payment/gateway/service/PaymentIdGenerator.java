@@ -0,0 +1,15 @@
+package com.checkout.payment.gateway.service;
+
+import java.util.UUID;
+
+/**
+ * Source of identifiers for newly created payments.
+ */
+public interface PaymentIdGenerator {
+
+  /**
+   * Generates a new, unique payment identifier.
+   * @return the payment id
+   */
+  UUID nextId();
+}
@@ -0,0 +1,85 @@
+package com.checkout.payment.gateway.service;
+
+import com.checkout.payment.gateway.exception.ServiceOverloadedException;
+import com.checkout.payment.gateway.model.BulkheadStats;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Bulkhead for repository-only lookups.
+ * <p>
+ * Lookups and payment creation share the Tomcat worker pool. Payment creation is capped by
+ * {@link PaymentAdmissionController} and lookups by this bulkhead, at
+ * {@code payments.bulkhead.read.max-concurrent}; as long as both caps together fit in the worker
+ * pool, a hanging acquiring bank can only take the threads of the write bulkhead, and a burst of
+ * lookups cannot take the threads needed to accept payments. A lookup waits at most
+ * {@code payments.bulkhead.read.max-wait-ms} for a slot before it is refused with {@code 503}.
+ * </p>
+ */
+@Component
+public class PaymentReadBulkhead {
+
+  private static final Logger LOG = LoggerFactory.getLogger(PaymentReadBulkhead.class);
+
+  private final Semaphore permits;
+  private final int maxConcurrent;
+  private final long maxWaitNanos;
+  private final AtomicInteger peakInUse = new AtomicInteger();
+  private final LongAdder admitted = new LongAdder();
+  private final LongAdder rejected = new LongAdder();
+
+  public PaymentReadBulkhead(
+      @Value("${payments.bulkhead.read.max-concurrent:64}") int maxConcurrent,
+      @Value("${payments.bulkhead.read.max-wait-ms:50}") long maxWaitMillis,
+      @Value("${server.tomcat.threads.max:200}") int workerThreads,
+      PaymentAdmissionController paymentAdmissionController
+  ) {
+    this.permits = new Semaphore(maxConcurrent);
+    this.maxConcurrent = maxConcurrent;
+    this.maxWaitNanos = TimeUnit.MILLISECONDS.toNanos(maxWaitMillis);
+    int writeThreads = paymentAdmissionController.maxInFlight() + paymentAdmissionController.maxQueued();
+    if (writeThreads + maxConcurrent > workerThreads) {
+      LOG.warn("Read ({}) and write ({}) bulkheads exceed the {} worker threads; a hanging bank can "
+          + "still starve lookups", maxConcurrent, writeThreads, workerThreads);
+    }
+  }
+
+  /**
+   * Takes a lookup slot. Every successful call must be paired with {@link #release()}.
+   * @throws ServiceOverloadedException if no slot frees up in time
+   */
+  public void acquire() {
+    boolean acquired = permits.tryAcquire();
+    if (!acquired) {
+      try {
+        acquired = permits.tryAcquire(maxWaitNanos, TimeUnit.NANOSECONDS);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+    if (!acquired) {
+      rejected.increment();
+      throw new ServiceOverloadedException("Lookup capacity exhausted");
+    }
+    admitted.increment();
+    int inUse = maxConcurrent - permits.availablePermits();
+    if (inUse > peakInUse.get()) {
+      peakInUse.accumulateAndGet(inUse, Math::max);
+    }
+  }
+
+  public void release() {
+    permits.release();
+  }
+
+  public BulkheadStats stats() {
+    return new BulkheadStats("reads", maxConcurrent, maxConcurrent - permits.availablePermits(),
+        peakInUse.get(), permits.getQueueLength(), admitted.sum(), rejected.sum());
+  }
+}
@@ -0,0 +1,135 @@
+package com.checkout.payment.gateway.service;
+
+import com.checkout.payment.gateway.codec.PaymentJsonCodec;
+import com.checkout.payment.gateway.enums.PaymentStatus;
+import com.checkout.payment.gateway.exception.EventProcessingException;
+import com.checkout.payment.gateway.model.GetPaymentResponse;
+import java.util.UUID;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.util.ConcurrentLruCache;
+import org.springframework.util.DigestUtils;
+
+/**
+ * Bounded cache of serialized {@code GET /payments/{id}} responses.
+ * <p>
+ * A stored payment only changes when it is captured, voided or refunded, so the JSON body and its
+ * strong ETag are rendered once and reused for every subsequent lookup. Least recently used
+ * entries are evicted once the configured size is reached.
+ * </p>
+ * <p>
+ * Each rendering records the repository version of the payment it was made from, and a lookup
+ * finding a newer version renders the payment again. A change evicts the payment as well, but a
+ * lookup that read the payment before the change can put its rendering back afterwards; the
+ * version check keeps that rendering from being served.
+ * </p>
+ * <p>
+ * The exception are {@code PENDING} payments, which change once the acquiring bank answers. Their
+ * rendering is dropped again by the lookup that created it, so polling a pending payment always
+ * reads the repository, while its ETag still lets unchanged polls end with {@code 304}.
+ * </p>
+ */
+@Service
+public class PaymentResponseCache {
+
+  private static final Logger LOG = LoggerFactory.getLogger(PaymentResponseCache.class);
+
+  private final PaymentGatewayService paymentGatewayService;
+  private final PaymentJsonCodec paymentJsonCodec;
+  private final ConcurrentLruCache<UUID, CachedPaymentResponse> cache;
+
+  public PaymentResponseCache(
+      PaymentGatewayService paymentGatewayService,
+      PaymentJsonCodec paymentJsonCodec,
+      @Value("${payments.response-cache.max-entries:10000}") int maxEntries
+  ) {
+    this.paymentGatewayService = paymentGatewayService;
+    this.paymentJsonCodec = paymentJsonCodec;
+    this.cache = new ConcurrentLruCache<>(maxEntries, this::render);
+  }
+
+  /**
+   * Returns the serialized payment, rendering and caching it on first access.
+   * @param id the payment id
+   * @return the cached response body and ETag
+   * @throws EventProcessingException if payment not found
+   */
+  public CachedPaymentResponse get(UUID id) {
+    CachedPaymentResponse cached = cache.get(id);
+    if (cached.pending()) {
+      // Removed by whoever rendered it, a completion racing the render cannot leave it behind
+      cache.remove(id);
+      return cached;
+    }
+    int version = paymentGatewayService.getPaymentVersion(id);
+    // Ends at the latest with a rendering made by this lookup, which reads at least this version
+    while (cached.version() < version) {
+      cache.remove(id);
+      cached = cache.get(id);
+    }
+    return cached;
+  }
+
+  /**
+   * Drops the cached rendering of a payment so that the next lookup reflects the stored state.
+   * @param id the payment id
+   */
+  public void evict(UUID id) {
+    cache.remove(id);
+  }
+
+  public int size() {
+    return cache.size();
+  }
+
+  private CachedPaymentResponse render(UUID id) {
+    LOG.debug("Rendering payment {} into response cache", id);
+    // Read first, so that a change made while rendering leaves the rendering looking stale
+    int version = paymentGatewayService.getPaymentVersion(id);
+    GetPaymentResponse payment = paymentGatewayService.getPaymentById(id);
+    byte[] body = paymentJsonCodec.writeAsBytes(payment);
+    return new CachedPaymentResponse(body, '"' + DigestUtils.md5DigestAsHex(body) + '"',
+        payment.getStatus() == PaymentStatus.PENDING, version);
+  }
+
+  /**
+   * Serialized payment body together with its strong ETag.
+   * @param body the JSON representation of the payment
+   * @param etag the quoted entity tag of the body
+   * @param pending whether the payment may still change
+   * @param version the repository version of the payment, or earlier
+   */
+  public record CachedPaymentResponse(byte[] body, String etag, boolean pending, int version) {
+
+    public CachedPaymentResponse(byte[] body, String etag) {
+      this(body, etag, false, 0);
+    }
+
+    /**
+     * Checks an {@code If-None-Match} header against this entity tag, using the weak comparison
+     * mandated for that header by RFC 9110.
+     * @param ifNoneMatch the raw header value, may be {@code null}
+     * @return {@code true} if the client already holds this representation
+     */
+    public boolean matches(String ifNoneMatch) {
+      if (ifNoneMatch == null) {
+        return false;
+      }
+      for (String candidate : ifNoneMatch.split(",")) {
+        String tag = candidate.trim();
+        if (tag.equals("*")) {
+          return true;
+        }
+        if (tag.startsWith("W/")) {
+          tag = tag.substring(2);
+        }
+        if (tag.equals(etag)) {
+          return true;
+        }
+      }
+      return false;
+    }
+  }
+}
@@ -1,10 +1,16 @@
 package com.checkout.payment.gateway.service;
 
+import com.checkout.payment.gateway.bin.BinLookupService;
+import com.checkout.payment.gateway.enums.CardScheme;
 import com.checkout.payment.gateway.enums.SupportedCurrency;
 import com.checkout.payment.gateway.exception.ValidationException;
+import com.checkout.payment.gateway.model.BinInfo;
 import com.checkout.payment.gateway.model.PostPaymentRequest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import java.time.YearMonth;
+import java.util.Set;
 
 @Service
 public class PaymentValidator {
@@ -12,13 +18,37 @@ public class PaymentValidator {
   private static final String CARD_NUMBER_PATTERN = "\\d{14,19}";
   private static final String CVV_PATTERN = "\\d{3,4}";
 
+  private final BinLookupService binLookupService;
+  private final boolean rejectUnknownBins;
+  private final Set<CardScheme> acceptedSchemes;
+
+  @Autowired
+  public PaymentValidator(
+      BinLookupService binLookupService,
+      @Value("${payments.bin.reject-unknown:false}") boolean rejectUnknownBins,
+      @Value("${payments.bin.accepted-schemes:}") Set<CardScheme> acceptedSchemes
+  ) {
+    this.binLookupService = binLookupService;
+    this.rejectUnknownBins = rejectUnknownBins;
+    this.acceptedSchemes = acceptedSchemes;
+  }
+
+  /**
+   * Creates a validator without BIN checks.
+   */
+  PaymentValidator() {
+    this(null, false, Set.of());
+  }
+
   /**
    * Validates the payment request.
    * <p>
    * The following requirements must be met:
    * </p>
    * <ul>
-   *   <li>Card number: must be 14-19 digits and numeric</li>
+   *   <li>Card number: must be 14-19 digits and numeric, and its BIN must belong to one of the
+   *   {@code payments.bin.accepted-schemes} if set, and to a known range if
+   *   {@code payments.bin.reject-unknown} is set</li>
    *   <li>Expiry month: must be between 1 and 12</li>
    *   <li>Expiry year: must be in the future</li>
    *   <li>Currency: must be a 3-letter code from the allowed enums</li>
@@ -41,6 +71,10 @@ public class PaymentValidator {
       throw new ValidationException("Card number must be numeric and between 14 and 19 digits long");
     }
 
+    if (binLookupService != null) {
+      validateBin(request.getCardNumber());
+    }
+
     if (request.getExpiryMonth() < 1 || request.getExpiryMonth() > 12) {
       throw new ValidationException("Expiry month must be between 1 and 12");
     }
@@ -73,6 +107,19 @@ public class PaymentValidator {
     }
   }
 
+  private void validateBin(String cardNumber) {
+    BinInfo bin = binLookupService.lookup(cardNumber);
+    if (bin == null) {
+      if (rejectUnknownBins) {
+        throw new ValidationException("Card number is not in a known card range");
+      }
+      return;
+    }
+    if (!acceptedSchemes.isEmpty() && !acceptedSchemes.contains(bin.getScheme())) {
+      throw new ValidationException("Card scheme is not supported");
+    }
+  }
+
   /**
    * Checks if the currency is supported.
    * @param currency The currency the payment was made in
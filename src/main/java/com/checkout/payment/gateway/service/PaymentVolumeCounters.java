@@ -0,0 +1,203 @@
+package com.checkout.payment.gateway.service;
+
+import com.checkout.payment.gateway.enums.PaymentStatus;
+import com.checkout.payment.gateway.enums.SupportedCurrency;
+import com.checkout.payment.gateway.model.PaymentVolumeReport;
+import com.checkout.payment.gateway.model.PaymentVolumeReport.CurrencyVolume;
+import com.checkout.payment.gateway.model.PaymentVolumeReport.StatusVolume;
+import com.checkout.payment.gateway.model.PaymentVolumeReport.VolumeWindow;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+/**
+ * Live payment counts and summed amounts per currency and status.
+ * <p>
+ * Every cell is a {@link LongAdder}, which spreads concurrent increments over per-thread cells
+ * instead of retrying a CAS on one shared word, so recording a payment never contends with other
+ * request threads. Rolling windows are rings of 60 one-second and 60 one-minute slots; a slot is
+ * replaced by a fresh one the first time it is written in a new period, so nothing has to sweep
+ * expired counts.
+ * </p>
+ * <p>
+ * A report sums a fixed number of slots, so it takes the same time whatever the history.
+ * </p>
+ */
+@Service
+public class PaymentVolumeCounters {
+
+  private static final SupportedCurrency[] CURRENCIES = SupportedCurrency.values();
+  // Only authorization outcomes are counted. They are declared before PENDING, so their ordinals
+  // also index this array
+  private static final PaymentStatus[] STATUSES =
+      Arrays.copyOf(PaymentStatus.values(), PaymentStatus.PENDING.ordinal());
+  private static final String OTHER_CURRENCY = "OTHER";
+  // Supported currencies followed by OTHER, each with one cell per status
+  private static final int CELLS = (CURRENCIES.length + 1) * STATUSES.length;
+  private static final int SLOTS = 60;
+  private static final long SECOND_MILLIS = 1_000;
+  private static final long MINUTE_MILLIS = 60_000;
+
+  private final Clock clock;
+  private final Slot sinceStart = new Slot(0);
+  private final AtomicReferenceArray<Slot> seconds = new AtomicReferenceArray<>(SLOTS);
+  private final AtomicReferenceArray<Slot> minutes = new AtomicReferenceArray<>(SLOTS);
+
+  @Autowired
+  public PaymentVolumeCounters() {
+    this(Clock.systemUTC());
+  }
+
+  public PaymentVolumeCounters(Clock clock) {
+    this.clock = clock;
+  }
+
+  /**
+   * Counts one processed payment.
+   * @param status the final status of the payment, pending payments are ignored
+   * @param currency the currency as received, possibly unsupported or {@code null}
+   * @param amount the amount in minor units
+   */
+  public void record(PaymentStatus status, String currency, int amount) {
+    if (status == null || status == PaymentStatus.PENDING) {
+      return;
+    }
+    int cell = currencyIndex(currency) * STATUSES.length + status.ordinal();
+    long now = clock.millis();
+    sinceStart.add(cell, amount);
+    Slot second = slot(seconds, now / SECOND_MILLIS);
+    if (second != null) {
+      second.add(cell, amount);
+    }
+    Slot minute = slot(minutes, now / MINUTE_MILLIS);
+    if (minute != null) {
+      minute.add(cell, amount);
+    }
+  }
+
+  /**
+   * Reports volumes over the last completed second, the last minute, the last hour and since
+   * startup. The minute and hour windows include the current, partial second or minute.
+   */
+  public PaymentVolumeReport report() {
+    long now = clock.millis();
+    long currentSecond = now / SECOND_MILLIS;
+    long currentMinute = now / MINUTE_MILLIS;
+    List<VolumeWindow> windows = List.of(
+        window("last_second", 1L, sum(seconds, currentSecond - 1, currentSecond - 1)),
+        window("last_minute", 60L, sum(seconds, currentSecond - SLOTS + 1, currentSecond)),
+        window("last_hour", 3600L, sum(minutes, currentMinute - SLOTS + 1, currentMinute)),
+        window("since_start", null, sum(sinceStart, new long[2 * CELLS]))
+    );
+    return new PaymentVolumeReport(Instant.ofEpochMilli(now), windows);
+  }
+
+  private static int currencyIndex(String currency) {
+    if (currency != null) {
+      for (SupportedCurrency candidate : CURRENCIES) {
+        if (candidate.name().equalsIgnoreCase(currency)) {
+          return candidate.ordinal();
+        }
+      }
+    }
+    return CURRENCIES.length;
+  }
+
+  /**
+   * Returns the slot for the given period, replacing a slot left over from an older period.
+   * Returns {@code null} for a writer that fell behind a slot already reused by a newer period.
+   */
+  private static Slot slot(AtomicReferenceArray<Slot> ring, long period) {
+    int index = (int) Math.floorMod(period, (long) SLOTS);
+    while (true) {
+      Slot slot = ring.get(index);
+      if (slot != null && slot.period >= period) {
+        return slot.period == period ? slot : null;
+      }
+      Slot fresh = new Slot(period);
+      if (ring.compareAndSet(index, slot, fresh)) {
+        return fresh;
+      }
+    }
+  }
+
+  /**
+   * Sums the slots of periods {@code from} to {@code to}, inclusive.
+   * @return counts in {@code [0, CELLS)} followed by amounts in {@code [CELLS, 2 * CELLS)}
+   */
+  private static long[] sum(AtomicReferenceArray<Slot> ring, long from, long to) {
+    long[] totals = new long[2 * CELLS];
+    for (int i = 0; i < SLOTS; i++) {
+      Slot slot = ring.get(i);
+      if (slot != null && slot.period >= from && slot.period <= to) {
+        sum(slot, totals);
+      }
+    }
+    return totals;
+  }
+
+  private static long[] sum(Slot slot, long[] totals) {
+    for (int cell = 0; cell < CELLS; cell++) {
+      totals[cell] += slot.counts[cell].sum();
+      totals[CELLS + cell] += slot.amounts[cell].sum();
+    }
+    return totals;
+  }
+
+  private static VolumeWindow window(String name, Long durationSeconds, long[] totals) {
+    List<CurrencyVolume> currencies = new ArrayList<>(CURRENCIES.length + 1);
+    for (int currency = 0; currency <= CURRENCIES.length; currency++) {
+      List<StatusVolume> statuses = new ArrayList<>(STATUSES.length);
+      long currencyCount = 0;
+      for (PaymentStatus status : STATUSES) {
+        int cell = currency * STATUSES.length + status.ordinal();
+        statuses.add(new StatusVolume(status, totals[cell], totals[CELLS + cell]));
+        currencyCount += totals[cell];
+      }
+      boolean other = currency == CURRENCIES.length;
+      if (other && currencyCount == 0) {
+        continue;
+      }
+      currencies.add(new CurrencyVolume(
+          other ? OTHER_CURRENCY : CURRENCIES[currency].name(),
+          statuses,
+          authorizationRate(totals, currency)));
+    }
+    return new VolumeWindow(name, durationSeconds, currencies);
+  }
+
+  private static Double authorizationRate(long[] totals, int currency) {
+    long authorized = totals[currency * STATUSES.length + PaymentStatus.AUTHORIZED.ordinal()];
+    long declined = totals[currency * STATUSES.length + PaymentStatus.DECLINED.ordinal()];
+    return authorized + declined == 0 ? null : (double) authorized / (authorized + declined);
+  }
+
+  /**
+   * Counters of one period.
+   */
+  private static final class Slot {
+
+    private final long period;
+    private final LongAdder[] counts = new LongAdder[CELLS];
+    private final LongAdder[] amounts = new LongAdder[CELLS];
+
+    Slot(long period) {
+      this.period = period;
+      for (int cell = 0; cell < CELLS; cell++) {
+        counts[cell] = new LongAdder();
+        amounts[cell] = new LongAdder();
+      }
+    }
+
+    void add(int cell, int amount) {
+      counts[cell].increment();
+      amounts[cell].add(amount);
+    }
+  }
+}
@@ -0,0 +1,14 @@
+package com.checkout.payment.gateway.service;
+
+import java.util.UUID;
+
+/**
+ * Generates random UUIDv4 payment ids through {@link UUID#randomUUID()}.
+ */
+public class RandomPaymentIdGenerator implements PaymentIdGenerator {
+
+  @Override
+  public UUID nextId() {
+    return UUID.randomUUID();
+  }
+}
@@ -0,0 +1,289 @@
+package com.checkout.payment.gateway.vault;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.crypto.Cipher;
+import javax.crypto.Mac;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Tokenization vault mapping card numbers to opaque tokens, so that merchants can send a token
+ * instead of the card number on repeat payments.
+ * <p>
+ * A token is the first 128 bits of an HMAC-SHA256 of the card number, so the same card always gets
+ * the same token and the token reveals nothing about the card without the key. The token is also
+ * the key of an open-addressing hash table held off-heap in a direct buffer of fixed 64 byte slots:
+ * tokenizing and detokenizing are a hash computation and a short probe, without allocating table
+ * entries or touching a lock. Card numbers are stored AES-GCM encrypted, bound to their token.
+ * </p>
+ * <p>
+ * Slots are claimed with a compare-and-set on their first word and published with a release write
+ * once filled in, so any number of threads can tokenize and detokenize concurrently; a reader that
+ * meets a slot being filled spins for the few instructions it takes to finish. Entries are never
+ * removed. The table holds up to three quarters of {@code payments.vault.capacity} cards, after
+ * which new cards are no longer tokenized.
+ * </p>
+ * <p>
+ * The HMAC and encryption keys are derived from the base64 encoded {@code payments.vault.key}. When
+ * it is not set, a random key is generated on start, which is enough since the vault itself lives
+ * in memory.
+ * </p>
+ */
+@Component
+public class CardVault {
+
+  public static final String TOKEN_PREFIX = "tok_";
+  private static final Logger LOG = LoggerFactory.getLogger(CardVault.class);
+  private static final VarHandle LONGS =
+      MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+  private static final int MAX_CAPACITY = 1 << 24;
+  private static final int SLOT_SIZE = 64;
+  private static final int KEY_SIZE = 16;
+  private static final int NONCE_SIZE = 12;
+  private static final int TAG_BITS = 128;
+  private static final int MAX_CARD_NUMBER_LENGTH = 19;
+  // Slot layout: key high word, key low word, card number length, nonce, ciphertext and tag
+  private static final int LOW_OFFSET = 8;
+  private static final int LENGTH_OFFSET = 16;
+  private static final int NONCE_OFFSET = 17;
+  private static final int CIPHERTEXT_OFFSET = NONCE_OFFSET + NONCE_SIZE;
+  // Values of the first word that are not keys
+  private static final long EMPTY = 0;
+  private static final long FILLING = -1;
+  private static final int TOKEN_LENGTH = TOKEN_PREFIX.length() + 22;
+
+  private final ByteBuffer slots;
+  private final int mask;
+  private final int maxEntries;
+  private final AtomicInteger size = new AtomicInteger();
+  private final SecretKeySpec hmacKey;
+  private final SecretKeySpec encryptionKey;
+  private final byte[] noncePrefix = new byte[4];
+  private final AtomicLong nonceCounter = new AtomicLong();
+  private final ThreadLocal<Mac> macs;
+  private final ThreadLocal<Cipher> ciphers = ThreadLocal.withInitial(() -> {
+    try {
+      return Cipher.getInstance("AES/GCM/NoPadding");
+    } catch (GeneralSecurityException e) {
+      throw new IllegalStateException("AES-GCM is not available", e);
+    }
+  });
+
+  public CardVault(
+      @Value("${payments.vault.capacity:1048576}") int capacity,
+      @Value("${payments.vault.key:}") String key
+  ) {
+    if (capacity < 2 || capacity > MAX_CAPACITY || Integer.bitCount(capacity) != 1) {
+      throw new IllegalArgumentException(
+          "Card vault capacity must be a power of two up to " + MAX_CAPACITY + ": " + capacity);
+    }
+    SecureRandom random = new SecureRandom();
+    byte[] masterKey;
+    if (key.isBlank()) {
+      masterKey = new byte[32];
+      random.nextBytes(masterKey);
+      LOG.info("No card vault key configured, tokens are only valid until the gateway restarts");
+    } else {
+      masterKey = Base64.getDecoder().decode(key.trim());
+    }
+    random.nextBytes(noncePrefix);
+    this.hmacKey = new SecretKeySpec(derive(masterKey, "card-vault-index"), "HmacSHA256");
+    this.encryptionKey = new SecretKeySpec(derive(masterKey, "card-vault-data"), "AES");
+    this.macs = ThreadLocal.withInitial(() -> newMac(hmacKey));
+    // Aligned so that the slot words can be updated atomically
+    this.slots = ByteBuffer.allocateDirect(capacity * SLOT_SIZE + 8).alignedSlice(8);
+    this.mask = capacity - 1;
+    this.maxEntries = capacity / 4 * 3;
+  }
+
+  /**
+   * Returns the token of a card number, storing the card if it is new.
+   * @param cardNumber a validated card number
+   * @return the token, or empty if the card is new and the vault is full
+   */
+  public Optional<String> tokenize(String cardNumber) {
+    byte[] digits = cardNumber.getBytes(StandardCharsets.US_ASCII);
+    if (digits.length > MAX_CARD_NUMBER_LENGTH) {
+      throw new IllegalArgumentException("Card number is too long");
+    }
+    byte[] token = macs.get().doFinal(digits);
+    long high = keyWord(token, 0);
+    long low = keyWord(token, 8);
+    int slot = (int) (low ^ (low >>> 32)) & mask;
+    byte[] encrypted = null;
+    while (true) {
+      int offset = slot * SLOT_SIZE;
+      long first = (long) LONGS.getAcquire(slots, offset);
+      if (first == EMPTY) {
+        if (encrypted == null) {
+          // Before claiming the slot, so that a failure cannot leave it half filled
+          encrypted = encrypt(token, digits);
+        }
+        if (size.incrementAndGet() > maxEntries) {
+          size.decrementAndGet();
+          LOG.warn("Card vault is full, the card is not tokenized");
+          return Optional.empty();
+        }
+        if (LONGS.compareAndSet(slots, offset, EMPTY, FILLING)) {
+          slots.putLong(offset + LOW_OFFSET, low);
+          slots.put(offset + LENGTH_OFFSET, (byte) digits.length);
+          slots.put(offset + NONCE_OFFSET, encrypted);
+          LONGS.setRelease(slots, offset, high);
+          return Optional.of(encode(token));
+        }
+        // Claimed by another card meanwhile, look at the slot again
+        size.decrementAndGet();
+        continue;
+      }
+      if (first == FILLING) {
+        Thread.onSpinWait();
+        continue;
+      }
+      if (first == high && slots.getLong(offset + LOW_OFFSET) == low) {
+        return Optional.of(encode(token));
+      }
+      slot = (slot + 1) & mask;
+    }
+  }
+
+  /**
+   * @param token a token returned by {@link #tokenize(String)}
+   * @return the card number, or empty if the token is malformed or unknown
+   */
+  public Optional<String> detokenize(String token) {
+    byte[] key = decode(token);
+    if (key == null) {
+      return Optional.empty();
+    }
+    long high = keyWord(key, 0);
+    long low = keyWord(key, 8);
+    int slot = (int) (low ^ (low >>> 32)) & mask;
+    while (true) {
+      int offset = slot * SLOT_SIZE;
+      long first = (long) LONGS.getAcquire(slots, offset);
+      if (first == EMPTY) {
+        return Optional.empty();
+      }
+      if (first == FILLING) {
+        Thread.onSpinWait();
+        continue;
+      }
+      if (first == high && slots.getLong(offset + LOW_OFFSET) == low) {
+        return Optional.of(decrypt(offset, key));
+      }
+      slot = (slot + 1) & mask;
+    }
+  }
+
+  /**
+   * @return the number of cards stored
+   */
+  public int size() {
+    return size.get();
+  }
+
+  /**
+   * @return the number of cards the vault can hold
+   */
+  public int capacity() {
+    return maxEntries;
+  }
+
+  /**
+   * @return the nonce followed by the encrypted card number and its tag
+   */
+  private byte[] encrypt(byte[] token, byte[] digits) {
+    byte[] nonce = new byte[NONCE_SIZE];
+    System.arraycopy(noncePrefix, 0, nonce, 0, noncePrefix.length);
+    long counter = nonceCounter.incrementAndGet();
+    for (int i = 0; i < 8; i++) {
+      nonce[NONCE_SIZE - 1 - i] = (byte) (counter >>> (8 * i));
+    }
+    byte[] encrypted = Arrays.copyOf(nonce, NONCE_SIZE + digits.length + TAG_BITS / 8);
+    try {
+      Cipher cipher = ciphers.get();
+      cipher.init(Cipher.ENCRYPT_MODE, encryptionKey, new GCMParameterSpec(TAG_BITS, nonce));
+      cipher.updateAAD(token, 0, KEY_SIZE);
+      cipher.doFinal(digits, 0, digits.length, encrypted, NONCE_SIZE);
+    } catch (GeneralSecurityException e) {
+      throw new IllegalStateException("Failed to encrypt card number", e);
+    }
+    return encrypted;
+  }
+
+  private String decrypt(int offset, byte[] key) {
+    int length = slots.get(offset + LENGTH_OFFSET);
+    byte[] nonce = new byte[NONCE_SIZE];
+    byte[] ciphertext = new byte[length + TAG_BITS / 8];
+    slots.get(offset + NONCE_OFFSET, nonce);
+    slots.get(offset + CIPHERTEXT_OFFSET, ciphertext);
+    try {
+      Cipher cipher = ciphers.get();
+      cipher.init(Cipher.DECRYPT_MODE, encryptionKey, new GCMParameterSpec(TAG_BITS, nonce));
+      cipher.updateAAD(key, 0, KEY_SIZE);
+      return new String(cipher.doFinal(ciphertext), StandardCharsets.US_ASCII);
+    } catch (GeneralSecurityException e) {
+      throw new IllegalStateException("Failed to decrypt card number", e);
+    }
+  }
+
+  /**
+   * Reads a word of the token, moving the two values reserved for empty and filling slots.
+   */
+  private static long keyWord(byte[] token, int from) {
+    long word = 0;
+    for (int i = from; i < from + 8; i++) {
+      word = (word << 8) | (token[i] & 0xFF);
+    }
+    if (from == 0 && (word == EMPTY || word == FILLING)) {
+      word ^= 2;
+    }
+    return word;
+  }
+
+  private static String encode(byte[] token) {
+    return TOKEN_PREFIX + Base64.getUrlEncoder().withoutPadding().encodeToString(
+        Arrays.copyOf(token, KEY_SIZE));
+  }
+
+  private static byte[] decode(String token) {
+    if (token == null || token.length() != TOKEN_LENGTH || !token.startsWith(TOKEN_PREFIX)) {
+      return null;
+    }
+    try {
+      return Base64.getUrlDecoder().decode(token.substring(TOKEN_PREFIX.length()));
+    } catch (IllegalArgumentException e) {
+      return null;
+    }
+  }
+
+  private static byte[] derive(byte[] masterKey, String purpose) {
+    return newMac(new SecretKeySpec(masterKey, "HmacSHA256"))
+        .doFinal(purpose.getBytes(StandardCharsets.US_ASCII));
+  }
+
+  private static Mac newMac(SecretKeySpec key) {
+    try {
+      Mac mac = Mac.getInstance("HmacSHA256");
+      mac.init(key);
+      return mac;
+    } catch (GeneralSecurityException e) {
+      throw new IllegalStateException("HMAC-SHA256 is not available", e);
+    }
+  }
+}
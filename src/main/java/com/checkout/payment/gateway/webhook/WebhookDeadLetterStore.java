@@ -0,0 +1,61 @@
+package com.checkout.payment.gateway.webhook;
+
+import com.checkout.payment.gateway.model.PaymentWebhookEvent;
+import com.checkout.payment.gateway.model.WebhookDeadLetter;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Bounded store of undeliverable webhook events, oldest first. Once full, the oldest entry is
+ * dropped to make room.
+ */
+final class WebhookDeadLetterStore {
+
+  private final int capacity;
+  private final Deque<Entry> entries = new ArrayDeque<>();
+  private long dropped;
+
+  WebhookDeadLetterStore(int capacity) {
+    this.capacity = capacity;
+  }
+
+  synchronized void add(WebhookEndpoint endpoint, PaymentWebhookEvent event, int attempts, String reason) {
+    if (capacity == 0) {
+      dropped++;
+      return;
+    }
+    if (entries.size() == capacity) {
+      entries.removeFirst();
+      dropped++;
+    }
+    entries.addLast(new Entry(endpoint, event, new WebhookDeadLetter(event.getId(), event.getType(),
+        event.getPayment().getId(), endpoint.uri.toString(), attempts, reason, Instant.now())));
+  }
+
+  synchronized List<WebhookDeadLetter> list() {
+    List<WebhookDeadLetter> letters = new ArrayList<>(entries.size());
+    for (Entry entry : entries) {
+      letters.add(entry.letter());
+    }
+    return letters;
+  }
+
+  /**
+   * Removes and returns every entry.
+   */
+  synchronized List<Entry> drain() {
+    List<Entry> drained = new ArrayList<>(entries);
+    entries.clear();
+    return drained;
+  }
+
+  synchronized long dropped() {
+    return dropped;
+  }
+
+  record Entry(WebhookEndpoint endpoint, PaymentWebhookEvent event, WebhookDeadLetter letter) {
+  }
+}
@@ -0,0 +1,269 @@
+package com.checkout.payment.gateway.webhook;
+
+import com.checkout.payment.gateway.codec.PaymentJsonCodec;
+import com.checkout.payment.gateway.model.PaymentWebhookEvent;
+import com.checkout.payment.gateway.model.PostPaymentResponse;
+import com.checkout.payment.gateway.model.WebhookDeadLetter;
+import com.checkout.payment.gateway.model.WebhookEndpointStats;
+import jakarta.annotation.PreDestroy;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+
+/**
+ * Delivers payment status notifications to the webhook endpoints listed in
+ * {@code payments.webhooks.endpoints}.
+ * <p>
+ * {@link #publish(PostPaymentResponse)} only appends the event to a bounded in-memory queue per
+ * endpoint, so it never waits for a receiver; an event that does not fit in a full queue goes
+ * straight to the dead-letter store. Each endpoint has at most
+ * {@code payments.webhooks.max-in-flight} requests outstanding, each carrying up to
+ * {@code payments.webhooks.batch-size} queued events as a JSON array, so batches grow by
+ * themselves when a receiver is slower than the payment rate. Requests go through one shared
+ * {@link HttpClient} keeping persistent connections to every endpoint.
+ * </p>
+ * <p>
+ * A batch answered with anything but {@code 2xx}, or not answered within
+ * {@code payments.webhooks.timeout-ms}, is retried with exponential backoff from
+ * {@code payments.webhooks.initial-backoff-ms} up to {@code payments.webhooks.max-backoff-ms},
+ * with jitter, and keeps its slot while it waits so that a failing endpoint is not sent new
+ * batches. After {@code payments.webhooks.max-attempts} attempts its events are dead-lettered.
+ * Delivery is at least once and batches may overtake each other, so receivers should discard
+ * events whose id they have already seen.
+ * </p>
+ */
+@Component
+public class WebhookDispatcher {
+
+  public static final String ATTEMPT_HEADER = "X-Webhook-Attempt";
+  private static final Logger LOG = LoggerFactory.getLogger(WebhookDispatcher.class);
+
+  private final PaymentJsonCodec paymentJsonCodec;
+  private final List<WebhookEndpoint> endpoints = new ArrayList<>();
+  private final WebhookDeadLetterStore deadLetters;
+  private final int batchSize;
+  private final int maxInFlight;
+  private final int maxAttempts;
+  private final long initialBackoffMillis;
+  private final long maxBackoffMillis;
+  private final Duration timeout;
+  private final HttpClient httpClient;
+  private final ScheduledExecutorService scheduler;
+
+  public WebhookDispatcher(
+      PaymentJsonCodec paymentJsonCodec,
+      @Value("${payments.webhooks.endpoints:}") List<String> urls,
+      @Value("${payments.webhooks.queue-capacity:10000}") int queueCapacity,
+      @Value("${payments.webhooks.batch-size:50}") int batchSize,
+      @Value("${payments.webhooks.max-in-flight:4}") int maxInFlight,
+      @Value("${payments.webhooks.max-attempts:8}") int maxAttempts,
+      @Value("${payments.webhooks.initial-backoff-ms:500}") long initialBackoffMillis,
+      @Value("${payments.webhooks.max-backoff-ms:60000}") long maxBackoffMillis,
+      @Value("${payments.webhooks.timeout-ms:5000}") long timeoutMillis,
+      @Value("${payments.webhooks.dead-letter-capacity:10000}") int deadLetterCapacity
+  ) {
+    if (batchSize < 1 || maxInFlight < 1 || maxAttempts < 1) {
+      throw new IllegalArgumentException("Webhook batch size, max in flight and max attempts must be positive");
+    }
+    this.paymentJsonCodec = paymentJsonCodec;
+    for (String url : urls) {
+      if (!url.isBlank()) {
+        URI uri = URI.create(url.trim());
+        if (!"http".equals(uri.getScheme()) && !"https".equals(uri.getScheme())) {
+          throw new IllegalArgumentException("Webhook endpoint must be an http(s) URL: " + url);
+        }
+        endpoints.add(new WebhookEndpoint(uri, queueCapacity));
+      }
+    }
+    this.deadLetters = new WebhookDeadLetterStore(deadLetterCapacity);
+    this.batchSize = batchSize;
+    this.maxInFlight = maxInFlight;
+    this.maxAttempts = maxAttempts;
+    this.initialBackoffMillis = Math.max(1, initialBackoffMillis);
+    this.maxBackoffMillis = Math.max(this.initialBackoffMillis, maxBackoffMillis);
+    this.timeout = Duration.ofMillis(timeoutMillis);
+    this.httpClient = HttpClient.newBuilder()
+        .version(HttpClient.Version.HTTP_1_1)
+        .connectTimeout(timeout)
+        .build();
+    this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+      Thread thread = new Thread(runnable, "webhook-dispatcher");
+      thread.setDaemon(true);
+      return thread;
+    });
+  }
+
+  /**
+   * @return {@code false} if no endpoint is configured
+   */
+  public boolean isEnabled() {
+    return !endpoints.isEmpty();
+  }
+
+  /**
+   * Queues a notification of the payment's status for every endpoint. Never blocks.
+   * @param payment the payment in its final status
+   */
+  public void publish(PostPaymentResponse payment) {
+    if (endpoints.isEmpty()) {
+      return;
+    }
+    PaymentWebhookEvent event = new PaymentWebhookEvent(UUID.randomUUID(),
+        "payment." + payment.getStatus().name().toLowerCase(Locale.ROOT), Instant.now(), payment);
+    for (WebhookEndpoint endpoint : endpoints) {
+      enqueue(endpoint, event);
+    }
+  }
+
+  public List<WebhookEndpointStats> endpoints() {
+    return endpoints.stream().map(WebhookEndpoint::stats).toList();
+  }
+
+  public List<WebhookDeadLetter> deadLetters() {
+    return deadLetters.list();
+  }
+
+  /**
+   * @return dead letters discarded because the store was full
+   */
+  public long deadLettersDropped() {
+    return deadLetters.dropped();
+  }
+
+  /**
+   * Queues every dead-lettered event for its endpoint again, with a fresh set of attempts.
+   * @return the number of events queued
+   */
+  public int redeliverDeadLetters() {
+    int requeued = 0;
+    for (WebhookDeadLetterStore.Entry entry : deadLetters.drain()) {
+      if (enqueue(entry.endpoint(), entry.event())) {
+        requeued++;
+      }
+    }
+    LOG.info("Requeued {} dead-lettered webhook events", requeued);
+    return requeued;
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    scheduler.shutdownNow();
+  }
+
+  private boolean enqueue(WebhookEndpoint endpoint, PaymentWebhookEvent event) {
+    if (!endpoint.queue.offer(event)) {
+      deadLetter(endpoint, event, 0, "Queue full");
+      return false;
+    }
+    if (endpoint.inFlight.get() < maxInFlight) {
+      try {
+        scheduler.execute(() -> pump(endpoint));
+      } catch (RejectedExecutionException e) {
+        // Shutting down, the event stays queued
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Starts sending batches until the endpoint has no free slot or nothing left to send.
+   */
+  private void pump(WebhookEndpoint endpoint) {
+    while (true) {
+      int inFlight = endpoint.inFlight.get();
+      if (inFlight >= maxInFlight || endpoint.queue.isEmpty()) {
+        return;
+      }
+      if (!endpoint.inFlight.compareAndSet(inFlight, inFlight + 1)) {
+        continue;
+      }
+      List<PaymentWebhookEvent> batch = new ArrayList<>(Math.min(batchSize, endpoint.queue.size()));
+      endpoint.queue.drainTo(batch, batchSize);
+      if (batch.isEmpty()) {
+        // Another pump took the events, check again in case more arrived meanwhile
+        endpoint.inFlight.decrementAndGet();
+        continue;
+      }
+      send(endpoint, batch, paymentJsonCodec.writeWebhookEvents(batch), 1);
+    }
+  }
+
+  private void send(WebhookEndpoint endpoint, List<PaymentWebhookEvent> batch, byte[] body, int attempt) {
+    HttpRequest request = HttpRequest.newBuilder(endpoint.uri)
+        .timeout(timeout)
+        .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+        .header(ATTEMPT_HEADER, Integer.toString(attempt))
+        .POST(HttpRequest.BodyPublishers.ofByteArray(body))
+        .build();
+    httpClient.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+        .whenComplete((response, error) -> {
+          if (error == null && response.statusCode() / 100 == 2) {
+            endpoint.delivered.add(batch.size());
+            endpoint.batches.increment();
+            release(endpoint);
+            return;
+          }
+          endpoint.failedAttempts.increment();
+          String reason = error != null ? describe(error) : "HTTP " + response.statusCode();
+          if (attempt >= maxAttempts) {
+            LOG.warn("Giving up on {} webhook events for {} after {} attempts: {}",
+                batch.size(), endpoint.uri, attempt, reason);
+            for (PaymentWebhookEvent event : batch) {
+              deadLetter(endpoint, event, attempt, reason);
+            }
+            release(endpoint);
+            return;
+          }
+          long delay = backoffMillis(attempt);
+          LOG.debug("Webhook delivery to {} failed ({}), retrying in {} ms", endpoint.uri, reason, delay);
+          try {
+            scheduler.schedule(() -> send(endpoint, batch, body, attempt + 1), delay, TimeUnit.MILLISECONDS);
+          } catch (RejectedExecutionException e) {
+            // Shutting down
+          }
+        });
+  }
+
+  private void release(WebhookEndpoint endpoint) {
+    endpoint.inFlight.decrementAndGet();
+    pump(endpoint);
+  }
+
+  private void deadLetter(WebhookEndpoint endpoint, PaymentWebhookEvent event, int attempts, String reason) {
+    endpoint.deadLettered.increment();
+    deadLetters.add(endpoint, event, attempts, reason);
+  }
+
+  /**
+   * Doubles the delay with every attempt up to the maximum, then picks a random delay in the
+   * upper half, so that batches failing together are not retried together.
+   */
+  private long backoffMillis(int attempt) {
+    long delay = attempt > 30 ? maxBackoffMillis
+        : Math.min(maxBackoffMillis, initialBackoffMillis << (attempt - 1));
+    return delay / 2 + ThreadLocalRandom.current().nextLong(delay / 2 + 1);
+  }
+
+  private static String describe(Throwable error) {
+    Throwable cause = error.getCause() != null ? error.getCause() : error;
+    return cause.getClass().getSimpleName() + (cause.getMessage() == null ? "" : ": " + cause.getMessage());
+  }
+}
@@ -0,0 +1,34 @@
+package com.checkout.payment.gateway.webhook;
+
+import com.checkout.payment.gateway.model.PaymentWebhookEvent;
+import com.checkout.payment.gateway.model.WebhookEndpointStats;
+import java.net.URI;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Queue and delivery counters of one webhook endpoint.
+ */
+final class WebhookEndpoint {
+
+  final URI uri;
+  final BlockingQueue<PaymentWebhookEvent> queue;
+  // Batches being sent or waiting for a retry
+  final AtomicInteger inFlight = new AtomicInteger();
+  final LongAdder delivered = new LongAdder();
+  final LongAdder batches = new LongAdder();
+  final LongAdder failedAttempts = new LongAdder();
+  final LongAdder deadLettered = new LongAdder();
+
+  WebhookEndpoint(URI uri, int queueCapacity) {
+    this.uri = uri;
+    this.queue = new ArrayBlockingQueue<>(queueCapacity);
+  }
+
+  WebhookEndpointStats stats() {
+    return new WebhookEndpointStats(uri.toString(), queue.size(), inFlight.get(), delivered.sum(),
+        batches.sum(), failedAttempts.sum(), deadLettered.sum());
+  }
+}
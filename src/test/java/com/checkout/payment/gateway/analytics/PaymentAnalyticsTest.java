@@ -0,0 +1,179 @@
+package com.checkout.payment.gateway.analytics;
+
+import com.checkout.payment.gateway.enums.AnalyticsDimension;
+import com.checkout.payment.gateway.enums.PaymentStatus;
+import com.checkout.payment.gateway.exception.ValidationException;
+import com.checkout.payment.gateway.model.AnalyticsQuery;
+import com.checkout.payment.gateway.model.AnalyticsReport;
+import com.checkout.payment.gateway.model.AnalyticsReport.Group;
+import com.checkout.payment.gateway.model.PostPaymentResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class PaymentAnalyticsTest {
+
+  private static final Instant DAY_ONE = Instant.parse("2026-03-01T10:15:00Z");
+  private static final Instant DAY_TWO = Instant.parse("2026-03-02T08:00:00Z");
+
+  @Mock
+  private Clock clock;
+
+  private PaymentColumns columns;
+  private ForkJoinPool pool;
+  private PaymentAnalytics analytics;
+  private int nextRow;
+
+  @BeforeEach
+  void setUp() {
+    columns = new PaymentColumns(1_000_000, clock);
+    pool = new ForkJoinPool(4);
+    analytics = new PaymentAnalytics(columns, pool);
+  }
+
+  @AfterEach
+  void tearDown() {
+    analytics.shutdown();
+  }
+
+  private void store(Instant at, PaymentStatus status, String currency, int expiryYear, int amount) {
+    // Not read for updates, which keep the original creation time
+    lenient().when(clock.millis()).thenReturn(at.toEpochMilli());
+    PostPaymentResponse payment = new PostPaymentResponse();
+    payment.setId(UUID.randomUUID());
+    payment.setStatus(status);
+    payment.setCurrency(currency);
+    payment.setExpiryMonth(12);
+    payment.setExpiryYear(expiryYear);
+    payment.setAmount(amount);
+    payment.setCardNumberLastFour("1234");
+    columns.onStored(nextRow++, payment);
+  }
+
+  private AnalyticsReport run(List<AnalyticsDimension> groupBy) {
+    return analytics.run(new AnalyticsQuery(null, null, null, null, null, null, groupBy, 1000));
+  }
+
+  private void storeSampleHistory() {
+    store(DAY_ONE, PaymentStatus.AUTHORIZED, "GBP", 2030, 100);
+    store(DAY_ONE, PaymentStatus.DECLINED, "GBP", 2030, 2_500);
+    store(DAY_ONE, PaymentStatus.AUTHORIZED, "USD", 2031, 700);
+    store(DAY_TWO, PaymentStatus.AUTHORIZED, "GBP", 2031, 300);
+    store(DAY_TWO, PaymentStatus.REJECTED, "HUF", 2031, 50);
+  }
+
+  @Test
+  @DisplayName("run groups daily volume by currency in key order")
+  void run_GroupsByDayAndCurrency() {
+    storeSampleHistory();
+
+    AnalyticsReport report = run(List.of(AnalyticsDimension.DAY, AnalyticsDimension.CURRENCY));
+
+    assertThat(report.getScannedPayments()).isEqualTo(5);
+    assertThat(report.getGroups()).extracting(Group::getKey).containsExactly(
+        List.of("2026-03-01", "USD"),
+        List.of("2026-03-01", "GBP"),
+        List.of("2026-03-02", "GBP"),
+        List.of("2026-03-02", "OTHER"));
+    Group dayOneGbp = report.getGroups().get(1);
+    assertThat(dayOneGbp.getCount()).isEqualTo(2);
+    assertThat(dayOneGbp.getAmount()).isEqualTo(2_600);
+    assertThat(dayOneGbp.getMinAmount()).isEqualTo(100);
+    assertThat(dayOneGbp.getMaxAmount()).isEqualTo(2_500);
+    assertThat(dayOneGbp.getDeclineRate()).isEqualTo(0.5);
+  }
+
+  @Test
+  @DisplayName("run computes decline rates by expiry year and amount histograms")
+  void run_GroupsByExpiryYearAndAmountBucket() {
+    storeSampleHistory();
+
+    assertThat(run(List.of(AnalyticsDimension.EXPIRY_YEAR)).getGroups())
+        .extracting(group -> group.getKey().get(0), Group::getDeclineRate)
+        .containsExactly(
+            tuple("2030", 0.5),
+            tuple("2031", 0.0));
+    assertThat(run(List.of(AnalyticsDimension.AMOUNT_BUCKET)).getGroups())
+        .extracting(group -> group.getKey().get(0), Group::getCount)
+        .containsExactly(
+            tuple("0-999", 4L),
+            tuple("2000-2999", 1L));
+  }
+
+  @Test
+  @DisplayName("run applies status, currency, time and amount filters")
+  void run_AppliesFilters() {
+    storeSampleHistory();
+
+    AnalyticsReport report = analytics.run(new AnalyticsQuery(PaymentStatus.AUTHORIZED, "gbp",
+        DAY_ONE, DAY_TWO, 0, 200, List.of(), 1000));
+
+    assertThat(report.getMatchedPayments()).isEqualTo(1);
+    assertThat(report.getGroups()).singleElement()
+        .satisfies(group -> assertThat(group.getAmount()).isEqualTo(100));
+  }
+
+  @Test
+  @DisplayName("an update overwrites the row in place and keeps its creation time")
+  void onStored_UpdatesRowInPlace() {
+    store(DAY_ONE, PaymentStatus.AUTHORIZED, "EUR", 2030, 100);
+    nextRow = 0;
+    store(DAY_TWO, PaymentStatus.DECLINED, "EUR", 2030, 100);
+
+    AnalyticsReport report = run(List.of(AnalyticsDimension.DAY, AnalyticsDimension.STATUS));
+
+    assertThat(report.getGroups()).extracting(Group::getKey)
+        .containsExactly(List.of("2026-03-01", "Declined"));
+  }
+
+  @Test
+  @DisplayName("run scans every segment when rows span several of them")
+  void run_ScansAllSegments() {
+    when(clock.millis()).thenReturn(DAY_ONE.toEpochMilli());
+    PostPaymentResponse payment = new PostPaymentResponse();
+    payment.setStatus(PaymentStatus.AUTHORIZED);
+    payment.setCurrency("USD");
+    payment.setAmount(1);
+    for (int row = 0; row < 3 * PaymentColumns.SEGMENT_SIZE; row += 7) {
+      columns.onStored(row, payment);
+    }
+
+    AnalyticsReport report = run(List.of());
+
+    long expected = (3L * PaymentColumns.SEGMENT_SIZE + 6) / 7;
+    assertThat(report.getScannedPayments()).isEqualTo(expected);
+    assertThat(report.getGroups()).singleElement()
+        .satisfies(group -> assertThat(group.getAmount()).isEqualTo(expected));
+  }
+
+  @Test
+  @DisplayName("run rejects invalid queries")
+  void run_ThrowsValidationException_WhenQueryInvalid() {
+    List<AnalyticsDimension> tooMany = List.of(
+        AnalyticsDimension.DAY, AnalyticsDimension.CURRENCY, AnalyticsDimension.STATUS);
+
+    assertThatThrownBy(() -> run(tooMany)).isInstanceOf(ValidationException.class);
+    assertThatThrownBy(() -> analytics.run(new AnalyticsQuery(null, "HUF", null, null, null, null,
+        List.of(), 1000))).isInstanceOf(ValidationException.class);
+    assertThatThrownBy(() -> analytics.run(new AnalyticsQuery(null, null, null, null, 10, 5,
+        List.of(), 1000))).isInstanceOf(ValidationException.class);
+    assertThatThrownBy(() -> analytics.run(new AnalyticsQuery(null, null, null, null, null, null,
+        List.of(AnalyticsDimension.AMOUNT_BUCKET), 0))).isInstanceOf(ValidationException.class);
+  }
+}
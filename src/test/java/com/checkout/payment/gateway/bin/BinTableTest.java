@@ -0,0 +1,115 @@
+package com.checkout.payment.gateway.bin;
+
+import com.checkout.payment.gateway.enums.CardScheme;
+import com.checkout.payment.gateway.enums.CardType;
+import com.checkout.payment.gateway.model.BinInfo;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import java.io.BufferedReader;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class BinTableTest {
+
+  private static final BinInfo VISA = new BinInfo(CardScheme.VISA, null, null);
+  private static final BinInfo VISA_GB_DEBIT = new BinInfo(CardScheme.VISA, "GB", CardType.DEBIT);
+  private static final BinInfo VISA_US_CREDIT = new BinInfo(CardScheme.VISA, "US", CardType.CREDIT);
+
+  @Test
+  @DisplayName("the narrowest range containing a card wins")
+  void lookup_PrefersNarrowestRange() {
+    BinTable table = new BinTable.Builder()
+        .add("4", "4", VISA)
+        .add("453201", "453201", VISA_GB_DEBIT)
+        .add("45320150", "45320159", VISA_US_CREDIT)
+        .build();
+
+    assertThat(table.lookup("4000000000000002")).isEqualTo(VISA);
+    assertThat(table.lookup("4532010000000000")).isEqualTo(VISA_GB_DEBIT);
+    assertThat(table.lookup("4532015112830366")).isEqualTo(VISA_US_CREDIT);
+    assertThat(table.lookup("4532016000000000")).isEqualTo(VISA_GB_DEBIT);
+    assertThat(table.lookup("4999999999999999")).isEqualTo(VISA);
+    assertThat(table.lookup("5100000000000000")).isNull();
+    assertThat(table.size()).isEqualTo(5);
+  }
+
+  @Test
+  @DisplayName("lookups need at least six leading digits")
+  void lookup_ReturnsNull_ForShortOrNonNumericInput() {
+    BinTable table = new BinTable.Builder().add("4", "4", VISA).build();
+
+    assertThat(table.lookup("453201")).isEqualTo(VISA);
+    assertThat(table.lookup("45320")).isNull();
+    assertThat(table.lookup("4532x1000000")).isNull();
+    assertThat(table.lookup("")).isNull();
+    assertThat(new BinTable.Builder().build().lookup("4532015112830366")).isNull();
+  }
+
+  @Test
+  @DisplayName("ranges that partially overlap or repeat are rejected")
+  void build_RejectsOverlappingRanges() {
+    assertThatThrownBy(() -> new BinTable.Builder().add("40", "45", VISA).add("44", "49", VISA_GB_DEBIT).build())
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessageContaining("overlap");
+    assertThatThrownBy(() -> new BinTable.Builder().add("4", "4", VISA).add("4", "4", VISA_GB_DEBIT).build())
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessageContaining("overlap");
+  }
+
+  @Test
+  @DisplayName("parse reads CSV ranges and reports the line of a malformed one")
+  void parse_ReadsCsv() throws Exception {
+    BinTable table = BinTable.parse(new BufferedReader(new StringReader("""
+        # low,high,scheme,issuer_country,card_type
+        4,4,VISA,,
+
+        453201,453201,visa,gb,debit
+        """)));
+
+    assertThat(table.lookup("4532015112830366")).isEqualTo(VISA_GB_DEBIT);
+    assertThat(table.lookup("4111111111111111")).isEqualTo(VISA);
+    assertThatThrownBy(() -> BinTable.parse(new BufferedReader(new StringReader("4,4,VISA,,\n5,5,NOPE,,\n"))))
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessageStartingWith("Line 2:");
+  }
+
+  @Test
+  @DisplayName("the bundled ranges identify the major schemes")
+  void bundledRanges_IdentifySchemes() {
+    BinLookupService service = new BinLookupService("", 0);
+
+    assertThat(service.lookup("4532015112830366").getScheme()).isEqualTo(CardScheme.VISA);
+    assertThat(service.lookup("5555555555554444").getScheme()).isEqualTo(CardScheme.MASTERCARD);
+    assertThat(service.lookup("2223000048410010").getScheme()).isEqualTo(CardScheme.MASTERCARD);
+    assertThat(service.lookup("378282246310005").getScheme()).isEqualTo(CardScheme.AMEX);
+    assertThat(service.lookup("6011111111111117").getScheme()).isEqualTo(CardScheme.DISCOVER);
+    assertThat(service.lookup("12345678901234")).isNull();
+  }
+
+  @Test
+  @DisplayName("reload swaps in the changed file and keeps the current table when it is malformed")
+  void reload_SwapsTable(@TempDir Path dir) throws Exception {
+    Path file = dir.resolve("bins.csv");
+    Files.writeString(file, "4,4,VISA,,\n");
+    BinLookupService service = new BinLookupService(file.toString(), 0);
+    assertThat(service.lookup("4532015112830366")).isEqualTo(VISA);
+
+    Files.writeString(file, "4,4,VISA,,\n453201,453201,VISA,GB,DEBIT\n");
+    assertThat(service.reload().getRanges()).isEqualTo(3);
+    assertThat(service.lookup("4532015112830366")).isEqualTo(VISA_GB_DEBIT);
+
+    Files.writeString(file, "4,4,VISA,,\nnot a range\n");
+    Files.setLastModifiedTime(file, FileTime.from(Instant.now().plusSeconds(1)));
+    assertThatThrownBy(service::reload).isInstanceOf(IllegalStateException.class);
+    assertThat(service.lookup("4532015112830366")).isEqualTo(VISA_GB_DEBIT);
+    assertThat(service.stats().getReloads()).isEqualTo(1);
+    assertThat(service.stats().getFailedReloads()).isEqualTo(1);
+  }
+}
@@ -0,0 +1,165 @@
+package com.checkout.payment.gateway.cluster;
+
+import com.checkout.payment.gateway.PaymentGatewayApplication;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs two gateway nodes on localhost and checks that each serves the payments of the other.
+ * Only rejected payments are created, so no acquiring bank is needed.
+ */
+class ClusterRoutingTest {
+
+  private static final HttpClient CLIENT = HttpClient.newHttpClient();
+  private static final ObjectMapper MAPPER = new ObjectMapper();
+  private static final String ADMIN_TOKEN = "cluster-secret";
+
+  private static String nodeA;
+  private static String nodeB;
+  private static ConfigurableApplicationContext contextA;
+  private static ConfigurableApplicationContext contextB;
+
+  @BeforeAll
+  static void startNodes() throws IOException {
+    int portA = freePort();
+    int portB = freePort();
+    nodeA = "http://localhost:" + portA;
+    nodeB = "http://localhost:" + portB;
+    contextA = start(portA, nodeA, nodeA + "," + nodeB);
+    contextB = start(portB, nodeB, nodeA + "," + nodeB);
+  }
+
+  @AfterAll
+  static void stopNodes() {
+    contextA.close();
+    contextB.close();
+  }
+
+  private static ConfigurableApplicationContext start(int port, String self, String nodes) {
+    return new SpringApplicationBuilder(PaymentGatewayApplication.class).run(
+        "--server.port=" + port,
+        "--payments.cluster.self-url=" + self,
+        "--payments.cluster.nodes=" + nodes,
+        "--payments.cluster.admin-token=" + ADMIN_TOKEN,
+        "--acquiring.bank.url=http://localhost:1");
+  }
+
+  private static int freePort() throws IOException {
+    try (ServerSocket socket = new ServerSocket(0)) {
+      return socket.getLocalPort();
+    }
+  }
+
+  private static UUID createRejectedPayment(String node) throws Exception {
+    HttpResponse<String> response = CLIENT.send(HttpRequest.newBuilder(URI.create(node + "/payments"))
+        .header("Content-Type", "application/json")
+        .POST(HttpRequest.BodyPublishers.ofString(
+            "{\"expiry_month\": 12, \"expiry_year\": 2030, \"cvv\": \"123\", \"amount\": 100, \"currency\": \"GBP\"}"))
+        .build(), HttpResponse.BodyHandlers.ofString());
+    assertThat(response.statusCode()).isEqualTo(200);
+    return UUID.fromString(MAPPER.readTree(response.body()).get("id").asText());
+  }
+
+  private static HttpResponse<String> get(String node, UUID id, String ifNoneMatch) throws Exception {
+    HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(node + "/payments/" + id));
+    if (ifNoneMatch != null) {
+      request.header("If-None-Match", ifNoneMatch);
+    }
+    return CLIENT.send(request.build(), HttpResponse.BodyHandlers.ofString());
+  }
+
+  @Test
+  @DisplayName("a payment created on one node is returned by the other")
+  void get_ForwardsToOwningNode() throws Exception {
+    UUID id = createRejectedPayment(nodeA);
+
+    HttpResponse<String> local = get(nodeA, id, null);
+    HttpResponse<String> forwarded = get(nodeB, id, null);
+
+    assertThat(forwarded.statusCode()).isEqualTo(200);
+    assertThat(forwarded.body()).isEqualTo(local.body());
+    String etag = forwarded.headers().firstValue("ETag").orElseThrow();
+    assertThat(etag).isEqualTo(local.headers().firstValue("ETag").orElseThrow());
+    assertThat(get(nodeB, id, etag).statusCode()).isEqualTo(304);
+    assertThat(get(nodeB, UUID.randomUUID(), null).statusCode()).isEqualTo(404);
+  }
+
+  @Test
+  @DisplayName("payments stay reachable after a node joins")
+  void get_FallsBackToPreviousOwnerAfterMembershipChange() throws Exception {
+    List<UUID> ids = new ArrayList<>();
+    for (int i = 0; i < 20; i++) {
+      ids.add(createRejectedPayment(nodeA));
+    }
+    ClusterMembership membershipB = contextB.getBean(ClusterMembership.class);
+    // The joining node is not running, so ids it now owns must be found under the previous ring
+    String joining = "http://localhost:" + freePort();
+    membershipB.update(List.of(nodeA, nodeB, joining));
+    try {
+      for (UUID id : ids) {
+        assertThat(get(nodeB, id, null).statusCode()).isEqualTo(200);
+      }
+      assertThat(ids).anySatisfy(id -> assertThat(membershipB.remoteCandidates(id)).startsWith(joining));
+    } finally {
+      membershipB.update(List.of(nodeA, nodeB));
+    }
+  }
+
+  @Test
+  @DisplayName("captures, voids and refunds are sent to the node holding the payment")
+  void operations_ForwardToOwningNode() throws Exception {
+    UUID id = createRejectedPayment(nodeA);
+
+    HttpResponse<String> forwarded = post(nodeB, id, "voids", null);
+    HttpResponse<String> local = post(nodeA, id, "voids", null);
+
+    // A rejected payment cannot be voided, and the owner's answer is relayed as is
+    assertThat(forwarded.statusCode()).isEqualTo(409);
+    assertThat(forwarded.body()).isEqualTo(local.body());
+    assertThat(post(nodeB, id, "captures", "{\"amount\": 50}").statusCode()).isEqualTo(409);
+    assertThat(post(nodeB, UUID.randomUUID(), "refunds", null).statusCode()).isEqualTo(404);
+  }
+
+  @Test
+  @DisplayName("changing the node list takes the admin token")
+  void updateNodes_RequiresAdminToken() throws Exception {
+    String nodes = "[\"" + nodeA + "\", \"" + nodeB + "\"]";
+
+    assertThat(putNodes(nodeA, nodes, null).statusCode()).isEqualTo(403);
+    assertThat(putNodes(nodeA, nodes, "wrong").statusCode()).isEqualTo(403);
+    assertThat(putNodes(nodeA, nodes, ADMIN_TOKEN).statusCode()).isEqualTo(200);
+  }
+
+  private static HttpResponse<String> post(String node, UUID id, String operation, String body) throws Exception {
+    return CLIENT.send(HttpRequest.newBuilder(URI.create(node + "/payments/" + id + "/" + operation))
+        .header("Content-Type", "application/json")
+        .POST(body == null ? HttpRequest.BodyPublishers.noBody() : HttpRequest.BodyPublishers.ofString(body))
+        .build(), HttpResponse.BodyHandlers.ofString());
+  }
+
+  private static HttpResponse<String> putNodes(String node, String nodes, String token) throws Exception {
+    HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(node + "/internal/cluster/nodes"))
+        .header("Content-Type", "application/json")
+        .PUT(HttpRequest.BodyPublishers.ofString(nodes));
+    if (token != null) {
+      request.header("X-Cluster-Token", token);
+    }
+    return CLIENT.send(request.build(), HttpResponse.BodyHandlers.ofString());
+  }
+}
@@ -0,0 +1,83 @@
+package com.checkout.payment.gateway.cluster;
+
+import com.checkout.payment.gateway.exception.ValidationException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class ConsistentHashRingTest {
+
+  private static final List<String> NODES = List.of(
+      "http://localhost:8090", "http://localhost:8091", "http://localhost:8092", "http://localhost:8093");
+  private static final int IDS = 100_000;
+
+  @Test
+  @DisplayName("virtual nodes spread ids evenly across nodes")
+  void ownerOf_SpreadsIdsEvenly() {
+    ConsistentHashRing ring = new ConsistentHashRing(NODES, 128);
+    Map<String, Integer> counts = new HashMap<>();
+    for (int i = 0; i < IDS; i++) {
+      counts.merge(ring.ownerOf(UUID.randomUUID()), 1, Integer::sum);
+    }
+
+    assertThat(counts).hasSize(NODES.size());
+    assertThat(counts.values()).allSatisfy(count ->
+        assertThat(count).isBetween(IDS / NODES.size() * 80 / 100, IDS / NODES.size() * 120 / 100));
+  }
+
+  @Test
+  @DisplayName("adding a node only moves ids to the new node")
+  void ownerOf_MovesOnlyIdsOfAddedNode() {
+    ConsistentHashRing before = new ConsistentHashRing(NODES.subList(0, 3), 128);
+    ConsistentHashRing after = new ConsistentHashRing(NODES, 128);
+    int moved = 0;
+    for (int i = 0; i < IDS; i++) {
+      UUID id = UUID.randomUUID();
+      String owner = after.ownerOf(id);
+      if (!owner.equals(before.ownerOf(id))) {
+        assertThat(owner).isEqualTo(NODES.get(3));
+        moved++;
+      }
+    }
+
+    assertThat(moved).isBetween(IDS / 4 * 80 / 100, IDS / 4 * 120 / 100);
+  }
+
+  @Test
+  @DisplayName("the ring is deterministic whatever the node order")
+  void ownerOf_IsDeterministic() {
+    ConsistentHashRing ring = new ConsistentHashRing(NODES, 64);
+    List<String> reversedNodes = new ArrayList<>(NODES);
+    Collections.reverse(reversedNodes);
+    ConsistentHashRing reversed = new ConsistentHashRing(reversedNodes, 64);
+    for (int i = 0; i < 1_000; i++) {
+      UUID id = UUID.randomUUID();
+      assertThat(reversed.ownerOf(id)).isEqualTo(ring.ownerOf(id));
+    }
+  }
+
+  @Test
+  @DisplayName("membership keeps previous owners as lookup candidates after an update")
+  void remoteCandidates_IncludePreviousOwners() {
+    ClusterMembership membership = new ClusterMembership(NODES.get(0), NODES.subList(0, 2), 128);
+    UUID id;
+    do {
+      id = UUID.randomUUID();
+    } while (!membership.remoteCandidates(id).equals(List.of(NODES.get(1))));
+
+    membership.update(NODES);
+
+    assertThat(membership.remoteCandidates(id)).endsWith(NODES.get(1));
+    assertThat(membership.view().getPreviousConfigurations()).isEqualTo(1);
+    assertThatThrownBy(() -> membership.update(NODES.subList(1, 4)))
+        .isInstanceOf(ValidationException.class);
+  }
+}
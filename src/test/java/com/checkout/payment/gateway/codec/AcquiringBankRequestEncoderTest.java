@@ -0,0 +1,70 @@
+package com.checkout.payment.gateway.codec;
+
+import com.checkout.payment.gateway.model.PostPaymentRequest;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import java.io.IOException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class AcquiringBankRequestEncoderTest {
+
+  private AcquiringBankRequestEncoder encoder;
+  private ObjectMapper objectMapper;
+  private PostPaymentRequest request;
+
+  @BeforeEach
+  void setUp() {
+    encoder = new AcquiringBankRequestEncoder(new PaymentJsonCodec());
+    objectMapper = new ObjectMapper();
+    request = new PostPaymentRequest();
+    request.setCardNumber("4532015112830369");
+    request.setExpiryMonth(12);
+    request.setExpiryYear(2030);
+    request.setCurrency("USD");
+    request.setAmount(1050);
+    request.setCvv("0123");
+  }
+
+  @Test
+  @DisplayName("encode writes only the fields required by the acquiring bank")
+  void encode_WritesBankFieldsOnly() throws IOException {
+    JsonNode payload = objectMapper.readTree(encoder.encode(request));
+
+    assertThat(payload.size()).isEqualTo(5);
+    assertThat(payload.get("card_number").asText()).isEqualTo("4532015112830369");
+    assertThat(payload.get("expiry_date").asText()).isEqualTo("12/2030");
+    assertThat(payload.get("currency").asText()).isEqualTo("USD");
+    assertThat(payload.get("amount").asInt()).isEqualTo(1050);
+    assertThat(payload.get("cvv").asText()).isEqualTo("0123");
+  }
+
+  @Test
+  @DisplayName("encode produces a smaller payload than serializing the merchant request")
+  void encode_IsSmallerThanMerchantRequest() throws IOException {
+    assertThat(encoder.encode(request).length)
+        .isLessThan(objectMapper.writeValueAsBytes(request).length);
+  }
+
+  @Test
+  @DisplayName("encode does not leak data from a previous payload on the same thread")
+  void encode_ReusesBufferSafely() throws IOException {
+    PostPaymentRequest shorter = new PostPaymentRequest();
+    shorter.setCardNumber("4111111111111111");
+    shorter.setExpiryMonth(1);
+    shorter.setExpiryYear(2031);
+    shorter.setCurrency("EUR");
+    shorter.setAmount(1);
+    shorter.setCvv("123");
+
+    encoder.encode(request);
+    JsonNode payload = objectMapper.readTree(encoder.encode(shorter));
+
+    assertThat(payload.get("card_number").asText()).isEqualTo("4111111111111111");
+    assertThat(payload.get("expiry_date").asText()).isEqualTo("1/2031");
+    assertThat(payload.get("amount").asInt()).isEqualTo(1);
+  }
+}
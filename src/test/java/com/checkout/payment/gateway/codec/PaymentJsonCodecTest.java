@@ -0,0 +1,158 @@
+package com.checkout.payment.gateway.codec;
+
+import com.checkout.payment.gateway.enums.PaymentStatus;
+import com.checkout.payment.gateway.model.GetPaymentResponse;
+import com.checkout.payment.gateway.model.PostAcquiringBankRequest;
+import com.checkout.payment.gateway.model.PostAcquiringBankResponse;
+import com.checkout.payment.gateway.model.PostPaymentRequest;
+import com.checkout.payment.gateway.model.PostPaymentResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class PaymentJsonCodecTest {
+
+  private PaymentJsonCodec codec;
+  private ObjectMapper objectMapper;
+
+  @BeforeEach
+  void setUp() {
+    codec = new PaymentJsonCodec();
+    objectMapper = new ObjectMapper();
+  }
+
+  private Object read(Class<?> type, String json) throws IOException {
+    return codec.read(type, new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)));
+  }
+
+  @Test
+  @DisplayName("read decodes PostPaymentRequest and ignores unknown properties")
+  void read_DecodesPostPaymentRequest() throws IOException {
+    PostPaymentRequest request = (PostPaymentRequest) read(PostPaymentRequest.class, """
+        {
+          "card_number": "4532015112830369",
+          "expiry_month": 12,
+          "expiry_year": 2026,
+          "cvv": "123",
+          "amount": 100,
+          "currency": "GBP",
+          "metadata": {"order": [1, 2, 3]}
+        }
+        """);
+
+    assertThat(request.getCardNumber()).isEqualTo("4532015112830369");
+    assertThat(request.getExpiryMonth()).isEqualTo(12);
+    assertThat(request.getExpiryYear()).isEqualTo(2026);
+    assertThat(request.getCvv()).isEqualTo("123");
+    assertThat(request.getAmount()).isEqualTo(100);
+    assertThat(request.getCurrency()).isEqualTo("GBP");
+  }
+
+  @Test
+  @DisplayName("read coerces scalars the same way as Jackson databinding")
+  void read_CoercesScalars() throws IOException {
+    PostPaymentRequest request = (PostPaymentRequest) read(PostPaymentRequest.class, """
+        {"cvv": 123, "expiry_month": "07", "amount": null, "card_number": null}
+        """);
+
+    assertThat(request.getCvv()).isEqualTo("123");
+    assertThat(request.getExpiryMonth()).isEqualTo(7);
+    assertThat(request.getAmount()).isZero();
+    assertThat(request.getCardNumber()).isNull();
+  }
+
+  @Test
+  @DisplayName("read returns null for a JSON null body")
+  void read_ReturnsNullForNullBody() throws IOException {
+    assertThat(read(PostPaymentRequest.class, "null")).isNull();
+  }
+
+  @Test
+  @DisplayName("read rejects malformed input")
+  void read_RejectsMalformedInput() {
+    assertThatThrownBy(() -> read(PostPaymentRequest.class, "[1, 2]"))
+        .isInstanceOf(IOException.class);
+    assertThatThrownBy(() -> read(PostPaymentRequest.class, "{\"amount\": \"ten\"}"))
+        .isInstanceOf(IOException.class);
+    assertThatThrownBy(() -> read(PostPaymentRequest.class, "{\"amount\": 1"))
+        .isInstanceOf(IOException.class);
+  }
+
+  @Test
+  @DisplayName("read decodes the acquiring bank response")
+  void read_DecodesAcquiringBankResponse() throws IOException {
+    PostAcquiringBankResponse response = (PostAcquiringBankResponse) read(
+        PostAcquiringBankResponse.class,
+        "{\"authorized\": true, \"authorization_code\": \"0bb07405-6d44-4b50-a14f-7ae0beff13ad\"}"
+    );
+
+    assertThat(response.isAuthorized()).isTrue();
+    assertThat(response.getAuthorizationCode()).isEqualTo("0bb07405-6d44-4b50-a14f-7ae0beff13ad");
+  }
+
+  @Test
+  @DisplayName("write produces the same JSON as ObjectMapper for PostPaymentResponse")
+  void write_MatchesObjectMapperForPostPaymentResponse() throws IOException {
+    PostPaymentResponse response = new PostPaymentResponse();
+    response.setId(UUID.randomUUID());
+    response.setStatus(PaymentStatus.AUTHORIZED);
+    response.setCardNumberLastFour("0369");
+    response.setExpiryMonth(12);
+    response.setExpiryYear(2026);
+    response.setCurrency("GBP");
+    response.setAmount(100);
+
+    assertThat(objectMapper.readTree(codec.writeAsBytes(response)))
+        .isEqualTo(objectMapper.readTree(objectMapper.writeValueAsBytes(response)));
+  }
+
+  @Test
+  @DisplayName("write produces the same JSON as ObjectMapper for captured and refunded payments")
+  void write_MatchesObjectMapperForCapturedPayment() throws IOException {
+    PostPaymentResponse response = new PostPaymentResponse();
+    response.setId(UUID.randomUUID());
+    response.setStatus(PaymentStatus.REFUNDED);
+    response.setCurrency("GBP");
+    response.setAmount(100);
+    response.setCapturedAmount(80);
+    response.setRefundedAmount(30);
+    GetPaymentResponse lookup = GetPaymentResponse.from(response);
+
+    assertThat(objectMapper.readTree(codec.writeAsBytes(response)))
+        .isEqualTo(objectMapper.readTree(objectMapper.writeValueAsBytes(response)));
+    assertThat(objectMapper.readTree(codec.writeAsBytes(lookup)))
+        .isEqualTo(objectMapper.readTree(objectMapper.writeValueAsBytes(lookup)));
+  }
+
+  @Test
+  @DisplayName("write produces the same JSON as ObjectMapper for GetPaymentResponse with nulls")
+  void write_MatchesObjectMapperForGetPaymentResponse() throws IOException {
+    GetPaymentResponse response = new GetPaymentResponse(
+        UUID.randomUUID(), PaymentStatus.REJECTED, null, 13, 2020, null, 0);
+
+    assertThat(objectMapper.readTree(codec.writeAsBytes(response)))
+        .isEqualTo(objectMapper.readTree(objectMapper.writeValueAsBytes(response)));
+  }
+
+  @Test
+  @DisplayName("write produces the same JSON as ObjectMapper for the acquiring bank request")
+  void write_MatchesObjectMapperForAcquiringBankRequest() throws IOException {
+    PostAcquiringBankRequest request = new PostAcquiringBankRequest();
+    request.setCardNumber("4532015112830369");
+    request.setExpiryDate("12/2026");
+    request.setCurrency("GBP");
+    request.setAmount(100);
+    request.setCvv("123");
+
+    assertThat(objectMapper.readTree(codec.writeAsBytes(request)))
+        .isEqualTo(objectMapper.readTree(objectMapper.writeValueAsBytes(request)));
+  }
+}
@@ -0,0 +1,281 @@
+package com.checkout.payment.gateway.controller;
+
+import com.checkout.payment.gateway.PaymentGatewayApplication;
+import com.checkout.payment.gateway.cluster.ClusterMembership;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Load tests: flood a gateway with requests stuck on a hanging dependency, payments on a hanging
+ * bank or lookups on a hanging cluster peer, and check that the other kind of request on the same
+ * worker pool keeps its latency.
+ */
+class BulkheadIsolationTest {
+
+  private static final Logger LOG = LoggerFactory.getLogger(BulkheadIsolationTest.class);
+  private static final ObjectMapper MAPPER = new ObjectMapper();
+  private static final int WORKER_THREADS = 24;
+  private static final int FORWARD_TIMEOUT_MS = 2000;
+  private static final String PAYMENT = """
+      {"card_number": "4532015112830369", "expiry_month": 12, "expiry_year": 2030, "cvv": "123",
+      "amount": 100, "currency": "GBP"}""";
+  private static final String REJECTED_PAYMENT = """
+      {"expiry_month": 12, "expiry_year": 2030, "cvv": "123", "amount": 100, "currency": "GBP"}""";
+
+  private final CountDownLatch dependencyHangs = new CountDownLatch(1);
+  private final ExecutorService clientThreads = Executors.newCachedThreadPool();
+  private final HttpClient client = HttpClient.newBuilder()
+      .executor(clientThreads)
+      .connectTimeout(Duration.ofSeconds(5))
+      .build();
+  private final List<HttpServer> dependencies = new ArrayList<>();
+  private volatile boolean flooding;
+  private ConfigurableApplicationContext gateway;
+
+  @AfterEach
+  void tearDown() {
+    flooding = false;
+    dependencyHangs.countDown();
+    if (gateway != null) {
+      gateway.close();
+    }
+    dependencies.forEach(dependency -> dependency.stop(0));
+    clientThreads.shutdownNow();
+  }
+
+  @Test
+  @DisplayName("lookups keep their latency while every payment waits on a hanging bank")
+  void lookupLatencyStaysFlat_WhenBankHangs() throws Exception {
+    HttpServer bank = hangingServer();
+    String base = startGateway(
+        "--payments.bulkhead.read.max-concurrent=8",
+        "--acquiring.bank.url=http://127.0.0.1:" + bank.getAddress().getPort());
+    String id = MAPPER.readTree(post(base, REJECTED_PAYMENT).body()).get("id").asText();
+
+    long[] baseline = lookupLatencies(base, id, 50);
+    List<CompletableFuture<HttpResponse<String>>> payments = new ArrayList<>();
+    for (int i = 0; i < 60; i++) {
+      payments.add(client.sendAsync(paymentRequest(base, PAYMENT), HttpResponse.BodyHandlers.ofString()));
+    }
+    Thread.sleep(500);
+    long[] underLoad = lookupLatencies(base, id, 50);
+    JsonNode bulkheads = bulkheads(base);
+    dependencyHangs.countDown();
+    long shed = 0;
+    for (CompletableFuture<HttpResponse<String>> payment : payments) {
+      if (payment.get(30, TimeUnit.SECONDS).statusCode() == 503) {
+        shed++;
+      }
+    }
+
+    LOG.info("Lookup latency p50/p99 ms: baseline {}/{}, bank hanging {}/{}, shed {}",
+        percentile(baseline, 50), percentile(baseline, 99),
+        percentile(underLoad, 50), percentile(underLoad, 99), shed);
+    assertThat(bulkheads.get(0).get("name").asText()).isEqualTo("writes");
+    assertThat(bulkheads.get(0).get("in_use").asInt()).isEqualTo(8);
+    assertThat(shed).isPositive();
+    assertThat(percentile(underLoad, 99)).isLessThan(Math.max(250, 10 * percentile(baseline, 99)));
+  }
+
+  @Test
+  @DisplayName("payments keep their latency while more lookups than worker threads hang on a peer")
+  void paymentLatencyStaysFlat_WhenLookupsHang() throws Exception {
+    LookupFlood flood = floodLookupsOnHangingPeer(8);
+
+    LOG.info("Payment latency p50/p99 ms with read bulkhead: baseline {}/{}, lookups hanging {}/{}, "
+            + "lookups refused {}", percentile(flood.baseline(), 50), percentile(flood.baseline(), 99),
+        percentile(flood.underLoad(), 50), percentile(flood.underLoad(), 99), flood.refused());
+    assertThat(flood.bulkheads().get(1).get("name").asText()).isEqualTo("reads");
+    assertThat(flood.bulkheads().get(1).get("in_use").asInt()).isEqualTo(8);
+    assertThat(flood.bulkheads().get(1).get("rejected").asLong()).isPositive();
+    assertThat(percentile(flood.underLoad(), 99)).isLessThan(FORWARD_TIMEOUT_MS / 2);
+  }
+
+  @Test
+  @DisplayName("without a read bulkhead, lookups hanging on a peer take every worker and payments wait")
+  void paymentsWait_WithoutReadBulkhead() throws Exception {
+    LookupFlood flood = floodLookupsOnHangingPeer(1000);
+
+    LOG.info("Payment latency p50/p99 ms without read bulkhead: baseline {}/{}, lookups hanging {}/{}",
+        percentile(flood.baseline(), 50), percentile(flood.baseline(), 99),
+        percentile(flood.underLoad(), 50), percentile(flood.underLoad(), 99));
+    assertThat(flood.bulkheads().get(1).get("in_use").asInt()).isGreaterThan(8);
+    assertThat(percentile(flood.underLoad(), 50)).isGreaterThan(FORWARD_TIMEOUT_MS / 2);
+  }
+
+  /**
+   * Starts a gateway in a cluster with a peer that never answers, measures the latency of warmed
+   * up payments, then keeps twice as many lookups as there are worker threads forwarded to the
+   * peer and measures it again. Lookups the bulkhead lets through wait out the forward timeout.
+   */
+  private LookupFlood floodLookupsOnHangingPeer(int readMaxConcurrent) throws Exception {
+    HttpServer peer = hangingServer();
+    int port = freePort();
+    String self = "http://localhost:" + port;
+    String base = startGateway(port,
+        "--payments.bulkhead.read.max-concurrent=" + readMaxConcurrent,
+        "--payments.bulkhead.read.max-wait-ms=10",
+        "--payments.cluster.self-url=" + self,
+        "--payments.cluster.nodes=" + self + ",http://127.0.0.1:" + peer.getAddress().getPort(),
+        "--payments.cluster.forward-timeout-ms=" + FORWARD_TIMEOUT_MS);
+    ClusterMembership membership = gateway.getBean(ClusterMembership.class);
+    UUID remote = Stream.generate(UUID::randomUUID).filter(id -> !membership.isLocal(id)).findFirst().orElseThrow();
+
+    paymentLatencies(base, 10);
+    long[] baseline = paymentLatencies(base, 10);
+    flooding = true;
+    AtomicLong refused = new AtomicLong();
+    for (int i = 0; i < 2 * WORKER_THREADS; i++) {
+      clientThreads.execute(() -> {
+        while (flooding) {
+          try {
+            HttpResponse<Void> response = client.send(HttpRequest.newBuilder(URI.create(base + "/payments/" + remote))
+                .timeout(Duration.ofSeconds(10)).build(), HttpResponse.BodyHandlers.discarding());
+            if (response.statusCode() == 503) {
+              refused.incrementAndGet();
+              Thread.sleep(5);
+            }
+          } catch (IOException e) {
+            // Cut off when the test ends
+          } catch (InterruptedException e) {
+            return;
+          }
+        }
+      });
+    }
+    Thread.sleep(500);
+    long[] underLoad = paymentLatencies(base, 10);
+    JsonNode bulkheads = bulkheads(base);
+    flooding = false;
+    return new LookupFlood(baseline, underLoad, bulkheads, refused.get());
+  }
+
+  private record LookupFlood(long[] baseline, long[] underLoad, JsonNode bulkheads, long refused) {
+  }
+
+  private String startGateway(String... args) throws IOException {
+    return startGateway(freePort(), args);
+  }
+
+  private String startGateway(int port, String... args) {
+    List<String> arguments = new ArrayList<>(List.of(
+        "--server.port=" + port,
+        "--server.tomcat.threads.max=" + WORKER_THREADS,
+        "--payments.load-shedding.max-in-flight=8",
+        "--payments.load-shedding.max-queued=8",
+        "--payments.rate-limit.requests-per-second=0"));
+    arguments.addAll(List.of(args));
+    gateway = new SpringApplicationBuilder(PaymentGatewayApplication.class).run(arguments.toArray(String[]::new));
+    return "http://localhost:" + port;
+  }
+
+  private HttpServer hangingServer() throws IOException {
+    HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+    server.setExecutor(Executors.newCachedThreadPool());
+    server.createContext("/", exchange -> {
+      try {
+        dependencyHangs.await(30, TimeUnit.SECONDS);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      exchange.sendResponseHeaders(503, -1);
+      exchange.close();
+    });
+    server.start();
+    dependencies.add(server);
+    return server;
+  }
+
+  private JsonNode bulkheads(String base) throws Exception {
+    return MAPPER.readTree(client.send(
+        HttpRequest.newBuilder(URI.create(base + "/internal/reports/bulkheads")).build(),
+        HttpResponse.BodyHandlers.ofString()).body());
+  }
+
+  private long[] lookupLatencies(String base, String id, int count) throws Exception {
+    long[] latencies = new long[count];
+    for (int i = 0; i < count; i++) {
+      long start = System.nanoTime();
+      HttpResponse<String> response = client.send(
+          HttpRequest.newBuilder(URI.create(base + "/payments/" + id)).timeout(Duration.ofSeconds(5)).build(),
+          HttpResponse.BodyHandlers.ofString());
+      latencies[i] = System.nanoTime() - start;
+      assertThat(response.statusCode()).isEqualTo(200);
+    }
+    Arrays.sort(latencies);
+    return latencies;
+  }
+
+  /**
+   * Sends payments the gateway rejects without calling the bank, so that their latency is only
+   * that of getting a worker thread.
+   */
+  private long[] paymentLatencies(String base, int count) throws Exception {
+    List<CompletableFuture<Long>> latencies = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      long start = System.nanoTime();
+      latencies.add(client.sendAsync(paymentRequest(base, REJECTED_PAYMENT), HttpResponse.BodyHandlers.ofString())
+          .thenApply(response -> {
+            assertThat(response.statusCode()).isEqualTo(200);
+            return System.nanoTime() - start;
+          }));
+    }
+    long[] sorted = new long[count];
+    for (int i = 0; i < count; i++) {
+      sorted[i] = latencies.get(i).get(30, TimeUnit.SECONDS);
+    }
+    Arrays.sort(sorted);
+    return sorted;
+  }
+
+  private static double percentile(long[] sortedNanos, int percentile) {
+    int index = Math.min(sortedNanos.length - 1, sortedNanos.length * percentile / 100);
+    return sortedNanos[index] / 1_000_000.0;
+  }
+
+  private HttpResponse<String> post(String base, String body) throws Exception {
+    return client.send(paymentRequest(base, body), HttpResponse.BodyHandlers.ofString());
+  }
+
+  private static HttpRequest paymentRequest(String base, String body) {
+    return HttpRequest.newBuilder(URI.create(base + "/payments"))
+        .header("Content-Type", "application/json")
+        .POST(HttpRequest.BodyPublishers.ofString(body))
+        .build();
+  }
+
+  private static int freePort() throws IOException {
+    try (ServerSocket socket = new ServerSocket(0)) {
+      return socket.getLocalPort();
+    }
+  }
+}
@@ -0,0 +1,112 @@
+package com.checkout.payment.gateway.controller;
+
+import com.checkout.payment.gateway.PaymentGatewayApplication;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tails the payment event stream of a running gateway. Only rejected payments are created, so no
+ * acquiring bank is needed.
+ */
+class PaymentEventStreamTest {
+
+  private static final ObjectMapper MAPPER = new ObjectMapper();
+  private static final String REJECTED_PAYMENT = """
+      {"expiry_month": 12, "expiry_year": 2030, "cvv": "123", "amount": 100, "currency": "GBP"}""";
+
+  private final HttpClient client = HttpClient.newHttpClient();
+  private ConfigurableApplicationContext gateway;
+
+  @AfterEach
+  void tearDown() {
+    if (gateway != null) {
+      gateway.close();
+    }
+  }
+
+  @Test
+  @DisplayName("the event stream carries every payment outcome and resumes after Last-Event-ID")
+  void stream_DeliversPaymentEvents() throws Exception {
+    int port = freePort();
+    gateway = new SpringApplicationBuilder(PaymentGatewayApplication.class).run(
+        "--server.port=" + port,
+        "--acquiring.bank.url=http://localhost:1");
+    String base = "http://localhost:" + port;
+
+    HttpResponse<Stream<String>> stream = client.send(
+        HttpRequest.newBuilder(URI.create(base + "/internal/events/payments")).build(),
+        HttpResponse.BodyHandlers.ofLines());
+    assertThat(stream.statusCode()).isEqualTo(200);
+    assertThat(stream.headers().firstValue("Content-Type")).hasValueSatisfying(
+        type -> assertThat(type).startsWith("text/event-stream"));
+    List<String> ids = new ArrayList<>();
+    for (int i = 0; i < 3; i++) {
+      ids.add(MAPPER.readTree(post(base).body()).get("id").asText());
+    }
+
+    Iterator<String> lines = stream.body().iterator();
+    List<JsonNode> events = new ArrayList<>();
+    String lastEventId = null;
+    while (events.size() < 3 && lines.hasNext()) {
+      String line = lines.next();
+      if (line.startsWith("id:")) {
+        lastEventId = line.substring(3);
+      } else if (line.startsWith("data:")) {
+        events.add(MAPPER.readTree(line.substring(5)));
+      }
+    }
+    stream.body().close();
+
+    assertThat(events).extracting(event -> event.get("payment_id").asText()).containsExactlyElementsOf(ids);
+    assertThat(events).extracting(event -> event.get("status").asText()).containsOnly("Rejected");
+    assertThat(lastEventId).isEqualTo("3");
+
+    String resumed = client.sendAsync(
+            HttpRequest.newBuilder(URI.create(base + "/internal/events/payments"))
+                .header("Last-Event-ID", "1")
+                .build(),
+            HttpResponse.BodyHandlers.ofLines())
+        .thenApply(response -> response.body()
+            .filter(line -> line.startsWith("data:"))
+            .findFirst()
+            .orElseThrow())
+        .get(10, TimeUnit.SECONDS);
+    assertThat(MAPPER.readTree(resumed.substring(5)).get("payment_id").asText()).isEqualTo(ids.get(1));
+
+    JsonNode stats = MAPPER.readTree(client.send(
+        HttpRequest.newBuilder(URI.create(base + "/internal/events")).build(),
+        HttpResponse.BodyHandlers.ofString()).body());
+    assertThat(stats.get("published").asLong()).isEqualTo(3);
+  }
+
+  private HttpResponse<String> post(String base) throws Exception {
+    return client.send(HttpRequest.newBuilder(URI.create(base + "/payments"))
+        .header("Content-Type", "application/json")
+        .POST(HttpRequest.BodyPublishers.ofString(REJECTED_PAYMENT))
+        .build(), HttpResponse.BodyHandlers.ofString());
+  }
+
+  private static int freePort() throws IOException {
+    try (ServerSocket socket = new ServerSocket(0)) {
+      return socket.getLocalPort();
+    }
+  }
+}
@@ -1,6 +1,8 @@
 package com.checkout.payment.gateway.controller;
 
 
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -16,6 +18,7 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.context.DynamicPropertyRegistry;
 import org.springframework.test.context.DynamicPropertySource;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 import org.testcontainers.containers.GenericContainer;
@@ -61,6 +64,8 @@ class PaymentGatewayControllerTest {
         "acquiring.bank.url",
         () -> "http://" + bankSimulator.getHost() + ":" + bankSimulator.getMappedPort(8080)
     );
+    // Slow refill, so that exhausting a burst in the rate limit test is deterministic
+    registry.add("payments.rate-limit.requests-per-second", () -> "1");
   }
 
   @Test
@@ -93,6 +98,87 @@ class PaymentGatewayControllerTest {
         .andExpect(jsonPath("$.message").value("Page not found"));
   }
 
+  @Test
+  @DisplayName("getPayment returns 304 when If-None-Match matches the payment ETag")
+  void whenIfNoneMatchMatchesEtagThen304IsReturned() throws Exception {
+    PostPaymentResponse payment = new PostPaymentResponse();
+    payment.setId(UUID.randomUUID());
+    payment.setAmount(10);
+    payment.setCurrency("USD");
+    payment.setStatus(PaymentStatus.AUTHORIZED);
+    payment.setExpiryMonth(12);
+    payment.setExpiryYear(2024);
+    payment.setCardNumberLastFour("4321");
+
+    paymentsRepository.add(payment);
+
+    String etag = mvc.perform(MockMvcRequestBuilders.get("/payments/" + payment.getId()))
+        .andExpect(status().isOk())
+        .andExpect(header().exists("ETag"))
+        .andReturn()
+        .getResponse()
+        .getHeader("ETag");
+
+    mvc.perform(MockMvcRequestBuilders.get("/payments/" + payment.getId())
+            .header("If-None-Match", etag))
+        .andExpect(status().isNotModified())
+        .andExpect(header().string("ETag", etag));
+  }
+
+  @Test
+  @DisplayName("getPayment returns the body when If-None-Match does not match")
+  void whenIfNoneMatchDoesNotMatchEtagThenPaymentIsReturned() throws Exception {
+    PostPaymentResponse payment = new PostPaymentResponse();
+    payment.setId(UUID.randomUUID());
+    payment.setAmount(10);
+    payment.setCurrency("USD");
+    payment.setStatus(PaymentStatus.DECLINED);
+    payment.setExpiryMonth(12);
+    payment.setExpiryYear(2024);
+    payment.setCardNumberLastFour("4321");
+
+    paymentsRepository.add(payment);
+
+    mvc.perform(MockMvcRequestBuilders.get("/payments/" + payment.getId())
+            .header("If-None-Match", "\"stale\""))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.status").value(payment.getStatus().getName()));
+  }
+
+  @Test
+  @DisplayName("searchPayments finds stored payments by status and last four")
+  void whenSearchingByStatusAndLastFourThenMatchingPaymentsAreReturned() throws Exception {
+    PostPaymentResponse payment = new PostPaymentResponse();
+    payment.setId(UUID.randomUUID());
+    payment.setAmount(10);
+    payment.setCurrency("EUR");
+    payment.setStatus(PaymentStatus.DECLINED);
+    payment.setExpiryMonth(12);
+    payment.setExpiryYear(2024);
+    payment.setCardNumberLastFour("7319");
+
+    paymentsRepository.add(payment);
+
+    mvc.perform(MockMvcRequestBuilders.get("/internal/payments/search")
+            .param("status", "declined")
+            .param("card_number_last_four", "7319"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$[0].id").value(payment.getId().toString()))
+        .andExpect(jsonPath("$[0].currency").value("EUR"));
+    mvc.perform(MockMvcRequestBuilders.get("/internal/payments/index"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.indexed_payments").isNumber())
+        .andExpect(jsonPath("$.estimated_bytes").isNumber());
+  }
+
+  @Test
+  @DisplayName("searchPayments returns 400 when no criteria are given")
+  void whenSearchingWithoutCriteriaThen400IsReturned() throws Exception {
+    mvc.perform(MockMvcRequestBuilders.get("/internal/payments/search"))
+        .andExpect(status().isBadRequest())
+        .andExpect(jsonPath("$.message").value("At least one search criterion is required"));
+  }
+
   @Test
   @DisplayName("processPayment returns AUTHORIZED status when payment succeeds")
   void processPayment_ReturnsAuthorizedStatus_WhenPaymentSucceeds() throws Exception {
@@ -368,4 +454,132 @@ class PaymentGatewayControllerTest {
         .andExpect(status().isOk())
         .andExpect(jsonPath("$.currency").value("EUR"));
   }
+
+  @Test
+  @DisplayName("processPayment with Prefer: respond-async returns 202 and completes the payment in the background")
+  void processPayment_Returns202AndCompletesLater_WhenAsyncIsPreferred() throws Exception {
+    String requestBody = """
+      {
+        "card_number": "4532015112830369",
+        "expiry_month": 12,
+        "expiry_year": 2026,
+        "cvv": "123",
+        "amount": 100,
+        "currency": "GBP"
+      }
+      """;
+
+    MvcResult accepted = mvc.perform(MockMvcRequestBuilders.post("/payments")
+            .header(PaymentGatewayController.PREFER_HEADER, PaymentGatewayController.RESPOND_ASYNC)
+            .contentType("application/json")
+            .content(requestBody))
+        .andExpect(status().isAccepted())
+        .andExpect(header().string("Preference-Applied", "respond-async"))
+        .andExpect(jsonPath("$.status").value(PaymentStatus.PENDING.getName()))
+        .andExpect(jsonPath("$.card_number_last_four").value("0369"))
+        .andReturn();
+    String location = accepted.getResponse().getHeader("Location");
+    assertThat(location).startsWith("/payments/");
+
+    String body;
+    long deadline = System.nanoTime() + 10_000_000_000L;
+    do {
+      Thread.sleep(20);
+      MvcResult polled = mvc.perform(MockMvcRequestBuilders.get(location))
+          .andExpect(status().isOk())
+          .andReturn();
+      body = polled.getResponse().getContentAsString();
+    } while (body.contains(PaymentStatus.PENDING.getName()) && System.nanoTime() < deadline);
+    assertThat(body).contains("\"status\":\"" + PaymentStatus.AUTHORIZED.getName() + "\"");
+  }
+
+  @Test
+  @DisplayName("processPayment with Prefer: respond-async still rejects invalid payments synchronously")
+  void processPayment_ReturnsRejected_WhenAsyncIsPreferredAndPaymentIsInvalid() throws Exception {
+    String requestBody = """
+    {
+      "expiry_month": 12,
+      "expiry_year": 2026,
+      "cvv": "123",
+      "amount": 100,
+      "currency": "GBP"
+    }
+    """;
+
+    mvc.perform(MockMvcRequestBuilders.post("/payments")
+            .header(PaymentGatewayController.PREFER_HEADER, "respond-async, wait=5")
+            .contentType("application/json")
+            .content(requestBody))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.status").value(PaymentStatus.REJECTED.getName()));
+  }
+
+  @Test
+  @DisplayName("processPayment returns 429 with Retry-After once a merchant exceeds its burst")
+  void processPayment_Returns429_WhenMerchantIsOverItsRateLimit() throws Exception {
+    String requestBody = """
+    {
+      "expiry_month": 12,
+      "expiry_year": 2026,
+      "cvv": "123",
+      "amount": 100,
+      "currency": "GBP"
+    }
+    """;
+
+    int accepted = 0;
+    MvcResult result;
+    // The bucket refills by a token per second while the burst is being spent
+    do {
+      result = mvc.perform(MockMvcRequestBuilders.post("/payments")
+              .header(PaymentGatewayController.API_KEY_HEADER, "runaway-merchant")
+              .contentType("application/json")
+              .content(requestBody))
+          .andReturn();
+    } while (result.getResponse().getStatus() == 200 && ++accepted < 300);
+
+    assertThat(accepted).isBetween(200, 299);
+    assertThat(result.getResponse().getStatus()).isEqualTo(429);
+    assertThat(result.getResponse().getHeader("Retry-After")).isEqualTo("1");
+    mvc.perform(MockMvcRequestBuilders.post("/payments")
+            .header(PaymentGatewayController.API_KEY_HEADER, "other-merchant")
+            .contentType("application/json")
+            .content(requestBody))
+        .andExpect(status().isOk());
+  }
+
+  @Test
+  @DisplayName("captures and refunds show on later lookups, and a void after a capture is a conflict")
+  void capturePayment_UpdatesPayment_AndVoidThenReturns409() throws Exception {
+    PostPaymentResponse payment = new PostPaymentResponse();
+    payment.setId(UUID.randomUUID());
+    payment.setAmount(100);
+    payment.setCurrency("USD");
+    payment.setStatus(PaymentStatus.AUTHORIZED);
+    payment.setExpiryMonth(12);
+    payment.setExpiryYear(2030);
+    payment.setCardNumberLastFour("4321");
+    paymentsRepository.add(payment);
+    mvc.perform(MockMvcRequestBuilders.get("/payments/" + payment.getId()))
+        .andExpect(status().isOk());
+
+    mvc.perform(MockMvcRequestBuilders.post("/payments/" + payment.getId() + "/captures")
+            .contentType("application/json")
+            .content("{\"amount\": 60}"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.status").value("Captured"))
+        .andExpect(jsonPath("$.captured_amount").value(60));
+    mvc.perform(MockMvcRequestBuilders.post("/payments/" + payment.getId() + "/refunds"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.refunded_amount").value(60));
+
+    mvc.perform(MockMvcRequestBuilders.get("/payments/" + payment.getId()))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.status").value("Refunded"))
+        .andExpect(jsonPath("$.capturedAmount").value(60))
+        .andExpect(jsonPath("$.refundedAmount").value(60));
+    mvc.perform(MockMvcRequestBuilders.post("/payments/" + payment.getId() + "/voids"))
+        .andExpect(status().isConflict())
+        .andExpect(jsonPath("$.message").value("Payment cannot be voided in status Refunded"));
+  }
 }
@@ -0,0 +1,219 @@
+package com.checkout.payment.gateway.event;
+
+import com.checkout.payment.gateway.enums.PaymentStatus;
+import com.checkout.payment.gateway.model.PaymentEvent;
+import com.checkout.payment.gateway.model.PostPaymentResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class PaymentEventBusTest {
+
+  private final Clock clock = Clock.fixed(Instant.parse("2026-01-01T00:00:00Z"), ZoneOffset.UTC);
+  private PaymentEventBus bus;
+
+  @AfterEach
+  void tearDown() {
+    if (bus != null) {
+      bus.shutdown();
+    }
+  }
+
+  private static PostPaymentResponse payment(int amount) {
+    PostPaymentResponse payment = new PostPaymentResponse();
+    payment.setId(new UUID(amount, amount));
+    payment.setStatus(PaymentStatus.values()[amount % 3]);
+    payment.setCardNumberLastFour(String.format("%04d", amount % 10_000));
+    payment.setExpiryMonth(amount % 12 + 1);
+    payment.setExpiryYear(2030);
+    payment.setCurrency(amount % 2 == 0 ? "GBP" : "EUR");
+    payment.setAmount(amount);
+    return payment;
+  }
+
+  private static void awaitTrue(Callable<Boolean> condition) throws Exception {
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+    while (!condition.call()) {
+      if (System.nanoTime() > deadline) {
+        throw new AssertionError("Condition not met within 10 seconds");
+      }
+      Thread.sleep(5);
+    }
+  }
+
+  @Test
+  @DisplayName("subscribers receive every event in publication order")
+  void subscribe_ReceivesEventsInOrder() throws Exception {
+    bus = new PaymentEventBus(16, clock);
+    Recorder recorder = new Recorder();
+    bus.subscribe("test", recorder);
+
+    for (int i = 1; i <= 10; i++) {
+      bus.publish(payment(i));
+    }
+
+    awaitTrue(() -> recorder.events.size() == 10);
+    assertThat(recorder.events).extracting(PaymentEvent::getSequence)
+        .containsExactly(1L, 2L, 3L, 4L, 5L, 6L, 7L, 8L, 9L, 10L);
+    PaymentEvent first = recorder.events.get(0);
+    assertThat(first.getPaymentId()).isEqualTo(new UUID(1, 1));
+    assertThat(first.getStatus()).isEqualTo(PaymentStatus.DECLINED);
+    assertThat(first.getCardNumberLastFour()).isEqualTo("0001");
+    assertThat(first.getCurrency()).isEqualTo("EUR");
+    assertThat(first.getOccurredAt()).isEqualTo(clock.instant());
+    assertThat(recorder.endOfBatch.get(recorder.endOfBatch.size() - 1)).isTrue();
+    assertThat(recorder.gaps).isEmpty();
+  }
+
+  @Test
+  @DisplayName("a subscriber that falls a full ring behind is told how many events it missed")
+  void subscribe_ReportsGap_WhenLapped() throws Exception {
+    bus = new PaymentEventBus(8, clock);
+    CountDownLatch consumerStuck = new CountDownLatch(1);
+    Recorder recorder = new Recorder() {
+      @Override
+      public void onEvent(PaymentEvent event, boolean endOfBatch) throws Exception {
+        super.onEvent(event, endOfBatch);
+        if (event.getSequence() == 1) {
+          consumerStuck.await(10, TimeUnit.SECONDS);
+        }
+      }
+    };
+    PaymentEventBus.Subscription subscription = bus.subscribe("slow", recorder);
+    bus.publish(payment(1));
+    awaitTrue(() -> recorder.events.size() == 1);
+
+    long started = System.nanoTime();
+    for (int i = 2; i <= 100; i++) {
+      bus.publish(payment(i));
+    }
+    assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started)).isLessThan(1_000);
+    consumerStuck.countDown();
+
+    awaitTrue(() -> !recorder.events.isEmpty() && recorder.events.get(recorder.events.size() - 1).getSequence() == 100);
+    assertThat(recorder.gaps).containsExactly(91L);
+    assertThat(recorder.events).extracting(PaymentEvent::getSequence)
+        .containsExactly(1L, 93L, 94L, 95L, 96L, 97L, 98L, 99L, 100L);
+    assertThat(subscription.missed()).isEqualTo(91);
+    assertThat(bus.stats().getSubscribers()).singleElement()
+        .satisfies(subscriber -> assertThat(subscriber.getLag()).isZero());
+  }
+
+  @Test
+  @DisplayName("subscribing after a sequence replays the retained events that follow it")
+  void subscribe_ResumesAfterSequence() throws Exception {
+    bus = new PaymentEventBus(8, clock);
+    for (int i = 1; i <= 12; i++) {
+      bus.publish(payment(i));
+    }
+
+    Recorder retained = new Recorder();
+    bus.subscribe("resume", retained, 9);
+    Recorder overwritten = new Recorder();
+    bus.subscribe("too-old", overwritten, 2);
+
+    awaitTrue(() -> retained.events.size() == 3 && overwritten.events.size() == 8);
+    assertThat(retained.events).extracting(PaymentEvent::getSequence).containsExactly(10L, 11L, 12L);
+    assertThat(retained.gaps).isEmpty();
+    assertThat(overwritten.gaps).containsExactly(2L);
+    assertThat(overwritten.events.get(0).getSequence()).isEqualTo(5);
+  }
+
+  @Test
+  @DisplayName("concurrent publishers never expose a half written event")
+  void publish_IsConsistentUnderConcurrency() throws Exception {
+    bus = new PaymentEventBus(64, clock);
+    AtomicLong torn = new AtomicLong();
+    AtomicLong received = new AtomicLong();
+    AtomicLong lastSequence = new AtomicLong();
+    PaymentEventBus.Subscription subscription = bus.subscribe("checker", (event, endOfBatch) -> {
+      int amount = event.getAmount();
+      PostPaymentResponse expected = payment(amount);
+      if (!event.getPaymentId().equals(expected.getId())
+          || !event.getCurrency().equals(expected.getCurrency())
+          || !event.getCardNumberLastFour().equals(expected.getCardNumberLastFour())
+          || event.getExpiryMonth() != expected.getExpiryMonth()
+          || event.getSequence() <= lastSequence.get()) {
+        torn.incrementAndGet();
+      }
+      lastSequence.set(event.getSequence());
+      received.incrementAndGet();
+    });
+    int threads = 4;
+    int perThread = 20_000;
+    List<Thread> publishers = new CopyOnWriteArrayList<>();
+    for (int t = 0; t < threads; t++) {
+      int offset = t * perThread;
+      Thread publisher = new Thread(() -> {
+        for (int i = 1; i <= perThread; i++) {
+          bus.publish(payment(offset + i));
+        }
+      });
+      publishers.add(publisher);
+      publisher.start();
+    }
+    for (Thread publisher : publishers) {
+      publisher.join();
+    }
+
+    assertThat(bus.cursor()).isEqualTo((long) threads * perThread);
+    awaitTrue(() -> lastSequence.get() == bus.cursor());
+    assertThat(torn.get()).isZero();
+    assertThat(received.get() + subscription.missed()).isEqualTo((long) threads * perThread);
+  }
+
+  @Test
+  @DisplayName("closing a subscription stops delivery and removes it from the stats")
+  void close_StopsSubscription() throws Exception {
+    bus = new PaymentEventBus(8, clock);
+    Recorder recorder = new Recorder();
+    PaymentEventBus.Subscription subscription = bus.subscribe("closed", recorder);
+    assertThat(bus.subscriberCount()).isEqualTo(1);
+
+    subscription.close();
+    bus.publish(payment(1));
+    Thread.sleep(50);
+
+    assertThat(subscription.isRunning()).isFalse();
+    assertThat(bus.subscriberCount()).isZero();
+    assertThat(recorder.events).isEmpty();
+  }
+
+  @Test
+  @DisplayName("the ring size must be a power of two")
+  void constructor_RejectsInvalidRingSize() {
+    assertThatThrownBy(() -> new PaymentEventBus(100, clock))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+
+  private static class Recorder implements PaymentEventHandler {
+
+    final List<PaymentEvent> events = new CopyOnWriteArrayList<>();
+    final List<Boolean> endOfBatch = new CopyOnWriteArrayList<>();
+    final List<Long> gaps = new CopyOnWriteArrayList<>();
+
+    @Override
+    public void onEvent(PaymentEvent event, boolean endOfBatch) throws Exception {
+      events.add(event);
+      this.endOfBatch.add(endOfBatch);
+    }
+
+    @Override
+    public void onGap(long missed) {
+      gaps.add(missed);
+    }
+  }
+}
@@ -0,0 +1,220 @@
+package com.checkout.payment.gateway.outbox;
+
+import com.checkout.payment.gateway.codec.PaymentJsonCodec;
+import com.checkout.payment.gateway.enums.PaymentStatus;
+import com.checkout.payment.gateway.model.OutboxEvent;
+import com.checkout.payment.gateway.model.OutboxStats;
+import com.checkout.payment.gateway.model.PostPaymentResponse;
+import com.checkout.payment.gateway.repository.PaymentsRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntPredicate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class OutboxRelayTest {
+
+  private final PaymentsRepository repository = new PaymentsRepository(1_000);
+  private OutboxRelay relay;
+
+  @AfterEach
+  void tearDown() throws Exception {
+    if (relay != null) {
+      relay.shutdown();
+    }
+  }
+
+  private OutboxRelay relay(OutboxSink sink, int batchSize, int maxInFlight) {
+    relay = new OutboxRelay(repository, sink, batchSize, maxInFlight, 10, 50, Clock.systemUTC());
+    relay.start();
+    return relay;
+  }
+
+  private static PostPaymentResponse payment(UUID id, PaymentStatus status) {
+    PostPaymentResponse payment = new PostPaymentResponse();
+    payment.setId(id);
+    payment.setStatus(status);
+    payment.setCardNumberLastFour("3456");
+    payment.setExpiryMonth(12);
+    payment.setExpiryYear(2030);
+    payment.setCurrency("GBP");
+    payment.setAmount(100);
+    return payment;
+  }
+
+  private static void awaitTrue(Callable<Boolean> condition) throws Exception {
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+    while (!condition.call()) {
+      if (System.nanoTime() > deadline) {
+        throw new AssertionError("Condition not met within 10 seconds");
+      }
+      Thread.sleep(5);
+    }
+  }
+
+  @Test
+  @DisplayName("every repository write is delivered once, including each status of the same payment")
+  void relay_DeliversEveryWrite() throws Exception {
+    RecordingSink sink = new RecordingSink();
+    relay(sink, 500, 4);
+    UUID asyncPayment = UUID.randomUUID();
+
+    repository.add(payment(asyncPayment, PaymentStatus.PENDING));
+    for (int i = 0; i < 98; i++) {
+      repository.add(payment(UUID.randomUUID(), PaymentStatus.DECLINED));
+    }
+    repository.add(payment(asyncPayment, PaymentStatus.AUTHORIZED));
+
+    awaitTrue(() -> sink.events().size() == 100);
+    List<OutboxEvent> events = sink.events();
+    assertThat(events).extracting(OutboxEvent::getSequence).doesNotHaveDuplicates().hasSize(100);
+    assertThat(events).extracting(OutboxEvent::getId).doesNotHaveDuplicates();
+    List<OutboxEvent> ofAsyncPayment = events.stream()
+        .filter(event -> event.getPayment().getId().equals(asyncPayment))
+        .toList();
+    assertThat(ofAsyncPayment).extracting(OutboxEvent::getType)
+        .containsExactly("payment.pending", "payment.authorized");
+    awaitTrue(() -> relay.stats().getDelivered() == 100);
+    OutboxStats stats = relay.stats();
+    assertThat(stats.getAppended()).isEqualTo(100);
+    assertThat(stats.getPending()).isZero();
+    assertThat(stats.getLagMillis()).isZero();
+  }
+
+  @Test
+  @DisplayName("events written while the sink is busy are sent together once a slot frees up")
+  void relay_BatchesWhileSinkIsBusy() throws Exception {
+    RecordingSink sink = new RecordingSink();
+    sink.holdRequest = request -> request == 1;
+    relay(sink, 500, 1);
+    repository.add(payment(UUID.randomUUID(), PaymentStatus.AUTHORIZED));
+    awaitTrue(() -> sink.requests.get() == 1);
+
+    long started = System.nanoTime();
+    for (int i = 0; i < 50; i++) {
+      repository.add(payment(UUID.randomUUID(), PaymentStatus.AUTHORIZED));
+    }
+    assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started)).isLessThan(1_000);
+    OutboxStats stats = relay.stats();
+    assertThat(stats.getPending()).isEqualTo(51);
+    assertThat(stats.getInFlight()).isEqualTo(1);
+
+    sink.release();
+    awaitTrue(() -> sink.events().size() == 51);
+    assertThat(sink.batchSizes).containsExactly(1, 50);
+  }
+
+  @Test
+  @DisplayName("a failing sink gets the same batch again until it accepts it")
+  void relay_RetriesFailedBatches() throws Exception {
+    RecordingSink sink = new RecordingSink();
+    sink.failRequest = request -> request <= 3;
+    relay(sink, 500, 2);
+
+    repository.add(payment(UUID.randomUUID(), PaymentStatus.REJECTED));
+
+    awaitTrue(() -> sink.events().size() == 1);
+    assertThat(sink.requests.get()).isEqualTo(4);
+    awaitTrue(() -> relay.stats().getDelivered() == 1);
+    assertThat(relay.stats().getFailedAttempts()).isEqualTo(3);
+    assertThat(relay.stats().getPending()).isZero();
+  }
+
+  @Test
+  @DisplayName("the file sink appends one JSON line per event")
+  void fileSink_WritesJsonLines(@TempDir Path directory) throws Exception {
+    Path file = directory.resolve("outbox.ndjson");
+    FileOutboxSink sink = new FileOutboxSink(file, new PaymentJsonCodec());
+    try {
+      relay(sink, 500, 4);
+      UUID id = UUID.randomUUID();
+      repository.add(payment(id, PaymentStatus.PENDING));
+      repository.add(payment(id, PaymentStatus.DECLINED));
+
+      awaitTrue(() -> relay.stats().getDelivered() == 2);
+      List<String> lines = Files.readAllLines(file);
+      assertThat(lines).hasSize(2);
+      ObjectMapper mapper = new ObjectMapper();
+      JsonNode first = mapper.readTree(lines.get(0));
+      JsonNode second = mapper.readTree(lines.get(1));
+      assertThat(first.get("sequence").asLong()).isEqualTo(1);
+      assertThat(first.get("type").asText()).isEqualTo("payment.pending");
+      assertThat(second.get("type").asText()).isEqualTo("payment.declined");
+      assertThat(second.get("payment").get("id").asText()).isEqualTo(id.toString());
+      assertThat(second.get("payment").get("status").asText()).isEqualTo("Declined");
+    } finally {
+      relay.shutdown();
+      sink.close();
+    }
+  }
+
+  @Test
+  @DisplayName("without a sink nothing is kept for the relay")
+  void relay_IsDisabledWithoutSink() {
+    relay = new OutboxRelay(repository, null, 500, 4, 10, 50, Clock.systemUTC());
+    relay.start();
+
+    repository.add(payment(UUID.randomUUID(), PaymentStatus.AUTHORIZED));
+
+    assertThat(relay.isEnabled()).isFalse();
+    assertThat(relay.stats().getAppended()).isZero();
+  }
+
+  private static class RecordingSink implements OutboxSink {
+
+    final AtomicInteger requests = new AtomicInteger();
+    final List<OutboxEvent> accepted = new CopyOnWriteArrayList<>();
+    final List<Integer> batchSizes = new CopyOnWriteArrayList<>();
+    final List<Runnable> held = new CopyOnWriteArrayList<>();
+    volatile IntPredicate holdRequest = request -> false;
+    volatile IntPredicate failRequest = request -> false;
+
+    @Override
+    public CompletableFuture<Void> deliver(List<OutboxEvent> events) {
+      int request = requests.incrementAndGet();
+      if (failRequest.test(request)) {
+        return CompletableFuture.failedFuture(new IOException("Sink unavailable"));
+      }
+      CompletableFuture<Void> result = new CompletableFuture<>();
+      Runnable accept = () -> {
+        accepted.addAll(events);
+        batchSizes.add(events.size());
+        result.complete(null);
+      };
+      if (holdRequest.test(request)) {
+        held.add(accept);
+      } else {
+        accept.run();
+      }
+      return result;
+    }
+
+    void release() {
+      held.forEach(Runnable::run);
+    }
+
+    List<OutboxEvent> events() {
+      return accepted;
+    }
+
+    @Override
+    public String describe() {
+      return "memory";
+    }
+  }
+}
@@ -0,0 +1,98 @@
+package com.checkout.payment.gateway.replication;
+
+import com.checkout.payment.gateway.enums.PaymentStatus;
+import com.checkout.payment.gateway.model.PostPaymentResponse;
+import com.checkout.payment.gateway.replication.ReplicationLog.Entry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import java.time.Clock;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ReplicationLogTest {
+
+  private final ReplicationLog log = new ReplicationLog(8, Clock.systemUTC());
+
+  private static PostPaymentResponse payment(int amount) {
+    PostPaymentResponse payment = new PostPaymentResponse();
+    payment.setId(UUID.randomUUID());
+    payment.setStatus(PaymentStatus.AUTHORIZED);
+    payment.setCardNumberLastFour("0042");
+    payment.setExpiryMonth(4);
+    payment.setExpiryYear(2030);
+    payment.setCurrency("GBP");
+    payment.setAmount(amount);
+    return payment;
+  }
+
+  @Test
+  @DisplayName("read returns the entries after the given sequence in write order")
+  void read_ReturnsEntriesInOrder() {
+    for (int i = 1; i <= 5; i++) {
+      log.onStored(i, payment(i));
+    }
+    Entry[] out = new Entry[3];
+
+    assertThat(log.read(1, out)).isEqualTo(3);
+    assertThat(out).extracting(Entry::sequence).containsExactly(2L, 3L, 4L);
+    assertThat(ReplicationProtocol.decode(out[0].payload()).getAmount()).isEqualTo(2);
+    assertThat(log.read(5, out)).isZero();
+    assertThat(log.sequence()).isEqualTo(5);
+  }
+
+  @Test
+  @DisplayName("read reports entries that were overwritten, which requires a snapshot")
+  void read_ReturnsMinusOne_WhenTruncated() {
+    for (int i = 1; i <= 20; i++) {
+      log.onStored(i, payment(i));
+    }
+    Entry[] out = new Entry[8];
+
+    assertThat(log.oldestRetained()).isEqualTo(13);
+    assertThat(log.read(11, out)).isEqualTo(-1);
+    assertThat(log.read(12, out)).isEqualTo(8);
+    assertThat(log.read(-1, out)).isEqualTo(-1);
+    assertThat(log.read(21, out)).isEqualTo(-1);
+  }
+
+  @Test
+  @DisplayName("await returns as soon as a later entry is written")
+  void await_WakesUpOnWrite() throws Exception {
+    Thread writer = new Thread(() -> log.onStored(1, payment(1)));
+
+    assertThat(log.await(0, 10)).isFalse();
+    writer.start();
+    assertThat(log.await(0, 10_000)).isTrue();
+    writer.join();
+  }
+
+  @Test
+  @DisplayName("payments survive encoding, including missing fields")
+  void encode_RoundTrips() {
+    PostPaymentResponse rejected = new PostPaymentResponse();
+    rejected.setId(UUID.randomUUID());
+    rejected.setStatus(PaymentStatus.REJECTED);
+    PostPaymentResponse authorized = payment(1050);
+    PostPaymentResponse refunded = payment(1050);
+    refunded.setStatus(PaymentStatus.REFUNDED);
+    refunded.setCapturedAmount(1000);
+    refunded.setRefundedAmount(250);
+
+    PostPaymentResponse decodedRejected = ReplicationProtocol.decode(ReplicationProtocol.encode(rejected));
+    PostPaymentResponse decodedAuthorized = ReplicationProtocol.decode(ReplicationProtocol.encode(authorized));
+    PostPaymentResponse decodedRefunded = ReplicationProtocol.decode(ReplicationProtocol.encode(refunded));
+
+    assertThat(decodedRejected).usingRecursiveComparison().isEqualTo(rejected);
+    assertThat(decodedAuthorized).usingRecursiveComparison().isEqualTo(authorized);
+    assertThat(decodedRefunded).usingRecursiveComparison().isEqualTo(refunded);
+  }
+
+  @Test
+  @DisplayName("capacity must be a power of two")
+  void constructor_RejectsInvalidCapacity() {
+    assertThatThrownBy(() -> new ReplicationLog(100, Clock.systemUTC()))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+}
@@ -0,0 +1,153 @@
+package com.checkout.payment.gateway.replication;
+
+import com.checkout.payment.gateway.PaymentGatewayApplication;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import java.io.File;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs a leader in a separate JVM and a follower in this one, then kills the leader.
+ * Only rejected payments are created, so no acquiring bank is needed.
+ */
+class ReplicationProcessTest {
+
+  private static final HttpClient CLIENT = HttpClient.newHttpClient();
+  private static final ObjectMapper MAPPER = new ObjectMapper();
+  private static final Duration TIMEOUT = Duration.ofSeconds(60);
+
+  private Process leaderProcess;
+  private ConfigurableApplicationContext follower;
+
+  @AfterEach
+  void tearDown() {
+    if (follower != null) {
+      follower.close();
+    }
+    if (leaderProcess != null) {
+      leaderProcess.destroyForcibly();
+    }
+  }
+
+  @Test
+  @DisplayName("a follower catches up from a snapshot, streams new payments and serves them without the leader")
+  void follower_ReplicatesAndSurvivesLeaderLoss() throws Exception {
+    int leaderHttpPort = freePort();
+    int replicationPort = freePort();
+    int followerHttpPort = freePort();
+    String leader = "http://localhost:" + leaderHttpPort;
+    String replica = "http://localhost:" + followerHttpPort;
+    leaderProcess = startLeader(leaderHttpPort, replicationPort);
+    awaitTrue(() -> status(leader) != null);
+
+    // More payments than the log retains, so the follower has to start from a snapshot
+    List<UUID> ids = new ArrayList<>();
+    for (int i = 0; i < 40; i++) {
+      ids.add(createRejectedPayment(leader));
+    }
+    follower = new SpringApplicationBuilder(PaymentGatewayApplication.class).run(
+        "--server.port=" + followerHttpPort,
+        "--payments.replication.leader=localhost:" + replicationPort,
+        "--acquiring.bank.url=http://localhost:1");
+    awaitTrue(() -> status(replica).get("leader").get("applied_sequence").asLong() == 40);
+
+    for (int i = 0; i < 25; i++) {
+      ids.add(createRejectedPayment(leader));
+    }
+    awaitTrue(() -> status(replica).get("leader").get("applied_sequence").asLong() == 65);
+    JsonNode followerView = status(replica).get("leader");
+    assertThat(followerView.get("connected").asBoolean()).isTrue();
+    assertThat(followerView.get("lag_entries").asLong()).isZero();
+    assertThat(followerView.get("snapshots_received").asInt()).isEqualTo(1);
+    awaitTrue(() -> status(leader).get("followers").get(0).get("acked_sequence").asLong() == 65);
+    assertThat(post(replica).statusCode()).isEqualTo(503);
+
+    leaderProcess.destroyForcibly().waitFor();
+    for (UUID id : ids) {
+      assertThat(get(replica, id).statusCode()).isEqualTo(200);
+    }
+    awaitTrue(() -> !status(replica).get("leader").get("connected").asBoolean());
+  }
+
+  private static Process startLeader(int httpPort, int replicationPort) throws IOException {
+    Path output = Files.createTempFile("replication-leader", ".log");
+    return new ProcessBuilder(
+        Path.of(System.getProperty("java.home"), "bin", "java").toString(),
+        "-cp", System.getProperty("java.class.path"),
+        PaymentGatewayApplication.class.getName(),
+        "--server.port=" + httpPort,
+        "--payments.replication.port=" + replicationPort,
+        "--payments.replication.log-capacity=16",
+        "--acquiring.bank.url=http://localhost:1")
+        .redirectErrorStream(true)
+        .redirectOutput(output.toFile())
+        .directory(new File(System.getProperty("user.dir")))
+        .start();
+  }
+
+  private static int freePort() throws IOException {
+    try (ServerSocket socket = new ServerSocket(0)) {
+      return socket.getLocalPort();
+    }
+  }
+
+  private static void awaitTrue(Callable<Boolean> condition) throws InterruptedException {
+    long deadline = System.nanoTime() + TIMEOUT.toNanos();
+    while (System.nanoTime() < deadline) {
+      try {
+        if (condition.call()) {
+          return;
+        }
+      } catch (Exception e) {
+        // Not ready yet
+      }
+      Thread.sleep(100);
+    }
+    throw new AssertionError("Condition not met within " + TIMEOUT);
+  }
+
+  private static JsonNode status(String node) throws Exception {
+    HttpResponse<String> response = CLIENT.send(
+        HttpRequest.newBuilder(URI.create(node + "/internal/replication")).build(),
+        HttpResponse.BodyHandlers.ofString());
+    return MAPPER.readTree(response.body());
+  }
+
+  private static HttpResponse<String> post(String node) throws Exception {
+    return CLIENT.send(HttpRequest.newBuilder(URI.create(node + "/payments"))
+        .header("Content-Type", "application/json")
+        .POST(HttpRequest.BodyPublishers.ofString(
+            "{\"expiry_month\": 12, \"expiry_year\": 2030, \"cvv\": \"123\", \"amount\": 100, \"currency\": \"GBP\"}"))
+        .build(), HttpResponse.BodyHandlers.ofString());
+  }
+
+  private static UUID createRejectedPayment(String node) throws Exception {
+    HttpResponse<String> response = post(node);
+    assertThat(response.statusCode()).isEqualTo(200);
+    return UUID.fromString(MAPPER.readTree(response.body()).get("id").asText());
+  }
+
+  private static HttpResponse<String> get(String node, UUID id) throws Exception {
+    return CLIENT.send(HttpRequest.newBuilder(URI.create(node + "/payments/" + id)).build(),
+        HttpResponse.BodyHandlers.ofString());
+  }
+}
@@ -0,0 +1,474 @@
+package com.checkout.payment.gateway.repository;
+
+import com.checkout.payment.gateway.enums.PaymentStatus;
+import com.checkout.payment.gateway.model.PaymentIndexStats;
+import com.checkout.payment.gateway.model.PaymentQuery;
+import com.checkout.payment.gateway.model.PostPaymentResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jol.info.GraphLayout;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.BrokenBarrierException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class PaymentsRepositoryTest {
+
+  private static final Instant START = Instant.parse("2026-01-01T10:00:00Z");
+
+  private PaymentsRepository repository;
+  private MutableClock clock;
+
+  @BeforeEach
+  void setUp() {
+    clock = new MutableClock(START);
+    repository = new PaymentsRepository(1_000_000, clock);
+  }
+
+  private static PostPaymentResponse payment(String lastFour, String currency, int month, int year) {
+    return payment(PaymentStatus.AUTHORIZED, lastFour, currency, month, year);
+  }
+
+  private static PostPaymentResponse payment(
+      PaymentStatus status, String lastFour, String currency, int month, int year) {
+    PostPaymentResponse payment = new PostPaymentResponse();
+    payment.setId(UUID.randomUUID());
+    payment.setStatus(status);
+    payment.setCardNumberLastFour(lastFour);
+    payment.setExpiryMonth(month);
+    payment.setExpiryYear(year);
+    payment.setCurrency(currency);
+    payment.setAmount(Integer.MAX_VALUE);
+    return payment;
+  }
+
+  @Test
+  @DisplayName("get returns empty when the payment does not exist")
+  void get_ReturnsEmpty_WhenNotFound() {
+    assertThat(repository.get(UUID.randomUUID())).isEmpty();
+  }
+
+  @Test
+  @DisplayName("get rebuilds a packed payment field by field, keeping leading zeros")
+  void get_RebuildsPackedPayment() {
+    PostPaymentResponse payment = payment("0042", "GBP", 1, 2031);
+
+    repository.add(payment);
+
+    assertThat(repository.get(payment.getId()))
+        .hasValueSatisfying(stored -> assertThat(stored).usingRecursiveComparison().isEqualTo(payment));
+  }
+
+  @Test
+  @DisplayName("get rebuilds payments that do not fit the packed layout")
+  void get_RebuildsOverflowPayment() {
+    PostPaymentResponse unsupportedCurrency = payment("1234", "HUF", 12, 2030);
+    PostPaymentResponse lowerCaseCurrency = payment("1234", "gbp", 12, 2030);
+    PostPaymentResponse shortCard = payment("12", "USD", 12, 2030);
+    PostPaymentResponse invalidExpiry = payment("1234", "USD", -1, 100_000);
+    PostPaymentResponse missingFields = payment(null, null, 0, 0);
+    missingFields.setStatus(null);
+
+    for (PostPaymentResponse payment : new PostPaymentResponse[] {
+        unsupportedCurrency, lowerCaseCurrency, shortCard, invalidExpiry, missingFields}) {
+      repository.add(payment);
+      assertThat(repository.get(payment.getId()))
+          .hasValueSatisfying(stored -> assertThat(stored).usingRecursiveComparison().isEqualTo(payment));
+    }
+  }
+
+  @Test
+  @DisplayName("stored payments cannot be modified through the added or returned objects")
+  void get_ReturnsDetachedCopies() {
+    PostPaymentResponse payment = payment("4321", "EUR", 6, 2030);
+    repository.add(payment);
+
+    payment.setStatus(PaymentStatus.DECLINED);
+    repository.get(payment.getId()).orElseThrow().setAmount(1);
+
+    PostPaymentResponse stored = repository.get(payment.getId()).orElseThrow();
+    assertThat(stored.getStatus()).isEqualTo(PaymentStatus.AUTHORIZED);
+    assertThat(stored.getAmount()).isEqualTo(Integer.MAX_VALUE);
+  }
+
+  private static List<UUID> ids(List<PostPaymentResponse> payments) {
+    return payments.stream().map(PostPaymentResponse::getId).toList();
+  }
+
+  private static PaymentQuery query(PaymentStatus status, String currency, String lastFour) {
+    return new PaymentQuery(status, currency, lastFour, null, null, 100);
+  }
+
+  @Test
+  @DisplayName("listeners receive every write with the row of the payment")
+  void add_NotifiesListeners() {
+    List<String> writes = new ArrayList<>();
+    repository.addListener((row, stored) -> writes.add(row + ":" + stored.getStatus()));
+    PostPaymentResponse first = payment("1234", "GBP", 12, 2030);
+    PostPaymentResponse second = payment("1234", "GBP", 12, 2030);
+
+    repository.add(first);
+    repository.add(second);
+    first.setStatus(PaymentStatus.DECLINED);
+    repository.add(first);
+
+    assertThat(writes).containsExactly("0:AUTHORIZED", "1:AUTHORIZED", "0:DECLINED");
+  }
+
+  @Nested
+  @DisplayName("Search Tests")
+  class SearchTests {
+
+    @Test
+    @DisplayName("search intersects status, currency and last four, most recent first")
+    void search_IntersectsCriteria() {
+      PostPaymentResponse first = payment(PaymentStatus.AUTHORIZED, "1234", "GBP", 12, 2030);
+      PostPaymentResponse otherStatus = payment(PaymentStatus.DECLINED, "1234", "GBP", 12, 2030);
+      PostPaymentResponse otherCurrency = payment(PaymentStatus.AUTHORIZED, "1234", "USD", 12, 2030);
+      PostPaymentResponse otherCard = payment(PaymentStatus.AUTHORIZED, "4321", "GBP", 12, 2030);
+      PostPaymentResponse second = payment(PaymentStatus.AUTHORIZED, "1234", "GBP", 1, 2031);
+      for (PostPaymentResponse payment : List.of(first, otherStatus, otherCurrency, otherCard, second)) {
+        repository.add(payment);
+      }
+
+      assertThat(ids(repository.search(query(PaymentStatus.AUTHORIZED, "gbp", "1234"))))
+          .containsExactly(second.getId(), first.getId());
+      assertThat(ids(repository.search(query(null, null, "1234"))))
+          .containsExactly(second.getId(), otherCurrency.getId(), otherStatus.getId(), first.getId());
+      assertThat(repository.search(query(PaymentStatus.REJECTED, null, null))).isEmpty();
+      assertThat(repository.search(query(null, "HUF", null))).isEmpty();
+      assertThat(repository.search(query(null, null, "12"))).isEmpty();
+    }
+
+    @Test
+    @DisplayName("search indexes payments stored in overflow form")
+    void search_FindsOverflowPayments() {
+      PostPaymentResponse lowerCase = payment(PaymentStatus.REJECTED, "1234", "gbp", 12, 2030);
+      PostPaymentResponse shortCard = payment(PaymentStatus.REJECTED, "12", "GBP", 12, 2030);
+      repository.add(lowerCase);
+      repository.add(shortCard);
+
+      assertThat(ids(repository.search(query(PaymentStatus.REJECTED, "GBP", null))))
+          .containsExactly(shortCard.getId(), lowerCase.getId());
+      assertThat(ids(repository.search(query(null, null, "1234")))).containsExactly(lowerCase.getId());
+    }
+
+    @Test
+    @DisplayName("search restricts results to the requested time window and limit")
+    void search_RestrictsToTimeWindow() {
+      PostPaymentResponse early = payment("1234", "GBP", 12, 2030);
+      PostPaymentResponse middle = payment("1234", "GBP", 12, 2030);
+      PostPaymentResponse late = payment("1234", "GBP", 12, 2030);
+      repository.add(early);
+      clock.advance(Duration.ofMinutes(5));
+      repository.add(middle);
+      clock.advance(Duration.ofMinutes(5));
+      repository.add(late);
+
+      Instant from = START.plus(Duration.ofMinutes(4));
+      Instant to = START.plus(Duration.ofMinutes(6));
+      assertThat(ids(repository.search(new PaymentQuery(null, "GBP", null, from, to, 10))))
+          .containsExactly(middle.getId());
+      assertThat(ids(repository.search(new PaymentQuery(null, null, null, from, null, 10))))
+          .containsExactly(late.getId(), middle.getId());
+      assertThat(ids(repository.search(new PaymentQuery(null, null, null, null, null, 2))))
+          .containsExactly(late.getId(), middle.getId());
+      assertThat(repository.search(new PaymentQuery(null, null, null, START.plusSeconds(3600), null, 10)))
+          .isEmpty();
+    }
+
+    @Test
+    @DisplayName("re-adding a payment moves it between index entries")
+    void add_UpdatesIndexEntries() {
+      PostPaymentResponse payment = payment(PaymentStatus.AUTHORIZED, "1234", "GBP", 12, 2030);
+      repository.add(payment);
+      payment.setStatus(PaymentStatus.DECLINED);
+      repository.add(payment);
+
+      assertThat(repository.search(query(PaymentStatus.AUTHORIZED, null, null))).isEmpty();
+      assertThat(ids(repository.search(query(PaymentStatus.DECLINED, null, null))))
+          .containsExactly(payment.getId());
+      assertThat(repository.indexStats().getIndexedPayments()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("the oldest payments drop out of the index once the limit is exceeded")
+    void add_EvictsOldestChunkFromIndex() {
+      repository = new PaymentsRepository(1, clock);
+      PostPaymentResponse oldest = payment("1234", "GBP", 12, 2030);
+      repository.add(oldest);
+      for (int i = 1; i < 65_536; i++) {
+        repository.add(payment("0000", "USD", 12, 2030));
+      }
+      PostPaymentResponse newest = payment("1234", "GBP", 12, 2030);
+      repository.add(newest);
+
+      assertThat(ids(repository.search(query(null, null, "1234")))).containsExactly(newest.getId());
+      assertThat(repository.get(oldest.getId())).isPresent();
+      PaymentIndexStats stats = repository.indexStats();
+      assertThat(stats.getIndexedPayments()).isEqualTo(1);
+      assertThat(stats.getMaxIndexedPayments()).isEqualTo(65_536);
+    }
+  }
+
+  @Nested
+  @DisplayName("Versions and compare-and-set")
+  class CompareAndSetTests {
+
+    private PostPaymentResponse captured(PostPaymentResponse payment, int amount) {
+      PostPaymentResponse copy = repository.get(payment.getId()).orElseThrow();
+      copy.setStatus(PaymentStatus.CAPTURED);
+      copy.setCapturedAmount(amount);
+      return copy;
+    }
+
+    @Test
+    @DisplayName("every write of a payment stores the next version")
+    void add_IncrementsVersion() {
+      PostPaymentResponse payment = payment("1234", "GBP", 12, 2030);
+
+      repository.add(payment);
+      assertThat(repository.getVersioned(payment.getId()).orElseThrow().version()).isEqualTo(1);
+      repository.add(payment);
+      repository.update(payment.getId(), stored -> stored);
+
+      assertThat(repository.getVersioned(payment.getId()).orElseThrow().version()).isEqualTo(3);
+      assertThat(repository.version(payment.getId())).isEqualTo(3);
+      assertThat(repository.getVersioned(UUID.randomUUID())).isEmpty();
+      assertThat(repository.version(UUID.randomUUID())).isZero();
+    }
+
+    @Test
+    @DisplayName("compareAndSet writes only at the expected version")
+    void compareAndSet_WritesOnlyAtExpectedVersion() {
+      PostPaymentResponse payment = payment("1234", "GBP", 12, 2030);
+      repository.add(payment);
+
+      assertThat(repository.compareAndSet(payment.getId(), 1, captured(payment, 10))).isTrue();
+      assertThat(repository.compareAndSet(payment.getId(), 1, captured(payment, 20))).isFalse();
+
+      VersionedPayment stored = repository.getVersioned(payment.getId()).orElseThrow();
+      assertThat(stored.version()).isEqualTo(2);
+      assertThat(stored.payment().getCapturedAmount()).isEqualTo(10);
+      assertThat(ids(repository.search(query(PaymentStatus.CAPTURED, null, null)))).containsExactly(payment.getId());
+      PostPaymentResponse unknown = payment("1234", "GBP", 12, 2030);
+      assertThat(repository.compareAndSet(unknown.getId(), 1, unknown)).isFalse();
+      assertThatThrownBy(() -> repository.compareAndSet(payment.getId(), 2, payment("1234", "GBP", 12, 2030)))
+          .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    /**
+     * In the manner of a jcstress test: in each round two actors race to replace the same version
+     * of a fresh payment, and an arbiter checks the only outcome allowed by a linearizable
+     * compare-and-set, exactly one winner whose payment is the one stored.
+     */
+    @Test
+    @DisplayName("of actors racing on the same version exactly one wins, in every round")
+    void compareAndSet_IsLinearizable_UnderRaces() throws Exception {
+      int rounds = 2_000;
+      PostPaymentResponse[] payments = new PostPaymentResponse[rounds];
+      for (int round = 0; round < rounds; round++) {
+        payments[round] = payment("1234", "GBP", 12, 2030);
+        repository.add(payments[round]);
+      }
+      boolean[][] won = new boolean[2][rounds];
+      CyclicBarrier barrier = new CyclicBarrier(2);
+      List<Thread> actors = new ArrayList<>();
+      for (int actor = 0; actor < 2; actor++) {
+        int amount = actor + 1;
+        boolean[] results = won[actor];
+        Thread thread = new Thread(() -> {
+          try {
+            for (int round = 0; round < rounds; round++) {
+              PostPaymentResponse replacement = captured(payments[round], amount);
+              barrier.await();
+              results[round] = repository.compareAndSet(replacement.getId(), 1, replacement);
+            }
+          } catch (InterruptedException | BrokenBarrierException e) {
+            Thread.currentThread().interrupt();
+          }
+        });
+        actors.add(thread);
+        thread.start();
+      }
+      for (Thread actor : actors) {
+        actor.join();
+      }
+
+      for (int round = 0; round < rounds; round++) {
+        assertThat(won[0][round]).as("round %d", round).isNotEqualTo(won[1][round]);
+        VersionedPayment stored = repository.getVersioned(payments[round].getId()).orElseThrow();
+        assertThat(stored.version()).isEqualTo(2);
+        assertThat(stored.payment().getCapturedAmount()).isEqualTo(won[0][round] ? 1 : 2);
+      }
+    }
+  }
+
+  @Nested
+  @DisplayName("Updates")
+  class UpdateTests {
+
+    @Test
+    @DisplayName("update stores the changed payment and reindexes it")
+    void update_StoresChangedPayment() {
+      PostPaymentResponse payment = payment("1234", "GBP", 12, 2030);
+      repository.add(payment);
+
+      Optional<PostPaymentResponse> updated = repository.update(payment.getId(), stored -> {
+        stored.setStatus(PaymentStatus.CAPTURED);
+        stored.setCapturedAmount(500);
+        return stored;
+      });
+
+      assertThat(updated).hasValueSatisfying(stored -> assertThat(stored.getCapturedAmount()).isEqualTo(500));
+      assertThat(repository.get(payment.getId())).hasValueSatisfying(stored -> {
+        assertThat(stored.getStatus()).isEqualTo(PaymentStatus.CAPTURED);
+        assertThat(stored.getCapturedAmount()).isEqualTo(500);
+      });
+      assertThat(ids(repository.search(query(PaymentStatus.CAPTURED, null, null)))).containsExactly(payment.getId());
+      assertThat(repository.search(query(PaymentStatus.AUTHORIZED, null, null))).isEmpty();
+    }
+
+    @Test
+    @DisplayName("update leaves the payment unchanged when the change throws, and skips unknown ids")
+    void update_LeavesPaymentUnchanged_WhenChangeThrows() {
+      PostPaymentResponse payment = payment("1234", "GBP", 12, 2030);
+      repository.add(payment);
+
+      assertThatThrownBy(() -> repository.update(payment.getId(), stored -> {
+        stored.setStatus(PaymentStatus.VOIDED);
+        throw new IllegalStateException("refused");
+      })).isInstanceOf(IllegalStateException.class);
+
+      assertThat(repository.get(payment.getId()).orElseThrow().getStatus()).isEqualTo(PaymentStatus.AUTHORIZED);
+      assertThat(repository.update(UUID.randomUUID(), stored -> stored)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("concurrent updates of the same payment are all applied")
+    void update_SerializesConcurrentChanges() throws Exception {
+      PostPaymentResponse payment = payment("1234", "GBP", 12, 2030);
+      repository.add(payment);
+      List<Integer> seen = new ArrayList<>();
+      repository.addListener((row, stored) -> seen.add(stored.getCapturedAmount()));
+      int threads = 4;
+      int updates = 5_000;
+      CountDownLatch start = new CountDownLatch(1);
+      List<Thread> workers = new ArrayList<>();
+      for (int t = 0; t < threads; t++) {
+        Thread worker = new Thread(() -> {
+          try {
+            start.await();
+          } catch (InterruptedException e) {
+            return;
+          }
+          for (int i = 0; i < updates; i++) {
+            repository.update(payment.getId(), stored -> {
+              stored.setCapturedAmount(stored.getCapturedAmount() + 1);
+              return stored;
+            });
+          }
+        });
+        workers.add(worker);
+        worker.start();
+      }
+      start.countDown();
+      for (Thread worker : workers) {
+        worker.join();
+      }
+
+      assertThat(repository.get(payment.getId()).orElseThrow().getCapturedAmount()).isEqualTo(threads * updates);
+      // Listeners are called inside the write, one version at a time and in order
+      assertThat(seen).hasSize(threads * updates).isSorted();
+      assertThat(repository.getVersioned(payment.getId()).orElseThrow().version()).isEqualTo(threads * updates + 1);
+    }
+  }
+
+  @Nested
+  @DisplayName("Memory Footprint Tests")
+  class FootprintTests {
+
+    private static final int PAYMENTS = 100_000;
+
+    // Packed record (32, the index row pushed it past 24) + UUID key (32) + map node (32) + table
+    // slot, plus ~25 bytes of secondary indexes once their fixed cost is amortized; raise only
+    // deliberately
+    private static final long MAX_BYTES_PER_PAYMENT = 140;
+    private static final long MAX_BYTES_PER_RECORD = 32;
+    private static final long MAX_INDEX_BYTES_PER_PAYMENT = 40;
+
+    @Test
+    @DisplayName("a packed payment record stays within its byte budget")
+    void packedRecord_StaysWithinBudget() {
+      PackedPayment packed = PackedPayment.pack(payment("4321", "USD", 12, 2030), 0, 1);
+
+      assertThat(GraphLayout.parseInstance(packed).totalSize()).isLessThanOrEqualTo(MAX_BYTES_PER_RECORD);
+    }
+
+    @Test
+    @DisplayName("the repository stays within its bytes-per-payment budget")
+    void repository_StaysWithinBudgetPerPayment() {
+      Map<UUID, PostPaymentResponse> unpacked = new HashMap<>();
+      for (int i = 0; i < PAYMENTS; i++) {
+        // New strings per payment, as produced by request deserialization
+        PostPaymentResponse payment = payment(
+            new String(String.format("%04d", i % 10_000)), new String("USD"), 12, 2030);
+        repository.add(payment);
+        unpacked.put(payment.getId(), payment);
+      }
+
+      long packedBytesPerPayment = GraphLayout.parseInstance(repository).totalSize() / PAYMENTS;
+      long unpackedBytesPerPayment = GraphLayout.parseInstance(unpacked).totalSize() / PAYMENTS;
+
+      assertThat(packedBytesPerPayment).isLessThanOrEqualTo(MAX_BYTES_PER_PAYMENT);
+      // The UUID key and map node are common to both, the stored value itself shrinks ~5x, which
+      // keeps the store and its indexes well below an unindexed map of response objects
+      assertThat(packedBytesPerPayment).isLessThanOrEqualTo(unpackedBytesPerPayment * 3 / 4);
+      assertThat(repository.indexStats().getEstimatedBytes() / PAYMENTS)
+          .isLessThanOrEqualTo(MAX_INDEX_BYTES_PER_PAYMENT);
+    }
+  }
+
+  private static final class MutableClock extends Clock {
+
+    private Instant instant;
+
+    MutableClock(Instant instant) {
+      this.instant = instant;
+    }
+
+    void advance(Duration duration) {
+      instant = instant.plus(duration);
+    }
+
+    @Override
+    public ZoneId getZone() {
+      return ZoneOffset.UTC;
+    }
+
+    @Override
+    public Clock withZone(ZoneId zone) {
+      return this;
+    }
+
+    @Override
+    public Instant instant() {
+      return instant;
+    }
+  }
+}
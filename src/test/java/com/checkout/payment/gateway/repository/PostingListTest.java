@@ -0,0 +1,96 @@
+package com.checkout.payment.gateway.repository;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class PostingListTest {
+
+  private static PostingList of(int... rows) {
+    PostingList list = new PostingList();
+    for (int row : rows) {
+      list.add(row);
+    }
+    return list;
+  }
+
+  @Test
+  @DisplayName("add, remove and contains work across containers and duplicate adds")
+  void add_TracksRowsAcrossContainers() {
+    PostingList list = of(5, 3, 70_000, 5);
+
+    assertThat(list.cardinality()).isEqualTo(3);
+    assertThat(list.containerCount()).isEqualTo(2);
+    assertThat(list.contains(3)).isTrue();
+    assertThat(list.contains(4)).isFalse();
+
+    list.remove(70_000);
+    list.remove(4);
+
+    assertThat(list.containerCount()).isEqualTo(1);
+    assertThat(list.copy().toArrayDescending(10)).containsExactly(5, 3);
+  }
+
+  @Test
+  @DisplayName("a dense container switches to a bitmap and keeps its contents")
+  void add_SwitchesDenseContainerToBitmap() {
+    PostingList list = new PostingList();
+    for (int row = 0; row < 10_000; row += 2) {
+      list.add(row);
+    }
+    long sparseBytes = of(0, 2, 4).sizeInBytes();
+
+    assertThat(list.cardinality()).isEqualTo(5_000);
+    assertThat(list.contains(9_998)).isTrue();
+    assertThat(list.contains(9_999)).isFalse();
+    assertThat(list.sizeInBytes()).isGreaterThan(8_192).isLessThan(8_192 + sparseBytes);
+    list.remove(9_998);
+    assertThat(list.copy().toArrayDescending(2)).containsExactly(9_996, 9_994);
+  }
+
+  @Test
+  @DisplayName("retain intersects array and bitmap containers")
+  void retain_IntersectsContainers() {
+    PostingList evens = new PostingList();
+    PostingList multiplesOfThree = new PostingList();
+    for (int row = 0; row < 30_000; row++) {
+      if (row % 2 == 0) {
+        evens.add(row);
+      }
+      if (row % 3 == 0) {
+        multiplesOfThree.add(row);
+      }
+    }
+    PostingList sparse = of(6, 7, 12, 100_000);
+
+    PostingList dense = evens.copy();
+    dense.retain(multiplesOfThree);
+    PostingList mixed = sparse.copy();
+    mixed.retain(evens);
+
+    assertThat(dense.cardinality()).isEqualTo(5_000);
+    assertThat(dense.toArrayDescending(2)).containsExactly(29_994, 29_988);
+    assertThat(mixed.toArrayDescending(10)).containsExactly(12, 6);
+  }
+
+  @Test
+  @DisplayName("retainRange keeps only rows in the half-open range")
+  void retainRange_ClipsRows() {
+    PostingList list = of(1, 10, 65_535, 65_536, 131_072, 200_000);
+
+    list.retainRange(10, 131_072);
+
+    assertThat(list.toArrayDescending(10)).containsExactly(65_536, 65_535, 10);
+  }
+
+  @Test
+  @DisplayName("removeContainer drops every row sharing the high bits")
+  void removeContainer_DropsChunk() {
+    PostingList list = of(1, 2, 65_537);
+
+    list.removeContainer(0);
+
+    assertThat(list.copy().toArrayDescending(10)).containsExactly(65_537);
+  }
+}
@@ -0,0 +1,148 @@
+package com.checkout.payment.gateway.routing;
+
+import com.checkout.payment.gateway.bin.BinLookupService;
+import com.checkout.payment.gateway.model.AcquirerStats;
+import com.checkout.payment.gateway.model.PostPaymentRequest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class AcquirerRouterTest {
+
+  private static final List<String> ACQUIRERS = List.of(
+      "primary=http://localhost:8080", "secondary=http://localhost:8081", "amex=http://localhost:8082");
+  private static final long MILLIS = TimeUnit.MILLISECONDS.toNanos(1);
+
+  private final AtomicLong now = new AtomicLong();
+  private final BinLookupService binLookupService = new BinLookupService("", 0);
+  private PostPaymentRequest request;
+
+  @BeforeEach
+  void setUp() {
+    request = new PostPaymentRequest();
+    request.setCardNumber("4532015112830369");
+    request.setCurrency("GBP");
+  }
+
+  private AcquirerRouter router(List<String> acquirers, List<String> rules) {
+    return new AcquirerRouter(binLookupService, acquirers, "http://localhost:8080", rules, 10_000, 0.5, now::get);
+  }
+
+  private Map<String, Integer> route(AcquirerRouter router, int payments) {
+    Map<String, Integer> counts = new HashMap<>();
+    for (int i = 0; i < payments; i++) {
+      counts.merge(router.choose(request, List.of()).name(), 1, Integer::sum);
+    }
+    return counts;
+  }
+
+  private void respond(AcquirerRouter router, String name, long latencyMillis, boolean failed) {
+    Acquirer acquirer = router.choose(request, List.of());
+    while (!acquirer.name().equals(name)) {
+      acquirer = router.choose(request, List.of(acquirer));
+    }
+    long started = router.started(acquirer);
+    now.addAndGet(latencyMillis * MILLIS);
+    router.finished(acquirer, started, failed);
+  }
+
+  @Test
+  @DisplayName("with no acquirers configured every payment goes to the acquiring bank url")
+  void choose_UsesBankUrl_WhenNoAcquirersAreConfigured() {
+    Acquirer acquirer = router(List.of(), List.of()).choose(request, List.of());
+
+    assertThat(acquirer.name()).isEqualTo("default");
+    assertThat(acquirer.url()).isEqualTo("http://localhost:8080");
+  }
+
+  @Test
+  @DisplayName("the first matching rule restricts the acquirers a payment may go to")
+  void choose_FollowsRules() {
+    AcquirerRouter router = router(ACQUIRERS, List.of("scheme:AMEX=amex", "currency:EUR=secondary|amex",
+        "bin:453201=primary"));
+
+    assertThat(route(router, 50)).containsOnlyKeys("primary");
+    request.setCardNumber("4111111111111111");
+    assertThat(route(router, 200)).containsOnlyKeys("primary", "secondary", "amex");
+    request.setCurrency("eur");
+    assertThat(route(router, 200)).containsOnlyKeys("secondary", "amex");
+    request.setCardNumber("378282246310005");
+    assertThat(route(router, 50)).containsOnlyKeys("amex");
+  }
+
+  @Test
+  @DisplayName("payments go to the acquirer with the lower latency more often")
+  void choose_PrefersLowerLatency() {
+    AcquirerRouter router = router(ACQUIRERS.subList(0, 2), List.of());
+    respond(router, "primary", 200, false);
+    respond(router, "secondary", 20, false);
+
+    assertThat(route(router, 100)).containsOnlyKeys("secondary");
+  }
+
+  @Test
+  @DisplayName("requests in flight make an acquirer look slower")
+  void choose_AccountsForRequestsInFlight() {
+    AcquirerRouter router = router(ACQUIRERS.subList(0, 2), List.of());
+    respond(router, "primary", 20, false);
+    respond(router, "secondary", 30, false);
+    Acquirer primary = router.choose(request, List.of());
+    assertThat(primary.name()).isEqualTo("primary");
+
+    router.started(primary);
+
+    assertThat(route(router, 50)).containsOnlyKeys("secondary");
+  }
+
+  @Test
+  @DisplayName("a failing acquirer is skipped while degraded and tried again once its errors decay")
+  void choose_SkipsDegradedAcquirer_UntilItRecovers() {
+    AcquirerRouter router = router(ACQUIRERS.subList(0, 2), List.of());
+    respond(router, "secondary", 500, false);
+    for (int i = 0; i < 5; i++) {
+      respond(router, "primary", 1, true);
+    }
+
+    assertThat(router.stats()).filteredOn(AcquirerStats::isDegraded).extracting(AcquirerStats::getName)
+        .containsExactly("primary");
+    assertThat(route(router, 50)).containsOnlyKeys("secondary");
+
+    now.addAndGet(TimeUnit.SECONDS.toNanos(30));
+    assertThat(router.stats()).noneMatch(AcquirerStats::isDegraded);
+    assertThat(route(router, 50)).containsKey("primary");
+  }
+
+  @Test
+  @DisplayName("a degraded acquirer is still used when it is the only one left")
+  void choose_UsesDegradedAcquirer_WhenNoOtherIsLeft() {
+    AcquirerRouter router = router(ACQUIRERS.subList(0, 2), List.of());
+    for (int i = 0; i < 5; i++) {
+      respond(router, "primary", 1, true);
+    }
+    Acquirer secondary = router.choose(request, List.of());
+
+    assertThat(router.choose(request, List.of(secondary)).name()).isEqualTo("primary");
+    assertThat(router.choose(request, List.of(secondary, router.choose(request, List.of(secondary))))).isNull();
+  }
+
+  @Test
+  @DisplayName("rules naming unknown acquirers or fields are rejected")
+  void constructor_RejectsInvalidRules() {
+    assertThatThrownBy(() -> router(ACQUIRERS, List.of("currency:EUR=nope")))
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessageContaining("Unknown acquirer nope");
+    assertThatThrownBy(() -> router(ACQUIRERS, List.of("amount:100=primary")))
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessageContaining("Unknown routing rule field");
+    assertThatThrownBy(() -> router(List.of("primary"), List.of()))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+}
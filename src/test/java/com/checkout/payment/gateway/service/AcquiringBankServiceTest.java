@@ -1,26 +1,40 @@
 package com.checkout.payment.gateway.service;
 
+import com.checkout.payment.gateway.bin.BinLookupService;
+import com.checkout.payment.gateway.codec.AcquiringBankRequestEncoder;
+import com.checkout.payment.gateway.codec.PaymentJsonCodec;
 import com.checkout.payment.gateway.exception.PaymentProcessingException;
 import com.checkout.payment.gateway.model.PostAcquiringBankResponse;
 import com.checkout.payment.gateway.model.PostPaymentRequest;
+import com.checkout.payment.gateway.routing.AcquirerRouter;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.test.context.TestPropertySource;
 import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
 import org.springframework.web.client.RestClientException;
 import org.springframework.web.client.RestTemplate;
+import java.net.ConnectException;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -28,6 +42,7 @@ public class AcquiringBankServiceTest {
 
   private static final String BANK_URL = "http://localhost:8080";
   private static final String PAYMENTS_API = "/payments";
+  private static final String SECONDARY_BANK_URL = "http://localhost:8081";
 
   @Mock
   private RestTemplate restTemplate;
@@ -38,17 +53,28 @@ public class AcquiringBankServiceTest {
 
   @BeforeEach
   void setUp() {
-    service = new AcquiringBankService(restTemplate, BANK_URL);
+    service = service(List.of());
     paymentRequest = new PostPaymentRequest();
+    paymentRequest.setCardNumber("4532015112830369");
+    paymentRequest.setExpiryMonth(4);
+    paymentRequest.setExpiryYear(2030);
+    paymentRequest.setCurrency("GBP");
+    paymentRequest.setAmount(100);
+    paymentRequest.setCvv("123");
     bankResponse = new PostAcquiringBankResponse();
   }
 
+  private AcquiringBankService service(List<String> acquirers) {
+    AcquirerRouter router = new AcquirerRouter(new BinLookupService("", 0), acquirers, BANK_URL, List.of(), 10_000, 0.5);
+    return new AcquiringBankService(restTemplate, new AcquiringBankRequestEncoder(new PaymentJsonCodec()), router);
+  }
+
   @Test
   @DisplayName("processPayment succeeds when bank returns valid response")
   void processPayment_Succeeds() {
     bankResponse.setAuthorized(true);
     bankResponse.setAuthorizationCode("AUTH123");
-    when(restTemplate.postForObject(BANK_URL + PAYMENTS_API, paymentRequest, PostAcquiringBankResponse.class))
+    when(restTemplate.postForObject(eq(BANK_URL + PAYMENTS_API), any(HttpEntity.class), eq(PostAcquiringBankResponse.class)))
         .thenReturn(bankResponse);
 
     PostAcquiringBankResponse result = service.processPayment(paymentRequest);
@@ -57,10 +83,27 @@ public class AcquiringBankServiceTest {
     assertThat(result.getAuthorizationCode()).isEqualTo("AUTH123");
   }
 
+  @Test
+  @DisplayName("processPayment sends exactly the fields expected by the bank")
+  @SuppressWarnings("unchecked")
+  void processPayment_SendsBankPayload() {
+    when(restTemplate.postForObject(eq(BANK_URL + PAYMENTS_API), any(HttpEntity.class), eq(PostAcquiringBankResponse.class)))
+        .thenReturn(bankResponse);
+
+    service.processPayment(paymentRequest);
+
+    ArgumentCaptor<HttpEntity<byte[]>> captor = ArgumentCaptor.forClass(HttpEntity.class);
+    verify(restTemplate).postForObject(eq(BANK_URL + PAYMENTS_API), captor.capture(), eq(PostAcquiringBankResponse.class));
+    assertThat(captor.getValue().getHeaders().getContentType()).isEqualTo(MediaType.APPLICATION_JSON);
+    assertThat(new String(captor.getValue().getBody(), StandardCharsets.UTF_8)).isEqualTo(
+        "{\"card_number\":\"4532015112830369\",\"expiry_date\":\"4/2030\","
+            + "\"currency\":\"GBP\",\"amount\":100,\"cvv\":\"123\"}");
+  }
+
   @Test
   @DisplayName("processPayment throws PaymentProcessingException on BadRequest")
   void processPayment_ThrowsOnBadRequest() {
-    when(restTemplate.postForObject(anyString(), eq(paymentRequest), eq(PostAcquiringBankResponse.class)))
+    when(restTemplate.postForObject(anyString(), any(HttpEntity.class), eq(PostAcquiringBankResponse.class)))
         .thenThrow(
             HttpClientErrorException.create(
                 HttpStatus.BAD_REQUEST,
@@ -79,7 +122,7 @@ public class AcquiringBankServiceTest {
   @Test
   @DisplayName("processPayment throws PaymentProcessingException on ServiceUnavailable")
   void processPayment_ThrowsOnServiceUnavailable() {
-    when(restTemplate.postForObject(anyString(), eq(paymentRequest), eq(PostAcquiringBankResponse.class)))
+    when(restTemplate.postForObject(anyString(), any(HttpEntity.class), eq(PostAcquiringBankResponse.class)))
         .thenThrow(
             HttpServerErrorException.create(
                 HttpStatus.SERVICE_UNAVAILABLE,
@@ -98,11 +141,56 @@ public class AcquiringBankServiceTest {
   @Test
   @DisplayName("processPayment throws PaymentProcessingException on connection timeout")
   void processPayment_ThrowsOnTimeout() {
-    when(restTemplate.postForObject(anyString(), eq(paymentRequest), eq(PostAcquiringBankResponse.class)))
+    when(restTemplate.postForObject(anyString(), any(HttpEntity.class), eq(PostAcquiringBankResponse.class)))
         .thenThrow(new RestClientException("Connection timeout"));
 
     assertThatThrownBy(() -> service.processPayment(paymentRequest))
         .isInstanceOf(PaymentProcessingException.class)
         .hasMessageContaining("Bank request failed");
   }
+
+  @Test
+  @DisplayName("processPayment fails over to another acquirer when one is unavailable")
+  void processPayment_FailsOver_WhenAcquirerIsUnavailable() {
+    service = service(List.of("primary=" + BANK_URL, "secondary=" + SECONDARY_BANK_URL));
+    bankResponse.setAuthorized(true);
+    when(restTemplate.postForObject(anyString(), any(HttpEntity.class), eq(PostAcquiringBankResponse.class)))
+        .thenAnswer(invocation -> {
+          if (invocation.getArgument(0).equals(BANK_URL + PAYMENTS_API)) {
+            throw new ResourceAccessException("Connection refused", new ConnectException("Connection refused"));
+          }
+          return bankResponse;
+        });
+
+    for (int i = 0; i < 10; i++) {
+      assertThat(service.processPayment(paymentRequest).isAuthorized()).isTrue();
+    }
+  }
+
+  @Test
+  @DisplayName("processPayment does not fail over when the acquirer may have processed the payment")
+  void processPayment_DoesNotFailOver_OnTimeout() {
+    service = service(List.of("primary=" + BANK_URL, "secondary=" + SECONDARY_BANK_URL));
+    when(restTemplate.postForObject(anyString(), any(HttpEntity.class), eq(PostAcquiringBankResponse.class)))
+        .thenThrow(new ResourceAccessException("Read timed out", new SocketTimeoutException("Read timed out")));
+
+    assertThatThrownBy(() -> service.processPayment(paymentRequest))
+        .isInstanceOf(PaymentProcessingException.class)
+        .hasMessageContaining("Bank request failed");
+    verify(restTemplate).postForObject(anyString(), any(HttpEntity.class), eq(PostAcquiringBankResponse.class));
+  }
+
+  @Test
+  @DisplayName("processPayment throws once every acquirer is unavailable")
+  void processPayment_Throws_WhenAllAcquirersAreUnavailable() {
+    service = service(List.of("primary=" + BANK_URL, "secondary=" + SECONDARY_BANK_URL));
+    when(restTemplate.postForObject(anyString(), any(HttpEntity.class), eq(PostAcquiringBankResponse.class)))
+        .thenThrow(HttpServerErrorException.create(HttpStatus.SERVICE_UNAVAILABLE, "Bank down", HttpHeaders.EMPTY, null, null));
+
+    assertThatThrownBy(() -> service.processPayment(paymentRequest))
+        .isInstanceOf(PaymentProcessingException.class)
+        .hasMessageContaining("Bank unavailable");
+    verify(restTemplate).postForObject(eq(BANK_URL + PAYMENTS_API), any(HttpEntity.class), eq(PostAcquiringBankResponse.class));
+    verify(restTemplate).postForObject(eq(SECONDARY_BANK_URL + PAYMENTS_API), any(HttpEntity.class), eq(PostAcquiringBankResponse.class));
+  }
 }
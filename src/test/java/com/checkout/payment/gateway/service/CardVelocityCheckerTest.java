@@ -0,0 +1,156 @@
+package com.checkout.payment.gateway.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class CardVelocityCheckerTest {
+
+  private static final String CARD = "4532015112830369";
+  private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+  private final AtomicLong now = new AtomicLong();
+
+  private CardVelocityChecker checker(int capacity, int maxPayments, long maxAmount) {
+    return new CardVelocityChecker(capacity, 60, maxPayments, maxAmount, now::get);
+  }
+
+  @Test
+  @DisplayName("a card is refused once it reaches the payment limit in any currency, other cards are not")
+  void tryAcquire_RefusesCardOverPaymentLimit() {
+    CardVelocityChecker checker = checker(1024, 3, 0);
+
+    assertThat(checker.tryAcquire(CARD, "GBP", 100)).isTrue();
+    assertThat(checker.tryAcquire(CARD, "USD", 100)).isTrue();
+    assertThat(checker.tryAcquire(CARD, "EUR", 100)).isTrue();
+
+    assertThat(checker.tryAcquire(CARD, "GBP", 100)).isFalse();
+    assertThat(checker.tryAcquire(CARD, "usd", 100)).isFalse();
+    assertThat(checker.tryAcquire("4532015112830370", "GBP", 100)).isTrue();
+    assertThat(checker.stats().getRejected()).isEqualTo(2);
+  }
+
+  @Test
+  @DisplayName("a card is refused a payment that would take it over the amount limit")
+  void tryAcquire_RefusesCardOverAmountLimit() {
+    CardVelocityChecker checker = checker(1024, 0, 1000);
+
+    assertThat(checker.tryAcquire(CARD, "GBP", 600)).isTrue();
+    assertThat(checker.tryAcquire(CARD, "GBP", 500)).isFalse();
+    assertThat(checker.tryAcquire(CARD, "GBP", 400)).isTrue();
+    assertThat(checker.tryAcquire(CARD, "GBP", 1)).isFalse();
+  }
+
+  @Test
+  @DisplayName("amounts are limited per currency, while both limits apply together")
+  void tryAcquire_LimitsAmountPerCurrency() {
+    CardVelocityChecker checker = checker(1024, 3, 1000);
+
+    assertThat(checker.tryAcquire(CARD, "GBP", 1000)).isTrue();
+    assertThat(checker.tryAcquire(CARD, "GBP", 1)).isFalse();
+    assertThat(checker.tryAcquire(CARD, "USD", 1000)).isTrue();
+    // Refused on amount, so not counted against the payment limit
+    assertThat(checker.tryAcquire(CARD, "USD", 1)).isFalse();
+    assertThat(checker.tryAcquire(CARD, "EUR", 1)).isTrue();
+    assertThat(checker.tryAcquire(CARD, "EUR", 1)).isFalse();
+  }
+
+  @Test
+  @DisplayName("payments count less as they slide out of the window")
+  void tryAcquire_SlidesWindow() {
+    CardVelocityChecker checker = checker(1024, 4, 0);
+    for (int i = 0; i < 4; i++) {
+      assertThat(checker.tryAcquire(CARD, "GBP", 100)).isTrue();
+    }
+
+    // A sixth into the next window, five sixths of the previous four still count
+    now.addAndGet(70 * SECOND);
+    assertThat(checker.tryAcquire(CARD, "GBP", 100)).isFalse();
+    // Half way, half of them do
+    now.addAndGet(20 * SECOND);
+    assertThat(checker.tryAcquire(CARD, "GBP", 100)).isTrue();
+    assertThat(checker.tryAcquire(CARD, "GBP", 100)).isTrue();
+    assertThat(checker.tryAcquire(CARD, "GBP", 100)).isFalse();
+
+    now.addAndGet(120 * SECOND);
+    for (int i = 0; i < 4; i++) {
+      assertThat(checker.tryAcquire(CARD, "GBP", 100)).isTrue();
+    }
+  }
+
+  @Test
+  @DisplayName("expired cards make room without evictions, active ones are evicted only when the table is full")
+  void tryAcquire_ReusesExpiredSlots() {
+    CardVelocityChecker checker = checker(CardVelocityChecker.WAYS, 1, 0);
+    for (int i = 0; i < CardVelocityChecker.WAYS; i++) {
+      assertThat(checker.tryAcquire(String.valueOf(i), "GBP", 100)).isTrue();
+    }
+    assertThat(checker.tryAcquire("0", "GBP", 100)).isFalse();
+
+    now.addAndGet(120 * SECOND);
+    for (int i = CardVelocityChecker.WAYS; i < 2 * CardVelocityChecker.WAYS; i++) {
+      assertThat(checker.tryAcquire(String.valueOf(i), "GBP", 100)).isTrue();
+    }
+    assertThat(checker.stats().getEvicted()).isZero();
+
+    assertThat(checker.tryAcquire("new", "GBP", 100)).isTrue();
+    assertThat(checker.stats().getEvicted()).isEqualTo(1);
+  }
+
+  @Test
+  @DisplayName("concurrent payments on one card never exceed the limit")
+  void tryAcquire_IsAtomicUnderConcurrency() throws Exception {
+    CardVelocityChecker checker = checker(1 << 16, 100, 0);
+    AtomicInteger accepted = new AtomicInteger();
+    CountDownLatch start = new CountDownLatch(1);
+    List<Thread> threads = new ArrayList<>();
+    for (int t = 0; t < 8; t++) {
+      Thread thread = new Thread(() -> {
+        try {
+          start.await();
+        } catch (InterruptedException e) {
+          return;
+        }
+        for (int i = 0; i < 1000; i++) {
+          if (checker.tryAcquire(CARD, "GBP", 1)) {
+            accepted.incrementAndGet();
+          }
+          checker.tryAcquire(String.valueOf(i), "GBP", 1);
+        }
+      });
+      threads.add(thread);
+      thread.start();
+    }
+    start.countDown();
+    for (Thread thread : threads) {
+      thread.join();
+    }
+
+    assertThat(accepted.get()).isEqualTo(100);
+  }
+
+  @Test
+  @DisplayName("no payment is refused when no limit is set")
+  void tryAcquire_AllowsEverything_WhenDisabled() {
+    CardVelocityChecker checker = checker(1024, 0, 0);
+
+    for (int i = 0; i < 100; i++) {
+      assertThat(checker.tryAcquire(CARD, "GBP", 1_000_000)).isTrue();
+    }
+    assertThat(checker.isEnabled()).isFalse();
+  }
+
+  @Test
+  @DisplayName("the capacity must be a power of two")
+  void constructor_RejectsInvalidCapacity() {
+    assertThatThrownBy(() -> checker(1000, 1, 0)).isInstanceOf(IllegalArgumentException.class);
+  }
+}
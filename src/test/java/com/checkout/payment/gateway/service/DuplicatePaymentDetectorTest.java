@@ -0,0 +1,154 @@
+package com.checkout.payment.gateway.service;
+
+import com.checkout.payment.gateway.model.PostPaymentRequest;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class DuplicatePaymentDetectorTest {
+
+  private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+  private final AtomicLong now = new AtomicLong();
+
+  private DuplicatePaymentDetector detector(int capacity) {
+    return new DuplicatePaymentDetector(DuplicatePaymentDetector.Action.REJECT, 10, capacity, now::get);
+  }
+
+  private static PostPaymentRequest payment(String merchant, String cardNumber, int amount, String currency) {
+    PostPaymentRequest request = new PostPaymentRequest();
+    request.setMerchant(merchant);
+    request.setCardNumber(cardNumber);
+    request.setAmount(amount);
+    request.setCurrency(currency);
+    return request;
+  }
+
+  @Test
+  @DisplayName("a repeat of a recent payment is reported with the id of the first")
+  void check_ReportsRepeatedPayment() {
+    DuplicatePaymentDetector detector = detector(1024);
+    UUID first = UUID.randomUUID();
+
+    assertThat(detector.check(payment("m", "4532015112830369", 100, "GBP"), first)).isEmpty();
+
+    assertThat(detector.check(payment("m", "4532015112830369", 100, "gbp"), UUID.randomUUID())).contains(first);
+    assertThat(detector.check(payment("m", "4532015112830369", 100, "GBP"), UUID.randomUUID())).contains(first);
+    assertThat(detector.stats().getDuplicates()).isEqualTo(2);
+  }
+
+  @Test
+  @DisplayName("payments differing in merchant, card, amount or currency are not duplicates")
+  void check_IgnoresDistinctPayments() {
+    DuplicatePaymentDetector detector = detector(1024);
+    detector.check(payment("m", "4532015112830369", 100, "GBP"), UUID.randomUUID());
+
+    assertThat(detector.check(payment("n", "4532015112830369", 100, "GBP"), UUID.randomUUID())).isEmpty();
+    assertThat(detector.check(payment(null, "4532015112830369", 100, "GBP"), UUID.randomUUID())).isEmpty();
+    assertThat(detector.check(payment("m", "4532015112830370", 100, "GBP"), UUID.randomUUID())).isEmpty();
+    assertThat(detector.check(payment("m", "4532015112830369", 101, "GBP"), UUID.randomUUID())).isEmpty();
+    assertThat(detector.check(payment("m", "4532015112830369", 100, "USD"), UUID.randomUUID())).isEmpty();
+    assertThat(detector.check(payment("m4", "532015112830369", 100, "GBP"), UUID.randomUUID())).isEmpty();
+  }
+
+  @Test
+  @DisplayName("payments are forgotten once the window has passed")
+  void check_ForgetsPaymentsAfterWindow() {
+    DuplicatePaymentDetector detector = detector(1024);
+    UUID first = UUID.randomUUID();
+    detector.check(payment("m", "4532015112830369", 100, "GBP"), first);
+
+    now.addAndGet(9 * SECOND);
+    assertThat(detector.check(payment("m", "4532015112830369", 100, "GBP"), UUID.randomUUID())).contains(first);
+
+    now.addAndGet(2 * SECOND);
+    assertThat(detector.check(payment("m", "4532015112830369", 100, "GBP"), UUID.randomUUID())).isEmpty();
+  }
+
+  @Test
+  @DisplayName("a forgotten payment can be repeated, but only its own entry is forgotten")
+  void forget_LetsRetryThrough() {
+    DuplicatePaymentDetector detector = detector(1024);
+    UUID rejected = UUID.randomUUID();
+    detector.check(payment("m", "4532015112830369", 100, "GBP"), rejected);
+
+    detector.forget(payment("m", "4532015112830369", 100, "GBP"), rejected);
+    UUID retry = UUID.randomUUID();
+    assertThat(detector.check(payment("m", "4532015112830369", 100, "GBP"), retry)).isEmpty();
+
+    detector.forget(payment("m", "4532015112830369", 100, "GBP"), rejected);
+    assertThat(detector.check(payment("m", "4532015112830369", 100, "GBP"), UUID.randomUUID())).contains(retry);
+  }
+
+  @Test
+  @DisplayName("a full table forgets the oldest payment and never reports a stranger")
+  void check_EvictsOldest_WhenFull() {
+    // A single set of WAYS entries
+    DuplicatePaymentDetector detector = detector(DuplicatePaymentDetector.WAYS);
+    for (int i = 0; i <= DuplicatePaymentDetector.WAYS; i++) {
+      now.addAndGet(1);
+      assertThat(detector.check(payment("m", String.format("4%015d", i), 100, "GBP"), UUID.randomUUID())).isEmpty();
+    }
+
+    assertThat(detector.stats().getEvicted()).isEqualTo(1);
+    assertThat(detector.check(payment("m", String.format("4%015d", 0), 100, "GBP"), UUID.randomUUID())).isEmpty();
+    assertThat(detector.stats().getDuplicates()).isZero();
+  }
+
+  @Test
+  @DisplayName("of concurrent submissions of the same payment only one goes through")
+  void check_LetsOneOfConcurrentRepeatsThrough() throws Exception {
+    DuplicatePaymentDetector detector = detector(1024);
+    PostPaymentRequest request = payment("m", "4532015112830369", 100, "GBP");
+    AtomicInteger passed = new AtomicInteger();
+    CountDownLatch start = new CountDownLatch(1);
+    List<Thread> threads = new ArrayList<>();
+    for (int t = 0; t < 8; t++) {
+      Thread thread = new Thread(() -> {
+        try {
+          start.await();
+        } catch (InterruptedException e) {
+          return;
+        }
+        if (detector.check(request, UUID.randomUUID()).isEmpty()) {
+          passed.incrementAndGet();
+        }
+      });
+      threads.add(thread);
+      thread.start();
+    }
+    start.countDown();
+    for (Thread thread : threads) {
+      thread.join();
+    }
+
+    assertThat(passed.get()).isEqualTo(1);
+  }
+
+  @Test
+  @DisplayName("nothing is reported when detection is off")
+  void check_ReportsNothing_WhenOff() {
+    DuplicatePaymentDetector detector = new DuplicatePaymentDetector(
+        DuplicatePaymentDetector.Action.OFF, 10, 1024, now::get);
+    PostPaymentRequest request = payment("m", "4532015112830369", 100, "GBP");
+
+    assertThat(detector.check(request, UUID.randomUUID())).isEmpty();
+    assertThat(detector.check(request, UUID.randomUUID())).isEmpty();
+  }
+
+  @Test
+  @DisplayName("the capacity must be a power of two")
+  void constructor_RejectsInvalidCapacity() {
+    assertThatThrownBy(() -> detector(1000)).isInstanceOf(IllegalArgumentException.class);
+    assertThatThrownBy(() -> detector(2)).isInstanceOf(IllegalArgumentException.class);
+  }
+}
@@ -0,0 +1,119 @@
+package com.checkout.payment.gateway.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MerchantRateLimiterTest {
+
+  private final AtomicLong now = new AtomicLong(1_000_000_000L);
+
+  @Test
+  @DisplayName("a merchant can spend its burst at once and is then held to the refill rate")
+  void tryAcquire_AllowsBurstThenRate() {
+    MerchantRateLimiter limiter = new MerchantRateLimiter(10, 5, 300, now::get);
+
+    for (int i = 0; i < 5; i++) {
+      assertThat(limiter.tryAcquire("merchant")).isZero();
+    }
+    assertThat(limiter.tryAcquire("merchant")).isEqualTo(TimeUnit.MILLISECONDS.toNanos(100));
+
+    now.addAndGet(TimeUnit.MILLISECONDS.toNanos(100));
+    assertThat(limiter.tryAcquire("merchant")).isZero();
+    assertThat(limiter.tryAcquire("merchant")).isPositive();
+  }
+
+  @Test
+  @DisplayName("merchants are limited independently")
+  void tryAcquire_IsPerMerchant() {
+    MerchantRateLimiter limiter = new MerchantRateLimiter(1, 1, 300, now::get);
+
+    assertThat(limiter.tryAcquire("a")).isZero();
+    assertThat(limiter.tryAcquire("a")).isPositive();
+    assertThat(limiter.tryAcquire("b")).isZero();
+  }
+
+  @Test
+  @DisplayName("an idle bucket refills to the burst and no further")
+  void tryAcquire_RefillIsCappedAtBurst() {
+    MerchantRateLimiter limiter = new MerchantRateLimiter(10, 3, 300, now::get);
+    limiter.tryAcquire("merchant");
+
+    now.addAndGet(TimeUnit.SECONDS.toNanos(60));
+
+    int allowed = 0;
+    while (limiter.tryAcquire("merchant") == 0) {
+      allowed++;
+    }
+    assertThat(allowed).isEqualTo(3);
+  }
+
+  @Test
+  @DisplayName("concurrent callers never take more tokens than the burst")
+  void tryAcquire_IsExactUnderContention() throws Exception {
+    MerchantRateLimiter limiter = new MerchantRateLimiter(1, 1000, 300, now::get);
+    AtomicInteger allowed = new AtomicInteger();
+    CountDownLatch start = new CountDownLatch(1);
+    Thread[] threads = new Thread[4];
+    for (int t = 0; t < threads.length; t++) {
+      threads[t] = new Thread(() -> {
+        try {
+          start.await();
+        } catch (InterruptedException e) {
+          return;
+        }
+        for (int i = 0; i < 1000; i++) {
+          if (limiter.tryAcquire("merchant") == 0) {
+            allowed.incrementAndGet();
+          }
+        }
+      });
+      threads[t].start();
+    }
+    start.countDown();
+    for (Thread thread : threads) {
+      thread.join();
+    }
+
+    assertThat(allowed).hasValue(1000);
+  }
+
+  @Test
+  @DisplayName("buckets full for longer than the idle timeout are evicted")
+  void evictIdle_DropsOnlyIdleFullBuckets() {
+    MerchantRateLimiter limiter = new MerchantRateLimiter(1, 10, 60, now::get);
+    limiter.tryAcquire("idle");
+    now.addAndGet(TimeUnit.SECONDS.toNanos(59));
+    for (int i = 0; i < 10; i++) {
+      limiter.tryAcquire("busy");
+    }
+
+    now.addAndGet(TimeUnit.SECONDS.toNanos(5));
+    limiter.evictIdle();
+
+    assertThat(limiter.size()).isEqualTo(1);
+    // The busy bucket kept its state: 5 of its 10 tokens refilled, where a new bucket would be full
+    int allowed = 0;
+    while (limiter.tryAcquire("busy") == 0) {
+      allowed++;
+    }
+    assertThat(allowed).isEqualTo(5);
+  }
+
+  @Test
+  @DisplayName("a zero rate disables limiting")
+  void tryAcquire_AlwaysAllows_WhenDisabled() {
+    MerchantRateLimiter limiter = new MerchantRateLimiter(0, 0, 300, now::get);
+
+    for (int i = 0; i < 1000; i++) {
+      assertThat(limiter.tryAcquire("merchant")).isZero();
+    }
+    assertThat(limiter.isEnabled()).isFalse();
+    assertThat(limiter.size()).isZero();
+  }
+}
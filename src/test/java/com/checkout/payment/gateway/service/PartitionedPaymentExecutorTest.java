@@ -0,0 +1,194 @@
+package com.checkout.payment.gateway.service;
+
+import com.checkout.payment.gateway.model.PaymentLaneStats;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class PartitionedPaymentExecutorTest {
+
+  private PartitionedPaymentExecutor executor;
+
+  @AfterEach
+  void tearDown() throws InterruptedException {
+    executor.shutdown();
+  }
+
+  @Test
+  @DisplayName("tasks of one payment run one at a time in the order submitted")
+  void submit_RunsTasksOfOnePaymentInOrder() {
+    executor = new PartitionedPaymentExecutor(4, 16);
+    UUID id = UUID.randomUUID();
+    List<Integer> order = Collections.synchronizedList(new ArrayList<>());
+    List<CompletableFuture<Void>> futures = new ArrayList<>();
+
+    for (int i = 0; i < 1000; i++) {
+      int task = i;
+      futures.add(executor.submit(id, () -> {
+        order.add(task);
+        return null;
+      }));
+    }
+    CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).join();
+
+    assertThat(order).hasSize(1000).isSorted();
+  }
+
+  @Test
+  @DisplayName("a payment waiting on its lane does not hold up payments on other lanes")
+  void submit_RunsOtherLanesWhileOneIsBlocked() throws Exception {
+    executor = new PartitionedPaymentExecutor(2, 16);
+    UUID blocked = UUID.randomUUID();
+    UUID other = otherLane(blocked);
+    CountDownLatch release = new CountDownLatch(1);
+
+    CompletableFuture<Boolean> slow = executor.submit(blocked, () -> await(release));
+
+    assertThat(executor.call(other, () -> "done")).isEqualTo("done");
+    assertThat(slow).isNotDone();
+    release.countDown();
+    assertThat(slow.get(5, TimeUnit.SECONDS)).isTrue();
+  }
+
+  @Test
+  @DisplayName("a full mailbox makes submitters wait until the lane catches up")
+  void submit_WaitsWhileMailboxIsFull() throws Exception {
+    executor = new PartitionedPaymentExecutor(1, 2);
+    UUID id = UUID.randomUUID();
+    CountDownLatch release = new CountDownLatch(1);
+    executor.submit(id, () -> await(release));
+    // Wait for the lane to take the blocking task, leaving the mailbox empty
+    while (executor.stats().getMaxDepth() > 0) {
+      Thread.onSpinWait();
+    }
+    executor.submit(id, () -> null);
+    executor.submit(id, () -> null);
+
+    CompletableFuture<CompletableFuture<String>> third =
+        CompletableFuture.supplyAsync(() -> executor.submit(id, () -> "third"));
+    Thread.sleep(100);
+
+    assertThat(third).isNotDone();
+    assertThat(executor.stats().getMaxDepth()).isEqualTo(2);
+    release.countDown();
+    assertThat(third.get(5, TimeUnit.SECONDS).get(5, TimeUnit.SECONDS)).isEqualTo("third");
+    assertThat(executor.stats().getWaits()).isEqualTo(1);
+  }
+
+  @Test
+  @DisplayName("a task writing its own payment again runs in place rather than waiting on itself")
+  void call_RunsInPlace_OnOwnLane() {
+    executor = new PartitionedPaymentExecutor(2, 1);
+    UUID id = UUID.randomUUID();
+
+    String result = executor.call(id, () -> executor.call(id, () -> Thread.currentThread().getName()));
+
+    assertThat(result).startsWith("payment-lane-");
+  }
+
+  @Test
+  @DisplayName("call rethrows what the task throws")
+  void call_RethrowsTaskException() {
+    executor = new PartitionedPaymentExecutor(2, 16);
+    UUID id = UUID.randomUUID();
+
+    assertThatThrownBy(() -> executor.call(id, () -> {
+      throw new IllegalStateException("boom");
+    })).isInstanceOf(IllegalStateException.class).hasMessage("boom");
+    assertThat(executor.call(id, () -> 1)).isEqualTo(1);
+  }
+
+  @Test
+  @DisplayName("stats report the work of each lane and how evenly it is spread")
+  void stats_ReportLanesAndImbalance() {
+    executor = new PartitionedPaymentExecutor(4, 16);
+    for (int i = 0; i < 4000; i++) {
+      executor.run(UUID.randomUUID(), () -> { });
+    }
+    UUID hot = UUID.randomUUID();
+    for (int i = 0; i < 4000; i++) {
+      executor.run(hot, () -> { });
+    }
+
+    PaymentLaneStats stats = executor.stats();
+
+    assertThat(stats.getLanes()).hasSize(4);
+    assertThat(stats.getExecuted()).isEqualTo(8000);
+    assertThat(stats.getLanes().stream().mapToLong(PaymentLaneStats.Lane::getExecuted).sum()).isEqualTo(8000);
+    assertThat(stats.getLanes()).allSatisfy(lane -> assertThat(lane.getExecuted()).isGreaterThan(800));
+    // The lane of the hot payment ran about 5000 of 8000, 2.5 times an even share
+    assertThat(stats.getImbalance()).isBetween(2.3, 2.7);
+  }
+
+  @Test
+  @DisplayName("shutdown runs the tasks already queued and refuses new ones")
+  void shutdown_DrainsQueuedTasks() throws InterruptedException {
+    executor = new PartitionedPaymentExecutor(1, 128);
+    UUID id = UUID.randomUUID();
+    List<CompletableFuture<Integer>> futures = new ArrayList<>();
+    for (int i = 0; i < 100; i++) {
+      int task = i;
+      futures.add(executor.submit(id, () -> task));
+    }
+
+    executor.shutdown();
+
+    assertThat(futures).allMatch(future -> future.isDone() && !future.isCompletedExceptionally());
+    assertThatThrownBy(() -> executor.submit(id, () -> 1)).isInstanceOf(IllegalStateException.class);
+  }
+
+  @Test
+  @DisplayName("callers racing shutdown get a result or a refusal, never wait forever")
+  void shutdown_NeverStrandsRacingCallers() throws Exception {
+    for (int round = 0; round < 50; round++) {
+      executor = new PartitionedPaymentExecutor(2, 4);
+      PartitionedPaymentExecutor lanes = executor;
+      List<CompletableFuture<Void>> callers = new ArrayList<>();
+      for (int i = 0; i < 8; i++) {
+        callers.add(CompletableFuture.runAsync(() -> {
+          try {
+            while (true) {
+              lanes.call(UUID.randomUUID(), () -> 1);
+            }
+          } catch (IllegalStateException e) {
+            // Refused once shut down
+          }
+        }));
+      }
+      Thread.sleep(2);
+
+      executor.shutdown();
+
+      CompletableFuture.allOf(callers.toArray(CompletableFuture[]::new)).get(5, TimeUnit.SECONDS);
+    }
+  }
+
+  private UUID otherLane(UUID id) {
+    String lane = executor.call(id, () -> Thread.currentThread().getName());
+    while (true) {
+      UUID other = UUID.randomUUID();
+      if (!executor.call(other, () -> Thread.currentThread().getName()).equals(lane)) {
+        return other;
+      }
+    }
+  }
+
+  private static boolean await(CountDownLatch latch) {
+    try {
+      return latch.await(5, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return false;
+    }
+  }
+}
@@ -0,0 +1,89 @@
+package com.checkout.payment.gateway.service;
+
+import com.checkout.payment.gateway.exception.ServiceOverloadedException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PaymentAdmissionControllerTest {
+
+  private static long millisSince(long startNanos) {
+    return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+  }
+
+  @Test
+  @DisplayName("requests are admitted immediately while slots are free")
+  void acquire_AdmitsWhileSlotsAreFree() {
+    PaymentAdmissionController admission = new PaymentAdmissionController(2, 10, 5, 100);
+
+    admission.acquire();
+    admission.acquire();
+    admission.release();
+    admission.acquire();
+
+    assertThat(admission.admittedCount()).isEqualTo(3);
+    assertThat(admission.shedCount()).isZero();
+    assertThat(admission.isOverloaded()).isFalse();
+  }
+
+  @Test
+  @DisplayName("requests are shed at once when the queue is full")
+  void acquire_Sheds_WhenQueueIsFull() {
+    PaymentAdmissionController admission = new PaymentAdmissionController(1, 0, 5, 1_000);
+    admission.acquire();
+
+    long start = System.nanoTime();
+    assertThatThrownBy(admission::acquire).isInstanceOf(ServiceOverloadedException.class);
+
+    assertThat(millisSince(start)).isLessThan(500);
+    assertThat(admission.shedCount()).isEqualTo(1);
+  }
+
+  @Test
+  @DisplayName("a standing queue cuts the allowed wait to the target delay until a request gets through quickly")
+  void acquire_ShortensWait_WhileQueueIsStanding() {
+    PaymentAdmissionController admission = new PaymentAdmissionController(1, 10, 5, 200);
+    admission.acquire();
+
+    // The queue was not standing on arrival, so this request waits the whole interval
+    long start = System.nanoTime();
+    assertThatThrownBy(admission::acquire).isInstanceOf(ServiceOverloadedException.class);
+    assertThat(millisSince(start)).isGreaterThanOrEqualTo(200);
+    assertThat(admission.isOverloaded()).isTrue();
+
+    // Nothing got through for a whole interval, so later requests are shed after the target delay
+    start = System.nanoTime();
+    assertThatThrownBy(admission::acquire).isInstanceOf(ServiceOverloadedException.class);
+    assertThat(millisSince(start)).isLessThan(150);
+
+    admission.release();
+    admission.acquire();
+    assertThat(admission.isOverloaded()).isFalse();
+    assertThat(admission.shedCount()).isEqualTo(2);
+  }
+
+  @Test
+  @DisplayName("a queued request is admitted when a slot frees up within the allowed wait")
+  void acquire_AdmitsQueuedRequest_WhenSlotFreesUp() throws Exception {
+    PaymentAdmissionController admission = new PaymentAdmissionController(1, 10, 5, 5_000);
+    admission.acquire();
+    Thread releaser = new Thread(() -> {
+      try {
+        Thread.sleep(50);
+      } catch (InterruptedException e) {
+        return;
+      }
+      admission.release();
+    });
+    releaser.start();
+
+    admission.acquire();
+    releaser.join();
+
+    assertThat(admission.admittedCount()).isEqualTo(2);
+    assertThat(admission.shedCount()).isZero();
+  }
+}
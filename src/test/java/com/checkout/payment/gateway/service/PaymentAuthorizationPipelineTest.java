@@ -0,0 +1,161 @@
+package com.checkout.payment.gateway.service;
+
+import com.checkout.payment.gateway.enums.PaymentStatus;
+import com.checkout.payment.gateway.exception.ServiceOverloadedException;
+import com.checkout.payment.gateway.model.BulkheadStats;
+import com.checkout.payment.gateway.model.PostPaymentRequest;
+import com.checkout.payment.gateway.model.PostPaymentResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class PaymentAuthorizationPipelineTest {
+
+  @Mock
+  private PaymentGatewayService paymentGatewayService;
+
+  @Mock
+  private PaymentResponseCache paymentResponseCache;
+
+  private final CountDownLatch bankAnswers = new CountDownLatch(1);
+  private final PostPaymentRequest paymentRequest = new PostPaymentRequest();
+  private PaymentAuthorizationPipeline pipeline;
+
+  @BeforeEach
+  void setUp() {
+    pipeline = new PaymentAuthorizationPipeline(paymentGatewayService, paymentResponseCache, 1, 1);
+  }
+
+  @AfterEach
+  void tearDown() throws InterruptedException {
+    bankAnswers.countDown();
+    pipeline.shutdown();
+  }
+
+  private static PostPaymentResponse payment(PaymentStatus status) {
+    PostPaymentResponse payment = new PostPaymentResponse();
+    payment.setId(UUID.randomUUID());
+    payment.setStatus(status);
+    return payment;
+  }
+
+  private void bankHangs() {
+    when(paymentGatewayService.completePayment(any(), any())).thenAnswer(invocation -> {
+      bankAnswers.await(10, TimeUnit.SECONDS);
+      return payment(PaymentStatus.AUTHORIZED);
+    });
+  }
+
+  @Test
+  @DisplayName("submit returns the pending payment and completes it in the background")
+  void submit_CompletesPendingPaymentInBackground() {
+    PostPaymentResponse pending = payment(PaymentStatus.PENDING);
+    when(paymentGatewayService.acceptPayment(paymentRequest)).thenReturn(pending);
+
+    assertThat(pipeline.submit(paymentRequest)).isSameAs(pending);
+
+    verify(paymentGatewayService, timeout(5_000)).completePayment(pending.getId(), paymentRequest);
+    verify(paymentResponseCache, timeout(5_000)).evict(pending.getId());
+  }
+
+  @Test
+  @DisplayName("a payment whose authorization fails unexpectedly is rejected rather than left pending")
+  void submit_RejectsPayment_WhenAuthorizationThrows() {
+    Map<UUID, PaymentStatus> stored = new ConcurrentHashMap<>();
+    PostPaymentResponse pending = payment(PaymentStatus.PENDING);
+    when(paymentGatewayService.acceptPayment(paymentRequest)).thenAnswer(invocation -> {
+      stored.put(pending.getId(), PaymentStatus.PENDING);
+      return pending;
+    });
+    when(paymentGatewayService.completePayment(pending.getId(), paymentRequest))
+        .thenThrow(new NullPointerException("Malformed bank response"));
+    when(paymentGatewayService.rejectPayment(pending.getId(), paymentRequest)).thenAnswer(invocation -> {
+      stored.put(pending.getId(), PaymentStatus.REJECTED);
+      return payment(PaymentStatus.REJECTED);
+    });
+
+    pipeline.submit(paymentRequest);
+
+    verify(paymentResponseCache, timeout(5_000)).evict(pending.getId());
+    assertThat(stored.get(pending.getId())).isEqualTo(PaymentStatus.REJECTED);
+  }
+
+  @Test
+  @DisplayName("submit refuses payments before storing them once shut down")
+  void submit_Throws_AfterShutdown() throws InterruptedException {
+    pipeline.shutdown();
+
+    assertThatThrownBy(() -> pipeline.submit(paymentRequest))
+        .isInstanceOf(ServiceOverloadedException.class)
+        .hasMessage("Authorization pipeline is shut down");
+
+    verify(paymentGatewayService, never()).acceptPayment(any());
+    assertThat(pipeline.stats().getRejected()).isEqualTo(1);
+  }
+
+  @Test
+  @DisplayName("submit returns rejected payments without queueing them")
+  void submit_DoesNotQueueRejectedPayments() {
+    when(paymentGatewayService.acceptPayment(paymentRequest)).thenReturn(payment(PaymentStatus.REJECTED));
+
+    for (int i = 0; i < 5; i++) {
+      assertThat(pipeline.submit(paymentRequest).getStatus()).isEqualTo(PaymentStatus.REJECTED);
+    }
+
+    verify(paymentGatewayService, never()).completePayment(any(), any());
+    assertThat(pipeline.stats().getAdmitted()).isZero();
+  }
+
+  @Test
+  @DisplayName("submit refuses payments before storing them once the workers and queue are full")
+  void submit_ThrowsWhenQueueIsFull() {
+    bankHangs();
+    when(paymentGatewayService.acceptPayment(paymentRequest))
+        .thenAnswer(invocation -> payment(PaymentStatus.PENDING));
+    pipeline.submit(paymentRequest);
+    pipeline.submit(paymentRequest);
+
+    assertThatThrownBy(() -> pipeline.submit(paymentRequest))
+        .isInstanceOf(ServiceOverloadedException.class);
+
+    verify(paymentGatewayService, times(2)).acceptPayment(paymentRequest);
+    BulkheadStats stats = pipeline.stats();
+    assertThat(stats.getAdmitted()).isEqualTo(2);
+    assertThat(stats.getRejected()).isEqualTo(1);
+  }
+
+  @Test
+  @DisplayName("capacity is returned once queued payments complete")
+  void submit_AcceptsAgain_AfterQueueDrains() {
+    bankHangs();
+    when(paymentGatewayService.acceptPayment(paymentRequest))
+        .thenAnswer(invocation -> payment(PaymentStatus.PENDING));
+    pipeline.submit(paymentRequest);
+    pipeline.submit(paymentRequest);
+    assertThat(pipeline.stats().getWaiting()).isEqualTo(1);
+
+    bankAnswers.countDown();
+    verify(paymentResponseCache, timeout(5_000).times(2)).evict(any());
+
+    assertThat(pipeline.submit(paymentRequest).getStatus()).isEqualTo(PaymentStatus.PENDING);
+  }
+}
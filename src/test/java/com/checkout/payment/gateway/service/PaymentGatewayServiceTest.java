@@ -1,14 +1,22 @@
 package com.checkout.payment.gateway.service;
 
+import com.checkout.payment.gateway.codec.PaymentJsonCodec;
 import com.checkout.payment.gateway.enums.PaymentStatus;
+import com.checkout.payment.gateway.event.PaymentEventBus;
 import com.checkout.payment.gateway.exception.EventProcessingException;
 import com.checkout.payment.gateway.exception.PaymentProcessingException;
+import com.checkout.payment.gateway.exception.PaymentStateException;
 import com.checkout.payment.gateway.exception.ValidationException;
 import com.checkout.payment.gateway.model.GetPaymentResponse;
+import com.checkout.payment.gateway.model.PaymentQuery;
+import com.checkout.payment.gateway.model.PaymentWebhookEvent;
 import com.checkout.payment.gateway.model.PostAcquiringBankResponse;
 import com.checkout.payment.gateway.model.PostPaymentRequest;
 import com.checkout.payment.gateway.model.PostPaymentResponse;
 import com.checkout.payment.gateway.repository.PaymentsRepository;
+import com.checkout.payment.gateway.vault.CardVault;
+import com.checkout.payment.gateway.webhook.WebhookDispatcher;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
@@ -17,13 +25,19 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -39,12 +53,27 @@ public class PaymentGatewayServiceTest {
   @Mock
   private AcquiringBankService acquiringBankService;
 
+  @Mock
+  private WebhookDispatcher webhookDispatcher;
+
+  @Mock
+  private PaymentEventBus paymentEventBus;
+
   private PaymentGatewayService service;
+  private PartitionedPaymentExecutor lanes;
+  private PaymentVolumeCounters paymentVolumeCounters;
+  private CardVault cardVault;
   private PostPaymentRequest paymentRequest;
 
   @BeforeEach
   void setUp() {
-    service = new PaymentGatewayService(paymentsRepository, paymentValidator, acquiringBankService);
+    paymentVolumeCounters = new PaymentVolumeCounters();
+    cardVault = new CardVault(1024, "");
+    lanes = new PartitionedPaymentExecutor(2, 64);
+    service = new PaymentGatewayService(paymentsRepository, paymentValidator, acquiringBankService,
+        new TimeOrderedPaymentIdGenerator(), paymentVolumeCounters, webhookDispatcher,
+        paymentEventBus, cardVault, new CardVelocityChecker(1024, 600, 3, 0),
+        new DuplicatePaymentDetector("flag", 10, 1024), lanes);
     paymentRequest = new PostPaymentRequest();
     paymentRequest.setCardNumber("1234567890123456");
     paymentRequest.setExpiryMonth(12);
@@ -53,6 +82,19 @@ public class PaymentGatewayServiceTest {
     paymentRequest.setAmount(100);
   }
 
+  @AfterEach
+  void tearDown() throws InterruptedException {
+    lanes.shutdown();
+  }
+
+  /**
+   * Matches the stored copy of a returned payment, which carries no card token.
+   */
+  private static PostPaymentResponse storedCopyOf(PostPaymentResponse payment) {
+    return argThat(stored -> stored.getId().equals(payment.getId()) && stored.getStatus() == payment.getStatus()
+        && stored.getCardToken() == null);
+  }
+
   @Nested
   @DisplayName("Get Payment Information Tests")
   class GetPaymentTests {
@@ -84,6 +126,44 @@ public class PaymentGatewayServiceTest {
     }
   }
 
+  @Nested
+  @DisplayName("Search Payments Tests")
+  class SearchPaymentsTests {
+
+    @Test
+    @DisplayName("searchPayments maps repository matches to GetPaymentResponse")
+    void searchPayments_ReturnsMatches() {
+      PaymentQuery query = new PaymentQuery(PaymentStatus.DECLINED, null, "3456", null, null, 10);
+      PostPaymentResponse stored = new PostPaymentResponse();
+      stored.setId(UUID.randomUUID());
+      stored.setStatus(PaymentStatus.DECLINED);
+      stored.setCardNumberLastFour("3456");
+
+      when(paymentsRepository.search(query)).thenReturn(List.of(stored));
+
+      List<GetPaymentResponse> result = service.searchPayments(query);
+      assertThat(result).singleElement()
+          .satisfies(payment -> assertThat(payment.getId()).isEqualTo(stored.getId()));
+    }
+
+    @Test
+    @DisplayName("searchPayments rejects queries without criteria or with invalid bounds")
+    void searchPayments_ThrowsValidationException_WhenQueryInvalid() {
+      Instant now = Instant.now();
+
+      assertThatThrownBy(() -> service.searchPayments(new PaymentQuery(null, null, null, null, null, 10)))
+          .isInstanceOf(ValidationException.class);
+      assertThatThrownBy(() -> service.searchPayments(new PaymentQuery(null, "GBP", null, null, null, 0)))
+          .isInstanceOf(ValidationException.class);
+      assertThatThrownBy(() -> service.searchPayments(new PaymentQuery(null, "GBP", null, null, null, 1001)))
+          .isInstanceOf(ValidationException.class);
+      assertThatThrownBy(() -> service.searchPayments(
+          new PaymentQuery(null, null, null, now, now.minusSeconds(1), 10)))
+          .isInstanceOf(ValidationException.class);
+      verify(paymentsRepository, never()).search(any());
+    }
+  }
+
   @Nested
   @DisplayName("Process Payment Tests")
   class ProcessPaymentTests {
@@ -107,7 +187,7 @@ public class PaymentGatewayServiceTest {
 
       verify(paymentValidator).validate(paymentRequest);
       verify(acquiringBankService).processPayment(paymentRequest);
-      verify(paymentsRepository).add(result);
+      verify(paymentsRepository).add(storedCopyOf(result));
     }
 
     @Test
@@ -126,7 +206,7 @@ public class PaymentGatewayServiceTest {
       assertThat(result.getAmount()).isEqualTo(100);
       assertThat(result.getCurrency()).isEqualTo("GBP");
 
-      verify(paymentsRepository).add(result);
+      verify(paymentsRepository).add(storedCopyOf(result));
     }
 
     @Test
@@ -164,7 +244,7 @@ public class PaymentGatewayServiceTest {
       assertThat(result.getStatus()).isEqualTo(PaymentStatus.REJECTED);
 
       verify(acquiringBankService, never()).processPayment(paymentRequest);
-      verify(paymentsRepository).add(result);
+      verify(paymentsRepository).add(storedCopyOf(result));
     }
 
     @Test
@@ -200,7 +280,7 @@ public class PaymentGatewayServiceTest {
       assertThat(result).isNotNull();
       assertThat(result.getStatus()).isEqualTo(PaymentStatus.REJECTED);
 
-      verify(paymentsRepository).add(result);
+      verify(paymentsRepository).add(storedCopyOf(result));
     }
 
     @Test
@@ -289,5 +369,400 @@ public class PaymentGatewayServiceTest {
       PostPaymentResponse result = service.processPayment(paymentRequest);
       assertThat(result.getCardNumberLastFour()).isEqualTo("0366");
     }
+
+    @Test
+    @DisplayName("processPayment records the final status in the volume counters")
+    void processPayment_RecordsVolume() {
+      PostAcquiringBankResponse bankResponse = new PostAcquiringBankResponse();
+      bankResponse.setAuthorized(true);
+
+      when(acquiringBankService.processPayment(paymentRequest)).thenReturn(bankResponse);
+
+      service.processPayment(paymentRequest);
+
+      assertThat(paymentVolumeCounters.report().getWindows().get(3).getCurrencies())
+          .filteredOn(volume -> volume.getCurrency().equals("GBP"))
+          .singleElement()
+          .satisfies(volume -> assertThat(volume.getAuthorizationRate()).isEqualTo(1.0));
+    }
+
+    @Test
+    @DisplayName("processPayment publishes the final status to the webhook endpoints and the event bus")
+    void processPayment_PublishesWebhook() {
+      doThrow(new ValidationException("Invalid card number"))
+          .when(paymentValidator)
+          .validate(paymentRequest);
+
+      PostPaymentResponse result = service.processPayment(paymentRequest);
+
+      verify(webhookDispatcher).publish(result);
+      verify(paymentEventBus).publish(result);
+    }
+  }
+
+  @Nested
+  @DisplayName("acceptPayment and completePayment")
+  class AsyncPaymentTests {
+
+    @Test
+    @DisplayName("acceptPayment stores a valid payment as PENDING without calling the bank")
+    void acceptPayment_StoresPending() {
+      PostPaymentResponse result = service.acceptPayment(paymentRequest);
+
+      assertThat(result.getStatus()).isEqualTo(PaymentStatus.PENDING);
+      assertThat(result.getCardNumberLastFour()).isEqualTo("3456");
+      verify(paymentsRepository).add(storedCopyOf(result));
+      verify(acquiringBankService, never()).processPayment(any());
+      verify(webhookDispatcher, never()).publish(any());
+      verify(paymentEventBus, never()).publish(any());
+      assertThat(paymentVolumeCounters.report().getWindows().get(3).getCurrencies())
+          .allSatisfy(volume -> assertThat(volume.getStatuses())
+              .allSatisfy(status -> assertThat(status.getCount()).isZero()));
+    }
+
+    @Test
+    @DisplayName("acceptPayment returns REJECTED when validation fails")
+    void acceptPayment_ReturnsRejected_WhenValidationFails() {
+      doThrow(new ValidationException("Invalid card number"))
+          .when(paymentValidator)
+          .validate(paymentRequest);
+
+      PostPaymentResponse result = service.acceptPayment(paymentRequest);
+
+      assertThat(result.getStatus()).isEqualTo(PaymentStatus.REJECTED);
+      verify(paymentsRepository).add(storedCopyOf(result));
+      verify(acquiringBankService, never()).processPayment(any());
+    }
+
+    @Test
+    @DisplayName("completePayment stores the bank's answer under the pending payment's id")
+    void completePayment_StoresFinalStatusUnderSameId() {
+      PostAcquiringBankResponse bankResponse = new PostAcquiringBankResponse();
+      bankResponse.setAuthorized(false);
+      when(acquiringBankService.processPayment(paymentRequest)).thenReturn(bankResponse);
+
+      PostPaymentResponse pending = service.acceptPayment(paymentRequest);
+      PostPaymentResponse result = service.completePayment(pending.getId(), paymentRequest);
+
+      assertThat(result.getId()).isEqualTo(pending.getId());
+      assertThat(result.getStatus()).isEqualTo(PaymentStatus.DECLINED);
+      verify(paymentsRepository).add(storedCopyOf(result));
+    }
+
+    @Test
+    @DisplayName("completePayment returns REJECTED when bank processing fails")
+    void completePayment_ReturnsRejected_WhenBankFails() {
+      doThrow(new PaymentProcessingException("Bank unavailable", null))
+          .when(acquiringBankService)
+          .processPayment(paymentRequest);
+      UUID id = UUID.randomUUID();
+
+      PostPaymentResponse result = service.completePayment(id, paymentRequest);
+
+      assertThat(result.getId()).isEqualTo(id);
+      assertThat(result.getStatus()).isEqualTo(PaymentStatus.REJECTED);
+    }
+
+    @Test
+    @DisplayName("rejectPayment replaces the pending payment with a REJECTED one")
+    void rejectPayment_StoresRejectedUnderSameId() {
+      PostPaymentResponse pending = service.acceptPayment(paymentRequest);
+
+      PostPaymentResponse result = service.rejectPayment(pending.getId(), paymentRequest);
+
+      assertThat(result.getId()).isEqualTo(pending.getId());
+      assertThat(result.getStatus()).isEqualTo(PaymentStatus.REJECTED);
+      verify(paymentsRepository).add(storedCopyOf(result));
+      verify(webhookDispatcher).publish(result);
+    }
+  }
+
+  @Nested
+  @DisplayName("Card Token Tests")
+  class CardTokenTests {
+
+    @Test
+    @DisplayName("processPayment returns the same card token for every payment with the same card")
+    void processPayment_ReturnsCardToken() {
+      PostAcquiringBankResponse bankResponse = new PostAcquiringBankResponse();
+      bankResponse.setAuthorized(true);
+      when(acquiringBankService.processPayment(any())).thenReturn(bankResponse);
+
+      PostPaymentResponse first = service.processPayment(paymentRequest);
+      PostPaymentRequest repeat = new PostPaymentRequest();
+      repeat.setCardNumber(paymentRequest.getCardNumber());
+      repeat.setCurrency("GBP");
+      repeat.setAmount(100);
+      PostPaymentResponse second = service.processPayment(repeat);
+
+      assertThat(first.getCardToken()).startsWith(CardVault.TOKEN_PREFIX).doesNotContain("3456");
+      assertThat(second.getCardToken()).isEqualTo(first.getCardToken());
+      // A token can pay again, so it is kept out of logs like the card number
+      assertThat(repeat.toString()).doesNotContain(first.getCardToken()).contains("cardToken=***");
+      assertThat(first.toString()).doesNotContain(first.getCardToken()).contains("cardToken=***");
+    }
+
+    @Test
+    @DisplayName("processPayment sends the card a token stands for to the bank")
+    void processPayment_ResolvesCardToken() {
+      String token = cardVault.tokenize("4532015112830369").orElseThrow();
+      PostAcquiringBankResponse bankResponse = new PostAcquiringBankResponse();
+      bankResponse.setAuthorized(true);
+      when(acquiringBankService.processPayment(any())).thenReturn(bankResponse);
+      paymentRequest.setCardNumber(null);
+      paymentRequest.setCardToken(token);
+
+      PostPaymentResponse result = service.processPayment(paymentRequest);
+
+      ArgumentCaptor<PostPaymentRequest> sent = ArgumentCaptor.forClass(PostPaymentRequest.class);
+      verify(acquiringBankService).processPayment(sent.capture());
+      assertThat(sent.getValue().getCardNumber()).isEqualTo("4532015112830369");
+      assertThat(result.getStatus()).isEqualTo(PaymentStatus.AUTHORIZED);
+      assertThat(result.getCardNumberLastFour()).isEqualTo("0369");
+      assertThat(result.getCardToken()).isEqualTo(token);
+    }
+
+    @Test
+    @DisplayName("processPayment returns the card token to the merchant but never in webhooks or events")
+    void processPayment_KeepsCardTokenOutOfWebhooks() {
+      PostAcquiringBankResponse bankResponse = new PostAcquiringBankResponse();
+      bankResponse.setAuthorized(true);
+      when(acquiringBankService.processPayment(any())).thenReturn(bankResponse);
+
+      PostPaymentResponse result = service.processPayment(paymentRequest);
+
+      ArgumentCaptor<PostPaymentResponse> published = ArgumentCaptor.forClass(PostPaymentResponse.class);
+      verify(webhookDispatcher).publish(published.capture());
+      verify(paymentEventBus).publish(published.getValue());
+      assertThat(result.getCardToken()).startsWith(CardVault.TOKEN_PREFIX);
+      assertThat(published.getValue()).isNotSameAs(result);
+      assertThat(published.getValue().getCardToken()).isNull();
+      String body = new String(new PaymentJsonCodec().writeWebhookEvents(List.of(new PaymentWebhookEvent(
+          UUID.randomUUID(), "payment.authorized", Instant.now(), published.getValue()))), StandardCharsets.UTF_8);
+      assertThat(body).contains(result.getId().toString()).doesNotContain("card_token")
+          .doesNotContain(result.getCardToken());
+    }
+
+    @Test
+    @DisplayName("processPayment returns REJECTED for an unknown card token")
+    void processPayment_ReturnsRejected_WhenCardTokenUnknown() {
+      paymentRequest.setCardNumber(null);
+      paymentRequest.setCardToken(CardVault.TOKEN_PREFIX + "AAAAAAAAAAAAAAAAAAAAAA");
+
+      PostPaymentResponse result = service.processPayment(paymentRequest);
+
+      assertThat(result.getStatus()).isEqualTo(PaymentStatus.REJECTED);
+      assertThat(result.getCardToken()).isNull();
+      verify(acquiringBankService, never()).processPayment(any());
+    }
+  }
+
+  @Nested
+  @DisplayName("Card Velocity Tests")
+  class CardVelocityTests {
+
+    @Test
+    @DisplayName("processPayment returns REJECTED without calling the bank once a card is over its limit")
+    void processPayment_ReturnsRejected_WhenCardIsOverVelocityLimit() {
+      PostAcquiringBankResponse bankResponse = new PostAcquiringBankResponse();
+      bankResponse.setAuthorized(true);
+      when(acquiringBankService.processPayment(any())).thenReturn(bankResponse);
+
+      for (int i = 0; i < 3; i++) {
+        assertThat(service.processPayment(payment("1234567890123456", 100)).getStatus())
+            .isEqualTo(PaymentStatus.AUTHORIZED);
+      }
+      PostPaymentResponse result = service.processPayment(payment("1234567890123456", 100));
+
+      assertThat(result.getStatus()).isEqualTo(PaymentStatus.REJECTED);
+      verify(acquiringBankService, times(3)).processPayment(any());
+      assertThat(service.processPayment(payment("1234567890123457", 100)).getStatus())
+          .isEqualTo(PaymentStatus.AUTHORIZED);
+    }
+
+    @Test
+    @DisplayName("acceptPayment returns REJECTED once a card is over its amount limit")
+    void acceptPayment_ReturnsRejected_WhenCardIsOverAmountLimit() {
+      service = new PaymentGatewayService(paymentsRepository, paymentValidator, acquiringBankService,
+          new TimeOrderedPaymentIdGenerator(), paymentVolumeCounters, webhookDispatcher,
+          paymentEventBus, cardVault, new CardVelocityChecker(1024, 600, 0, 1000),
+          new DuplicatePaymentDetector("off", 10, 1024), lanes);
+
+      assertThat(service.acceptPayment(payment("1234567890123456", 900)).getStatus())
+          .isEqualTo(PaymentStatus.PENDING);
+
+      assertThat(service.acceptPayment(payment("1234567890123456", 200)).getStatus())
+          .isEqualTo(PaymentStatus.REJECTED);
+      assertThat(service.acceptPayment(payment("1234567890123456", 100)).getStatus())
+          .isEqualTo(PaymentStatus.PENDING);
+    }
+
+    private PostPaymentRequest payment(String cardNumber, int amount) {
+      PostPaymentRequest request = new PostPaymentRequest();
+      request.setCardNumber(cardNumber);
+      request.setCurrency("GBP");
+      request.setAmount(amount);
+      return request;
+    }
+  }
+
+  @Nested
+  @DisplayName("Duplicate Payment Tests")
+  class DuplicatePaymentTests {
+
+    @BeforeEach
+    void setUp() {
+      service = new PaymentGatewayService(paymentsRepository, paymentValidator, acquiringBankService,
+          new TimeOrderedPaymentIdGenerator(), paymentVolumeCounters, webhookDispatcher,
+          paymentEventBus, cardVault, new CardVelocityChecker(1024, 600, 0, 0),
+          new DuplicatePaymentDetector("reject", 10, 1024), lanes);
+    }
+
+    @Test
+    @DisplayName("processPayment returns REJECTED without calling the bank for a repeated payment")
+    void processPayment_ReturnsRejected_WhenPaymentIsRepeated() {
+      PostAcquiringBankResponse bankResponse = new PostAcquiringBankResponse();
+      bankResponse.setAuthorized(true);
+      when(acquiringBankService.processPayment(any())).thenReturn(bankResponse);
+      paymentRequest.setMerchant("merchant-a");
+
+      assertThat(service.processPayment(paymentRequest).getStatus()).isEqualTo(PaymentStatus.AUTHORIZED);
+      assertThat(service.processPayment(paymentRequest).getStatus()).isEqualTo(PaymentStatus.REJECTED);
+      verify(acquiringBankService, times(1)).processPayment(any());
+    }
+
+    @Test
+    @DisplayName("processPayment lets a payment rejected by the bank be retried within the window")
+    void processPayment_ProcessesRetry_WhenOriginalRejectedByBank() {
+      PostAcquiringBankResponse bankResponse = new PostAcquiringBankResponse();
+      bankResponse.setAuthorized(true);
+      when(acquiringBankService.processPayment(any()))
+          .thenThrow(new PaymentProcessingException("Bank unavailable", null))
+          .thenReturn(bankResponse);
+      paymentRequest.setMerchant("merchant-a");
+
+      assertThat(service.processPayment(paymentRequest).getStatus()).isEqualTo(PaymentStatus.REJECTED);
+      assertThat(service.processPayment(paymentRequest).getStatus()).isEqualTo(PaymentStatus.AUTHORIZED);
+      assertThat(service.processPayment(paymentRequest).getStatus()).isEqualTo(PaymentStatus.REJECTED);
+      verify(acquiringBankService, times(2)).processPayment(any());
+    }
+
+    @Test
+    @DisplayName("processPayment lets a payment rejected by the velocity limits be retried within the window")
+    void processPayment_ProcessesRetry_WhenOriginalOverVelocityLimit() {
+      service = new PaymentGatewayService(paymentsRepository, paymentValidator, acquiringBankService,
+          new TimeOrderedPaymentIdGenerator(), paymentVolumeCounters, webhookDispatcher,
+          paymentEventBus, cardVault, new CardVelocityChecker(1024, 600, 0, 150),
+          new DuplicatePaymentDetector("reject", 10, 1024), lanes);
+      PostAcquiringBankResponse bankResponse = new PostAcquiringBankResponse();
+      bankResponse.setAuthorized(true);
+      when(acquiringBankService.processPayment(any())).thenReturn(bankResponse);
+      paymentRequest.setMerchant("merchant-a");
+      paymentRequest.setAmount(200);
+
+      assertThat(service.processPayment(paymentRequest).getStatus()).isEqualTo(PaymentStatus.REJECTED);
+      paymentRequest.setAmount(100);
+      assertThat(service.processPayment(paymentRequest).getStatus()).isEqualTo(PaymentStatus.AUTHORIZED);
+      paymentRequest.setAmount(200);
+      assertThat(service.processPayment(paymentRequest).getStatus()).isEqualTo(PaymentStatus.REJECTED);
+      verify(acquiringBankService, times(1)).processPayment(any());
+    }
+
+    @Test
+    @DisplayName("processPayment treats payments differing in amount or merchant as distinct")
+    void processPayment_ProcessesDistinctPayments() {
+      PostAcquiringBankResponse bankResponse = new PostAcquiringBankResponse();
+      bankResponse.setAuthorized(true);
+      when(acquiringBankService.processPayment(any())).thenReturn(bankResponse);
+
+      paymentRequest.setMerchant("merchant-a");
+      assertThat(service.processPayment(paymentRequest).getStatus()).isEqualTo(PaymentStatus.AUTHORIZED);
+      paymentRequest.setMerchant("merchant-b");
+      assertThat(service.processPayment(paymentRequest).getStatus()).isEqualTo(PaymentStatus.AUTHORIZED);
+      paymentRequest.setAmount(101);
+      assertThat(service.processPayment(paymentRequest).getStatus()).isEqualTo(PaymentStatus.AUTHORIZED);
+    }
+  }
+
+  @Nested
+  @DisplayName("Capture, Void and Refund Tests")
+  class PaymentOperationTests {
+
+    private PaymentsRepository repository;
+
+    @BeforeEach
+    void setUp() {
+      repository = new PaymentsRepository(1024);
+      service = new PaymentGatewayService(repository, paymentValidator, acquiringBankService,
+          new TimeOrderedPaymentIdGenerator(), paymentVolumeCounters, webhookDispatcher,
+          paymentEventBus, cardVault, new CardVelocityChecker(1024, 600, 0, 0),
+          new DuplicatePaymentDetector("off", 10, 1024), lanes);
+    }
+
+    private UUID stored(PaymentStatus status) {
+      PostPaymentResponse payment = new PostPaymentResponse(UUID.randomUUID(), status, paymentRequest);
+      repository.add(payment);
+      return payment.getId();
+    }
+
+    @Test
+    @DisplayName("a payment can be captured in parts, then refunded in parts")
+    void captureAndRefund_ApplyPartialAmounts() {
+      UUID id = stored(PaymentStatus.AUTHORIZED);
+
+      assertThat(service.capturePayment(id, 30).getCapturedAmount()).isEqualTo(30);
+      PostPaymentResponse captured = service.capturePayment(id, null);
+      assertThat(captured.getStatus()).isEqualTo(PaymentStatus.CAPTURED);
+      assertThat(captured.getCapturedAmount()).isEqualTo(100);
+
+      assertThat(service.refundPayment(id, 40).getRefundedAmount()).isEqualTo(40);
+      PostPaymentResponse refunded = service.refundPayment(id, 60);
+      assertThat(refunded.getStatus()).isEqualTo(PaymentStatus.REFUNDED);
+      assertThat(refunded.getRefundedAmount()).isEqualTo(100);
+      assertThat(repository.get(id)).hasValueSatisfying(payment ->
+          assertThat(payment).usingRecursiveComparison().isEqualTo(refunded));
+      verify(webhookDispatcher, times(4)).publish(any());
+      verify(paymentEventBus, times(4)).publish(any());
+    }
+
+    @Test
+    @DisplayName("amounts must be positive and within what is left")
+    void captureAndRefund_RejectInvalidAmounts() {
+      UUID id = stored(PaymentStatus.AUTHORIZED);
+
+      assertThatThrownBy(() -> service.capturePayment(id, 0)).isInstanceOf(ValidationException.class);
+      assertThatThrownBy(() -> service.capturePayment(id, 101))
+          .isInstanceOf(ValidationException.class)
+          .hasMessage("Amount exceeds the 100 left to capture");
+      service.capturePayment(id, 50);
+      assertThatThrownBy(() -> service.refundPayment(id, 51))
+          .isInstanceOf(ValidationException.class)
+          .hasMessage("Amount exceeds the 50 left to refund");
+      assertThat(repository.get(id).orElseThrow().getRefundedAmount()).isZero();
+    }
+
+    @Test
+    @DisplayName("operations not allowed in the payment's status throw PaymentStateException")
+    void operations_ThrowPaymentStateException_WhenNotAllowed() {
+      UUID declined = stored(PaymentStatus.DECLINED);
+      UUID authorized = stored(PaymentStatus.AUTHORIZED);
+
+      assertThatThrownBy(() -> service.capturePayment(declined, null))
+          .isInstanceOf(PaymentStateException.class)
+          .hasMessage("Payment cannot be captured in status Declined");
+      assertThatThrownBy(() -> service.refundPayment(authorized, null)).isInstanceOf(PaymentStateException.class);
+      assertThat(service.voidPayment(authorized).getStatus()).isEqualTo(PaymentStatus.VOIDED);
+      assertThatThrownBy(() -> service.voidPayment(authorized)).isInstanceOf(PaymentStateException.class);
+      assertThatThrownBy(() -> service.capturePayment(authorized, null)).isInstanceOf(PaymentStateException.class);
+      verify(webhookDispatcher, times(1)).publish(any());
+    }
+
+    @Test
+    @DisplayName("operations on an unknown payment throw EventProcessingException")
+    void operations_ThrowEventProcessingException_WhenNotFound() {
+      assertThatThrownBy(() -> service.capturePayment(UUID.randomUUID(), null))
+          .isInstanceOf(EventProcessingException.class)
+          .hasMessageContaining("Invalid ID");
+    }
   }
 }
@@ -0,0 +1,157 @@
+package com.checkout.payment.gateway.service;
+
+import com.checkout.payment.gateway.codec.PaymentJsonCodec;
+import com.checkout.payment.gateway.enums.PaymentStatus;
+import com.checkout.payment.gateway.exception.EventProcessingException;
+import com.checkout.payment.gateway.model.GetPaymentResponse;
+import com.checkout.payment.gateway.service.PaymentResponseCache.CachedPaymentResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class PaymentResponseCacheTest {
+
+  @Mock
+  private PaymentGatewayService paymentGatewayService;
+
+  private PaymentResponseCache cache;
+  private UUID paymentId;
+
+  @BeforeEach
+  void setUp() {
+    cache = new PaymentResponseCache(paymentGatewayService, new PaymentJsonCodec(), 2);
+    paymentId = UUID.randomUUID();
+  }
+
+  private GetPaymentResponse payment(UUID id, PaymentStatus status) {
+    return new GetPaymentResponse(id, status, "3456", 12, 2030, "GBP", 100);
+  }
+
+  @Test
+  @DisplayName("get renders the payment once and serves later lookups from the cache")
+  void get_RendersOnce() {
+    when(paymentGatewayService.getPaymentById(paymentId))
+        .thenReturn(payment(paymentId, PaymentStatus.AUTHORIZED));
+
+    CachedPaymentResponse first = cache.get(paymentId);
+    CachedPaymentResponse second = cache.get(paymentId);
+
+    assertThat(second).isSameAs(first);
+    assertThat(new String(first.body(), StandardCharsets.UTF_8))
+        .contains("\"cardNumberLastFour\":\"3456\"")
+        .contains("\"status\":\"Authorized\"");
+    assertThat(first.etag()).startsWith("\"").endsWith("\"");
+    verify(paymentGatewayService, times(1)).getPaymentById(paymentId);
+  }
+
+  @Test
+  @DisplayName("evict forces the payment to be rendered again")
+  void evict_RerendersPayment() {
+    when(paymentGatewayService.getPaymentById(paymentId))
+        .thenReturn(payment(paymentId, PaymentStatus.AUTHORIZED))
+        .thenReturn(payment(paymentId, PaymentStatus.DECLINED));
+
+    CachedPaymentResponse before = cache.get(paymentId);
+    cache.evict(paymentId);
+    CachedPaymentResponse after = cache.get(paymentId);
+
+    assertThat(after.etag()).isNotEqualTo(before.etag());
+    verify(paymentGatewayService, times(2)).getPaymentById(paymentId);
+  }
+
+  @Test
+  @DisplayName("get renders the payment again when the cached rendering is of an older version")
+  void get_RerendersStaleVersion() {
+    when(paymentGatewayService.getPaymentVersion(paymentId)).thenReturn(1);
+    when(paymentGatewayService.getPaymentById(paymentId))
+        .thenReturn(payment(paymentId, PaymentStatus.AUTHORIZED))
+        .thenReturn(payment(paymentId, PaymentStatus.CAPTURED));
+    CachedPaymentResponse before = cache.get(paymentId);
+
+    // Captured after the rendering, without the eviction reaching the cache after it
+    when(paymentGatewayService.getPaymentVersion(paymentId)).thenReturn(2);
+    CachedPaymentResponse after = cache.get(paymentId);
+
+    assertThat(before.version()).isEqualTo(1);
+    assertThat(after.version()).isEqualTo(2);
+    assertThat(new String(after.body(), StandardCharsets.UTF_8)).contains("\"status\":\"Captured\"");
+    assertThat(cache.get(paymentId)).isSameAs(after);
+    verify(paymentGatewayService, times(2)).getPaymentById(paymentId);
+  }
+
+  @Test
+  @DisplayName("get does not keep pending payments, so their completion is seen by the next lookup")
+  void get_DoesNotRetainPendingPayments() {
+    when(paymentGatewayService.getPaymentById(paymentId))
+        .thenReturn(payment(paymentId, PaymentStatus.PENDING))
+        .thenReturn(payment(paymentId, PaymentStatus.PENDING))
+        .thenReturn(payment(paymentId, PaymentStatus.AUTHORIZED));
+
+    CachedPaymentResponse first = cache.get(paymentId);
+    CachedPaymentResponse second = cache.get(paymentId);
+    CachedPaymentResponse completed = cache.get(paymentId);
+
+    assertThat(first.pending()).isTrue();
+    assertThat(second.etag()).isEqualTo(first.etag());
+    assertThat(new String(completed.body(), StandardCharsets.UTF_8)).contains("\"status\":\"Authorized\"");
+    assertThat(cache.get(paymentId)).isSameAs(completed);
+    assertThat(cache.size()).isEqualTo(1);
+    verify(paymentGatewayService, times(3)).getPaymentById(paymentId);
+  }
+
+  @Test
+  @DisplayName("get evicts the least recently used entry once the limit is reached")
+  void get_EvictsLeastRecentlyUsed() {
+    UUID second = UUID.randomUUID();
+    UUID third = UUID.randomUUID();
+    when(paymentGatewayService.getPaymentById(paymentId))
+        .thenReturn(payment(paymentId, PaymentStatus.AUTHORIZED));
+    when(paymentGatewayService.getPaymentById(second))
+        .thenReturn(payment(second, PaymentStatus.AUTHORIZED));
+    when(paymentGatewayService.getPaymentById(third))
+        .thenReturn(payment(third, PaymentStatus.AUTHORIZED));
+
+    cache.get(paymentId);
+    cache.get(second);
+    cache.get(third);
+
+    assertThat(cache.size()).isEqualTo(2);
+  }
+
+  @Test
+  @DisplayName("get propagates EventProcessingException and caches nothing when payment not found")
+  void get_ThrowsWhenNotFound() {
+    when(paymentGatewayService.getPaymentById(paymentId))
+        .thenThrow(new EventProcessingException("Invalid ID"));
+
+    assertThatThrownBy(() -> cache.get(paymentId))
+        .isInstanceOf(EventProcessingException.class)
+        .hasMessageContaining("Invalid ID");
+    assertThat(cache.size()).isZero();
+  }
+
+  @Test
+  @DisplayName("matches accepts exact, weak, listed and wildcard entity tags")
+  void matches_HandlesIfNoneMatchForms() {
+    CachedPaymentResponse cached = new CachedPaymentResponse(new byte[0], "\"abc\"");
+
+    assertThat(cached.matches(null)).isFalse();
+    assertThat(cached.matches("\"abc\"")).isTrue();
+    assertThat(cached.matches("W/\"abc\"")).isTrue();
+    assertThat(cached.matches("\"xyz\", \"abc\"")).isTrue();
+    assertThat(cached.matches("*")).isTrue();
+    assertThat(cached.matches("\"xyz\"")).isFalse();
+  }
+}
@@ -1,5 +1,7 @@
 package com.checkout.payment.gateway.service;
 
+import com.checkout.payment.gateway.bin.BinLookupService;
+import com.checkout.payment.gateway.enums.CardScheme;
 import com.checkout.payment.gateway.exception.ValidationException;
 import com.checkout.payment.gateway.model.PostPaymentRequest;
 import org.junit.jupiter.api.BeforeEach;
@@ -9,6 +11,7 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.ValueSource;
 import java.time.YearMonth;
+import java.util.Set;
 
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
@@ -163,6 +166,46 @@ public class PaymentValidatorTest {
     }
   }
 
+  @Nested
+  @DisplayName("BIN Validation Tests")
+  class BinValidationTest {
+
+    private final BinLookupService binLookupService = new BinLookupService("", 0);
+
+    @Test
+    @DisplayName("validate() succeeds for a card of an accepted scheme")
+    void validate_succeeds_whenSchemeIsAccepted() {
+      validator = new PaymentValidator(binLookupService, true, Set.of(CardScheme.VISA, CardScheme.MASTERCARD));
+      request.setCardNumber("4532015112830366");
+      assertDoesNotThrow(() -> validator.validate(request));
+      request.setCardNumber("2223000048410010");
+      assertDoesNotThrow(() -> validator.validate(request));
+    }
+
+    @Test
+    @DisplayName("validate() throws ValidationException when the card scheme is not accepted")
+    void validate_shouldThrowValidationException_whenSchemeIsNotAccepted() {
+      validator = new PaymentValidator(binLookupService, false, Set.of(CardScheme.VISA));
+      request.setCardNumber("378282246310005");
+      assertThatThrownBy(() -> validator.validate(request))
+          .isInstanceOf(ValidationException.class)
+          .hasMessageContaining("Card scheme is not supported");
+    }
+
+    @Test
+    @DisplayName("validate() rejects cards in no known range only when configured to")
+    void validate_shouldThrowValidationException_whenBinIsUnknownAndRejected() {
+      request.setCardNumber("12345678901234");
+      validator = new PaymentValidator(binLookupService, false, Set.of(CardScheme.VISA));
+      assertDoesNotThrow(() -> validator.validate(request));
+
+      validator = new PaymentValidator(binLookupService, true, Set.of());
+      assertThatThrownBy(() -> validator.validate(request))
+          .isInstanceOf(ValidationException.class)
+          .hasMessageContaining("Card number is not in a known card range");
+    }
+  }
+
   @Nested
   @DisplayName("Currency Validation Tests")
   class CurrencyValidationTest {
@@ -0,0 +1,146 @@
+package com.checkout.payment.gateway.service;
+
+import com.checkout.payment.gateway.enums.PaymentStatus;
+import com.checkout.payment.gateway.model.PaymentVolumeReport;
+import com.checkout.payment.gateway.model.PaymentVolumeReport.CurrencyVolume;
+import com.checkout.payment.gateway.model.PaymentVolumeReport.StatusVolume;
+import com.checkout.payment.gateway.model.PaymentVolumeReport.VolumeWindow;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class PaymentVolumeCountersTest {
+
+  private static final long START = 1_767_261_600_000L;
+
+  @Mock
+  private Clock clock;
+
+  private PaymentVolumeCounters counters;
+
+  @BeforeEach
+  void setUp() {
+    counters = new PaymentVolumeCounters(clock);
+  }
+
+  private void recordAt(long millis, PaymentStatus status, String currency, int amount) {
+    when(clock.millis()).thenReturn(millis);
+    counters.record(status, currency, amount);
+  }
+
+  private PaymentVolumeReport reportAt(long millis) {
+    when(clock.millis()).thenReturn(millis);
+    return counters.report();
+  }
+
+  private static CurrencyVolume currency(PaymentVolumeReport report, String window, String currency) {
+    VolumeWindow volumes = report.getWindows().stream()
+        .filter(candidate -> candidate.getName().equals(window))
+        .findFirst()
+        .orElseThrow();
+    return volumes.getCurrencies().stream()
+        .filter(candidate -> candidate.getCurrency().equals(currency))
+        .findFirst()
+        .orElse(null);
+  }
+
+  private static StatusVolume status(CurrencyVolume volume, PaymentStatus status) {
+    return volume.getStatuses().stream()
+        .filter(candidate -> candidate.getStatus() == status)
+        .findFirst()
+        .orElseThrow();
+  }
+
+  @Test
+  @DisplayName("record sums counts and amounts per currency and status")
+  void record_SumsPerCurrencyAndStatus() {
+    recordAt(START, PaymentStatus.AUTHORIZED, "GBP", 100);
+    recordAt(START, PaymentStatus.AUTHORIZED, "gbp", 250);
+    recordAt(START, PaymentStatus.DECLINED, "GBP", 50);
+    recordAt(START, PaymentStatus.REJECTED, "HUF", 10);
+    recordAt(START, PaymentStatus.REJECTED, null, 5);
+
+    PaymentVolumeReport report = reportAt(START);
+    CurrencyVolume gbp = currency(report, "since_start", "GBP");
+    CurrencyVolume other = currency(report, "since_start", "OTHER");
+
+    assertThat(status(gbp, PaymentStatus.AUTHORIZED).getCount()).isEqualTo(2);
+    assertThat(status(gbp, PaymentStatus.AUTHORIZED).getAmount()).isEqualTo(350);
+    assertThat(status(gbp, PaymentStatus.DECLINED).getAmount()).isEqualTo(50);
+    assertThat(gbp.getAuthorizationRate()).isEqualTo(2.0 / 3);
+    assertThat(status(other, PaymentStatus.REJECTED).getCount()).isEqualTo(2);
+    assertThat(other.getAuthorizationRate()).isNull();
+    assertThat(currency(report, "since_start", "EUR").getAuthorizationRate()).isNull();
+  }
+
+  @Test
+  @DisplayName("report only includes payments inside each rolling window")
+  void report_ExpiresOldSlots() {
+    recordAt(START, PaymentStatus.AUTHORIZED, "USD", 1);
+    recordAt(START + 30_000, PaymentStatus.AUTHORIZED, "USD", 10);
+    recordAt(START + 120_000, PaymentStatus.AUTHORIZED, "USD", 100);
+
+    PaymentVolumeReport report = reportAt(START + 121_000);
+
+    assertThat(status(currency(report, "last_second", "USD"), PaymentStatus.AUTHORIZED).getAmount())
+        .isEqualTo(100);
+    assertThat(status(currency(report, "last_minute", "USD"), PaymentStatus.AUTHORIZED).getAmount())
+        .isEqualTo(100);
+    assertThat(status(currency(report, "last_hour", "USD"), PaymentStatus.AUTHORIZED).getAmount())
+        .isEqualTo(111);
+    assertThat(currency(report, "last_hour", "OTHER")).isNull();
+
+    PaymentVolumeReport later = reportAt(START + 3_600_000 + 60_000);
+
+    assertThat(status(currency(later, "last_hour", "USD"), PaymentStatus.AUTHORIZED).getAmount())
+        .isEqualTo(100);
+    assertThat(status(currency(later, "since_start", "USD"), PaymentStatus.AUTHORIZED).getCount())
+        .isEqualTo(3);
+  }
+
+  @Test
+  @DisplayName("a reused slot starts from zero")
+  void record_ResetsReusedSlot() {
+    recordAt(START, PaymentStatus.DECLINED, "EUR", 7);
+    recordAt(START + 60_000, PaymentStatus.DECLINED, "EUR", 9);
+
+    PaymentVolumeReport report = reportAt(START + 60_500);
+
+    assertThat(status(currency(report, "last_minute", "EUR"), PaymentStatus.DECLINED).getCount())
+        .isEqualTo(1);
+  }
+
+  @Test
+  @DisplayName("concurrent records are not lost")
+  void record_IsThreadSafe() throws InterruptedException {
+    when(clock.millis()).thenReturn(START);
+    List<Thread> threads = new ArrayList<>();
+    for (int t = 0; t < 8; t++) {
+      Thread thread = new Thread(() -> {
+        for (int i = 0; i < 10_000; i++) {
+          counters.record(PaymentStatus.AUTHORIZED, "EUR", 2);
+        }
+      });
+      threads.add(thread);
+      thread.start();
+    }
+    for (Thread thread : threads) {
+      thread.join();
+    }
+
+    StatusVolume authorized = status(currency(counters.report(), "last_minute", "EUR"),
+        PaymentStatus.AUTHORIZED);
+    assertThat(authorized.getCount()).isEqualTo(80_000);
+    assertThat(authorized.getAmount()).isEqualTo(160_000);
+  }
+}
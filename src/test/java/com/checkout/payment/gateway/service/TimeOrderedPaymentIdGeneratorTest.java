@@ -0,0 +1,75 @@
+package com.checkout.payment.gateway.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TimeOrderedPaymentIdGeneratorTest {
+
+  @Test
+  @DisplayName("nextId produces version 7 ids with the RFC 9562 variant")
+  void nextId_HasVersionAndVariant() {
+    UUID id = new TimeOrderedPaymentIdGenerator().nextId();
+
+    assertThat(id.version()).isEqualTo(7);
+    assertThat(id.variant()).isEqualTo(2);
+  }
+
+  @Test
+  @DisplayName("nextId encodes the creation time in the most significant bits")
+  void nextId_EncodesTimestamp() {
+    Instant now = Instant.parse("2026-10-19T10:15:30.123Z");
+    UUID id = new TimeOrderedPaymentIdGenerator(Clock.fixed(now, ZoneOffset.UTC)).nextId();
+
+    assertThat(id.getMostSignificantBits() >>> 16).isEqualTo(now.toEpochMilli());
+  }
+
+  @Test
+  @DisplayName("ids created in later milliseconds sort after earlier ones")
+  void nextId_IsTimeOrdered() {
+    Instant now = Instant.parse("2026-10-19T10:15:30.123Z");
+    UUID earlier = new TimeOrderedPaymentIdGenerator(Clock.fixed(now, ZoneOffset.UTC)).nextId();
+    UUID later = new TimeOrderedPaymentIdGenerator(
+        Clock.fixed(now.plusMillis(1), ZoneOffset.UTC)).nextId();
+
+    assertThat(later.toString()).isGreaterThan(earlier.toString());
+  }
+
+  @Test
+  @DisplayName("nextId stays unique when many threads generate ids in the same millisecond")
+  void nextId_IsUniqueAcrossThreads() throws Exception {
+    TimeOrderedPaymentIdGenerator generator = new TimeOrderedPaymentIdGenerator(
+        Clock.fixed(Instant.now(), ZoneOffset.UTC));
+    Set<UUID> ids = ConcurrentHashMap.newKeySet();
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+    try {
+      List<Future<?>> futures = new ArrayList<>();
+      for (int t = 0; t < 8; t++) {
+        futures.add(executor.submit(() -> {
+          for (int i = 0; i < 10_000; i++) {
+            ids.add(generator.nextId());
+          }
+        }));
+      }
+      for (Future<?> future : futures) {
+        future.get();
+      }
+    } finally {
+      executor.shutdown();
+    }
+
+    assertThat(ids).hasSize(80_000);
+  }
+}
@@ -0,0 +1,121 @@
+package com.checkout.payment.gateway.vault;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class CardVaultTest {
+
+  private static final String KEY = Base64.getEncoder().encodeToString(new byte[32]);
+
+  private static String card(int i) {
+    return String.format("4%015d", i);
+  }
+
+  @Test
+  @DisplayName("tokenize returns an opaque token that detokenizes to the card number")
+  void tokenize_RoundTrips() {
+    CardVault vault = new CardVault(1024, "");
+
+    String token = vault.tokenize("4532015112830369").orElseThrow();
+
+    assertThat(token).startsWith(CardVault.TOKEN_PREFIX).hasSize(26).doesNotContain("0369");
+    assertThat(vault.detokenize(token)).contains("4532015112830369");
+    assertThat(vault.size()).isEqualTo(1);
+  }
+
+  @Test
+  @DisplayName("the same card always gets the same token, under the same key across restarts")
+  void tokenize_IsDeterministic() {
+    CardVault vault = new CardVault(1024, KEY);
+
+    String token = vault.tokenize("4532015112830369").orElseThrow();
+
+    assertThat(vault.tokenize("4532015112830369")).contains(token);
+    assertThat(vault.tokenize("4532015112830370").orElseThrow()).isNotEqualTo(token);
+    assertThat(new CardVault(1024, KEY).tokenize("4532015112830369")).contains(token);
+    assertThat(new CardVault(1024, "").tokenize("4532015112830369").orElseThrow()).isNotEqualTo(token);
+    assertThat(vault.size()).isEqualTo(2);
+  }
+
+  @Test
+  @DisplayName("detokenize finds nothing for unknown or malformed tokens")
+  void detokenize_ReturnsEmpty_ForUnknownTokens() {
+    CardVault vault = new CardVault(1024, KEY);
+    String token = new CardVault(1024, KEY).tokenize("4532015112830369").orElseThrow();
+
+    assertThat(vault.detokenize(token)).isEmpty();
+    assertThat(vault.detokenize("tok_short")).isEmpty();
+    assertThat(vault.detokenize("4532015112830369")).isEmpty();
+    assertThat(vault.detokenize(null)).isEmpty();
+  }
+
+  @Test
+  @DisplayName("new cards are no longer tokenized once the vault is full, known ones still are")
+  void tokenize_ReturnsEmpty_WhenFull() {
+    CardVault vault = new CardVault(16, "");
+    List<String> tokens = new ArrayList<>();
+    for (int i = 0; i < vault.capacity(); i++) {
+      tokens.add(vault.tokenize(card(i)).orElseThrow());
+    }
+
+    assertThat(vault.tokenize(card(vault.capacity()))).isEmpty();
+    assertThat(vault.tokenize(card(0))).contains(tokens.get(0));
+    for (int i = 0; i < tokens.size(); i++) {
+      assertThat(vault.detokenize(tokens.get(i))).contains(card(i));
+    }
+  }
+
+  @Test
+  @DisplayName("concurrent threads tokenizing overlapping cards agree on every token")
+  void tokenize_IsConsistentUnderConcurrency() throws Exception {
+    CardVault vault = new CardVault(1 << 16, "");
+    int cards = 10_000;
+    Map<Integer, String> tokens = new ConcurrentHashMap<>();
+    AtomicInteger mismatches = new AtomicInteger();
+    CountDownLatch start = new CountDownLatch(1);
+    List<Thread> threads = new ArrayList<>();
+    for (int t = 0; t < 8; t++) {
+      Thread thread = new Thread(() -> {
+        try {
+          start.await();
+        } catch (InterruptedException e) {
+          return;
+        }
+        for (int i = 0; i < cards; i++) {
+          String token = vault.tokenize(card(i)).orElseThrow();
+          String previous = tokens.putIfAbsent(i, token);
+          if ((previous != null && !previous.equals(token))
+              || !vault.detokenize(token).orElseThrow().equals(card(i))) {
+            mismatches.incrementAndGet();
+          }
+        }
+      });
+      threads.add(thread);
+      thread.start();
+    }
+    start.countDown();
+    for (Thread thread : threads) {
+      thread.join();
+    }
+
+    assertThat(mismatches.get()).isZero();
+    assertThat(vault.size()).isEqualTo(cards);
+  }
+
+  @Test
+  @DisplayName("the capacity must be a power of two")
+  void constructor_RejectsInvalidCapacity() {
+    assertThatThrownBy(() -> new CardVault(1000, ""))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+}
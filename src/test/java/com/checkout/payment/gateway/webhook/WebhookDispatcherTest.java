@@ -0,0 +1,218 @@
+package com.checkout.payment.gateway.webhook;
+
+import com.checkout.payment.gateway.codec.PaymentJsonCodec;
+import com.checkout.payment.gateway.enums.PaymentStatus;
+import com.checkout.payment.gateway.model.PostPaymentResponse;
+import com.checkout.payment.gateway.model.WebhookDeadLetter;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntUnaryOperator;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Delivers to an HTTP receiver on a local port.
+ */
+public class WebhookDispatcherTest {
+
+  private static final ObjectMapper MAPPER = new ObjectMapper();
+
+  private final List<Delivery> deliveries = new CopyOnWriteArrayList<>();
+  private final AtomicInteger requests = new AtomicInteger();
+  private final CountDownLatch receiverHangs = new CountDownLatch(1);
+  private volatile IntUnaryOperator statusForRequest = request -> 200;
+  private HttpServer receiver;
+  private WebhookDispatcher dispatcher;
+
+  @BeforeEach
+  void setUp() throws IOException {
+    receiver = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+    receiver.setExecutor(Executors.newCachedThreadPool());
+    receiver.createContext("/hooks", exchange -> {
+      int request = requests.incrementAndGet();
+      JsonNode events = MAPPER.readTree(exchange.getRequestBody().readAllBytes());
+      int status = statusForRequest.applyAsInt(request);
+      if (status < 0) {
+        try {
+          receiverHangs.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+        status = 200;
+      }
+      if (status == 200) {
+        deliveries.add(new Delivery(exchange.getRequestHeaders().getFirst(WebhookDispatcher.ATTEMPT_HEADER), events));
+      }
+      exchange.sendResponseHeaders(status, -1);
+      exchange.close();
+    });
+    receiver.start();
+  }
+
+  @AfterEach
+  void tearDown() {
+    receiverHangs.countDown();
+    if (dispatcher != null) {
+      dispatcher.shutdown();
+    }
+    receiver.stop(0);
+  }
+
+  private WebhookDispatcher dispatcher(int queueCapacity, int batchSize, int maxInFlight, int maxAttempts) {
+    String url = "http://127.0.0.1:" + receiver.getAddress().getPort() + "/hooks";
+    return new WebhookDispatcher(new PaymentJsonCodec(), List.of(url), queueCapacity, batchSize,
+        maxInFlight, maxAttempts, 10, 50, 5_000, 100);
+  }
+
+  private static PostPaymentResponse payment(PaymentStatus status) {
+    PostPaymentResponse payment = new PostPaymentResponse();
+    payment.setId(UUID.randomUUID());
+    payment.setStatus(status);
+    payment.setCardNumberLastFour("3456");
+    payment.setExpiryMonth(12);
+    payment.setExpiryYear(2030);
+    payment.setCurrency("GBP");
+    payment.setAmount(100);
+    return payment;
+  }
+
+  private int deliveredEvents() {
+    return deliveries.stream().mapToInt(delivery -> delivery.events().size()).sum();
+  }
+
+  private static void awaitTrue(Callable<Boolean> condition) throws Exception {
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+    while (!condition.call()) {
+      if (System.nanoTime() > deadline) {
+        throw new AssertionError("Condition not met within 10 seconds");
+      }
+      Thread.sleep(10);
+    }
+  }
+
+  @Test
+  @DisplayName("publish delivers one event per payment with its type and payment")
+  void publish_DeliversEvents() throws Exception {
+    dispatcher = dispatcher(100, 50, 4, 3);
+    PostPaymentResponse authorized = payment(PaymentStatus.AUTHORIZED);
+    PostPaymentResponse declined = payment(PaymentStatus.DECLINED);
+
+    dispatcher.publish(authorized);
+    dispatcher.publish(declined);
+
+    awaitTrue(() -> deliveredEvents() == 2);
+    List<JsonNode> events = deliveries.stream()
+        .flatMap(delivery -> toList(delivery.events()).stream())
+        .toList();
+    assertThat(events).extracting(event -> event.get("type").asText())
+        .containsExactlyInAnyOrder("payment.authorized", "payment.declined");
+    assertThat(events).extracting(event -> event.get("payment").get("id").asText())
+        .containsExactlyInAnyOrder(authorized.getId().toString(), declined.getId().toString());
+    assertThat(events.get(0).get("payment").get("card_number_last_four").asText()).isEqualTo("3456");
+    assertThat(deliveries).extracting(Delivery::attempt).containsOnly("1");
+    awaitTrue(() -> dispatcher.endpoints().get(0).getDelivered() == 2);
+  }
+
+  @Test
+  @DisplayName("events queued while a request is outstanding are sent together in the next batch")
+  void publish_BatchesQueuedEvents() throws Exception {
+    statusForRequest = request -> request == 1 ? -1 : 200;
+    dispatcher = dispatcher(100, 50, 1, 3);
+    dispatcher.publish(payment(PaymentStatus.AUTHORIZED));
+    awaitTrue(() -> requests.get() == 1);
+
+    for (int i = 0; i < 20; i++) {
+      dispatcher.publish(payment(PaymentStatus.AUTHORIZED));
+    }
+    assertThat(dispatcher.endpoints().get(0).getQueued()).isEqualTo(20);
+    receiverHangs.countDown();
+
+    awaitTrue(() -> deliveredEvents() == 21);
+    assertThat(deliveries).extracting(delivery -> delivery.events().size()).containsExactly(1, 20);
+  }
+
+  @Test
+  @DisplayName("failed deliveries are retried until the receiver accepts them")
+  void publish_RetriesFailedDeliveries() throws Exception {
+    statusForRequest = request -> request <= 2 ? 500 : 200;
+    dispatcher = dispatcher(100, 50, 4, 5);
+
+    dispatcher.publish(payment(PaymentStatus.REJECTED));
+
+    awaitTrue(() -> deliveredEvents() == 1);
+    assertThat(deliveries.get(0).attempt()).isEqualTo("3");
+    awaitTrue(() -> dispatcher.endpoints().get(0).getDelivered() == 1);
+    assertThat(dispatcher.endpoints().get(0).getFailedAttempts()).isEqualTo(2);
+    assertThat(dispatcher.deadLetters()).isEmpty();
+  }
+
+  @Test
+  @DisplayName("events are dead-lettered after the last attempt and can be redelivered")
+  void publish_DeadLettersAfterMaxAttempts() throws Exception {
+    statusForRequest = request -> 503;
+    dispatcher = dispatcher(100, 50, 4, 3);
+    PostPaymentResponse payment = payment(PaymentStatus.DECLINED);
+
+    dispatcher.publish(payment);
+
+    awaitTrue(() -> dispatcher.deadLetters().size() == 1);
+    WebhookDeadLetter letter = dispatcher.deadLetters().get(0);
+    assertThat(letter.getPaymentId()).isEqualTo(payment.getId());
+    assertThat(letter.getAttempts()).isEqualTo(3);
+    assertThat(letter.getReason()).isEqualTo("HTTP 503");
+    assertThat(requests.get()).isEqualTo(3);
+
+    statusForRequest = request -> 200;
+    assertThat(dispatcher.redeliverDeadLetters()).isEqualTo(1);
+    awaitTrue(() -> deliveredEvents() == 1);
+    assertThat(deliveries.get(0).events().get(0).get("id").asText()).isEqualTo(letter.getEventId().toString());
+    assertThat(dispatcher.deadLetters()).isEmpty();
+  }
+
+  @Test
+  @DisplayName("publish does not wait for a hanging receiver and dead-letters what does not fit in the queue")
+  void publish_NeverBlocks_WhenReceiverHangs() throws Exception {
+    statusForRequest = request -> -1;
+    dispatcher = dispatcher(2, 1, 1, 3);
+    dispatcher.publish(payment(PaymentStatus.AUTHORIZED));
+    awaitTrue(() -> requests.get() == 1);
+
+    long started = System.nanoTime();
+    for (int i = 0; i < 10; i++) {
+      dispatcher.publish(payment(PaymentStatus.AUTHORIZED));
+    }
+    long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+
+    assertThat(elapsedMillis).isLessThan(1_000);
+    assertThat(dispatcher.endpoints().get(0).getQueued()).isEqualTo(2);
+    assertThat(dispatcher.deadLetters()).hasSize(8)
+        .allSatisfy(letter -> assertThat(letter.getReason()).isEqualTo("Queue full"));
+    receiverHangs.countDown();
+    awaitTrue(() -> deliveredEvents() == 3);
+  }
+
+  private static List<JsonNode> toList(JsonNode array) {
+    List<JsonNode> nodes = new ArrayList<>();
+    array.forEach(nodes::add);
+    return nodes;
+  }
+
+  private record Delivery(String attempt, JsonNode events) {
+  }
+}